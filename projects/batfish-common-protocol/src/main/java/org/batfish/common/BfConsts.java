@@ -45,6 +45,7 @@ public class BfConsts {
   public static final String ARG_BDP_PRINT_ALL_ITERATIONS = "bdpprintalliterations";
   public static final String ARG_BDP_PRINT_OSCILLATING_ITERATIONS = "bdpprintoscillatingiterations";
   public static final String ARG_BDP_RECORD_ALL_ITERATIONS = "bdprecordalliterations";
+  public static final String ARG_CONCURRENT_BDD_FACTORY = "concurrentbddfactory";
   public static final String ARG_CONTAINER = "container";
   public static final String ARG_DELTA_TESTRIG = "deltatestrig";
   public static final String ARG_DIFFERENTIAL = "differential";
@@ -143,12 +144,19 @@ public class BfConsts {
   public static final String RELPATH_QUESTION_FILE = "question.json";
 
   public static final String SVC_BASE_RSC = "/batfishservice";
+  public static final String SVC_CACHE_STATS_KEY = "cachestats";
+  public static final String SVC_CAPACITY_KEY = "capacity";
   public static final String SVC_FAILURE_KEY = "failure";
   public static final String SVC_GET_STATUS_RSC = "getstatus";
   public static final String SVC_GET_TASKSTATUS_RSC = "gettaskstatus";
+  public static final String SVC_IDLE_KEY = "idle";
+  public static final String SVC_NETWORK_ID_KEY = "networkid";
   public static final Integer SVC_PORT = 9999;
   public static final String SVC_RUN_TASK_RSC = "run";
+  public static final String SVC_SNAPSHOT_ID_KEY = "snapshotid";
   public static final String SVC_SUCCESS_KEY = "success";
   public static final String SVC_TASK_KEY = "task";
   public static final String SVC_TASKID_KEY = "taskid";
+  public static final String SVC_WARM_DATA_PLANES_KEY = "warmdataplanes";
+  public static final String SVC_WARM_SNAPSHOTS_KEY = "warmsnapshots";
 }
@@ -58,7 +58,12 @@ public final class ColumnFilter {
   }
 
   public boolean matches(@Nonnull Row row) {
-    return row.get(_column).toString().toLowerCase().contains(_filterText.toLowerCase());
+    return matchesJsonText(row.get(_column).toString());
+  }
+
+  /** Returns whether a cell of the filtered column whose JSON text is {@code jsonText} matches. */
+  public boolean matchesJsonText(@Nonnull String jsonText) {
+    return jsonText.toLowerCase().contains(_filterText.toLowerCase());
   }
 
   @Override
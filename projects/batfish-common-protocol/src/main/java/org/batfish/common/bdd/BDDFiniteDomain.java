@@ -64,7 +64,8 @@ public final class BDDFiniteDomain<V> {
     _bddToValue = _valueToBdd.inverse();
   }
 
-  private static int computeBitsRequired(int size) {
+  /** Returns the number of bits a variable needs to represent {@code size} distinct values. */
+  public static int computeBitsRequired(int size) {
     if (size < 2) {
       return 0;
     }
@@ -385,7 +385,7 @@ public class BDDInteger {
   }
 
   /** Returns a {@link BDD} containing all the variables of this {@link BDDInteger}. */
-  public @Nonnull BDD getVars() {
+  public synchronized @Nonnull BDD getVars() {
     checkState(
         _hasVariablesOnly,
         "getVars can only be called on a BDDInteger with hasVariablesOnly() true");
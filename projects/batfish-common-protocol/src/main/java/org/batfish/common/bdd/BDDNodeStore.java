@@ -0,0 +1,198 @@
+package org.batfish.common.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Compact binary format for a set of named {@link BDD BDDs}, used to persist BDDs across {@link
+ * BDDFactory} instances (e.g. across questions).
+ *
+ * <p>The format is a header, the nodes reachable from the roots, and the roots themselves. Each
+ * node is three ints: its variable and references to its low and high children. Reference 0 is
+ * false, 1 is true, and {@code i + 2} is the {@code i}-th node. Nodes are written children first,
+ * so that they can be rebuilt in a single pass. Variables are stored by index, not level, so a
+ * store can be read into any factory that allocates the same variables, regardless of its variable
+ * order.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDNodeStore {
+  private static final int MAGIC = 0x42444453; // "BDDS"
+  private static final int VERSION = 1;
+
+  private static final int FALSE_REF = 0;
+  private static final int TRUE_REF = 1;
+  private static final int FIRST_NODE_REF = 2;
+
+  private BDDNodeStore() {}
+
+  /** A node being exported, with its children. */
+  private static final class Frame {
+    private final BDD _node;
+    private final BDD _low;
+    private final BDD _high;
+
+    private Frame(BDD node) {
+      _node = node;
+      _low = node.low();
+      _high = node.high();
+    }
+  }
+
+  /** Writes the given named {@link BDD BDDs} to {@code out}. */
+  public static void write(Map<String, BDD> roots, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    Map<BDD, Integer> refs = new HashMap<>();
+    List<BDD> created = new ArrayList<>();
+    List<int[]> nodes = new ArrayList<>();
+    int maxVar = -1;
+    try {
+      Deque<Frame> stack = new ArrayDeque<>();
+      for (BDD root : roots.values()) {
+        if (ref(root, refs) >= 0) {
+          continue;
+        }
+        stack.push(new Frame(root));
+        while (!stack.isEmpty()) {
+          Frame frame = stack.peek();
+          if (ref(frame._node, refs) >= 0) {
+            // reached through another parent after this frame was pushed
+            stack.pop();
+            created.add(frame._low);
+            created.add(frame._high);
+            continue;
+          }
+          int low = ref(frame._low, refs);
+          int high = ref(frame._high, refs);
+          if (low < 0) {
+            stack.push(new Frame(frame._low));
+            continue;
+          }
+          if (high < 0) {
+            stack.push(new Frame(frame._high));
+            continue;
+          }
+          stack.pop();
+          created.add(frame._low);
+          created.add(frame._high);
+          int var = frame._node.var();
+          maxVar = Math.max(maxVar, var);
+          refs.put(frame._node, FIRST_NODE_REF + nodes.size());
+          nodes.add(new int[] {var, low, high});
+        }
+      }
+
+      data.writeInt(MAGIC);
+      data.writeInt(VERSION);
+      data.writeInt(maxVar + 1);
+      data.writeInt(nodes.size());
+      for (int[] node : nodes) {
+        data.writeInt(node[0]);
+        data.writeInt(node[1]);
+        data.writeInt(node[2]);
+      }
+      data.writeInt(roots.size());
+      for (Entry<String, BDD> root : roots.entrySet()) {
+        byte[] name = root.getKey().getBytes(StandardCharsets.UTF_8);
+        data.writeInt(name.length);
+        data.write(name);
+        data.writeInt(ref(root.getValue(), refs));
+      }
+      data.flush();
+    } finally {
+      created.forEach(BDD::free);
+    }
+  }
+
+  /** Returns the reference for the given {@link BDD}, or -1 if it has not been written yet. */
+  private static int ref(BDD bdd, Map<BDD, Integer> refs) {
+    if (bdd.isZero()) {
+      return FALSE_REF;
+    } else if (bdd.isOne()) {
+      return TRUE_REF;
+    }
+    return refs.getOrDefault(bdd, -1);
+  }
+
+  /**
+   * Reads named {@link BDD BDDs} written by {@link #write(Map, OutputStream)} into {@code factory},
+   * from the current position of {@code buffer} (typically a memory-mapped file).
+   *
+   * @throws IOException if the buffer is not a valid store, or uses variables {@code factory} does
+   *     not have.
+   */
+  public static @Nonnull Map<String, BDD> read(BDDFactory factory, ByteBuffer buffer)
+      throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a BDD node store");
+      }
+      int numVars = buffer.getInt();
+      if (numVars > factory.varNum()) {
+        throw new IOException(
+            String.format(
+                "BDD node store uses %d variables, but the factory has %d",
+                numVars, factory.varNum()));
+      }
+      int numNodes = buffer.getInt();
+      checkArgument(numNodes >= 0, "Invalid node count: %s", numNodes);
+      List<BDD> nodes = new ArrayList<>(FIRST_NODE_REF + numNodes);
+      nodes.add(factory.zero());
+      nodes.add(factory.one());
+      try {
+        for (int i = 0; i < numNodes; i++) {
+          int var = buffer.getInt();
+          BDD low = node(nodes, buffer.getInt());
+          BDD high = node(nodes, buffer.getInt());
+          if (var < 0 || var >= numVars) {
+            throw new IOException("Invalid variable in BDD node store: " + var);
+          }
+          // Since children are below var in the original order, this is a single mk in the same
+          // order, and still correct in any other.
+          BDD v = factory.ithVar(var);
+          nodes.add(v.ite(high, low));
+          v.free();
+        }
+        int numRoots = buffer.getInt();
+        ImmutableMap.Builder<String, BDD> roots = ImmutableMap.builder();
+        for (int i = 0; i < numRoots; i++) {
+          byte[] name = new byte[buffer.getInt()];
+          buffer.get(name);
+          roots.put(new String(name, StandardCharsets.UTF_8), node(nodes, buffer.getInt()).id());
+        }
+        return roots.build();
+      } finally {
+        nodes.forEach(BDD::free);
+      }
+    } catch (BufferUnderflowException
+        | IllegalArgumentException
+        | IndexOutOfBoundsException
+        | NegativeArraySizeException e) {
+      throw new IOException("Truncated or corrupt BDD node store", e);
+    }
+  }
+
+  private static BDD node(List<BDD> nodes, int ref) throws IOException {
+    if (ref < 0 || ref >= nodes.size()) {
+      throw new IOException("Invalid node reference in BDD node store: " + ref);
+    }
+    return nodes.get(ref);
+  }
+}
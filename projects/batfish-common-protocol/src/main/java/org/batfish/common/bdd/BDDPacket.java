@@ -16,6 +16,7 @@ import javax.annotation.Nonnull;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.BDDPairing;
+import net.sf.javabdd.ConcurrentJFactory;
 import net.sf.javabdd.JFactory;
 import org.batfish.common.BatfishException;
 import org.batfish.common.bdd.BDDFlowConstraintGenerator.FlowPreference;
@@ -107,7 +108,40 @@ public class BDDPacket {
    * various attributes of a control plane advertisement.
    */
   public BDDPacket() {
-    _factory = JFactory.init(JFACTORY_INITIAL_NODE_TABLE_SIZE, JFACTORY_INITIAL_NODE_CACHE_SIZE);
+    this(JFactory.init(JFACTORY_INITIAL_NODE_TABLE_SIZE, JFACTORY_INITIAL_NODE_CACHE_SIZE));
+  }
+
+  /**
+   * Creates a packet whose factory starts with a node table of {@code initialNodeTableSize} nodes
+   * instead of the default. The table still grows as needed, so a smaller initial size saves memory
+   * when many packets each build few BDDs.
+   */
+  public static BDDPacket withInitialNodeTableSize(int initialNodeTableSize) {
+    return new BDDPacket(
+        JFactory.init(
+            initialNodeTableSize,
+            (initialNodeTableSize + JFACTORY_CACHE_RATIO - 1) / JFACTORY_CACHE_RATIO));
+  }
+
+  /** Creates a packet whose BDDs may be built from multiple threads at once. */
+  public static BDDPacket createConcurrent() {
+    return new BDDPacket(
+        ConcurrentJFactory.init(
+            JFACTORY_INITIAL_NODE_TABLE_SIZE, JFACTORY_INITIAL_NODE_CACHE_SIZE));
+  }
+
+  /** Returns {@code true} iff BDDs of this packet may be built from multiple threads at once. */
+  public boolean isConcurrent() {
+    return _factory instanceof ConcurrentJFactory;
+  }
+
+  /**
+   * Creates the packet variables in the given factory, which must not have any variables yet. Use a
+   * {@link ConcurrentJFactory} to build BDDs from multiple threads.
+   */
+  public BDDPacket(BDDFactory factory) {
+    checkArgument(factory.varNum() == 0, "BDDPacket requires a factory without variables");
+    _factory = factory;
     _factory.setCacheRatio(JFACTORY_CACHE_RATIO);
     // Do not impose a maximum node table increase
     _factory.setMaxIncrease(0);
@@ -199,7 +233,7 @@ public class BDDPacket {
    * @param name Used for debugging.
    * @return A {@link BDD} representing the sentence "this variable is true" for the new variable.
    */
-  public BDD allocateBDDBit(String name) {
+  public synchronized BDD allocateBDDBit(String name) {
     if (_factory.varNum() < _nextFreeBDDVarIdx + 1) {
       _factory.setVarNum(_nextFreeBDDVarIdx + 1);
     }
@@ -217,7 +251,7 @@ public class BDDPacket {
    * @param reverse If true, reverse the BDD order of the bits.
    * @return The new variable.
    */
-  public BDDInteger allocateBDDInteger(String name, int bits, boolean reverse) {
+  public synchronized BDDInteger allocateBDDInteger(String name, int bits, boolean reverse) {
     if (_factory.varNum() < _nextFreeBDDVarIdx + bits) {
       _factory.setVarNum(_nextFreeBDDVarIdx + bits);
     }
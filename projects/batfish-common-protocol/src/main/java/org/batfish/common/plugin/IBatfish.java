@@ -29,6 +29,7 @@ import org.batfish.datamodel.answers.InitInfoAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.questions.InvalidReachabilityParametersException;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.grammar.BgpTableFormat;
 import org.batfish.identifiers.NetworkId;
@@ -152,6 +153,12 @@ public interface IBatfish extends IPluginConsumer {
 
   DataPlane loadDataPlane(NetworkSnapshot snapshot);
 
+  /**
+   * Returns the data plane of the snapshot that the given snapshot was forked from, if there is one
+   * and its data plane has already been computed.
+   */
+  Optional<DataPlane> loadParentDataPlane(NetworkSnapshot snapshot);
+
   SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(NetworkSnapshot snapshot);
 
   ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement(
@@ -192,6 +199,16 @@ public interface IBatfish extends IPluginConsumer {
 
   AnswerElement standard(NetworkSnapshot snapshot, ReachabilityParameters reachabilityParameters);
 
+  /**
+   * Computes the flows that answer a reachability query, without tracing them. The flows are those
+   * {@link #standard(NetworkSnapshot, ReachabilityParameters)} traces.
+   *
+   * @throws InvalidReachabilityParametersException if the parameters cannot be resolved
+   */
+  Set<Flow> bddReachabilityFlows(
+      NetworkSnapshot snapshot, ReachabilityParameters reachabilityParameters)
+      throws InvalidReachabilityParametersException;
+
   Set<Flow> bddLoopDetection(NetworkSnapshot snapshot);
 
   Set<Flow> bddMultipathConsistency(
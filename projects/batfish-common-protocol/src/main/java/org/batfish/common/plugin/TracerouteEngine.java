@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.function.BiConsumer;
 import org.batfish.common.traceroute.TraceDag;
 import org.batfish.common.util.CollectionUtil;
 import org.batfish.datamodel.Flow;
@@ -64,4 +65,38 @@ public interface TracerouteEngine {
   /** Computes {@link TraceDag} for a {@link Set} of forward {@link Flow Flows}. */
   Map<Flow, TraceDag> computeTraceDags(
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters);
+
+  /**
+   * Computes {@link Trace Traces} for forward {@link Flow Flows}, passing the traces of each flow
+   * to {@code consumer} instead of collecting them all. Implementations may compute traces
+   * incrementally, so that memory use does not grow with the number of flows.
+   *
+   * <p>{@code consumer} is called on the calling thread, once per flow, in the iteration order of
+   * {@code flows}.
+   *
+   * @param flows distinct {@link Flow Flows} for which {@link Trace Traces} are to be found
+   * @param ignoreFilters if true, will ignore ACLs
+   * @param consumer receives each flow and its traces
+   */
+  default void streamTraces(
+      Iterable<Flow> flows, boolean ignoreFilters, BiConsumer<Flow, List<Trace>> consumer) {
+    Set<Flow> flowSet = ImmutableSet.copyOf(flows);
+    SortedMap<Flow, List<Trace>> traces = computeTraces(flowSet, ignoreFilters);
+    flowSet.forEach(flow -> consumer.accept(flow, traces.get(flow)));
+  }
+
+  /**
+   * Computes {@link TraceDag TraceDags} for forward {@link Flow Flows}, passing each to {@code
+   * consumer} instead of collecting them all. See {@link #streamTraces(Iterable, boolean,
+   * BiConsumer)}.
+   */
+  default void streamTraceDags(
+      Iterable<Flow> flows,
+      Set<FirewallSessionTraceInfo> sessions,
+      boolean ignoreFilters,
+      BiConsumer<Flow, TraceDag> consumer) {
+    Set<Flow> flowSet = ImmutableSet.copyOf(flows);
+    Map<Flow, TraceDag> dags = computeTraceDags(flowSet, sessions, ignoreFilters);
+    flowSet.forEach(flow -> consumer.accept(flow, dags.get(flow)));
+  }
 }
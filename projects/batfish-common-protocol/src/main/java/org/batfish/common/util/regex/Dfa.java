@@ -0,0 +1,252 @@
+package org.batfish.common.util.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.regex.Nfa.State;
+
+/**
+ * A DFA that decides whether a regex matches some substring of the input (i.e., {@link
+ * java.util.regex.Matcher#find()}), in a single left-to-right pass over the input.
+ *
+ * <p>Characters are mapped to equivalence classes: two characters are in the same class if every
+ * character set in the regex contains both or neither. Once a match has been seen, the DFA moves to
+ * {@link #MATCH}, so callers can stop early.
+ */
+@ParametersAreNonnullByDefault
+final class Dfa {
+
+  /** The state reached once a match has been found, regardless of the rest of the input. */
+  static final int MATCH = -1;
+
+  /** Upper bound on the number of states, beyond which the regex is not compiled. */
+  private static final int MAX_STATES = 4096;
+
+  private static final int ASCII = 128;
+
+  /** Returns the DFA for the given NFA, or {@code null} if it is too large. */
+  static @Nullable Dfa create(Nfa nfa) {
+    return new Builder(nfa).build();
+  }
+
+  private Dfa(
+      int[] boundaries,
+      int[] asciiClasses,
+      int[] transitions,
+      boolean[] acceptAtEnd,
+      boolean matchesAtStart) {
+    _boundaries = boundaries;
+    _asciiClasses = asciiClasses;
+    _numClasses = boundaries.length;
+    _transitions = transitions;
+    _acceptAtEnd = acceptAtEnd;
+    _matchesAtStart = matchesAtStart;
+  }
+
+  /** The smallest character in each character class, ascending. The first is always 0. */
+  private final @Nonnull int[] _boundaries;
+
+  /** The character class of each ASCII character. */
+  private final @Nonnull int[] _asciiClasses;
+
+  private final int _numClasses;
+
+  /** The next state for each state and character class, in row-major order. */
+  private final @Nonnull int[] _transitions;
+
+  /** Whether the input matches if it ends in each state. */
+  private final @Nonnull boolean[] _acceptAtEnd;
+
+  /** Whether the empty prefix of the input already matches, i.e. every input matches. */
+  private final boolean _matchesAtStart;
+
+  /** The state before reading any input, or {@link #MATCH} if every input matches. */
+  int start() {
+    return _matchesAtStart ? MATCH : 0;
+  }
+
+  /** The state after reading {@code c} in {@code state}, which must not be {@link #MATCH}. */
+  int step(int state, char c) {
+    int charClass;
+    if (c < ASCII) {
+      charClass = _asciiClasses[c];
+    } else {
+      int i = Arrays.binarySearch(_boundaries, c);
+      charClass = i >= 0 ? i : -i - 2;
+    }
+    return _transitions[state * _numClasses + charClass];
+  }
+
+  /** Whether the input matches if it ends in {@code state}. */
+  boolean acceptsAtEnd(int state) {
+    return state == MATCH || _acceptAtEnd[state];
+  }
+
+  private static final class Builder {
+    Builder(Nfa nfa) {
+      _nfa = nfa;
+      _states = nfa.getStates();
+      TreeSet<Integer> boundaries = new TreeSet<>();
+      boundaries.add(0);
+      for (State state : _states) {
+        for (int[] ranges : state._charRanges) {
+          for (int i = 0; i < ranges.length; i += 2) {
+            boundaries.add(ranges[i]);
+            if (ranges[i + 1] < RegexParser.MAX_CHAR) {
+              boundaries.add(ranges[i + 1] + 1);
+            }
+          }
+        }
+      }
+      _boundaries = boundaries.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private final @Nonnull Nfa _nfa;
+    private final @Nonnull List<State> _states;
+    private final @Nonnull int[] _boundaries;
+
+    @Nullable
+    Dfa build() {
+      int numClasses = _boundaries.length;
+      int accept = _nfa.getAccept();
+
+      BitSet initial = closure(set(_nfa.getStart()), true, false);
+      if (initial.get(accept)) {
+        return new Dfa(_boundaries, asciiClasses(), new int[0], new boolean[0], true);
+      }
+      // Unanchored search: a match may begin after any character.
+      BitSet restart = closure(set(_nfa.getStart()), false, false);
+
+      // The initial state is kept distinct from all others, since only it is at the start of input.
+      List<BitSet> dfaStates = new ArrayList<>();
+      Map<BitSet, Integer> ids = new HashMap<>();
+      dfaStates.add(initial);
+      Deque<Integer> worklist = new ArrayDeque<>();
+      worklist.add(0);
+      List<int[]> rows = new ArrayList<>();
+      List<Boolean> acceptAtEnd = new ArrayList<>();
+      while (!worklist.isEmpty()) {
+        int id = worklist.poll();
+        BitSet current = dfaStates.get(id);
+        int[] row = new int[numClasses];
+        for (int charClass = 0; charClass < numClasses; charClass++) {
+          BitSet next = move(current, _boundaries[charClass]);
+          next.or(restart);
+          next = closure(next, false, false);
+          if (next.get(accept)) {
+            row[charClass] = MATCH;
+            continue;
+          }
+          Integer nextId = ids.get(next);
+          if (nextId == null) {
+            if (dfaStates.size() >= MAX_STATES) {
+              return null;
+            }
+            nextId = dfaStates.size();
+            dfaStates.add(next);
+            ids.put(next, nextId);
+            worklist.add(nextId);
+          }
+          row[charClass] = nextId;
+        }
+        while (rows.size() <= id) {
+          rows.add(null);
+          acceptAtEnd.add(false);
+        }
+        rows.set(id, row);
+        acceptAtEnd.set(id, closure(current, id == 0, true).get(accept));
+      }
+
+      int[] transitions = new int[rows.size() * numClasses];
+      boolean[] acceptAtEndArray = new boolean[rows.size()];
+      for (int id = 0; id < rows.size(); id++) {
+        System.arraycopy(rows.get(id), 0, transitions, id * numClasses, numClasses);
+        acceptAtEndArray[id] = acceptAtEnd.get(id);
+      }
+      return new Dfa(_boundaries, asciiClasses(), transitions, acceptAtEndArray, false);
+    }
+
+    private int[] asciiClasses() {
+      int[] classes = new int[ASCII];
+      int charClass = 0;
+      for (int c = 0; c < ASCII; c++) {
+        while (charClass + 1 < _boundaries.length && _boundaries[charClass + 1] <= c) {
+          charClass++;
+        }
+        classes[c] = charClass;
+      }
+      return classes;
+    }
+
+    private static BitSet set(int state) {
+      BitSet set = new BitSet();
+      set.set(state);
+      return set;
+    }
+
+    /** The states reached from {@code states} by consuming {@code c}. */
+    private BitSet move(BitSet states, int c) {
+      BitSet result = new BitSet();
+      for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+        State state = _states.get(s);
+        for (int i = 0; i < state._charRanges.size(); i++) {
+          if (contains(state._charRanges.get(i), c)) {
+            result.set(state._charTargets.get(i));
+          }
+        }
+      }
+      return result;
+    }
+
+    /**
+     * The states reachable from {@code states} without consuming input, where {@code ^} and {@code
+     * $} transitions are enabled if at the start and end of the input respectively.
+     */
+    private BitSet closure(BitSet states, boolean atStart, boolean atEnd) {
+      BitSet result = (BitSet) states.clone();
+      Deque<Integer> worklist = new ArrayDeque<>();
+      states.stream().forEach(worklist::add);
+      while (!worklist.isEmpty()) {
+        State state = _states.get(worklist.poll());
+        addAll(result, worklist, state._epsilonTargets);
+        if (atStart) {
+          addAll(result, worklist, state._startTargets);
+        }
+        if (atEnd) {
+          addAll(result, worklist, state._endTargets);
+        }
+      }
+      return result;
+    }
+
+    private static void addAll(BitSet result, Deque<Integer> worklist, List<Integer> targets) {
+      for (int target : targets) {
+        if (!result.get(target)) {
+          result.set(target);
+          worklist.add(target);
+        }
+      }
+    }
+
+    private static boolean contains(int[] ranges, int c) {
+      for (int i = 0; i < ranges.length; i += 2) {
+        if (c < ranges[i]) {
+          return false;
+        }
+        if (c <= ranges[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package org.batfish.common.util.regex;
+
+import static org.batfish.common.util.regex.Dfa.MATCH;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.AsSet;
+
+/**
+ * A {@link RegexMatcher} backed by a {@link Dfa}, so matching takes time linear in the input
+ * regardless of the regex.
+ *
+ * <p>The few inputs on which the DFA could disagree with {@link Pattern} (inputs containing
+ * surrogate pairs, and inputs ending in a line terminator, before which {@code $} also matches) are
+ * delegated to the {@link Pattern}.
+ */
+@ParametersAreNonnullByDefault
+final class DfaRegexMatcher implements RegexMatcher {
+
+  DfaRegexMatcher(Pattern pattern, Dfa dfa) {
+    _pattern = pattern;
+    _dfa = dfa;
+  }
+
+  private final @Nonnull Pattern _pattern;
+  private final @Nonnull Dfa _dfa;
+
+  @Override
+  public @Nonnull String getRegex() {
+    return _pattern.pattern();
+  }
+
+  @Override
+  public boolean find(CharSequence input) {
+    int length = input.length();
+    if (length > 0 && isLineTerminator(input.charAt(length - 1))) {
+      return _pattern.matcher(input).find();
+    }
+    int state = _dfa.start();
+    for (int i = 0; i < length && state != MATCH; i++) {
+      char c = input.charAt(i);
+      if (Character.isSurrogate(c)) {
+        return _pattern.matcher(input).find();
+      }
+      state = _dfa.step(state, c);
+    }
+    return _dfa.acceptsAtEnd(state);
+  }
+
+  /**
+   * Runs the DFA over the characters of {@link AsPath#getAsPathString()} as they are rendered,
+   * without building the string.
+   */
+  @Override
+  public boolean find(AsPath asPath) {
+    int state = _dfa.start();
+    List<AsSet> asSets = asPath.getAsSets();
+    for (int i = 0; i < asSets.size() && state != MATCH; i++) {
+      if (i > 0) {
+        state = _dfa.step(state, ' ');
+      }
+      AsSet asSet = asSets.get(i);
+      int size = asSet.size();
+      if (size == 1) {
+        state = stepAsn(state, asSet.getAsn(0));
+        continue;
+      }
+      state = step(state, '{');
+      for (int j = 0; j < size && state != MATCH; j++) {
+        if (j > 0) {
+          state = _dfa.step(state, ',');
+        }
+        state = stepAsn(state, asSet.getAsn(j));
+      }
+      state = step(state, '}');
+    }
+    return _dfa.acceptsAtEnd(state);
+  }
+
+  private int step(int state, char c) {
+    return state == MATCH ? MATCH : _dfa.step(state, c);
+  }
+
+  /** Steps through the decimal digits of {@code asn}, as rendered by {@link Long#toString()}. */
+  private int stepAsn(int state, long asn) {
+    if (asn < 0) {
+      String digits = Long.toString(asn);
+      for (int i = 0; i < digits.length(); i++) {
+        state = step(state, digits.charAt(i));
+      }
+      return state;
+    }
+    long divisor = 1;
+    while (asn / divisor >= 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0 && state != MATCH; divisor /= 10) {
+      state = _dfa.step(state, (char) ('0' + (asn / divisor) % 10));
+    }
+    return state;
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
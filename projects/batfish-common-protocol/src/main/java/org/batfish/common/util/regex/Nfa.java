@@ -0,0 +1,146 @@
+package org.batfish.common.util.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.regex.RegexParser.AltNode;
+import org.batfish.common.util.regex.RegexParser.AnchorNode;
+import org.batfish.common.util.regex.RegexParser.CharSetNode;
+import org.batfish.common.util.regex.RegexParser.ConcatNode;
+import org.batfish.common.util.regex.RegexParser.Node;
+import org.batfish.common.util.regex.RegexParser.RepeatNode;
+
+/**
+ * A Thompson NFA for a parsed regex. Besides character and epsilon transitions, states may have
+ * transitions that are only enabled at the start or end of the input, for {@code ^} and {@code $}.
+ */
+@ParametersAreNonnullByDefault
+final class Nfa {
+
+  static final class State {
+    /** Ranges of each character transition, as in {@link CharSetNode}. */
+    final List<int[]> _charRanges = new ArrayList<>(1);
+
+    final List<Integer> _charTargets = new ArrayList<>(1);
+    final List<Integer> _epsilonTargets = new ArrayList<>(2);
+    final List<Integer> _startTargets = new ArrayList<>(0);
+    final List<Integer> _endTargets = new ArrayList<>(0);
+  }
+
+  /** Upper bound on the number of states, beyond which the regex is not compiled. */
+  private static final int MAX_STATES = 10_000;
+
+  /** Returns the NFA for the given regex, or {@code null} if it is too large. */
+  static @Nullable Nfa create(Node regex) {
+    Nfa nfa = new Nfa();
+    int start = nfa.newState();
+    int accept = nfa.build(regex, start);
+    if (accept < 0) {
+      return null;
+    }
+    nfa._start = start;
+    nfa._accept = accept;
+    return nfa;
+  }
+
+  private Nfa() {
+    _states = new ArrayList<>();
+  }
+
+  private final @Nonnull List<State> _states;
+  private int _start;
+  private int _accept;
+
+  @Nonnull
+  List<State> getStates() {
+    return _states;
+  }
+
+  int getStart() {
+    return _start;
+  }
+
+  int getAccept() {
+    return _accept;
+  }
+
+  private int newState() {
+    _states.add(new State());
+    return _states.size() - 1;
+  }
+
+  /**
+   * Adds states matching {@code node} starting from state {@code from}, and returns the state
+   * reached after matching, or -1 if the NFA grew too large.
+   */
+  private int build(Node node, int from) {
+    if (from < 0 || _states.size() > MAX_STATES) {
+      return -1;
+    }
+    if (node instanceof CharSetNode) {
+      int to = newState();
+      State state = _states.get(from);
+      state._charRanges.add(((CharSetNode) node)._ranges);
+      state._charTargets.add(to);
+      return to;
+    } else if (node instanceof AnchorNode) {
+      int to = newState();
+      State state = _states.get(from);
+      (((AnchorNode) node)._start ? state._startTargets : state._endTargets).add(to);
+      return to;
+    } else if (node instanceof ConcatNode) {
+      int current = from;
+      for (Node child : ((ConcatNode) node)._nodes) {
+        current = build(child, current);
+      }
+      return current;
+    } else if (node instanceof AltNode) {
+      int to = newState();
+      for (Node child : ((AltNode) node)._nodes) {
+        int branch = newState();
+        _states.get(from)._epsilonTargets.add(branch);
+        int branchEnd = build(child, branch);
+        if (branchEnd < 0) {
+          return -1;
+        }
+        _states.get(branchEnd)._epsilonTargets.add(to);
+      }
+      return to;
+    } else {
+      assert node instanceof RepeatNode;
+      RepeatNode repeat = (RepeatNode) node;
+      int current = from;
+      for (int i = 0; i < repeat._min; i++) {
+        current = build(repeat._node, current);
+      }
+      if (current < 0) {
+        return -1;
+      }
+      int to = newState();
+      if (repeat._max < 0) {
+        int loop = newState();
+        _states.get(current)._epsilonTargets.add(loop);
+        int loopEnd = build(repeat._node, loop);
+        if (loopEnd < 0) {
+          return -1;
+        }
+        _states.get(loopEnd)._epsilonTargets.add(loop);
+        _states.get(loop)._epsilonTargets.add(to);
+        return to;
+      }
+      for (int i = repeat._min; i < repeat._max; i++) {
+        _states.get(current)._epsilonTargets.add(to);
+        int optional = newState();
+        _states.get(current)._epsilonTargets.add(optional);
+        current = build(repeat._node, optional);
+        if (current < 0) {
+          return -1;
+        }
+      }
+      _states.get(current)._epsilonTargets.add(to);
+      return to;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.batfish.common.util.regex;
+
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+
+/** A {@link RegexMatcher} backed by a {@link Pattern}, for regexes that cannot be a {@link Dfa}. */
+@ParametersAreNonnullByDefault
+final class PatternRegexMatcher implements RegexMatcher {
+
+  PatternRegexMatcher(Pattern pattern) {
+    _pattern = pattern;
+  }
+
+  private final @Nonnull Pattern _pattern;
+
+  @Override
+  public @Nonnull String getRegex() {
+    return _pattern.pattern();
+  }
+
+  @Override
+  public boolean find(CharSequence input) {
+    return _pattern.matcher(input).find();
+  }
+
+  @Override
+  public boolean find(AsPath asPath) {
+    return find(asPath.getAsPathString());
+  }
+}
@@ -0,0 +1,27 @@
+package org.batfish.common.util.regex;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+
+/**
+ * A compiled {@link java.util.regex.Pattern regex}, for deciding whether it matches some part of an
+ * input. Obtain instances from {@link RegexMatchers#fromString(String)}.
+ */
+@ParametersAreNonnullByDefault
+public interface RegexMatcher {
+
+  /** The regex this matcher was compiled from. */
+  String getRegex();
+
+  /**
+   * Returns {@code true} iff the regex matches some substring of {@code input}, like {@link
+   * java.util.regex.Matcher#find()}.
+   */
+  boolean find(CharSequence input);
+
+  /**
+   * Returns {@code true} iff the regex matches some substring of {@link AsPath#getAsPathString()
+   * the string form} of {@code asPath}.
+   */
+  boolean find(AsPath asPath);
+}
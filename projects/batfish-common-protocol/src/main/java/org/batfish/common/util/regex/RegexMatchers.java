@@ -0,0 +1,48 @@
+package org.batfish.common.util.regex;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Cache-based {@link RegexMatcher} provider.
+ *
+ * <p>Regexes are compiled to a {@link Dfa} where possible, so matching routes against AS-path and
+ * community regexes takes linear time and does not backtrack. Regexes using features a DFA cannot
+ * express (e.g., back-references or lookaround) fall back to {@link Pattern}.
+ */
+@ParametersAreNonnullByDefault
+public final class RegexMatchers {
+
+  /** Returns the matcher for the given {@link Pattern Java regex}. */
+  public static @Nonnull RegexMatcher fromString(String regex) {
+    return CACHE.getUnchecked(regex);
+  }
+
+  /** Compiles the given regex, without caching. */
+  @VisibleForTesting
+  static @Nonnull RegexMatcher compile(String regex) {
+    Pattern pattern = Pattern.compile(regex);
+    RegexParser.Node node = RegexParser.parse(regex);
+    if (node == null) {
+      return new PatternRegexMatcher(pattern);
+    }
+    Nfa nfa = Nfa.create(node);
+    Dfa dfa = nfa == null ? null : Dfa.create(nfa);
+    return dfa == null ? new PatternRegexMatcher(pattern) : new DfaRegexMatcher(pattern, dfa);
+  }
+
+  private RegexMatchers() {}
+
+  // Soft values: let it be garbage collected in times of pressure.
+  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
+  private static final LoadingCache<String, RegexMatcher> CACHE =
+      CacheBuilder.newBuilder()
+          .softValues()
+          .maximumSize(1 << 16)
+          .build(CacheLoader.from(RegexMatchers::compile));
+}
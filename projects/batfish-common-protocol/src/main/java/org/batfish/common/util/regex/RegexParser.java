@@ -0,0 +1,379 @@
+package org.batfish.common.util.regex;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Parses the subset of {@link java.util.regex.Pattern} syntax that can be compiled to a {@link
+ * Dfa}: literals, character classes (without nesting or intersection), {@code .}, the {@code \d \s
+ * \w} shorthands and their negations, groups, alternation, greedy and reluctant quantifiers, and
+ * the {@code ^} and {@code $} anchors. Anything else (back-references, lookaround, flags,
+ * possessive quantifiers, etc.) is rejected, and the caller falls back to {@link
+ * java.util.regex.Pattern}.
+ *
+ * <p>Input is assumed to already be a valid {@link java.util.regex.Pattern}.
+ */
+@ParametersAreNonnullByDefault
+final class RegexParser {
+
+  /** A node of the parsed regex. */
+  abstract static class Node {}
+
+  /** Matches one character in the given ranges. */
+  static final class CharSetNode extends Node {
+    CharSetNode(int[] ranges) {
+      _ranges = ranges;
+    }
+
+    /** Sorted, disjoint, inclusive ranges, as {@code [lo0, hi0, lo1, hi1, ...]}. */
+    final @Nonnull int[] _ranges;
+  }
+
+  /** Matches the empty string at the start ({@code ^}) or end ({@code $}) of the input. */
+  static final class AnchorNode extends Node {
+    AnchorNode(boolean start) {
+      _start = start;
+    }
+
+    final boolean _start;
+  }
+
+  static final class ConcatNode extends Node {
+    ConcatNode(List<Node> nodes) {
+      _nodes = nodes;
+    }
+
+    final @Nonnull List<Node> _nodes;
+  }
+
+  static final class AltNode extends Node {
+    AltNode(List<Node> nodes) {
+      _nodes = nodes;
+    }
+
+    final @Nonnull List<Node> _nodes;
+  }
+
+  /** Matches between {@code min} and {@code max} repetitions, where max is -1 if unbounded. */
+  static final class RepeatNode extends Node {
+    RepeatNode(Node node, int min, int max) {
+      _node = node;
+      _min = min;
+      _max = max;
+    }
+
+    final @Nonnull Node _node;
+    final int _min;
+    final int _max;
+  }
+
+  static final int MAX_CHAR = Character.MAX_VALUE;
+
+  /** Any character except a line terminator, as matched by {@code .}. */
+  static final int[] DOT = {
+    0, '\n' - 1, '\n' + 1, '\r' - 1, '\r' + 1, 0x84, 0x86, 0x2027, 0x202A, MAX_CHAR
+  };
+
+  private static final int[] DIGIT = {'0', '9'};
+  private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+  private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+
+  /** Upper bound on counted repetitions, since they are expanded when building the NFA. */
+  private static final int MAX_REPEAT = 100;
+
+  /** Returns the parsed regex, or {@code null} if it uses unsupported syntax. */
+  static @Nullable Node parse(String regex) {
+    RegexParser parser = new RegexParser(regex);
+    try {
+      Node node = parser.parseAlt();
+      return parser._pos == regex.length() ? node : null;
+    } catch (UnsupportedRegexException e) {
+      return null;
+    }
+  }
+
+  /** Returns the complement of the given ranges over all characters. */
+  static @Nonnull int[] complement(int[] ranges) {
+    int[] result = new int[ranges.length + 2];
+    int n = 0;
+    int next = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (ranges[i] > next) {
+        result[n++] = next;
+        result[n++] = ranges[i] - 1;
+      }
+      next = ranges[i + 1] + 1;
+    }
+    if (next <= MAX_CHAR) {
+      result[n++] = next;
+      result[n++] = MAX_CHAR;
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  /** Returns the union of the given ranges, which need not be sorted or disjoint. */
+  static @Nonnull int[] normalize(int[] ranges) {
+    int count = ranges.length / 2;
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (i, j) -> Integer.compare(ranges[2 * i], ranges[2 * j]));
+    int[] result = new int[ranges.length];
+    int n = 0;
+    for (int i : order) {
+      int lo = ranges[2 * i];
+      int hi = ranges[2 * i + 1];
+      if (n > 0 && lo <= result[n - 1] + 1) {
+        result[n - 1] = Math.max(result[n - 1], hi);
+      } else {
+        result[n++] = lo;
+        result[n++] = hi;
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  private static final class UnsupportedRegexException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedRegexException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private RegexParser(String regex) {
+    _regex = regex;
+  }
+
+  private final @Nonnull String _regex;
+  private int _pos;
+
+  private boolean atEnd() {
+    return _pos >= _regex.length();
+  }
+
+  private char peek() {
+    return _regex.charAt(_pos);
+  }
+
+  private char next() {
+    if (atEnd()) {
+      throw new UnsupportedRegexException();
+    }
+    char c = _regex.charAt(_pos++);
+    if (Character.isSurrogate(c)) {
+      // matching is by code point, not char
+      throw new UnsupportedRegexException();
+    }
+    return c;
+  }
+
+  private Node parseAlt() {
+    ImmutableList.Builder<Node> branches = ImmutableList.builder();
+    branches.add(parseConcat());
+    while (!atEnd() && peek() == '|') {
+      _pos++;
+      branches.add(parseConcat());
+    }
+    List<Node> nodes = branches.build();
+    return nodes.size() == 1 ? nodes.get(0) : new AltNode(nodes);
+  }
+
+  private Node parseConcat() {
+    ImmutableList.Builder<Node> nodes = ImmutableList.builder();
+    while (!atEnd() && peek() != '|' && peek() != ')') {
+      nodes.add(parseQuantifier(parseAtom()));
+    }
+    return new ConcatNode(nodes.build());
+  }
+
+  private Node parseAtom() {
+    char c = next();
+    switch (c) {
+      case '(':
+        if (!atEnd() && peek() == '?') {
+          _pos++;
+          if (next() != ':') {
+            throw new UnsupportedRegexException();
+          }
+        }
+        Node group = parseAlt();
+        if (next() != ')') {
+          throw new UnsupportedRegexException();
+        }
+        return group;
+      case '[':
+        return new CharSetNode(parseClass());
+      case '.':
+        return new CharSetNode(DOT);
+      case '^':
+        return new AnchorNode(true);
+      case '$':
+        return new AnchorNode(false);
+      case '\\':
+        return new CharSetNode(parseEscape());
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+        throw new UnsupportedRegexException();
+      default:
+        return new CharSetNode(new int[] {c, c});
+    }
+  }
+
+  private Node parseQuantifier(Node atom) {
+    if (atEnd()) {
+      return atom;
+    }
+    int min;
+    int max;
+    switch (peek()) {
+      case '*':
+        _pos++;
+        min = 0;
+        max = -1;
+        break;
+      case '+':
+        _pos++;
+        min = 1;
+        max = -1;
+        break;
+      case '?':
+        _pos++;
+        min = 0;
+        max = 1;
+        break;
+      case '{':
+        _pos++;
+        min = parseInt();
+        if (!atEnd() && peek() == ',') {
+          _pos++;
+          max = !atEnd() && peek() == '}' ? -1 : parseInt();
+        } else {
+          max = min;
+        }
+        if (next() != '}' || min > MAX_REPEAT || max > MAX_REPEAT) {
+          throw new UnsupportedRegexException();
+        }
+        break;
+      default:
+        return atom;
+    }
+    if (!atEnd()) {
+      char c = peek();
+      if (c == '?') {
+        // reluctant: does not change whether there is a match
+        _pos++;
+      } else if (c == '+') {
+        // possessive: does change whether there is a match
+        throw new UnsupportedRegexException();
+      }
+      if (!atEnd() && "*+?{".indexOf(peek()) >= 0) {
+        throw new UnsupportedRegexException();
+      }
+    }
+    return new RepeatNode(atom, min, max);
+  }
+
+  private int parseInt() {
+    int start = _pos;
+    while (!atEnd() && Character.isDigit(peek()) && _pos - start < 4) {
+      _pos++;
+    }
+    if (_pos == start || atEnd() || Character.isDigit(peek())) {
+      throw new UnsupportedRegexException();
+    }
+    return Integer.parseInt(_regex.substring(start, _pos));
+  }
+
+  /** Parses the escape sequence following a backslash. */
+  private int[] parseEscape() {
+    char c = next();
+    switch (c) {
+      case 'd':
+        return DIGIT;
+      case 'D':
+        return complement(DIGIT);
+      case 's':
+        return SPACE;
+      case 'S':
+        return complement(SPACE);
+      case 'w':
+        return WORD;
+      case 'W':
+        return complement(WORD);
+      case 't':
+        return new int[] {'\t', '\t'};
+      case 'n':
+        return new int[] {'\n', '\n'};
+      case 'r':
+        return new int[] {'\r', '\r'};
+      case 'f':
+        return new int[] {'\f', '\f'};
+      case 'a':
+        return new int[] {0x07, 0x07};
+      case 'e':
+        return new int[] {0x1B, 0x1B};
+      default:
+        if (c < 0x80 && !Character.isLetterOrDigit(c)) {
+          return new int[] {c, c};
+        }
+        // back-references, boundaries, unicode classes, quoting, etc.
+        throw new UnsupportedRegexException();
+    }
+  }
+
+  /** Parses a character class following the opening bracket. */
+  private int[] parseClass() {
+    boolean negated = false;
+    if (!atEnd() && peek() == '^') {
+      _pos++;
+      negated = true;
+    }
+    int[] ranges = new int[0];
+    boolean first = true;
+    while (true) {
+      char c = next();
+      if (c == ']') {
+        if (first) {
+          throw new UnsupportedRegexException();
+        }
+        break;
+      }
+      if (c == '[' || (c == '&' && !atEnd() && peek() == '&')) {
+        // nested classes and intersections
+        throw new UnsupportedRegexException();
+      }
+      if (c == '-' && !first && (atEnd() || peek() != ']')) {
+        throw new UnsupportedRegexException();
+      }
+      int[] item = c == '\\' ? parseEscape() : new int[] {c, c};
+      if (item.length == 2
+          && item[0] == item[1]
+          && !atEnd()
+          && peek() == '-'
+          && _pos + 1 < _regex.length()
+          && _regex.charAt(_pos + 1) != ']') {
+        _pos++;
+        char d = next();
+        int[] end = d == '\\' ? parseEscape() : new int[] {d, d};
+        if (d == '[' || end.length != 2 || end[0] != end[1] || end[0] < item[0]) {
+          throw new UnsupportedRegexException();
+        }
+        item = new int[] {item[0], end[0]};
+      }
+      int[] merged = Arrays.copyOf(ranges, ranges.length + item.length);
+      System.arraycopy(item, 0, merged, ranges.length, item.length);
+      ranges = merged;
+      first = false;
+    }
+    ranges = normalize(ranges);
+    return negated ? complement(ranges) : ranges;
+  }
+}
@@ -177,6 +177,11 @@ public class AsSet implements Serializable, Comparable<AsSet> {
     return _value.length;
   }
 
+  /** Returns the {@code index}th smallest ASN in this set, without boxing. */
+  public long getAsn(int index) {
+    return _value[index];
+  }
+
   @Override
   public String toString() {
     if (_value.length == 1) {
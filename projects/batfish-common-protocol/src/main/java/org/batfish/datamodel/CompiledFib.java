@@ -0,0 +1,218 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A read-only {@link Fib} optimized for {@link #get(Ip)}, compiled from a {@link FibImpl}.
+ *
+ * <p>Longest-prefix match uses a Poptrie-style multibit trie: each node consumes 6 bits of the
+ * address, and stores which of its 64 children exist and where runs of equal leaves begin as 64-bit
+ * vectors. Children and leaves are packed into arrays and located by population count, so lookups
+ * neither chase pointers nor allocate. Leaves are ids into a table of the distinct {@link FibEntry}
+ * sets of the source FIB.
+ *
+ * <p>{@link #allEntries()} and {@link #getMatchingIps()} delegate to the source FIB.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledFib implements Fib {
+
+  private static final int STRIDE = 6;
+
+  /**
+   * Addresses are padded with zeros at the end to a multiple of {@link #STRIDE} bits, so that every
+   * node consumes a whole stride.
+   */
+  private static final int KEY_LENGTH = 36;
+
+  private static final int PADDING = KEY_LENGTH - Prefix.MAX_PREFIX_LENGTH;
+
+  /** A prefix of the source FIB: its padded start address, length, and entry-set id. */
+  private static final class Route {
+    private final long _key;
+    private final int _length;
+    private final int _id;
+
+    private Route(long key, int length, int id) {
+      _key = key;
+      _length = length;
+      _id = id;
+    }
+  }
+
+  /** Accumulates the node and leaf arrays during compilation. */
+  private static final class Builder {
+    private long[] _vector = new long[16];
+    private long[] _leafVector = new long[16];
+    private int[] _childBase = new int[16];
+    private int[] _leafBase = new int[16];
+    private int _numNodes;
+    private int[] _leaves = new int[64];
+    private int _numLeaves;
+
+    private int allocateNodes(int count) {
+      int start = _numNodes;
+      _numNodes += count;
+      if (_numNodes > _vector.length) {
+        int size = Math.max(_numNodes, 2 * _vector.length);
+        _vector = Arrays.copyOf(_vector, size);
+        _leafVector = Arrays.copyOf(_leafVector, size);
+        _childBase = Arrays.copyOf(_childBase, size);
+        _leafBase = Arrays.copyOf(_leafBase, size);
+      }
+      return start;
+    }
+
+    private void addLeaf(int id) {
+      if (_numLeaves == _leaves.length) {
+        _leaves = Arrays.copyOf(_leaves, 2 * _numLeaves);
+      }
+      _leaves[_numLeaves++] = id;
+    }
+
+    /**
+     * Builds the node matching the first {@code depth} bits of the given routes, which are all
+     * longer than {@code depth} and sorted by increasing length.
+     *
+     * @param inherited the entry-set id of the longest route of length at most {@code depth}
+     */
+    private void build(int node, int depth, List<Route> routes, int inherited) {
+      int shift = KEY_LENGTH - depth - STRIDE;
+      int[] leafAt = new int[1 << STRIDE];
+      Arrays.fill(leafAt, inherited);
+      List<List<Route>> childRoutes = new ArrayList<>(Collections.nCopies(1 << STRIDE, null));
+      long vector = 0;
+      for (Route route : routes) {
+        int position = (int) (route._key >>> shift) & ((1 << STRIDE) - 1);
+        if (route._length <= depth + STRIDE) {
+          // Longer routes come later and override shorter ones.
+          Arrays.fill(
+              leafAt, position, position + (1 << (depth + STRIDE - route._length)), route._id);
+        } else {
+          if (childRoutes.get(position) == null) {
+            childRoutes.set(position, new ArrayList<>());
+          }
+          childRoutes.get(position).add(route);
+          vector |= 1L << position;
+        }
+      }
+
+      long leafVector = 0;
+      int leafBase = _numLeaves;
+      int previous = -1;
+      for (int i = 0; i < leafAt.length; i++) {
+        if ((vector & (1L << i)) == 0 && leafAt[i] != previous) {
+          leafVector |= 1L << i;
+          addLeaf(leafAt[i]);
+          previous = leafAt[i];
+        }
+      }
+      int childBase = allocateNodes(Long.bitCount(vector));
+      _vector[node] = vector;
+      _leafVector[node] = leafVector;
+      _childBase[node] = childBase;
+      _leafBase[node] = leafBase;
+
+      int child = childBase;
+      for (int i = 0; i < childRoutes.size(); i++) {
+        if (childRoutes.get(i) != null) {
+          build(child++, depth + STRIDE, childRoutes.get(i), leafAt[i]);
+        }
+      }
+    }
+  }
+
+  @Nonnull private final Fib _source;
+
+  /** Distinct entry sets of the source FIB. Id 0 is the empty set. */
+  @Nonnull private final List<Set<FibEntry>> _entrySets;
+
+  @Nonnull private final long[] _vector;
+  @Nonnull private final long[] _leafVector;
+  @Nonnull private final int[] _childBase;
+  @Nonnull private final int[] _leafBase;
+  @Nonnull private final int[] _leaves;
+
+  CompiledFib(Fib source, PrefixTrieMultiMap<FibEntry> entries) {
+    _source = source;
+    Map<Set<FibEntry>, Integer> ids = new HashMap<>();
+    List<Set<FibEntry>> entrySets = new ArrayList<>();
+    ids.put(ImmutableSet.of(), 0);
+    entrySets.add(ImmutableSet.of());
+    List<Route> routes = new ArrayList<>();
+    entries.traverseEntries(
+        (prefix, elements) -> {
+          if (elements.isEmpty()) {
+            return;
+          }
+          int id =
+              ids.computeIfAbsent(
+                  elements,
+                  e -> {
+                    entrySets.add(e);
+                    return entrySets.size() - 1;
+                  });
+          routes.add(
+              new Route(prefix.getStartIp().asLong() << PADDING, prefix.getPrefixLength(), id));
+        });
+    routes.sort(Comparator.comparingInt(r -> r._length));
+
+    int defaultId = 0;
+    List<Route> nonDefault = new ArrayList<>(routes.size());
+    for (Route route : routes) {
+      if (route._length == 0) {
+        defaultId = route._id;
+      } else {
+        nonDefault.add(route);
+      }
+    }
+    Builder builder = new Builder();
+    builder.build(builder.allocateNodes(1), 0, nonDefault, defaultId);
+
+    _entrySets = ImmutableList.copyOf(entrySets);
+    _vector = Arrays.copyOf(builder._vector, builder._numNodes);
+    _leafVector = Arrays.copyOf(builder._leafVector, builder._numNodes);
+    _childBase = Arrays.copyOf(builder._childBase, builder._numNodes);
+    _leafBase = Arrays.copyOf(builder._leafBase, builder._numNodes);
+    _leaves = Arrays.copyOf(builder._leaves, builder._numLeaves);
+  }
+
+  @Nonnull
+  @Override
+  public Set<FibEntry> get(Ip ip) {
+    long key = ip.asLong() << PADDING;
+    int node = 0;
+    for (int shift = KEY_LENGTH - STRIDE; ; shift -= STRIDE) {
+      long bit = 1L << ((int) (key >>> shift) & ((1 << STRIDE) - 1));
+      long vector = _vector[node];
+      if ((vector & bit) != 0) {
+        node = _childBase[node] + Long.bitCount(vector & (bit - 1));
+        continue;
+      }
+      int leaf = _leafBase[node] + Long.bitCount(_leafVector[node] & (bit | (bit - 1))) - 1;
+      return _entrySets.get(_leaves[leaf]);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Set<FibEntry> allEntries() {
+    return _source.allEntries();
+  }
+
+  @Nonnull
+  @Override
+  public Map<Prefix, IpSpace> getMatchingIps() {
+    return _source.getMatchingIps();
+  }
+}
@@ -1,8 +1,10 @@
 package org.batfish.datamodel;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Table;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
@@ -52,4 +54,24 @@ public interface DataPlane extends Serializable {
    */
   @Nonnull
   Table<String, String, Set<Layer2Vni>> getLayer2Vnis();
+
+  /**
+   * Return the total number of routes in the main RIBs and BGP RIBs, if it is known without
+   * materializing the routes. Data planes loaded lazily from storage know it; others return empty,
+   * and callers count the routes themselves.
+   */
+  @Nonnull
+  default OptionalLong getRouteCount() {
+    return OptionalLong.empty();
+  }
+
+  /**
+   * Return fingerprints of the inputs that determined the routing state of each node, keyed by
+   * hostname. A warm-started data plane computation for a child snapshot compares them to decide
+   * which nodes it can reuse. Empty if they were not computed.
+   */
+  @Nonnull
+  default Map<String, String> getNodeFingerprints() {
+    return ImmutableMap.of();
+  }
 }
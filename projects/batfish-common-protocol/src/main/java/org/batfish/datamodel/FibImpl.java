@@ -82,6 +82,7 @@ public final class FibImpl implements Fib {
   @Nonnull private final PrefixTrieMultiMap<FibEntry> _root;
 
   private transient Supplier<Set<FibEntry>> _entries;
+  private transient Supplier<CompiledFib> _compiled;
 
   public <R extends AbstractRouteDecorator> FibImpl(
       @Nonnull GenericRib<R> rib, ResolutionRestriction<R> restriction) {
@@ -97,6 +98,7 @@ public final class FibImpl implements Fib {
 
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
+    _compiled = Suppliers.memoize(() -> new CompiledFib(this, _root));
   }
 
   private Set<FibEntry> computeEntries() {
@@ -109,6 +111,15 @@ public final class FibImpl implements Fib {
     return _entries.get();
   }
 
+  /**
+   * Returns a {@link CompiledFib} with the same entries as this FIB, for workloads that perform
+   * many lookups. It is built on first use.
+   */
+  @Nonnull
+  public Fib getCompiled() {
+    return _compiled.get();
+  }
+
   /**
    * Attempt to resolve a RIB route down to an interface route.
    *
@@ -4,11 +4,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -16,11 +14,10 @@ import javax.annotation.Nullable;
 /** An IPv4 address */
 public class Ip implements Comparable<Ip>, Serializable {
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (8 bytes seems smallest possible entry (long), would be 8 MiB total).
-  private static final LoadingCache<Ip, Ip> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 20).build(CacheLoader.from(x -> x));
+  // Maximum size 2^20: Just some upper bound on table size, well less than GiB.
+  //   (about 40 bytes per entry including the Ip, would be 40 MiB total).
+  private static final LongInternTable<Ip> INTERN_TABLE =
+      new LongInternTable<>(64, 1 << 20, Ip::new);
 
   public static final Ip AUTO = create(-1L);
 
@@ -132,8 +129,23 @@ public class Ip implements Comparable<Ip>, Serializable {
 
   public static Ip create(long ipAsLong) {
     checkArgument(ipAsLong <= 0xFFFFFFFFL, "Invalid IP value: %s", ipAsLong);
-    Ip ip = new Ip(ipAsLong);
-    return CACHE.getUnchecked(ip);
+    return INTERN_TABLE.intern(ipAsLong);
+  }
+
+  /**
+   * Returns the {@link Ip IPs} with the given values, in order. Cheaper than repeated calls to
+   * {@link #create(long)} when creating many IPs at once, e.g. during deserialization.
+   */
+  public static @Nonnull List<Ip> createAll(long[] ipsAsLongs) {
+    for (long ipAsLong : ipsAsLongs) {
+      checkArgument(ipAsLong <= 0xFFFFFFFFL, "Invalid IP value: %s", ipAsLong);
+    }
+    return INTERN_TABLE.internAll(ipsAsLongs);
+  }
+
+  /** Returns statistics of the table used to intern {@link Ip IPs}. */
+  public static @Nonnull LongInternTable.Stats getInternStats() {
+    return INTERN_TABLE.getStats();
   }
 
   public long asLong() {
@@ -255,8 +267,8 @@ public class Ip implements Comparable<Ip>, Serializable {
     return Prefix.create(this, Prefix.MAX_PREFIX_LENGTH);
   }
 
-  /** Cache after deserialization. */
+  /** Intern after deserialization. */
   private Object readResolve() throws ObjectStreamException {
-    return CACHE.getUnchecked(this);
+    return INTERN_TABLE.intern(_ip);
   }
 }
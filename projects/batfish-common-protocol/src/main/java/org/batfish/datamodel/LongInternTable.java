@@ -0,0 +1,264 @@
+package org.batfish.datamodel;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A concurrent table of canonical objects identified by a {@code long} key, used to intern
+ * immutable values such as {@link Ip} and {@link Prefix}.
+ *
+ * <p>The table is split into lock-striped segments. Each segment is an open-addressing hash table
+ * with linear probing over parallel primitive key and object value arrays, so entries cost no
+ * allocation beyond the interned object itself, and nothing for the garbage collector to process
+ * other than the value array. Each segment holds a bounded number of entries; when full, inserting
+ * evicts the entry after a rotating position. Evicted values are still valid, but no longer
+ * canonical.
+ */
+@ParametersAreNonnullByDefault
+public final class LongInternTable<T> {
+
+  /** A point-in-time snapshot of the statistics of a {@link LongInternTable}. */
+  public static final class Stats {
+    private final long _hits;
+    private final long _misses;
+    private final long _evictions;
+    private final int _size;
+
+    private Stats(long hits, long misses, long evictions, int size) {
+      _hits = hits;
+      _misses = misses;
+      _evictions = evictions;
+      _size = size;
+    }
+
+    /** Number of lookups that found an existing entry. */
+    public long getHits() {
+      return _hits;
+    }
+
+    /** Number of lookups that created a new entry. */
+    public long getMisses() {
+      return _misses;
+    }
+
+    /** Number of entries evicted to stay within the size bound. */
+    public long getEvictions() {
+      return _evictions;
+    }
+
+    /** Number of entries currently in the table. */
+    public int getSize() {
+      return _size;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("hits", _hits)
+          .add("misses", _misses)
+          .add("evictions", _evictions)
+          .add("size", _size)
+          .toString();
+    }
+  }
+
+  private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+  private final class Segment {
+    // A slot is empty iff its value is null.
+    private long[] _keys = new long[INITIAL_SEGMENT_CAPACITY];
+    private Object[] _values = new Object[INITIAL_SEGMENT_CAPACITY];
+    private int _size;
+    private int _evictionHand;
+
+    /** Must be called with this segment locked. */
+    private T intern(long key, int hash) {
+      int mask = _keys.length - 1;
+      for (int i = hash & mask; ; i = (i + 1) & mask) {
+        Object value = _values[i];
+        if (value == null) {
+          break;
+        } else if (_keys[i] == key) {
+          _hits.increment();
+          @SuppressWarnings("unchecked")
+          T t = (T) value;
+          return t;
+        }
+      }
+      _misses.increment();
+      T value = _factory.apply(key);
+      if (_size == _maxSegmentSize) {
+        evict();
+      } else if (2 * (_size + 1) > _keys.length) {
+        grow();
+      }
+      insert(key, hash, value);
+      return value;
+    }
+
+    private void insert(long key, int hash, Object value) {
+      int mask = _keys.length - 1;
+      int i = hash & mask;
+      while (_values[i] != null) {
+        i = (i + 1) & mask;
+      }
+      _keys[i] = key;
+      _values[i] = value;
+      _size++;
+    }
+
+    private void grow() {
+      long[] keys = _keys;
+      Object[] values = _values;
+      _keys = new long[2 * keys.length];
+      _values = new Object[2 * values.length];
+      _size = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (values[i] != null) {
+          insert(keys[i], hash(keys[i]), values[i]);
+        }
+      }
+    }
+
+    /** Removes the first entry at or after the eviction hand. */
+    private void evict() {
+      int mask = _keys.length - 1;
+      int i = _evictionHand & mask;
+      while (_values[i] == null) {
+        i = (i + 1) & mask;
+      }
+      _evictionHand = i + 1;
+      remove(i);
+      _evictions.increment();
+    }
+
+    /** Removes the entry in slot {@code i}, shifting back later entries of its probe run. */
+    private void remove(int i) {
+      int mask = _keys.length - 1;
+      int hole = i;
+      for (int j = (i + 1) & mask; _values[j] != null; j = (j + 1) & mask) {
+        int home = hash(_keys[j]) & mask;
+        // j can fill the hole iff its home slot is not cyclically in (hole, j]
+        if (((j - home) & mask) >= ((j - hole) & mask)) {
+          _keys[hole] = _keys[j];
+          _values[hole] = _values[j];
+          hole = j;
+        }
+      }
+      _values[hole] = null;
+      _size--;
+    }
+  }
+
+  private final @Nonnull LongFunction<T> _factory;
+  private final @Nonnull List<Segment> _segments;
+  private final int _segmentShift;
+  private final int _maxSegmentSize;
+  private final @Nonnull LongAdder _hits = new LongAdder();
+  private final @Nonnull LongAdder _misses = new LongAdder();
+  private final @Nonnull LongAdder _evictions = new LongAdder();
+
+  /**
+   * Creates a table that holds at most {@code maxSize} entries, creating missing values with {@code
+   * factory}.
+   *
+   * @param segments the number of independently locked segments, a power of two
+   */
+  public LongInternTable(int segments, int maxSize, LongFunction<T> factory) {
+    checkArgument(
+        segments > 0 && Integer.bitCount(segments) == 1, "segments must be a power of two");
+    checkArgument(maxSize >= segments, "maxSize must be at least the number of segments");
+    _factory = factory;
+    ImmutableList.Builder<Segment> builder = ImmutableList.builder();
+    for (int i = 0; i < segments; i++) {
+      builder.add(new Segment());
+    }
+    _segments = builder.build();
+    _segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segments);
+    _maxSegmentSize = maxSize / segments;
+  }
+
+  private static int hash(long key) {
+    // murmur3 finalizer
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /** Segments use the high bits of the hash, slots within a segment the low bits. */
+  private int segmentIndex(int hash) {
+    return _segments.size() == 1 ? 0 : hash >>> _segmentShift;
+  }
+
+  /** Returns the canonical value for {@code key}, creating it if absent. */
+  public @Nonnull T intern(long key) {
+    int hash = hash(key);
+    Segment segment = _segments.get(segmentIndex(hash));
+    synchronized (segment) {
+      return segment.intern(key, hash);
+    }
+  }
+
+  /**
+   * Returns the canonical values for {@code keys}, in order. Keys are grouped by segment so that
+   * each segment is locked once, which is cheaper than repeated {@link #intern(long)} calls when
+   * interning many values at once, e.g. during deserialization.
+   */
+  public @Nonnull List<T> internAll(long[] keys) {
+    int[] hashes = new int[keys.length];
+    // counting sort of key indices by segment
+    int[] segmentStarts = new int[_segments.size() + 1];
+    for (int i = 0; i < keys.length; i++) {
+      hashes[i] = hash(keys[i]);
+      segmentStarts[segmentIndex(hashes[i]) + 1]++;
+    }
+    for (int s = 0; s < _segments.size(); s++) {
+      segmentStarts[s + 1] += segmentStarts[s];
+    }
+    int[] order = new int[keys.length];
+    int[] next = Arrays.copyOf(segmentStarts, _segments.size());
+    for (int i = 0; i < keys.length; i++) {
+      order[next[segmentIndex(hashes[i])]++] = i;
+    }
+
+    Object[] results = new Object[keys.length];
+    for (int s = 0; s < _segments.size(); s++) {
+      if (segmentStarts[s] == segmentStarts[s + 1]) {
+        continue;
+      }
+      Segment segment = _segments.get(s);
+      synchronized (segment) {
+        for (int j = segmentStarts[s]; j < segmentStarts[s + 1]; j++) {
+          int i = order[j];
+          results[i] = segment.intern(keys[i], hashes[i]);
+        }
+      }
+    }
+    @SuppressWarnings("unchecked")
+    List<T> list = (List<T>) ImmutableList.copyOf(results);
+    return list;
+  }
+
+  /** Returns a snapshot of the statistics of this table. */
+  public @Nonnull Stats getStats() {
+    int size = 0;
+    for (Segment segment : _segments) {
+      synchronized (segment) {
+        size += segment._size;
+      }
+    }
+    return new Stats(_hits.sum(), _misses.sum(), _evictions.sum(), size);
+  }
+}
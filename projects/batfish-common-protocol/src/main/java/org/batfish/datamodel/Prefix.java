@@ -4,8 +4,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.Ordering;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
@@ -18,11 +16,9 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public final class Prefix implements Comparable<Prefix>, Serializable {
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (12 bytes seems smallest possible entry (long + int), would be 12 MiB total).
-  private static final LoadingCache<Prefix, Prefix> CACHE =
-      Caffeine.newBuilder().softValues().maximumSize(1 << 20).build(x -> x);
+  // Maximum size 2^20: Just some upper bound on table size, well less than GiB.
+  private static final LongInternTable<Prefix> INTERN_TABLE =
+      new LongInternTable<>(64, 1 << 20, Prefix::fromKey);
 
   /** Maximum prefix length (number of bits) for a IPv4 address, which is 32 */
   public static final int MAX_PREFIX_LENGTH = 32;
@@ -111,8 +107,27 @@ public final class Prefix implements Comparable<Prefix>, Serializable {
   }
 
   public static Prefix create(Ip ip, int prefixLength) {
-    Prefix p = new Prefix(ip, prefixLength);
-    return CACHE.get(p);
+    checkArgument(
+        prefixLength >= 0 && prefixLength <= MAX_PREFIX_LENGTH,
+        "Invalid prefix length %s",
+        prefixLength);
+    long ipAsLong =
+        ip.valid() ? ip.asLong() & Ip.numSubnetBitsToSubnetLong(prefixLength) : ip.asLong();
+    return INTERN_TABLE.intern(toKey(ipAsLong, prefixLength));
+  }
+
+  /** Returns statistics of the table used to intern {@link Prefix prefixes}. */
+  public static @Nonnull LongInternTable.Stats getInternStats() {
+    return INTERN_TABLE.getStats();
+  }
+
+  /** Packs a network address and prefix length into an intern table key. */
+  private static long toKey(long ipAsLong, int prefixLength) {
+    return ipAsLong << 6 | prefixLength;
+  }
+
+  private static @Nonnull Prefix fromKey(long key) {
+    return new Prefix(Ip.create(key >> 6), (int) (key & 0x3F));
   }
 
   public static Prefix create(Ip address, Ip mask) {
@@ -251,8 +266,8 @@ public final class Prefix implements Comparable<Prefix>, Serializable {
     return _ip + "/" + _prefixLength;
   }
 
-  /** Cache after deserialization. */
+  /** Intern after deserialization. */
   private Object readResolve() throws ObjectStreamException {
-    return CACHE.get(this);
+    return INTERN_TABLE.intern(toKey(_ip.asLong(), _prefixLength));
   }
 }
@@ -0,0 +1,286 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIpSpace;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+
+/**
+ * An {@link IpAccessList} compiled for repeated evaluation against concrete flows.
+ *
+ * <p>Lines whose match condition requires the destination IP to be in a union of prefixes are
+ * indexed in a binary trie of those prefixes. To filter a flow, only the lines on the path of its
+ * destination IP through the trie, and the lines that could not be indexed, are candidates. Each
+ * candidate is still evaluated exactly, with {@link AclLineEvaluator}, so the result is always the
+ * same as that of {@link IpAccessList#filter(Flow, String, Map, Map)}.
+ *
+ * <p>The index is built using the named IP spaces of the device that defines the ACL, which must be
+ * the ones passed when filtering.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledIpAccessList {
+
+  /** Compiles {@code acl}, resolving IP space references in {@code namedIpSpaces}. */
+  public static @Nonnull CompiledIpAccessList compile(
+      IpAccessList acl, Map<String, IpSpace> namedIpSpaces) {
+    TrieBuilder root = new TrieBuilder();
+    List<Integer> unindexed = new ArrayList<>();
+    List<AclLine> lines = acl.getLines();
+    for (int i = 0; i < lines.size(); i++) {
+      List<Prefix> dstPrefixes = dstPrefixes(lines.get(i), namedIpSpaces);
+      if (dstPrefixes == null) {
+        unindexed.add(i);
+        continue;
+      }
+      for (Prefix prefix : dstPrefixes) {
+        root.add(prefix, i);
+      }
+    }
+    return new CompiledIpAccessList(acl, root.build(), Ints.toArray(unindexed));
+  }
+
+  /**
+   * Filters {@code flow}, with the same arguments and result as {@link IpAccessList#filter(Flow,
+   * String, Map, Map)}.
+   */
+  public @Nonnull FilterResult filter(
+      Flow flow,
+      @Nullable String srcInterface,
+      Map<String, IpAccessList> availableAcls,
+      Map<String, IpSpace> namedIpSpaces) {
+    AclLineEvaluator lineEvaluator =
+        new AclLineEvaluator(flow, srcInterface, availableAcls, namedIpSpaces);
+    List<AclLine> lines = _acl.getLines();
+    // The first match is the earliest match in any candidate list; each list is sorted, so it only
+    // needs to be scanned up to the earliest match found so far.
+    int matchLine = lines.size();
+    LineAction matchAction = null;
+    long dstIp = flow.getDstIp().asLong();
+    Trie node = _root;
+    for (int depth = 0; node != null; depth++) {
+      for (int i : node._lines) {
+        if (i >= matchLine) {
+          break;
+        }
+        LineAction action = lineEvaluator.visit(lines.get(i));
+        if (action != null) {
+          matchLine = i;
+          matchAction = action;
+          break;
+        }
+      }
+      if (depth == Prefix.MAX_PREFIX_LENGTH) {
+        break;
+      }
+      node = bit(dstIp, depth) ? node._one : node._zero;
+    }
+    for (int i : _unindexedLines) {
+      if (i >= matchLine) {
+        break;
+      }
+      LineAction action = lineEvaluator.visit(lines.get(i));
+      if (action != null) {
+        matchLine = i;
+        matchAction = action;
+        break;
+      }
+    }
+    return matchAction == null
+        ? new FilterResult(null, LineAction.DENY)
+        : new FilterResult(matchLine, matchAction);
+  }
+
+  /** The compiled ACL. */
+  public @Nonnull IpAccessList getAcl() {
+    return _acl;
+  }
+
+  /**
+   * Returns prefixes whose union contains the destination IP of every flow {@code line} can match,
+   * or {@code null} if there are no such prefixes other than the whole IP space.
+   */
+  private static @Nullable List<Prefix> dstPrefixes(
+      AclLine line, Map<String, IpSpace> namedIpSpaces) {
+    if (!(line instanceof ExprAclLine)) {
+      return null;
+    }
+    return dstPrefixes(((ExprAclLine) line).getMatchCondition(), namedIpSpaces);
+  }
+
+  private static @Nullable List<Prefix> dstPrefixes(
+      AclLineMatchExpr expr, Map<String, IpSpace> namedIpSpaces) {
+    if (expr instanceof FalseExpr) {
+      return ImmutableList.of();
+    } else if (expr instanceof MatchHeaderSpace) {
+      HeaderSpace headerSpace = ((MatchHeaderSpace) expr).getHeaderspace();
+      return headerSpace.getDstIps() == null
+          ? null
+          : prefixes(headerSpace.getDstIps(), namedIpSpaces, new HashSet<>());
+    } else if (expr instanceof AndMatchExpr) {
+      // any conjunct that constrains the destination constrains the conjunction
+      for (AclLineMatchExpr conjunct : ((AndMatchExpr) expr).getConjuncts()) {
+        List<Prefix> prefixes = dstPrefixes(conjunct, namedIpSpaces);
+        if (prefixes != null) {
+          return prefixes;
+        }
+      }
+    } else if (expr instanceof OrMatchExpr) {
+      // a disjunction constrains the destination only if every disjunct does
+      ImmutableList.Builder<Prefix> prefixes = ImmutableList.builder();
+      for (AclLineMatchExpr disjunct : ((OrMatchExpr) expr).getDisjuncts()) {
+        List<Prefix> disjunctPrefixes = dstPrefixes(disjunct, namedIpSpaces);
+        if (disjunctPrefixes == null) {
+          return null;
+        }
+        prefixes.addAll(disjunctPrefixes);
+      }
+      return prefixes.build();
+    }
+    return null;
+  }
+
+  /**
+   * Returns prefixes whose union contains {@code ipSpace}, or {@code null} if that cannot be
+   * determined without enumerating its IPs.
+   *
+   * @param references names of IP spaces being resolved, to stop at circular references
+   */
+  private static @Nullable List<Prefix> prefixes(
+      IpSpace ipSpace, Map<String, IpSpace> namedIpSpaces, Set<String> references) {
+    if (ipSpace instanceof PrefixIpSpace) {
+      return ImmutableList.of(((PrefixIpSpace) ipSpace).getPrefix());
+    } else if (ipSpace instanceof IpIpSpace) {
+      return ImmutableList.of(((IpIpSpace) ipSpace).getIp().toPrefix());
+    } else if (ipSpace instanceof IpWildcardIpSpace) {
+      IpWildcard wildcard = ((IpWildcardIpSpace) ipSpace).getIpWildcard();
+      return wildcard.isPrefix() ? ImmutableList.of(wildcard.toPrefix()) : null;
+    } else if (ipSpace instanceof IpWildcardSetIpSpace) {
+      ImmutableList.Builder<Prefix> prefixes = ImmutableList.builder();
+      for (IpWildcard wildcard : ((IpWildcardSetIpSpace) ipSpace).getWhitelist()) {
+        if (!wildcard.isPrefix()) {
+          return null;
+        }
+        prefixes.add(wildcard.toPrefix());
+      }
+      return prefixes.build();
+    } else if (ipSpace instanceof EmptyIpSpace) {
+      return ImmutableList.of();
+    } else if (ipSpace instanceof AclIpSpace) {
+      // only permit lines add IPs to the space
+      ImmutableList.Builder<Prefix> prefixes = ImmutableList.builder();
+      for (AclIpSpaceLine line : ((AclIpSpace) ipSpace).getLines()) {
+        if (line.getAction() != LineAction.PERMIT) {
+          continue;
+        }
+        List<Prefix> linePrefixes = prefixes(line.getIpSpace(), namedIpSpaces, references);
+        if (linePrefixes == null) {
+          return null;
+        }
+        prefixes.addAll(linePrefixes);
+      }
+      return prefixes.build();
+    } else if (ipSpace instanceof IpSpaceReference) {
+      String name = ((IpSpaceReference) ipSpace).getName();
+      IpSpace referenced = namedIpSpaces.get(name);
+      if (referenced == null) {
+        // undefined references contain no IPs
+        return ImmutableList.of();
+      }
+      if (!references.add(name)) {
+        return null;
+      }
+      List<Prefix> prefixes = prefixes(referenced, namedIpSpaces, references);
+      references.remove(name);
+      return prefixes;
+    }
+    return null;
+  }
+
+  private static boolean bit(long ip, int index) {
+    return (ip & (1L << (Prefix.MAX_PREFIX_LENGTH - 1 - index))) != 0;
+  }
+
+  /** A node of the trie of destination prefixes, holding the lines indexed at its prefix. */
+  private static final class Trie {
+    private final @Nonnull int[] _lines;
+    private final @Nullable Trie _zero;
+    private final @Nullable Trie _one;
+
+    private Trie(int[] lines, @Nullable Trie zero, @Nullable Trie one) {
+      _lines = lines;
+      _zero = zero;
+      _one = one;
+    }
+  }
+
+  private static final class TrieBuilder {
+    private final List<Integer> _lines = new ArrayList<>();
+    private @Nullable TrieBuilder _zero;
+    private @Nullable TrieBuilder _one;
+
+    private void add(Prefix prefix, int line) {
+      long start = prefix.getStartIp().asLong();
+      TrieBuilder node = this;
+      for (int depth = 0; depth < prefix.getPrefixLength(); depth++) {
+        if (bit(start, depth)) {
+          if (node._one == null) {
+            node._one = new TrieBuilder();
+          }
+          node = node._one;
+        } else {
+          if (node._zero == null) {
+            node._zero = new TrieBuilder();
+          }
+          node = node._zero;
+        }
+      }
+      // lines are added in order, and a line may cover one prefix more than once
+      if (node._lines.isEmpty() || node._lines.get(node._lines.size() - 1) != line) {
+        node._lines.add(line);
+      }
+    }
+
+    private @Nonnull Trie build() {
+      return new Trie(
+          Ints.toArray(_lines),
+          _zero == null ? null : _zero.build(),
+          _one == null ? null : _one.build());
+    }
+  }
+
+  private CompiledIpAccessList(IpAccessList acl, Trie root, int[] unindexedLines) {
+    _acl = acl;
+    _root = root;
+    _unindexedLines = unindexedLines;
+  }
+
+  private final @Nonnull IpAccessList _acl;
+  private final @Nonnull Trie _root;
+
+  /** Lines that are candidates for every flow, in order. */
+  private final @Nonnull int[] _unindexedLines;
+}
@@ -15,6 +15,8 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
       "bgpMultipathRibRoutesByIteration";
   private static final String PROP_DEPENDENT_ROUTES_ITERATIONS = "dependentRoutesIterations";
   private static final String PROP_OSPF_INTERNAL_ITERATIONS = "ospfInternalIterations";
+  private static final String PROP_POLICY_EVALUATIONS = "policyEvaluations";
+  private static final String PROP_POLICY_EVALUATION_MILLIS = "policyEvaluationMillis";
   private static final String PROP_WARNINGS = "warnings";
 
   private SortedMap<Integer, Integer> _bgpBestPathRibRoutesByIteration;
@@ -22,6 +24,8 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
   private int _dependentRoutesIterations;
   private SortedMap<Integer, Integer> _mainRibRoutesByIteration;
   private int _ospfInternalIterations;
+  private long _policyEvaluations;
+  private long _policyEvaluationMillis;
   private String _version;
   private Warnings _warnings;
 
@@ -57,6 +61,24 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     return _ospfInternalIterations;
   }
 
+  /**
+   * Number of times routing policy statements were executed during dataplane computation, or 0 if
+   * routing policy statistics were not collected.
+   */
+  @JsonProperty(PROP_POLICY_EVALUATIONS)
+  public long getPolicyEvaluations() {
+    return _policyEvaluations;
+  }
+
+  /**
+   * Total time spent executing routing policy statements, summed over all threads, or 0 if routing
+   * policy statistics were not collected.
+   */
+  @JsonProperty(PROP_POLICY_EVALUATION_MILLIS)
+  public long getPolicyEvaluationMillis() {
+    return _policyEvaluationMillis;
+  }
+
   @Override
   @JsonProperty(PROP_VERSION)
   public String getVersion() {
@@ -95,6 +117,16 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _ospfInternalIterations = ospfInternalIterations;
   }
 
+  @JsonProperty(PROP_POLICY_EVALUATIONS)
+  public void setPolicyEvaluations(long policyEvaluations) {
+    _policyEvaluations = policyEvaluations;
+  }
+
+  @JsonProperty(PROP_POLICY_EVALUATION_MILLIS)
+  public void setPolicyEvaluationMillis(long policyEvaluationMillis) {
+    _policyEvaluationMillis = policyEvaluationMillis;
+  }
+
   @JsonProperty(PROP_VERSION)
   public void setVersion(String version) {
     _version = version;
@@ -19,6 +19,8 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private static final String PROP_FILE_MAP = "fileMap";
   private static final String PROP_FILE_FORMATS = "fileFormats";
+  private static final String PROP_PARSE_TIMES = "parseTimes";
+  private static final String PROP_PARSE_TREE_SIZES = "parseTreeSizes";
   private static final String PROP_VERSION = "version";
 
   private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
@@ -33,6 +35,12 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private SortedMap<String, ParseStatus> _parseStatus;
 
+  /** Map of job key (one or more filenames) to the wall time in milliseconds spent parsing it. */
+  private SortedMap<String, Long> _parseTimes;
+
+  /** Map of filename to the number of nodes in its parse tree. */
+  private SortedMap<String, Integer> _parseTreeSizes;
+
   private SortedMap<String, ParseTreeSentences> _parseTrees;
 
   private String _version;
@@ -44,6 +52,8 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _fileMap = TreeMultimap.create();
     _fileFormats = new TreeMap<>();
     _parseStatus = new TreeMap<>();
+    _parseTimes = new TreeMap<>();
+    _parseTreeSizes = new TreeMap<>();
     _parseTrees = new TreeMap<>();
     _warnings = new TreeMap<>();
     _errors = new TreeMap<>();
@@ -83,6 +93,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     return _parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_TIMES)
+  public SortedMap<String, Long> getParseTimes() {
+    return _parseTimes;
+  }
+
+  @JsonProperty(PROP_PARSE_TREE_SIZES)
+  public SortedMap<String, Integer> getParseTreeSizes() {
+    return _parseTreeSizes;
+  }
+
   @Override
   public SortedMap<String, ParseTreeSentences> getParseTrees() {
     return _parseTrees;
@@ -118,6 +138,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _parseStatus = parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_TIMES) // only for Jackson
+  private void setParseTimes(SortedMap<String, Long> parseTimes) {
+    _parseTimes = parseTimes;
+  }
+
+  @JsonProperty(PROP_PARSE_TREE_SIZES) // only for Jackson
+  private void setParseTreeSizes(SortedMap<String, Integer> parseTreeSizes) {
+    _parseTreeSizes = parseTreeSizes;
+  }
+
   @Override
   public void setParseTrees(SortedMap<String, ParseTreeSentences> parseTrees) {
     _parseTrees = parseTrees;
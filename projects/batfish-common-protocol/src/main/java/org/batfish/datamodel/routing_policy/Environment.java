@@ -42,20 +42,69 @@ public class Environment {
    * several fields.
    */
   public static Builder builder(@Nonnull Configuration c) {
+    return builder(Structures.of(c));
+  }
+
+  /**
+   * Initializes an {@link Environment} builder using {@link Structures} captured ahead of time, so
+   * that the structures are not copied out of the {@link Configuration} for every evaluation.
+   */
+  public static Builder builder(@Nonnull Structures structures) {
     return new Builder()
-        .setAsPathAccessLists(c.getAsPathAccessLists())
-        .setAsPathExprs(c.getAsPathExprs())
-        .setAsPathMatchExprs(c.getAsPathMatchExprs())
-        .setCommunityMatchExprs(c.getCommunityMatchExprs())
-        .setCommunitySetExprs(c.getCommunitySetExprs())
-        .setCommunitySetMatchExprs(c.getCommunitySetMatchExprs())
-        .setCommunitySets(c.getCommunitySets())
-        .setIpAccessLists(c.getIpAccessLists())
-        .setIp6AccessLists(c.getIp6AccessLists())
-        .setRouteFilterLists(c.getRouteFilterLists())
-        .setRoute6FilterLists(c.getRoute6FilterLists())
-        .setRoutingPolicies(c.getRoutingPolicies())
-        .setUseOutputAttributes(useOutputAttributesFor(c));
+        .setAsPathAccessLists(structures._asPathAccessLists)
+        .setAsPathExprs(structures._asPathExprs)
+        .setAsPathMatchExprs(structures._asPathMatchExprs)
+        .setCommunityMatchExprs(structures._communityMatchExprs)
+        .setCommunitySetExprs(structures._communitySetExprs)
+        .setCommunitySetMatchExprs(structures._communitySetMatchExprs)
+        .setCommunitySets(structures._communitySets)
+        .setIpAccessLists(structures._ipAccessLists)
+        .setIp6AccessLists(structures._ip6AccessLists)
+        .setRouteFilterLists(structures._routeFilterLists)
+        .setRoute6FilterLists(structures._route6FilterLists)
+        .setRoutingPolicies(structures._routingPolicies)
+        .setUseOutputAttributes(structures._useOutputAttributes);
+  }
+
+  /**
+   * Immutable copies of the named structures of a {@link Configuration} that routing policies may
+   * refer to. Later changes to the {@link Configuration} are not reflected.
+   */
+  public static final class Structures {
+
+    public static @Nonnull Structures of(@Nonnull Configuration c) {
+      return new Structures(c);
+    }
+
+    private final Map<String, AsPathAccessList> _asPathAccessLists;
+    private final Map<String, AsPathExpr> _asPathExprs;
+    private final Map<String, AsPathMatchExpr> _asPathMatchExprs;
+    private final Map<String, CommunityMatchExpr> _communityMatchExprs;
+    private final Map<String, CommunitySetExpr> _communitySetExprs;
+    private final Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
+    private final Map<String, CommunitySet> _communitySets;
+    private final Map<String, IpAccessList> _ipAccessLists;
+    private final Map<String, Ip6AccessList> _ip6AccessLists;
+    private final Map<String, RouteFilterList> _routeFilterLists;
+    private final Map<String, Route6FilterList> _route6FilterLists;
+    private final Map<String, RoutingPolicy> _routingPolicies;
+    private final boolean _useOutputAttributes;
+
+    private Structures(Configuration c) {
+      _asPathAccessLists = toImmutableMap(c.getAsPathAccessLists());
+      _asPathExprs = toImmutableMap(c.getAsPathExprs());
+      _asPathMatchExprs = toImmutableMap(c.getAsPathMatchExprs());
+      _communityMatchExprs = toImmutableMap(c.getCommunityMatchExprs());
+      _communitySetExprs = toImmutableMap(c.getCommunitySetExprs());
+      _communitySetMatchExprs = toImmutableMap(c.getCommunitySetMatchExprs());
+      _communitySets = toImmutableMap(c.getCommunitySets());
+      _ipAccessLists = toImmutableMap(c.getIpAccessLists());
+      _ip6AccessLists = toImmutableMap(c.getIp6AccessLists());
+      _routeFilterLists = toImmutableMap(c.getRouteFilterLists());
+      _route6FilterLists = toImmutableMap(c.getRoute6FilterLists());
+      _routingPolicies = toImmutableMap(c.getRoutingPolicies());
+      _useOutputAttributes = useOutputAttributesFor(c);
+    }
   }
 
   /**
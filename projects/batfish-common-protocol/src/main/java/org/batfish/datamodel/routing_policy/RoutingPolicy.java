@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
@@ -94,6 +95,10 @@ public class RoutingPolicy implements Serializable {
   @Nullable private transient Set<String> _sources;
   @Nonnull private List<Statement> _statements;
 
+  // The following are only set on copies returned by freeze(boolean)
+  @Nullable private transient Environment.Structures _structures;
+  @Nullable private transient Counters _counters;
+
   @JsonCreator
   private RoutingPolicy(@Nullable @JsonProperty(PROP_NAME) String name) {
     this(requireNonNull(name), null);
@@ -295,7 +300,7 @@ public class RoutingPolicy implements Serializable {
       @Nullable Tracer tracer) {
     checkState(_owner != null, "Cannot evaluate routing policy without a Configuration");
     Environment environment =
-        Environment.builder(_owner)
+        (_structures != null ? Environment.builder(_structures) : Environment.builder(_owner))
             .setBgpSessionProperties(bgpSessionProperties)
             .setOriginalRoute(inputRoute)
             .setOutputRoute(outputRoute)
@@ -304,7 +309,15 @@ public class RoutingPolicy implements Serializable {
             .setRibIntersectsPrefixSpaceEvaluator(ribIntersectsPrefixSpaceEvaluator)
             .setTracer(tracer)
             .build();
-    Result result = call(environment);
+    Result result;
+    if (_counters == null) {
+      result = call(environment);
+    } else {
+      long start = System.nanoTime();
+      result = call(environment);
+      _counters._evaluationNanos.add(System.nanoTime() - start);
+      _counters._evaluations.increment();
+    }
     return result.getBooleanValue() && !(Boolean.TRUE.equals(environment.getSuppressed()));
   }
 
@@ -313,6 +326,73 @@ public class RoutingPolicy implements Serializable {
     _statements = firstNonNull(statements, ImmutableList.of());
   }
 
+  /**
+   * Returns a copy of this policy prepared for repeated evaluation, e.g. during data plane
+   * computation.
+   *
+   * <p>The structures of the owner that the policy may refer to are frozen once, instead of on
+   * every evaluation, so the owner must not be modified while the copy is in use. The statements
+   * themselves are evaluated as usual. If {@code collectStats} is true, evaluations of the copy are
+   * counted and timed in {@link #getEvaluationStats()}.
+   */
+  public @Nonnull RoutingPolicy freeze(boolean collectStats) {
+    checkState(_owner != null, "Cannot freeze routing policy without a Configuration");
+    RoutingPolicy frozen = new RoutingPolicy(_name, _owner);
+    frozen.setStatements(_statements);
+    frozen._structures = Environment.Structures.of(_owner);
+    if (collectStats) {
+      frozen._counters = new Counters();
+    }
+    return frozen;
+  }
+
+  /**
+   * Returns the counts of evaluations of this policy since it was {@link #freeze(boolean) frozen}
+   * with statistics collection enabled.
+   */
+  @JsonIgnore
+  public @Nonnull EvaluationStats getEvaluationStats() {
+    Counters counters = _counters;
+    if (counters == null) {
+      return EvaluationStats.EMPTY;
+    }
+    return new EvaluationStats(counters._evaluations.sum(), counters._evaluationNanos.sum());
+  }
+
+  /** Counts of evaluations of a {@link #freeze(boolean) frozen} {@link RoutingPolicy}. */
+  public static final class EvaluationStats {
+    public static final EvaluationStats EMPTY = new EvaluationStats(0, 0);
+
+    private final long _evaluations;
+    private final long _evaluationNanos;
+
+    public EvaluationStats(long evaluations, long evaluationNanos) {
+      _evaluations = evaluations;
+      _evaluationNanos = evaluationNanos;
+    }
+
+    /** Number of times the statements of the policy were executed. */
+    public long getEvaluations() {
+      return _evaluations;
+    }
+
+    /** Total time spent executing the statements of the policy, in nanoseconds. */
+    public long getEvaluationNanos() {
+      return _evaluationNanos;
+    }
+
+    /** Returns the sum of these counts and {@code other}. */
+    public @Nonnull EvaluationStats plus(EvaluationStats other) {
+      return new EvaluationStats(
+          _evaluations + other._evaluations, _evaluationNanos + other._evaluationNanos);
+    }
+  }
+
+  private static final class Counters {
+    private final LongAdder _evaluations = new LongAdder();
+    private final LongAdder _evaluationNanos = new LongAdder();
+  }
+
   public RoutingPolicy simplify() {
     ImmutableList.Builder<Statement> simpleStatements = ImmutableList.builder();
     for (Statement statement : _statements) {
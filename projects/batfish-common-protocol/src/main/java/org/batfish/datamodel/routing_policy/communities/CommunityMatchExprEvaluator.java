@@ -4,7 +4,7 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.annotations.VisibleForTesting;
 import javax.annotation.Nonnull;
-import org.batfish.common.util.PatternProvider;
+import org.batfish.common.util.regex.RegexMatchers;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.bgp.community.Community;
 import org.batfish.datamodel.bgp.community.ExtendedCommunity;
@@ -222,12 +222,11 @@ public final class CommunityMatchExprEvaluator
           .maximumSize(1 << 20) // 1M instances that are each using maybe 40 bytes
           .build(
               k ->
-                  PatternProvider.fromString(k._regex.getRegex())
-                      .matcher(
+                  RegexMatchers.fromString(k._regex.getRegex())
+                      .find(
                           k._regex
                               .getCommunityRendering()
-                              .accept(CommunityToRegexInputString.instance(), k._community))
-                      .find());
+                              .accept(CommunityToRegexInputString.instance(), k._community)));
 
   @VisibleForTesting
   static final class RegexCacheKey {
@@ -0,0 +1,434 @@
+package org.batfish.datamodel.table;
+
+import static java.util.Comparator.nullsFirst;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.SchemaUtils;
+
+/**
+ * A columnar copy of the rows of a {@link TableAnswerElement}, built once when the answer is
+ * produced, on which {@link AnswerRowsOptions} can be applied without parsing or materializing
+ * every row.
+ *
+ * <p>Each column stores one dictionary ID per row, indexing the distinct JSON values of the column.
+ * Filters are evaluated once per distinct value, and sorting compares precomputed ranks of the
+ * distinct values (in the order of {@link SchemaComparators}) instead of deserialized objects. Only
+ * the rows of the requested page are materialized, by {@link #getRow}.
+ *
+ * <p>The result of {@link #select} is the same as filtering, sorting, projecting, uniquifying, and
+ * paginating the rows of the original table.
+ */
+@ParametersAreNonnullByDefault
+public final class ColumnarTable implements Serializable {
+
+  /** The dictionary ID of a cell that is absent from its row. */
+  private static final int MISSING = -1;
+
+  /** Rows selected from a {@link ColumnarTable} by {@link #select}. */
+  public static final class Selection {
+    private final int _numResults;
+    private final @Nonnull List<Integer> _rowIds;
+
+    private Selection(int numResults, List<Integer> rowIds) {
+      _numResults = numResults;
+      _rowIds = rowIds;
+    }
+
+    /** The number of rows that passed the filters, before uniquifying and pagination. */
+    public int getNumResults() {
+      return _numResults;
+    }
+
+    /** The indices in the original table of the selected rows, in order. */
+    public @Nonnull List<Integer> getRowIds() {
+      return _rowIds;
+    }
+  }
+
+  /** Returns the columnar copy of {@code table}. */
+  public static @Nonnull ColumnarTable of(TableAnswerElement table) {
+    List<Row> rows = table.getRowsList();
+    Map<String, ColumnBuilder> columns = new LinkedHashMap<>();
+    for (ColumnMetadata metadata : table.getMetadata().getColumnMetadata()) {
+      columns.put(
+          metadata.getName(),
+          new ColumnBuilder(metadata.getName(), metadata.getSchema(), rows.size()));
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      Iterator<Entry<String, JsonNode>> fields = rows.get(i).getData().fields();
+      while (fields.hasNext()) {
+        Entry<String, JsonNode> field = fields.next();
+        columns
+            .computeIfAbsent(field.getKey(), name -> new ColumnBuilder(name, null, rows.size()))
+            .add(i, field.getValue());
+      }
+    }
+    // Equal rows are stored once by the table, and are adjacent in its list of rows
+    int[] viewRowIds = new int[rows.size()];
+    for (int i = rows.size() - 1; i >= 0; i--) {
+      viewRowIds[i] = i + 1 < rows.size() && rows.get(i) == rows.get(i + 1) ? viewRowIds[i + 1] : i;
+    }
+    try {
+      return new ColumnarTable(
+          BatfishObjectMapper.writeString(table.getMetadata()),
+          table.getSummary() == null ? null : BatfishObjectMapper.writeString(table.getSummary()),
+          columns.values().stream().map(ColumnBuilder::build).toArray(Column[]::new),
+          viewRowIds);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** The {@link TableMetadata} of the original table. */
+  public @Nonnull TableMetadata getMetadata() {
+    return readJson(_metadata, TableMetadata.class);
+  }
+
+  /** The {@link AnswerSummary} of the original table, if any. */
+  public @Nullable AnswerSummary getSummary() {
+    return _summary == null ? null : readJson(_summary, AnswerSummary.class);
+  }
+
+  /** The number of rows in the original table. */
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Selects the rows specified by {@code options}.
+   *
+   * @throws NoSuchElementException if a selected row is missing a column the options refer to
+   * @throws IllegalArgumentException if the rows cannot be sorted in the requested order
+   */
+  public @Nonnull Selection select(AnswerRowsOptions options) {
+    int[] filtered = filter(options.getFilters());
+    List<Integer> ordered = sort(filtered, options.getSortOrder());
+
+    List<String> keyColumns =
+        options.getColumns().isEmpty() ? null : ImmutableList.copyOf(options.getColumns());
+    Set<List<Integer>> seen = options.getUniqueRows() ? new HashSet<>() : null;
+    ImmutableList.Builder<Integer> selected = ImmutableList.builder();
+    int numSelected = 0;
+    int numSkipped = 0;
+    for (int row : ordered) {
+      if (numSelected >= options.getMaxRows()) {
+        break;
+      }
+      if (seen != null && !seen.add(rowKey(row, keyColumns))) {
+        continue;
+      }
+      if (numSkipped < options.getRowOffset()) {
+        numSkipped++;
+        continue;
+      }
+      selected.add(row);
+      numSelected++;
+    }
+    return new Selection(filtered.length, selected.build());
+  }
+
+  /**
+   * Returns the row with the given index in the original table, projected to {@code columns}, or
+   * with all of its columns if {@code columns} is empty.
+   *
+   * @throws NoSuchElementException if the row does not have one of {@code columns}
+   */
+  public @Nonnull Row getRow(int rowId, Collection<String> columns) {
+    Row.RowBuilder row = Row.builder();
+    if (columns.isEmpty()) {
+      for (Column column : _columns) {
+        int id = column._cells[rowId];
+        if (id != MISSING) {
+          row.put(column._name, column.node(id));
+        }
+      }
+    } else {
+      for (String name : columns) {
+        int columnIndex = columnIndex(name);
+        int id = cell(columnIndex, name, rowId);
+        row.put(name, _columns[columnIndex].node(id));
+      }
+    }
+    return row.build();
+  }
+
+  /**
+   * Returns the ID of the row with the given index in a {@link TableView} of the original table:
+   * the index of the last row equal to it, since equal rows of a {@link TableAnswerElement} are a
+   * single instance.
+   */
+  public int getViewRowId(int rowId) {
+    return _viewRowIds[rowId];
+  }
+
+  private ColumnarTable(
+      String metadata, @Nullable String summary, Column[] columns, int[] viewRowIds) {
+    _metadata = metadata;
+    _summary = summary;
+    _columns = columns;
+    _numRows = viewRowIds.length;
+    _viewRowIds = viewRowIds;
+    _columnIndices = new HashMap<>();
+    for (int i = 0; i < columns.length; i++) {
+      _columnIndices.put(columns[i]._name, i);
+    }
+  }
+
+  /** Returns the (ascending) indices of the rows that match all of {@code filters}. */
+  private @Nonnull int[] filter(List<ColumnFilter> filters) {
+    if (filters.isEmpty()) {
+      int[] all = new int[_numRows];
+      Arrays.setAll(all, i -> i);
+      return all;
+    }
+    int[] columnIndices = filters.stream().mapToInt(f -> columnIndex(f.getColumn())).toArray();
+    // Per filter, whether each distinct value matches: 0 = not computed, 1 = match, 2 = no match
+    byte[][] matches = new byte[filters.size()][];
+    int[] result = new int[_numRows];
+    int numMatches = 0;
+    for (int row = 0; row < _numRows; row++) {
+      boolean matchesAll = true;
+      for (int f = 0; f < filters.size() && matchesAll; f++) {
+        String name = filters.get(f).getColumn();
+        int id = cell(columnIndices[f], name, row);
+        Column column = _columns[columnIndices[f]];
+        if (matches[f] == null) {
+          matches[f] = new byte[column._values.length];
+        }
+        if (matches[f][id] == 0) {
+          matches[f][id] = filters.get(f).matchesJsonText(column._values[id]) ? (byte) 1 : 2;
+        }
+        matchesAll = matches[f][id] == 1;
+      }
+      if (matchesAll) {
+        result[numMatches++] = row;
+      }
+    }
+    return Arrays.copyOf(result, numMatches);
+  }
+
+  /** Stably sorts {@code rows} by the given columns. */
+  private @Nonnull List<Integer> sort(int[] rows, List<ColumnSortOption> sortOrder) {
+    List<Integer> result = new ArrayList<>(rows.length);
+    for (int row : rows) {
+      result.add(row);
+    }
+    if (sortOrder.isEmpty()) {
+      return result;
+    }
+    Comparator<Integer> comparator = null;
+    for (ColumnSortOption option : sortOrder) {
+      String name = option.getColumn();
+      int columnIndex = columnIndex(name);
+      int[] ranks = columnIndex == MISSING ? null : _columns[columnIndex]._ranks;
+      if (ranks == null) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Cannot sort by column '%s': %s",
+                name, columnIndex == MISSING ? "no such column" : _columns[columnIndex]._error));
+      }
+      Comparator<Integer> next =
+          Comparator.comparingInt(row -> ranks[cell(columnIndex, name, row)]);
+      if (option.getReversed()) {
+        next = next.reversed();
+      }
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    // List.sort is stable, like the sorted stream of rows it replaces
+    result.sort(comparator);
+    return result;
+  }
+
+  /**
+   * The dictionary IDs of the cells of {@code row} in {@code columns} (or all columns, if null),
+   * which are equal for two rows iff the rows (projected to {@code columns}) are.
+   */
+  private @Nonnull List<Integer> rowKey(int row, @Nullable List<String> columns) {
+    Integer[] key;
+    if (columns == null) {
+      key = new Integer[_columns.length];
+      for (int i = 0; i < _columns.length; i++) {
+        key[i] = _columns[i]._cells[row];
+      }
+    } else {
+      key = new Integer[columns.size()];
+      for (int i = 0; i < key.length; i++) {
+        String name = columns.get(i);
+        key[i] = cell(columnIndex(name), name, row);
+      }
+    }
+    return Arrays.asList(key);
+  }
+
+  private int columnIndex(String name) {
+    Integer index = _columnIndices.get(name);
+    return index == null ? MISSING : index;
+  }
+
+  /** Returns the dictionary ID of the given cell, which must not be missing. */
+  private int cell(int columnIndex, String name, int row) {
+    int id = columnIndex == MISSING ? MISSING : _columns[columnIndex]._cells[row];
+    if (id == MISSING) {
+      throw new NoSuchElementException(Row.missingColumnErrorMessage(name, columnNames(row)));
+    }
+    return id;
+  }
+
+  private @Nonnull Set<String> columnNames(int row) {
+    Set<String> names = new TreeSet<>();
+    for (Column column : _columns) {
+      if (column._cells[row] != MISSING) {
+        names.add(column._name);
+      }
+    }
+    return names;
+  }
+
+  private static <T> T readJson(String json, Class<T> clazz) {
+    try {
+      return BatfishObjectMapper.mapper().readValue(json, clazz);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class Column implements Serializable {
+    private final @Nonnull String _name;
+    private final @Nonnull int[] _cells;
+    /** The JSON text of each distinct value of this column, by dictionary ID. */
+    private final @Nonnull String[] _values;
+    /** The sort rank of each distinct value, or {@code null} if the column cannot be sorted. */
+    private final @Nullable int[] _ranks;
+    /** Why the column cannot be sorted, if it cannot. */
+    private final @Nullable String _error;
+    /** The parsed distinct values, populated lazily. */
+    private transient @Nullable JsonNode[] _nodes;
+
+    private Column(
+        String name, int[] cells, String[] values, @Nullable int[] ranks, @Nullable String error) {
+      _name = name;
+      _cells = cells;
+      _values = values;
+      _ranks = ranks;
+      _error = error;
+    }
+
+    private @Nonnull JsonNode node(int id) {
+      JsonNode[] nodes = _nodes;
+      if (nodes == null) {
+        nodes = new JsonNode[_values.length];
+        _nodes = nodes;
+      }
+      JsonNode node = nodes[id];
+      if (node == null) {
+        node = readJson(_values[id], JsonNode.class);
+        nodes[id] = node;
+      }
+      return node;
+    }
+  }
+
+  private static final class ColumnBuilder {
+    private final @Nonnull String _name;
+    private final @Nullable Schema _schema;
+    private final @Nonnull int[] _cells;
+    /** Dictionary IDs by the JSON text of the values as they appear in the original rows. */
+    private final @Nonnull Map<String, Integer> _idsByText = new HashMap<>();
+    /**
+     * Dictionary IDs by value, as parsed from JSON, so that values that are equal once serialized
+     * and parsed (e.g., a long and an int) share an ID.
+     */
+    private final @Nonnull Map<JsonNode, Integer> _idsByNode = new HashMap<>();
+
+    private final @Nonnull List<JsonNode> _nodes = new ArrayList<>();
+
+    private ColumnBuilder(String name, @Nullable Schema schema, int numRows) {
+      _name = name;
+      _schema = schema;
+      _cells = new int[numRows];
+      Arrays.fill(_cells, MISSING);
+    }
+
+    private void add(int row, JsonNode value) {
+      String text = value.toString();
+      Integer id = _idsByText.get(text);
+      if (id == null) {
+        JsonNode node = readJson(text, JsonNode.class);
+        id = _idsByNode.get(node);
+        if (id == null) {
+          id = _nodes.size();
+          _nodes.add(node);
+          _idsByNode.put(node, id);
+        }
+        _idsByText.put(text, id);
+      }
+      _cells[row] = id;
+    }
+
+    private @Nonnull Column build() {
+      String[] values = _nodes.stream().map(JsonNode::toString).toArray(String[]::new);
+      if (_schema == null) {
+        return new Column(_name, _cells, values, null, "no metadata for column");
+      }
+      try {
+        return new Column(_name, _cells, values, ranks(_schema), null);
+      } catch (ClassCastException | IllegalArgumentException e) {
+        return new Column(_name, _cells, values, null, e.getMessage());
+      }
+    }
+
+    /** Returns the rank of each distinct value in the sort order of {@code schema}. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private @Nonnull int[] ranks(Schema schema) {
+      Object[] objects =
+          _nodes.stream().map(node -> SchemaUtils.convertType(node, schema)).toArray();
+      Comparator<Object> comparator = nullsFirst((Comparator) SchemaComparators.forSchema(schema));
+      Integer[] byValue = new Integer[objects.length];
+      Arrays.setAll(byValue, i -> i);
+      Arrays.sort(byValue, (a, b) -> comparator.compare(objects[a], objects[b]));
+      int[] ranks = new int[objects.length];
+      for (int i = 1; i < byValue.length; i++) {
+        ranks[byValue[i]] =
+            comparator.compare(objects[byValue[i - 1]], objects[byValue[i]]) == 0
+                ? ranks[byValue[i - 1]]
+                : i;
+      }
+      return ranks;
+    }
+  }
+
+  private final @Nonnull String _metadata;
+  private final @Nullable String _summary;
+  private final @Nonnull Column[] _columns;
+  private final int _numRows;
+  private final @Nonnull int[] _viewRowIds;
+  private final @Nonnull Map<String, Integer> _columnIndices;
+}
@@ -254,7 +254,7 @@ public class Row implements Serializable {
   }
 
   @JsonValue
-  private ObjectNode getData() {
+  ObjectNode getData() {
     return _data;
   }
 
@@ -0,0 +1,81 @@
+package org.batfish.datamodel.table;
+
+import static com.google.common.collect.Comparators.lexicographical;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
+
+import com.google.common.collect.Comparators;
+import java.util.Comparator;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.answers.Issue;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.Schema.Type;
+import org.batfish.datamodel.flow.Hop;
+import org.batfish.datamodel.flow.Step;
+import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.pojo.Node;
+
+/** The orders in which answer rows are sorted by the values of a column of a given schema. */
+@ParametersAreNonnullByDefault
+public final class SchemaComparators {
+
+  private static final Comparator<Node> COMPARATOR_NODE = Comparator.comparing(Node::getName);
+
+  private static final Comparator<Trace> COMPARATOR_TRACE =
+      Comparator.comparing(Trace::getDisposition)
+          .thenComparing(
+              Trace::getHops,
+              Comparators.lexicographical(
+                  Comparator.comparing(Hop::getNode, Comparator.comparing(Node::getName))
+                      .thenComparing(
+                          Hop::getSteps,
+                          Comparators.lexicographical(
+                              Comparator.<Step<?>, String>comparing(
+                                      step -> step.getDetail().toString())
+                                  .thenComparing(Step::getAction)))));
+
+  /**
+   * Returns the comparator for non-null values of {@code schema}, as returned by {@link
+   * org.batfish.datamodel.answers.SchemaUtils#convertType}.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public static @Nonnull Comparator<?> forSchema(Schema schema) {
+    if (schema.equals(Schema.BOOLEAN)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.DOUBLE)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.FLOW)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.INTEGER)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.INTERFACE)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.IP)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.ISSUE)) {
+      return comparing(Issue::getSeverity);
+    } else if (schema.getType() == Type.LIST) {
+      Comparator schemaComparator = forSchema(schema.getInnerSchema());
+      return lexicographical(nullsFirst(schemaComparator));
+    } else if (schema.equals(Schema.LONG)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.NODE)) {
+      return COMPARATOR_NODE;
+    } else if (schema.equals(Schema.PREFIX)) {
+      return naturalOrder();
+    } else if (schema.getType() == Type.SET) {
+      Comparator schemaComparator = forSchema(schema.getInnerSchema());
+      return lexicographical(nullsFirst(schemaComparator));
+    } else if (schema.equals(Schema.STRING)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.TRACE)) {
+      return COMPARATOR_TRACE;
+    } else {
+      return comparing(Object::toString);
+    }
+  }
+
+  private SchemaComparators() {}
+}
@@ -159,20 +159,26 @@ public final class TableAnswerElement extends AnswerElement {
    * @param initialSet The initial set of rows
    */
   public void postProcessAnswer(Question question, Iterable<Row> initialSet) {
-    initialSet.forEach(
-        initialRow -> {
-          // exclude or not?
-          Exclusion exclusion = Exclusion.covered(initialRow, question.getExclusions());
-          if (exclusion != null) {
-            addExcludedRow(initialRow, exclusion.getName());
-          } else {
-            addRow(initialRow);
-          }
-        });
+    initialSet.forEach(initialRow -> postProcessRow(question, initialRow));
 
     setSummary(computeSummary(question.getAssertion()));
   }
 
+  /**
+   * Processes exclusions for a single row produced by an {@link org.batfish.common.Answerer}, and
+   * adds it to this object. Answerers that produce rows incrementally call this as each row is
+   * produced, then {@link #postProcessAnswer(Question, Iterable)} with no further rows.
+   */
+  public void postProcessRow(Question question, Row row) {
+    // exclude or not?
+    Exclusion exclusion = Exclusion.covered(row, question.getExclusions());
+    if (exclusion != null) {
+      addExcludedRow(row, exclusion.getName());
+    } else {
+      addRow(row);
+    }
+  }
+
   @JsonProperty(PROP_EXCLUDED_ROWS)
   private void setExcludedRows(List<ExcludedRows> excludedRows) {
     _excludedRows = excludedRows == null ? new LinkedList<>() : excludedRows;
@@ -0,0 +1,363 @@
+package org.batfish.storage;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OriginMechanism;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.route.nh.NextHop;
+import org.batfish.datamodel.route.nh.NextHopDiscard;
+import org.batfish.datamodel.route.nh.NextHopIp;
+import org.batfish.datamodel.routing_policy.communities.CommunitySet;
+
+/**
+ * A {@link StorageCodec} that writes {@link Bgpv4Route}s, which make up most of a large data plane,
+ * as fixed binary records instead of Java-serialized objects. Everything else, including the
+ * collections holding the routes, is Java-serialized as by {@link StorageCodecs#JAVA}.
+ *
+ * <p>A Java-serialized route carries the name and type of every field, and a reference to each
+ * boxed or enum field value. A binary record holds only the values: addresses as 4-byte integers,
+ * numeric attributes as variable-length integers, enums as 1-byte ordinals, and the flags in a
+ * single byte. The AS path, communities, and cluster
+ * list are still Java-serialized within the record, so that the values interned across routes are
+ * written once per stream and referenced by handle afterwards. Routes are rebuilt through their
+ * builder when read, which interns their cluster lists again. Routes with an {@link Ip#AUTO}
+ * address, which does not fit in 4 bytes, are Java-serialized as well.
+ *
+ * <p>A set of routes, like the BGP routes of a VRF, is written as one record whose network and
+ * originator addresses come first, in two columns. They are interned with one {@link Ip#createAll}
+ * call per column when read, instead of one {@link Ip#create} call per address.
+ *
+ * <p>Enums are written by ordinal, so reordering the constants of {@link OriginMechanism}, {@link
+ * OriginType}, or {@link RoutingProtocol} requires incrementing {@link
+ * StorageCodecs#FORMAT_VERSION}.
+ */
+@ParametersAreNonnullByDefault
+final class BinaryCodec implements StorageCodec {
+
+  private final byte _id;
+
+  BinaryCodec(byte id) {
+    _id = id;
+  }
+
+  @Override
+  public byte getId() {
+    return _id;
+  }
+
+  @Override
+  public void encode(@Nullable Serializable object, OutputStream out) throws IOException {
+    ObjectOutputStream oos = new RecordOutputStream(out);
+    oos.writeObject(object);
+    oos.flush();
+  }
+
+  @Override
+  public @Nullable Object decode(InputStream in) throws IOException, ClassNotFoundException {
+    // Records resolve themselves to routes, so no custom input stream is needed
+    return new ObjectInputStream(in).readObject();
+  }
+
+  /**
+   * Replaces {@link Bgpv4Route}s with {@link Bgpv4RouteRecord}s, and sets of them with {@link
+   * Bgpv4RouteSetRecord}s.
+   */
+  private static final class RecordOutputStream extends ObjectOutputStream {
+    private RecordOutputStream(OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+      // Exact class, so that subclasses added later are not silently truncated
+      if (obj != null && obj.getClass() == Bgpv4Route.class && hasRecordableIps((Bgpv4Route) obj)) {
+        return new Bgpv4RouteRecord((Bgpv4Route) obj);
+      }
+      // Sorted sets would lose their comparator
+      if (obj instanceof ImmutableSet
+          && !(obj instanceof ImmutableSortedSet)
+          && isRecordableRouteSet((ImmutableSet<?>) obj)) {
+        @SuppressWarnings("unchecked")
+        ImmutableSet<Bgpv4Route> routes = (ImmutableSet<Bgpv4Route>) obj;
+        return new Bgpv4RouteSetRecord(routes);
+      }
+      return obj;
+    }
+
+    private static boolean isRecordableRouteSet(ImmutableSet<?> set) {
+      if (set.size() < 2) {
+        return false;
+      }
+      for (Object element : set) {
+        if (element.getClass() != Bgpv4Route.class || !hasRecordableIps((Bgpv4Route) element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean hasRecordableIps(Bgpv4Route route) {
+      // NextHopIp never holds Ip.AUTO
+      return !Ip.AUTO.equals(route.getOriginatorIp()) && !Ip.AUTO.equals(route.getReceivedFromIp());
+    }
+  }
+
+  /** The binary record of a {@link Bgpv4Route}. Resolves to the route when read. */
+  private static final class Bgpv4RouteRecord implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int NON_FORWARDING = 1;
+    private static final int NON_ROUTING = 1 << 1;
+    private static final int RECEIVED_FROM_ROUTE_REFLECTOR_CLIENT = 1 << 2;
+    private static final int HAS_RECEIVED_FROM_IP = 1 << 3;
+    private static final int HAS_SRC_PROTOCOL = 1 << 4;
+
+    private static final byte NEXT_HOP_IP = 0;
+    private static final byte NEXT_HOP_DISCARD = 1;
+    private static final byte NEXT_HOP_OTHER = 2;
+
+    private static final OriginMechanism[] ORIGIN_MECHANISMS = OriginMechanism.values();
+    private static final OriginType[] ORIGIN_TYPES = OriginType.values();
+    private static final RoutingProtocol[] ROUTING_PROTOCOLS = RoutingProtocol.values();
+
+    private @Nullable Bgpv4Route _route;
+
+    /** Used by Java serialization to read a record. */
+    public Bgpv4RouteRecord() {}
+
+    private Bgpv4RouteRecord(Bgpv4Route route) {
+      _route = route;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+      Bgpv4Route route = _route;
+      assert route != null;
+      writeIp(out, route.getNetwork().getStartIp());
+      writeIp(out, route.getOriginatorIp());
+      writeAttributes(out, route);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+      Ip networkStartIp = readIp(in);
+      Ip originatorIp = readIp(in);
+      _route = readAttributes(in, networkStartIp, originatorIp);
+    }
+
+    private @Nonnull Object readResolve() {
+      assert _route != null;
+      return _route;
+    }
+
+    /** Writes all attributes of {@code route} but its network address and originator IP. */
+    private static void writeAttributes(ObjectOutput out, Bgpv4Route route) throws IOException {
+      out.writeByte(route.getNetwork().getPrefixLength());
+      writeNextHop(out, route.getNextHop());
+      writeVarLong(out, route.getAdministrativeCost());
+      writeVarLong(out, route.getLocalPreference());
+      writeVarLong(out, route.getMetric());
+      writeVarLong(out, route.getTag());
+      writeVarLong(out, route.getWeight());
+      out.writeByte(route.getOriginMechanism().ordinal());
+      out.writeByte(route.getOriginType().ordinal());
+      out.writeByte(route.getProtocol().ordinal());
+      Ip receivedFromIp = route.getReceivedFromIp();
+      RoutingProtocol srcProtocol = route.getSrcProtocol();
+      int flags =
+          (route.getNonForwarding() ? NON_FORWARDING : 0)
+              | (route.getNonRouting() ? NON_ROUTING : 0)
+              | (route.getReceivedFromRouteReflectorClient()
+                  ? RECEIVED_FROM_ROUTE_REFLECTOR_CLIENT
+                  : 0)
+              | (receivedFromIp != null ? HAS_RECEIVED_FROM_IP : 0)
+              | (srcProtocol != null ? HAS_SRC_PROTOCOL : 0);
+      out.writeByte(flags);
+      if (receivedFromIp != null) {
+        writeIp(out, receivedFromIp);
+      }
+      if (srcProtocol != null) {
+        out.writeByte(srcProtocol.ordinal());
+      }
+      out.writeObject(route.getAsPath());
+      out.writeObject(route.getCommunities());
+      out.writeObject(route.getClusterList());
+    }
+
+    /** Reads the attributes written by {@link #writeAttributes}, and builds the route. */
+    @SuppressWarnings("unchecked")
+    private static @Nonnull Bgpv4Route readAttributes(
+        ObjectInput in, Ip networkStartIp, Ip originatorIp)
+        throws IOException, ClassNotFoundException {
+      Bgpv4Route.Builder builder =
+          Bgpv4Route.builder()
+              .setNetwork(Prefix.create(networkStartIp, in.readUnsignedByte()))
+              .setNextHop(readNextHop(in))
+              .setAdmin(Math.toIntExact(readVarLong(in)))
+              .setLocalPreference(readVarLong(in))
+              .setMetric(readVarLong(in))
+              .setTag(readVarLong(in))
+              .setWeight(Math.toIntExact(readVarLong(in)))
+              .setOriginatorIp(originatorIp)
+              .setOriginMechanism(ORIGIN_MECHANISMS[in.readUnsignedByte()])
+              .setOriginType(ORIGIN_TYPES[in.readUnsignedByte()])
+              .setProtocol(ROUTING_PROTOCOLS[in.readUnsignedByte()]);
+      int flags = in.readUnsignedByte();
+      builder
+          .setNonForwarding((flags & NON_FORWARDING) != 0)
+          .setNonRouting((flags & NON_ROUTING) != 0)
+          .setReceivedFromRouteReflectorClient(
+              (flags & RECEIVED_FROM_ROUTE_REFLECTOR_CLIENT) != 0);
+      if ((flags & HAS_RECEIVED_FROM_IP) != 0) {
+        builder.setReceivedFromIp(readIp(in));
+      }
+      if ((flags & HAS_SRC_PROTOCOL) != 0) {
+        builder.setSrcProtocol(ROUTING_PROTOCOLS[in.readUnsignedByte()]);
+      }
+      return builder
+          .setAsPath((AsPath) in.readObject())
+          .setCommunities((CommunitySet) in.readObject())
+          .setClusterList((Set<Long>) in.readObject())
+          .build();
+    }
+
+    private static void writeIp(ObjectOutput out, Ip ip) throws IOException {
+      out.writeInt((int) ip.asLong());
+    }
+
+    private static @Nonnull Ip readIp(ObjectInput in) throws IOException {
+      return Ip.create(Integer.toUnsignedLong(in.readInt()));
+    }
+
+    /**
+     * Writes {@code value} zigzag-encoded in groups of 7 bits, so that the small values typical of
+     * route attributes take one or two bytes instead of eight.
+     */
+    private static void writeVarLong(ObjectOutput out, long value) throws IOException {
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+        zigzag >>>= 7;
+      }
+      out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(ObjectInput in) throws IOException {
+      long zigzag = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += 7) {
+        int b = in.readUnsignedByte();
+        zigzag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+      }
+      throw new IOException("Malformed variable-length integer");
+    }
+
+    private static void writeNextHop(ObjectOutput out, NextHop nextHop) throws IOException {
+      if (nextHop instanceof NextHopIp) {
+        out.writeByte(NEXT_HOP_IP);
+        writeIp(out, ((NextHopIp) nextHop).getIp());
+      } else if (nextHop instanceof NextHopDiscard) {
+        out.writeByte(NEXT_HOP_DISCARD);
+      } else {
+        out.writeByte(NEXT_HOP_OTHER);
+        out.writeObject(nextHop);
+      }
+    }
+
+    private static @Nonnull NextHop readNextHop(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+      byte kind = in.readByte();
+      switch (kind) {
+        case NEXT_HOP_IP:
+          return NextHopIp.of(readIp(in));
+        case NEXT_HOP_DISCARD:
+          return NextHopDiscard.instance();
+        case NEXT_HOP_OTHER:
+          return (NextHop) in.readObject();
+        default:
+          throw new IOException("Unknown next hop kind: " + kind);
+      }
+    }
+  }
+
+  /**
+   * The binary record of an {@link ImmutableSet} of {@link Bgpv4Route}s. Resolves to an equal set,
+   * in the same order, when read.
+   */
+  private static final class Bgpv4RouteSetRecord implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private @Nullable ImmutableSet<Bgpv4Route> _routes;
+
+    /** Used by Java serialization to read a record. */
+    public Bgpv4RouteSetRecord() {}
+
+    private Bgpv4RouteSetRecord(ImmutableSet<Bgpv4Route> routes) {
+      _routes = routes;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+      ImmutableSet<Bgpv4Route> routes = _routes;
+      assert routes != null;
+      out.writeInt(routes.size());
+      for (Bgpv4Route route : routes) {
+        Bgpv4RouteRecord.writeIp(out, route.getNetwork().getStartIp());
+      }
+      for (Bgpv4Route route : routes) {
+        Bgpv4RouteRecord.writeIp(out, route.getOriginatorIp());
+      }
+      for (Bgpv4Route route : routes) {
+        Bgpv4RouteRecord.writeAttributes(out, route);
+      }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+      int size = in.readInt();
+      List<Ip> networkStartIps = Ip.createAll(readIps(in, size));
+      List<Ip> originatorIps = Ip.createAll(readIps(in, size));
+      ImmutableSet.Builder<Bgpv4Route> routes = ImmutableSet.builderWithExpectedSize(size);
+      for (int i = 0; i < size; i++) {
+        routes.add(
+            Bgpv4RouteRecord.readAttributes(in, networkStartIps.get(i), originatorIps.get(i)));
+      }
+      _routes = routes.build();
+    }
+
+    private @Nonnull Object readResolve() {
+      assert _routes != null;
+      return _routes;
+    }
+
+    private static long[] readIps(ObjectInput in, int size) throws IOException {
+      long[] ips = new long[size];
+      for (int i = 0; i < size; i++) {
+        ips[i] = Integer.toUnsignedLong(in.readInt());
+      }
+      return ips;
+    }
+  }
+}
@@ -19,17 +19,19 @@ import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import com.google.common.io.MoreFiles;
 import com.google.errorprone.annotations.MustBeClosed;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
@@ -37,6 +39,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
@@ -58,7 +61,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.jpountz.lz4.LZ4FrameInputStream;
-import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
@@ -68,6 +72,7 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.BDDNodeStore;
 import org.batfish.common.plugin.PluginConsumer.Format;
 import org.batfish.common.runtime.SnapshotRuntimeData;
 import org.batfish.common.topology.L3Adjacencies;
@@ -91,6 +96,7 @@ import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspConfigurationException;
 import org.batfish.datamodel.ospf.OspfTopology;
 import org.batfish.datamodel.questions.Question;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -101,6 +107,7 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.role.NodeRolesData;
+import org.batfish.storage.StorageCodecs.Compression;
 import org.batfish.vendor.ConversionContext;
 import org.batfish.vendor.VendorConfiguration;
 
@@ -134,10 +141,12 @@ public class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_ANSWERS_DIR = "answers";
   private static final String RELPATH_ANSWER_METADATA = "answer_metadata.json";
   private static final String RELPATH_ANSWER_JSON = "answer.json";
+  private static final String RELPATH_ANSWER_TABLE = "answer_table";
   private static final String RELPATH_ANALYSES_DIR = "analyses";
   private static final String RELPATH_BATFISH_CONFIGS_DIR = "batfish";
   private static final String RELPATH_SNAPSHOT_ZIP_FILE = "snapshot.zip";
   private static final String RELPATH_DATA_PLANE = "dp";
+  private static final String RELPATH_BDDS_DIR = "bdds";
   private static final String RELPATH_SERIALIZED_ENVIRONMENT_BGP_TABLES = "bgp_processed";
   private static final String RELPATH_ENVIRONMENT_BGP_TABLES_ANSWER = "bgp_answer";
   private static final String RELPATH_PARSE_ANSWER_PATH = "parse_answer";
@@ -513,6 +522,15 @@ public class FileBasedStorage implements StorageProvider {
     Path answerPath = getAnswerPath(network, snapshot, answerId);
     mkdirs(answerPath.getParent());
     writeStringToFile(answerPath, answerStr, UTF_8);
+    // The table of a previous answer with the same ID is stale
+    deleteIfExists(getAnswerTablePath(network, snapshot, answerId));
+  }
+
+  @Override
+  public void storeAnswerTable(
+      NetworkId network, SnapshotId snapshot, ColumnarTable table, AnswerId answerId)
+      throws IOException {
+    serializeObject(table, getAnswerTablePath(network, snapshot, answerId));
   }
 
   @Override
@@ -534,7 +552,13 @@ public class FileBasedStorage implements StorageProvider {
     Path sanitizedInputFile = validatePath(inputFile);
     try (Closer closer = Closer.create()) {
       FileInputStream fis = closer.register(new FileInputStream(sanitizedInputFile.toFile()));
-      PushbackInputStream pbstream = new PushbackInputStream(fis, DEFAULT_HEADER_LENGTH_BYTES);
+      PushbackInputStream pbstream =
+          new PushbackInputStream(
+              fis, Math.max(DEFAULT_HEADER_LENGTH_BYTES, StorageCodecs.HEADER_LENGTH_BYTES));
+      if (StorageCodecs.hasHeader(pbstream)) {
+        return outputClass.cast(StorageCodecs.read(pbstream));
+      }
+      // Files written before storage codecs existed have no header
       Format f = detectFormat(pbstream);
       ObjectInputStream ois;
       if (f == Format.GZIP) {
@@ -585,8 +609,8 @@ public class FileBasedStorage implements StorageProvider {
   }
 
   /**
-   * Writes a single object of the given class to the given file. Uses the {@link FileBasedStorage}
-   * default file encoding including serialization format and compression.
+   * Writes a single object of the given class to the given file, Java-serialized with LZ4
+   * compression behind a {@link StorageCodecs storage codec} header.
    */
   @VisibleForTesting
   void serializeObject(Serializable object, Path outputFile) {
@@ -594,10 +618,8 @@ public class FileBasedStorage implements StorageProvider {
     try {
       Path tmpFile = Files.createTempFile(null, null);
       try {
-        try (OutputStream out = Files.newOutputStream(tmpFile);
-            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
-          oos.writeObject(object);
+        try (OutputStream out = Files.newOutputStream(tmpFile)) {
+          StorageCodecs.write(object, StorageCodecs.JAVA, Compression.LZ4, out);
         } catch (Throwable e) {
           throw new BatfishException(
               "Failed to serialize object to output file: " + sanitizedOutputFile, e);
@@ -679,6 +701,20 @@ public class FileBasedStorage implements StorageProvider {
     throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
   }
 
+  @Override
+  public @Nonnull Optional<ColumnarTable> loadAnswerTable(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
+    Path answerTablePath = getAnswerTablePath(networkId, snapshotId, answerId);
+    if (!Files.exists(answerTablePath)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(deserializeObject(answerTablePath, ColumnarTable.class));
+    } catch (BatfishException e) {
+      throw new IOException("Failed to deserialize answer table", e);
+    }
+  }
+
   @Override
   public @Nonnull AnswerMetadata loadAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
@@ -709,6 +745,11 @@ public class FileBasedStorage implements StorageProvider {
     return getOldAnswerDir(answerId).resolve(RELPATH_ANSWER_JSON);
   }
 
+  private @Nonnull Path getAnswerTablePath(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+    return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_TABLE);
+  }
+
   private @Nonnull Path getAnswerMetadataPath(
       NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
     return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_METADATA);
@@ -1554,12 +1595,39 @@ public class FileBasedStorage implements StorageProvider {
   @Nonnull
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) throws IOException {
-    return deserializeObject(getDataPlanePath(snapshot), DataPlane.class);
+    Path dataPlanePath = validatePath(getDataPlanePath(snapshot));
+    byte[] header = new byte[SegmentedDataPlane.HEADER_LENGTH_BYTES];
+    try (InputStream in = Files.newInputStream(dataPlanePath)) {
+      ByteStreams.read(in, header, 0, header.length);
+    }
+    if (SegmentedDataPlane.isSegmented(header)) {
+      return SegmentedDataPlane.open(dataPlanePath);
+    }
+    // Data planes written before the segmented layout existed are a single object
+    return deserializeObject(dataPlanePath, DataPlane.class);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The data plane is stored in a segmented layout, so that {@link #loadDataPlane} can load the
+   * state of each node only when it is accessed.
+   */
   @Override
   public void storeDataPlane(DataPlane dataPlane, NetworkSnapshot snapshot) throws IOException {
-    serializeObject(dataPlane, getDataPlanePath(snapshot));
+    Path dataPlanePath = validatePath(getDataPlanePath(snapshot));
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        SegmentedDataPlane.write(dataPlane, out);
+      }
+      mkdirs(dataPlanePath.getParent());
+      Files.move(tmpFile, dataPlanePath, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+    // BDDs stored for the previous data plane are stale
+    FileUtils.deleteDirectory(getBddsDir(snapshot).toFile());
   }
 
   @Override
@@ -1567,6 +1635,42 @@ public class FileBasedStorage implements StorageProvider {
     return Files.exists(getDataPlanePath(snapshot));
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The stored BDDs are memory-mapped and rebuilt directly in {@code factory}, see {@link
+   * BDDNodeStore}.
+   */
+  @Nonnull
+  @Override
+  public Optional<Map<String, BDD>> loadBdds(
+      BDDFactory factory, NetworkSnapshot snapshot, String key) throws IOException {
+    Path bddsPath = getBddsPath(snapshot, key);
+    if (!Files.exists(bddsPath)) {
+      return Optional.empty();
+    }
+    try (FileChannel channel = FileChannel.open(bddsPath, StandardOpenOption.READ)) {
+      return Optional.of(
+          BDDNodeStore.read(factory, channel.map(MapMode.READ_ONLY, 0, channel.size())));
+    }
+  }
+
+  @Override
+  public void storeBdds(Map<String, BDD> bdds, NetworkSnapshot snapshot, String key)
+      throws IOException {
+    Path bddsPath = getBddsPath(snapshot, key);
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        BDDNodeStore.write(bdds, out);
+      }
+      mkdirs(bddsPath.getParent());
+      Files.move(tmpFile, bddsPath, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
   @MustBeClosed
   @Nonnull
   @Override
@@ -1680,11 +1784,24 @@ public class FileBasedStorage implements StorageProvider {
         .resolve(RELPATH_SERIALIZED_ENVIRONMENT_BGP_TABLES);
   }
 
-  private @Nonnull Path getDataPlanePath(NetworkSnapshot snapshot) {
+  @VisibleForTesting
+  @Nonnull
+  Path getDataPlanePath(NetworkSnapshot snapshot) {
     return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
         .resolve(RELPATH_DATA_PLANE);
   }
 
+  @VisibleForTesting
+  @Nonnull
+  Path getBddsPath(NetworkSnapshot snapshot, String key) {
+    return validatePath(getBddsDir(snapshot).resolve(toBase64(key)));
+  }
+
+  private @Nonnull Path getBddsDir(NetworkSnapshot snapshot) {
+    return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
+        .resolve(RELPATH_BDDS_DIR);
+  }
+
   private @Nonnull Path getReferenceLibraryPath(NetworkId network) {
     return getNetworkDir(network).resolve(BfConsts.RELPATH_REFERENCE_LIBRARY_PATH);
   }
@@ -0,0 +1,846 @@
+package org.batfish.storage;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ForwardingTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+import com.google.common.collect.Tables;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.storage.StorageCodecs.Compression;
+
+/**
+ * A {@link DataPlane} backed by a segmented file, in which the routes, FIBs, and other data of each
+ * VRF of each node are stored in a separate segment. Segments are memory-mapped and deserialized
+ * only when the corresponding VRF is accessed, and the least recently used segments are dropped
+ * again once they exceed a memory budget. So answering a question about a few nodes or VRFs does
+ * not require loading the data plane of the whole network into the heap, and neither does keeping
+ * a data plane in memory across many questions.
+ *
+ * <p>File layout:
+ *
+ * <ol>
+ *   <li>{@link #MAGIC_BYTES}, {@link #FORMAT_VERSION}, and a random 8-byte generation, which a
+ *       {@link SegmentedDataPlane} checks on every read to detect that the file was replaced
+ *   <li>the {@link ForwardingAnalysis} segment, followed by one segment per VRF of each node. Each
+ *       segment is written by {@link StorageCodecs#write} with the {@link StorageCodecs#BINARY
+ *       binary codec} and LZ4 frame compression.
+ *   <li>the {@link Index} of all segments, encoded the same way
+ *   <li>the offset of the index, as an 8-byte long
+ * </ol>
+ */
+@ParametersAreNonnullByDefault
+final class SegmentedDataPlane implements DataPlane {
+
+  /**
+   * Bytes that start every segmented data plane file. Distinct from the Java serialization, LZ4,
+   * and GZIP magic bytes that data planes stored as a single object start with.
+   */
+  private static final byte[] MAGIC_BYTES = {'B', 'F', 'D', 'P'};
+
+  /** Version of the segmented layout. Increment when a change makes existing files unreadable. */
+  @VisibleForTesting static final byte FORMAT_VERSION = 6;
+
+  /** Number of VRF segments encoded at once by {@link #write}. */
+  private static final int WRITE_BATCH_SIZE = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Default limit on the total serialized size of the VRF segments held in memory by a {@link
+   * SegmentedDataPlane}. Segments are weighed by their encoded size before compression, not by
+   * their compressed size on disk. Their size in the heap is still larger, typically by a small
+   * constant factor.
+   */
+  private static final long DEFAULT_MAX_LOADED_SERIALIZED_BYTES = 256L * 1024 * 1024;
+
+  /** Length of the header identifying a segmented data plane file. */
+  static final int HEADER_LENGTH_BYTES = MAGIC_BYTES.length + 1;
+
+  /** Length of the header and the generation that follows it. */
+  private static final int PREAMBLE_LENGTH_BYTES = HEADER_LENGTH_BYTES + Long.BYTES;
+
+  /** Returns {@code true} iff {@code header} starts with the segmented data plane magic bytes. */
+  static boolean isSegmented(byte[] header) {
+    return header.length >= MAGIC_BYTES.length
+        && Arrays.equals(Arrays.copyOf(header, MAGIC_BYTES.length), MAGIC_BYTES);
+  }
+
+  /**
+   * Write {@code dataPlane} to {@code out} in the segmented layout. Segments are encoded in
+   * parallel, a batch of {@link #WRITE_BATCH_SIZE} at a time, and written as soon as their batch is
+   * done, so at most one batch of encoded segments is held in memory. The index is written last,
+   * once the locations of all segments are known.
+   */
+  static void write(DataPlane dataPlane, OutputStream out) throws IOException {
+    CountingOutputStream cos = new CountingOutputStream(out);
+    DataOutputStream dos = new DataOutputStream(cos);
+    dos.write(MAGIC_BYTES);
+    dos.write(FORMAT_VERSION);
+    dos.writeLong(new SecureRandom().nextLong());
+    SegmentLocation forwardingAnalysisLocation =
+        writeSegment(encodeSegment((Serializable) dataPlane.getForwardingAnalysis()), cos, dos);
+    SortedMap<String, SortedSet<String>> vrfsByHostname = getVrfsByHostname(dataPlane);
+    List<Entry<String, String>> keys =
+        vrfsByHostname.entrySet().stream()
+            .flatMap(
+                entry ->
+                    entry.getValue().stream().map(vrf -> Maps.immutableEntry(entry.getKey(), vrf)))
+            .collect(ImmutableList.toImmutableList());
+    SortedMap<String, ImmutableSortedMap.Builder<String, VrfEntry>> nodes = new TreeMap<>();
+    vrfsByHostname
+        .keySet()
+        .forEach(hostname -> nodes.put(hostname, ImmutableSortedMap.naturalOrder()));
+    for (List<Entry<String, String>> batch : Iterables.partition(keys, WRITE_BATCH_SIZE)) {
+      List<Entry<VrfSegment, EncodedSegment>> vrfSegments =
+          batch.parallelStream()
+              .map(
+                  key -> {
+                    VrfSegment segment = VrfSegment.of(dataPlane, key.getKey(), key.getValue());
+                    return Maps.immutableEntry(segment, encodeSegment(segment));
+                  })
+              .collect(ImmutableList.toImmutableList());
+      for (int i = 0; i < batch.size(); i++) {
+        VrfSegment segment = vrfSegments.get(i).getKey();
+        EncodedSegment encoded = vrfSegments.get(i).getValue();
+        nodes
+            .get(batch.get(i).getKey())
+            .put(
+                batch.get(i).getValue(),
+                new VrfEntry(
+                    writeSegment(encoded, cos, dos),
+                    encoded._serializedLength,
+                    segment.getParts(),
+                    segment.getRouteCount()));
+      }
+    }
+    long indexOffset = cos.getCount();
+    dos.write(
+        encodeSegment(
+                new Index(
+                    forwardingAnalysisLocation,
+                    ImmutableSortedMap.copyOfSorted(
+                        Maps.transformValues(nodes, ImmutableSortedMap.Builder::build)),
+                    ImmutableSortedMap.copyOf(dataPlane.getNodeFingerprints())))
+            ._bytes);
+    dos.writeLong(indexOffset);
+    dos.flush();
+  }
+
+  /**
+   * Open the segmented data plane file at {@code path}. Only the index is read; segments are read
+   * on demand.
+   *
+   * @throws BatfishException if the file is not a segmented data plane or has an unsupported
+   *     version.
+   */
+  static @Nonnull SegmentedDataPlane open(Path path) throws IOException {
+    return open(path, DEFAULT_MAX_LOADED_SERIALIZED_BYTES);
+  }
+
+  /**
+   * Open the segmented data plane file at {@code path}, keeping VRF segments of total serialized
+   * size at most {@code maxLoadedSerializedBytes} in memory.
+   */
+  @VisibleForTesting
+  static @Nonnull SegmentedDataPlane open(Path path, long maxLoadedSerializedBytes)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(PREAMBLE_LENGTH_BYTES);
+      readFully(channel, header, 0);
+      if (!isSegmented(header.array())) {
+        throw new BatfishException(String.format("File %s is not a segmented data plane", path));
+      }
+      byte version = header.get(MAGIC_BYTES.length);
+      if (version != FORMAT_VERSION) {
+        throw new BatfishException(
+            String.format(
+                "Unsupported data plane format version %d (expected %d)", version, FORMAT_VERSION));
+      }
+      long generation = header.getLong(HEADER_LENGTH_BYTES);
+      long size = channel.size();
+      ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+      readFully(channel, trailer, size - Long.BYTES);
+      long indexOffset = trailer.getLong(0);
+      Index index =
+          (Index)
+              readSegment(
+                  channel, new SegmentLocation(indexOffset, size - Long.BYTES - indexOffset));
+      return new SegmentedDataPlane(path, generation, index, maxLoadedSerializedBytes);
+    } catch (ClassNotFoundException e) {
+      throw new BatfishException(
+          String.format("Failed to read index of segmented data plane %s", path), e);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new BatfishException("Unexpected end of segmented data plane file");
+      }
+    }
+  }
+
+  /** Returns the VRFs of each node that has any data in {@code dataPlane}. */
+  private static @Nonnull SortedMap<String, SortedSet<String>> getVrfsByHostname(
+      DataPlane dataPlane) {
+    SortedMap<String, SortedSet<String>> vrfsByHostname = new TreeMap<>();
+    ImmutableList.<Map<String, ? extends Map<String, ?>>>of(
+            dataPlane.getRibs(),
+            dataPlane.getFibs(),
+            dataPlane.getPrefixTracingInfoSummary(),
+            rowMap(dataPlane.getBgpRoutes()),
+            rowMap(dataPlane.getBgpBackupRoutes()),
+            rowMap(dataPlane.getEvpnRoutes()),
+            rowMap(dataPlane.getEvpnBackupRoutes()),
+            rowMap(dataPlane.getLayer2Vnis()))
+        .forEach(
+            byHostname ->
+                byHostname.forEach(
+                    (hostname, byVrf) ->
+                        vrfsByHostname
+                            .computeIfAbsent(hostname, h -> new TreeSet<>())
+                            .addAll(byVrf.keySet())));
+    return vrfsByHostname;
+  }
+
+  private static @Nonnull <V> Map<String, Map<String, V>> rowMap(
+      @Nullable Table<String, String, V> table) {
+    return table == null ? ImmutableSortedMap.of() : table.rowMap();
+  }
+
+  private static @Nonnull EncodedSegment encodeSegment(@Nullable Serializable object) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long serializedLength;
+    try {
+      serializedLength = StorageCodecs.write(object, StorageCodecs.BINARY, Compression.LZ4, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new EncodedSegment(out.toByteArray(), serializedLength);
+  }
+
+  private static @Nonnull SegmentLocation writeSegment(
+      EncodedSegment segment, CountingOutputStream cos, DataOutputStream dos) throws IOException {
+    dos.flush();
+    long offset = cos.getCount();
+    dos.write(segment._bytes);
+    return new SegmentLocation(offset, segment._bytes.length);
+  }
+
+  private static @Nullable Object readSegment(FileChannel channel, SegmentLocation location)
+      throws IOException, ClassNotFoundException {
+    MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, location._offset, location._length);
+    return StorageCodecs.read(new ByteBufferInputStream(buffer));
+  }
+
+  /** Position of a segment within the file. */
+  private static final class SegmentLocation implements Serializable {
+    private final long _offset;
+    private final long _length;
+
+    private SegmentLocation(long offset, long length) {
+      _offset = offset;
+      _length = length;
+    }
+  }
+
+  /** A compressed segment, and the length of its serialized form before compression. */
+  private static final class EncodedSegment {
+    private final @Nonnull byte[] _bytes;
+    private final long _serializedLength;
+
+    private EncodedSegment(byte[] bytes, long serializedLength) {
+      _bytes = bytes;
+      _serializedLength = serializedLength;
+    }
+  }
+
+  /** The per-VRF parts of a {@link DataPlane}, each of which a VRF segment may or may not have. */
+  private enum Part {
+    RIB,
+    FIB,
+    PREFIX_TRACING_INFO,
+    BGP,
+    BGP_BACKUP,
+    EVPN,
+    EVPN_BACKUP,
+    LAYER2_VNIS
+  }
+
+  /** What the index records about the segment of a VRF. */
+  private static final class VrfEntry implements Serializable {
+    private final @Nonnull SegmentLocation _location;
+    private final long _serializedLength;
+    private final @Nonnull Set<Part> _parts;
+    private final long _routeCount;
+
+    private VrfEntry(
+        SegmentLocation location, long serializedLength, Set<Part> parts, long routeCount) {
+      _location = location;
+      _serializedLength = serializedLength;
+      _parts = parts;
+      _routeCount = routeCount;
+    }
+  }
+
+  /**
+   * Locations of all segments in the file, by node and VRF, and the node fingerprints of the data
+   * plane. Nodes without any VRF data are kept, with no VRFs.
+   */
+  private static final class Index implements Serializable {
+    private final @Nonnull SegmentLocation _forwardingAnalysis;
+    private final @Nonnull ImmutableSortedMap<String, ImmutableSortedMap<String, VrfEntry>> _nodes;
+    private final @Nonnull ImmutableSortedMap<String, String> _nodeFingerprints;
+
+    private Index(
+        SegmentLocation forwardingAnalysis,
+        ImmutableSortedMap<String, ImmutableSortedMap<String, VrfEntry>> nodes,
+        ImmutableSortedMap<String, String> nodeFingerprints) {
+      _forwardingAnalysis = forwardingAnalysis;
+      _nodes = nodes;
+      _nodeFingerprints = nodeFingerprints;
+    }
+  }
+
+  /** The data plane state of one VRF of one node. Parts the VRF does not have are null. */
+  private static final class VrfSegment implements Serializable {
+    private final @Nullable GenericRib<AnnotatedRoute<AbstractRoute>> _rib;
+    private final @Nullable Fib _fib;
+    private final @Nullable Map<Prefix, Map<String, Set<String>>> _prefixTracingInfo;
+    private final @Nullable Set<Bgpv4Route> _bgpRoutes;
+    private final @Nullable Set<Bgpv4Route> _bgpBackupRoutes;
+    private final @Nullable Set<EvpnRoute<?, ?>> _evpnRoutes;
+    private final @Nullable Set<EvpnRoute<?, ?>> _evpnBackupRoutes;
+    private final @Nullable Set<Layer2Vni> _layer2Vnis;
+
+    private VrfSegment(
+        @Nullable GenericRib<AnnotatedRoute<AbstractRoute>> rib,
+        @Nullable Fib fib,
+        @Nullable Map<Prefix, Map<String, Set<String>>> prefixTracingInfo,
+        @Nullable Set<Bgpv4Route> bgpRoutes,
+        @Nullable Set<Bgpv4Route> bgpBackupRoutes,
+        @Nullable Set<EvpnRoute<?, ?>> evpnRoutes,
+        @Nullable Set<EvpnRoute<?, ?>> evpnBackupRoutes,
+        @Nullable Set<Layer2Vni> layer2Vnis) {
+      _rib = rib;
+      _fib = fib;
+      _prefixTracingInfo = prefixTracingInfo;
+      _bgpRoutes = bgpRoutes;
+      _bgpBackupRoutes = bgpBackupRoutes;
+      _evpnRoutes = evpnRoutes;
+      _evpnBackupRoutes = evpnBackupRoutes;
+      _layer2Vnis = layer2Vnis;
+    }
+
+    private static @Nonnull VrfSegment of(DataPlane dataPlane, String hostname, String vrf) {
+      return new VrfSegment(
+          get(dataPlane.getRibs(), hostname, vrf),
+          get(dataPlane.getFibs(), hostname, vrf),
+          get(dataPlane.getPrefixTracingInfoSummary(), hostname, vrf),
+          get(rowMap(dataPlane.getBgpRoutes()), hostname, vrf),
+          get(rowMap(dataPlane.getBgpBackupRoutes()), hostname, vrf),
+          get(rowMap(dataPlane.getEvpnRoutes()), hostname, vrf),
+          get(rowMap(dataPlane.getEvpnBackupRoutes()), hostname, vrf),
+          get(rowMap(dataPlane.getLayer2Vnis()), hostname, vrf));
+    }
+
+    private static @Nullable <V> V get(
+        Map<String, ? extends Map<String, V>> byHostname, String hostname, String vrf) {
+      Map<String, V> byVrf = byHostname.get(hostname);
+      return byVrf == null ? null : byVrf.get(vrf);
+    }
+
+    /** The number of routes in the main RIB and BGP RIB of this VRF. */
+    private long getRouteCount() {
+      return (_bgpRoutes == null ? 0 : _bgpRoutes.size())
+          + (_rib == null ? 0 : _rib.getTypedRoutes().size());
+    }
+
+    private @Nonnull Set<Part> getParts() {
+      return Arrays.stream(Part.values())
+          .filter(part -> get(part) != null)
+          .collect(Sets.toImmutableEnumSet());
+    }
+
+    private @Nullable Object get(Part part) {
+      switch (part) {
+        case RIB:
+          return _rib;
+        case FIB:
+          return _fib;
+        case PREFIX_TRACING_INFO:
+          return _prefixTracingInfo;
+        case BGP:
+          return _bgpRoutes;
+        case BGP_BACKUP:
+          return _bgpBackupRoutes;
+        case EVPN:
+          return _evpnRoutes;
+        case EVPN_BACKUP:
+          return _evpnBackupRoutes;
+        case LAYER2_VNIS:
+          return _layer2Vnis;
+        default:
+          throw new IllegalArgumentException("Unknown part: " + part);
+      }
+    }
+  }
+
+  /**
+   * A read-only table of one {@link Part} of each VRF segment. Row keys, column keys, and the size
+   * of the table come from the index. Every other operation is a view that loads a segment only
+   * when one of its cells is accessed, so no operation copies the whole table, and the segments
+   * read while iterating it can still be dropped.
+   */
+  private final class SegmentedTable<V> extends ForwardingTable<String, String, V> {
+    private final @Nonnull Part _part;
+    private final @Nonnull SortedSet<String> _rowKeys;
+    private final @Nonnull SortedSet<String> _columnKeys;
+    private final int _size;
+
+    private SegmentedTable(Part part) {
+      _part = part;
+      _rowKeys =
+          _index._nodes.keySet().stream()
+              .filter(hostname -> !getVrfs(hostname, part).isEmpty())
+              .collect(ImmutableSortedSet.toImmutableSortedSet(String::compareTo));
+      _columnKeys =
+          _rowKeys.stream()
+              .flatMap(hostname -> getVrfs(hostname, part).stream())
+              .collect(ImmutableSortedSet.toImmutableSortedSet(String::compareTo));
+      _size = _rowKeys.stream().mapToInt(hostname -> getVrfs(hostname, part).size()).sum();
+    }
+
+    /** Segmented tables are read-only, and implement every read operation without a delegate. */
+    @Override
+    protected Table<String, String, V> delegate() {
+      throw new UnsupportedOperationException("Segmented data plane tables are read-only");
+    }
+
+    @Override
+    public Map<String, V> row(String rowKey) {
+      return getPart(rowKey, _part);
+    }
+
+    @Override
+    public Set<String> rowKeySet() {
+      return _rowKeys;
+    }
+
+    @Override
+    public Map<String, Map<String, V>> rowMap() {
+      return Maps.asMap(_rowKeys, this::row);
+    }
+
+    @Override
+    public Map<String, V> column(String columnKey) {
+      return Maps.asMap(
+          _rowKeys.stream()
+              .filter(hostname -> contains(hostname, columnKey))
+              .collect(ImmutableSortedSet.toImmutableSortedSet(String::compareTo)),
+          hostname -> get(hostname, columnKey));
+    }
+
+    @Override
+    public Set<String> columnKeySet() {
+      return _columnKeys;
+    }
+
+    @Override
+    public Map<String, Map<String, V>> columnMap() {
+      return Maps.asMap(_columnKeys, this::column);
+    }
+
+    @Override
+    public Set<Cell<String, String, V>> cellSet() {
+      return new AbstractSet<Cell<String, String, V>>() {
+        @Override
+        public Iterator<Cell<String, String, V>> iterator() {
+          return Iterators.concat(
+              Iterators.transform(
+                  _rowKeys.iterator(),
+                  hostname ->
+                      Iterators.transform(
+                          row(hostname).entrySet().iterator(),
+                          entry ->
+                              Tables.immutableCell(hostname, entry.getKey(), entry.getValue()))));
+        }
+
+        @Override
+        public boolean contains(@Nullable Object o) {
+          if (!(o instanceof Cell)) {
+            return false;
+          }
+          Cell<?, ?, ?> cell = (Cell<?, ?, ?>) o;
+          return SegmentedTable.this.contains(cell.getRowKey(), cell.getColumnKey())
+              && Objects.equals(cell.getValue(), get(cell.getRowKey(), cell.getColumnKey()));
+        }
+
+        @Override
+        public int size() {
+          return _size;
+        }
+      };
+    }
+
+    @Override
+    public Collection<V> values() {
+      return new AbstractCollection<V>() {
+        @Override
+        public Iterator<V> iterator() {
+          return Iterators.transform(cellSet().iterator(), Cell::getValue);
+        }
+
+        @Override
+        public int size() {
+          return _size;
+        }
+      };
+    }
+
+    @Override
+    public V get(@Nullable Object rowKey, @Nullable Object columnKey) {
+      return contains(rowKey, columnKey) ? row((String) rowKey).get(columnKey) : null;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object rowKey, @Nullable Object columnKey) {
+      return rowKey instanceof String && getVrfs((String) rowKey, _part).contains(columnKey);
+    }
+
+    @Override
+    public boolean containsRow(@Nullable Object rowKey) {
+      return _rowKeys.contains(rowKey);
+    }
+
+    @Override
+    public boolean containsColumn(@Nullable Object columnKey) {
+      return _columnKeys.contains(columnKey);
+    }
+
+    @Override
+    public boolean containsValue(@Nullable Object value) {
+      return values().contains(value);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return _size == 0;
+    }
+
+    @Override
+    public int size() {
+      return _size;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      return obj == this
+          || (obj instanceof Table && cellSet().equals(((Table<?, ?, ?>) obj).cellSet()));
+    }
+
+    @Override
+    public int hashCode() {
+      return cellSet().hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return rowMap().toString();
+    }
+  }
+
+  /** Reads the contents of a {@link ByteBuffer}, such as a memory-mapped segment. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final @Nonnull ByteBuffer _buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      _buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return _buffer.hasRemaining() ? _buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!_buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, _buffer.remaining());
+      _buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return _buffer.remaining();
+    }
+  }
+
+  /** Stored as a string, since {@link Path} is not serializable. */
+  private final @Nonnull String _path;
+
+  /** Generation of the file this data plane was opened from. */
+  private final long _generation;
+
+  private final @Nonnull Index _index;
+
+  /**
+   * VRF segments loaded so far, keyed by node and VRF and weighed by their serialized size. Least
+   * recently used segments are dropped, and loaded again if accessed later.
+   */
+  private transient @Nullable LoadingCache<Entry<String, String>, VrfSegment> _vrfSegments;
+
+  private transient @Nullable ForwardingAnalysis _forwardingAnalysis;
+  private transient @Nullable Table<String, String, Set<Bgpv4Route>> _bgpRoutes;
+  private transient @Nullable Table<String, String, Set<Bgpv4Route>> _bgpBackupRoutes;
+  private transient @Nullable Table<String, String, Set<EvpnRoute<?, ?>>> _evpnRoutes;
+  private transient @Nullable Table<String, String, Set<EvpnRoute<?, ?>>> _evpnBackupRoutes;
+  private transient @Nullable Table<String, String, Set<Layer2Vni>> _layer2Vnis;
+
+  private SegmentedDataPlane(
+      Path path, long generation, Index index, long maxLoadedSerializedBytes) {
+    _path = path.toString();
+    _generation = generation;
+    _index = index;
+    init(maxLoadedSerializedBytes);
+  }
+
+  private void init(long maxLoadedSerializedBytes) {
+    _vrfSegments =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxLoadedSerializedBytes)
+            .weigher(
+                (Entry<String, String> key, VrfSegment segment) ->
+                    (int) Math.min(getVrfEntry(key)._serializedLength, Integer.MAX_VALUE))
+            .build(
+                CacheLoader.from(
+                    key ->
+                        (VrfSegment)
+                            readSegment(
+                                getVrfEntry(key)._location,
+                                String.format(
+                                    "node %s VRF %s", key.getKey(), key.getValue()))));
+    _bgpRoutes = new SegmentedTable<>(Part.BGP);
+    _bgpBackupRoutes = new SegmentedTable<>(Part.BGP_BACKUP);
+    _evpnRoutes = new SegmentedTable<>(Part.EVPN);
+    _evpnBackupRoutes = new SegmentedTable<>(Part.EVPN_BACKUP);
+    _layer2Vnis = new SegmentedTable<>(Part.LAYER2_VNIS);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    init(DEFAULT_MAX_LOADED_SERIALIZED_BYTES);
+  }
+
+  /** Returns the number of VRF segments currently loaded. */
+  @VisibleForTesting
+  long getLoadedSegmentCount() {
+    return getVrfSegments().size();
+  }
+
+  private @Nonnull LoadingCache<Entry<String, String>, VrfSegment> getVrfSegments() {
+    checkState(_vrfSegments != null, "Segmented data plane is not initialized");
+    return _vrfSegments;
+  }
+
+  private @Nonnull VrfEntry getVrfEntry(Entry<String, String> key) {
+    return _index._nodes.get(key.getKey()).get(key.getValue());
+  }
+
+  /** Returns the VRFs of {@code hostname} whose segment has {@code part}, from the index. */
+  private @Nonnull SortedSet<String> getVrfs(String hostname, Part part) {
+    ImmutableSortedMap<String, VrfEntry> vrfs = _index._nodes.get(hostname);
+    if (vrfs == null) {
+      return ImmutableSortedSet.of();
+    }
+    return vrfs.entrySet().stream()
+        .filter(entry -> entry.getValue()._parts.contains(part))
+        .map(Entry::getKey)
+        .collect(ImmutableSortedSet.toImmutableSortedSet(String::compareTo));
+  }
+
+  /**
+   * Returns a view of {@code part} of each VRF of {@code hostname} that has it. The segment of a
+   * VRF is loaded only when its value is accessed.
+   */
+  @SuppressWarnings("unchecked")
+  private @Nonnull <V> SortedMap<String, V> getPart(String hostname, Part part) {
+    return Maps.asMap(
+        getVrfs(hostname, part),
+        vrf -> (V) getVrfSegment(Maps.immutableEntry(hostname, vrf)).get(part));
+  }
+
+  private @Nonnull VrfSegment getVrfSegment(Entry<String, String> key) {
+    try {
+      return getVrfSegments().getUnchecked(key);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /**
+   * Read a segment, checking that the file still has the generation this data plane was opened
+   * from. The check and the read go through the same channel, so they see the same file even if it
+   * is replaced concurrently.
+   *
+   * @throws BatfishException if the file was replaced since this data plane was opened
+   */
+  private @Nullable Object readSegment(SegmentLocation location, String description) {
+    try (FileChannel channel = FileChannel.open(Paths.get(_path), StandardOpenOption.READ)) {
+      ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH_BYTES);
+      readFully(channel, preamble, 0);
+      if (preamble.getLong(HEADER_LENGTH_BYTES) != _generation) {
+        throw new BatfishException(
+            String.format(
+                "Data plane file %s was replaced after it was opened; reload the data plane",
+                _path));
+      }
+      return readSegment(channel, location);
+    } catch (IOException | ClassNotFoundException e) {
+      throw new BatfishException(
+          String.format("Failed to read data plane segment for %s from %s", description, _path), e);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, Map<String, Fib>> getFibs() {
+    return Maps.asMap(_index._nodes.keySet(), hostname -> getPart(hostname, Part.FIB));
+  }
+
+  @Nonnull
+  @Override
+  public synchronized ForwardingAnalysis getForwardingAnalysis() {
+    if (_forwardingAnalysis == null) {
+      _forwardingAnalysis =
+          (ForwardingAnalysis) readSegment(_index._forwardingAnalysis, "forwarding analysis");
+    }
+    return _forwardingAnalysis;
+  }
+
+  @Nonnull
+  @Override
+  public SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> getRibs() {
+    return Maps.asMap(_index._nodes.keySet(), hostname -> getPart(hostname, Part.RIB));
+  }
+
+  @Nonnull
+  @Override
+  public SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    return Maps.asMap(
+        _index._nodes.keySet(), hostname -> getPart(hostname, Part.PREFIX_TRACING_INFO));
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis;
+  }
+
+  /** {@inheritDoc} Read from the index, without loading any segment. */
+  @Nonnull
+  @Override
+  public OptionalLong getRouteCount() {
+    return OptionalLong.of(
+        _index._nodes.values().stream()
+            .flatMap(vrfs -> vrfs.values().stream())
+            .mapToLong(entry -> entry._routeCount)
+            .sum());
+  }
+
+  /** {@inheritDoc} Read from the index, without loading any segment. */
+  @Nonnull
+  @Override
+  public Map<String, String> getNodeFingerprints() {
+    return _index._nodeFingerprints;
+  }
+}
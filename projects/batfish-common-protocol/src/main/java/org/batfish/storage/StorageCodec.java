@@ -0,0 +1,27 @@
+package org.batfish.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Encodes objects stored by {@link FileBasedStorage} to bytes and back, before compression. Each
+ * encoded object is preceded by a header identifying the codec that wrote it (see {@link
+ * StorageCodecs}), so codecs can be chosen per object type and changed over time without breaking
+ * previously stored objects.
+ */
+public interface StorageCodec {
+
+  /** Unique identifier of this codec, written in the header of each object it encodes. */
+  byte getId();
+
+  /** Write {@code object} to {@code out}. Does not close {@code out}. */
+  void encode(@Nullable Serializable object, @Nonnull OutputStream out) throws IOException;
+
+  /** Read an object previously written by {@link #encode} from {@code in}. */
+  @Nullable
+  Object decode(@Nonnull InputStream in) throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,223 @@
+package org.batfish.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.batfish.common.BatfishException;
+
+/**
+ * Built-in {@link StorageCodec}s, and the header and compression shared by all codecs.
+ *
+ * <p>An encoded object consists of {@link #MAGIC_BYTES}, {@link #FORMAT_VERSION}, the ID of the
+ * codec, and the ID of the {@link Compression}, followed by the compressed output of the codec.
+ */
+@ParametersAreNonnullByDefault
+public final class StorageCodecs {
+
+  /** Plain Java serialization. Works for any {@link Serializable} object. */
+  public static final StorageCodec JAVA =
+      new StorageCodec() {
+        @Override
+        public byte getId() {
+          return 1;
+        }
+
+        @Override
+        public void encode(@Nullable Serializable object, OutputStream out) throws IOException {
+          ObjectOutputStream oos = new ObjectOutputStream(out);
+          oos.writeObject(object);
+          oos.flush();
+        }
+
+        @Override
+        public @Nullable Object decode(InputStream in) throws IOException, ClassNotFoundException {
+          return new ObjectInputStream(in).readObject();
+        }
+      };
+
+  /**
+   * Compact binary encoding of BGP routes, with Java serialization for everything else. See {@link
+   * BinaryCodec}.
+   */
+  public static final StorageCodec BINARY = new BinaryCodec((byte) 2);
+
+  /** Compression applied to the output of a codec. */
+  public enum Compression {
+    /** LZ4 frame compression. Fast, and the compression used before codecs existed. */
+    LZ4((byte) 1),
+    /** GZIP compression. Slower than {@link #LZ4}, but smaller. */
+    GZIP((byte) 2);
+
+    private final byte _id;
+
+    Compression(byte id) {
+      _id = id;
+    }
+
+    public byte getId() {
+      return _id;
+    }
+
+    private @Nonnull OutputStream compress(OutputStream out) throws IOException {
+      switch (this) {
+        case LZ4:
+          return new LZ4FrameOutputStream(out);
+        case GZIP:
+          return new GZIPOutputStream(out, 8192 /* enlarge buffer */);
+        default:
+          throw new IllegalStateException("Unknown compression: " + this);
+      }
+    }
+
+    private @Nonnull InputStream decompress(InputStream in) throws IOException {
+      switch (this) {
+        case LZ4:
+          return new LZ4FrameInputStream(in);
+        case GZIP:
+          return new GZIPInputStream(in, 8192 /* enlarge buffer */);
+        default:
+          throw new IllegalStateException("Unknown compression: " + this);
+      }
+    }
+
+    private static @Nonnull Compression fromId(byte id) {
+      return Arrays.stream(values())
+          .filter(compression -> compression._id == id)
+          .findFirst()
+          .orElseThrow(() -> new BatfishException(String.format("Unknown compression %d", id)));
+    }
+  }
+
+  /**
+   * Bytes that start every codec-encoded object. Distinct from the Java serialization, LZ4, and
+   * GZIP magic bytes found at the start of files written before codecs existed.
+   */
+  private static final byte[] MAGIC_BYTES = {'B', 'F', 'S', 'C'};
+
+  /**
+   * Version of the header and of the built-in codecs. Increment when a change makes previously
+   * stored objects unreadable, so that they are treated as incompatible rather than misread.
+   */
+  @VisibleForTesting static final byte FORMAT_VERSION = 2;
+
+  /** Length of the header written by {@link #write}. */
+  static final int HEADER_LENGTH_BYTES = MAGIC_BYTES.length + 3;
+
+  /**
+   * Write the header, then {@code object} encoded by {@code codec} and compressed with {@code
+   * compression}, to {@code out}. Does not close {@code out}.
+   *
+   * @return the length of the encoded object before compression
+   */
+  static long write(
+      @Nullable Serializable object,
+      StorageCodec codec,
+      Compression compression,
+      OutputStream out)
+      throws IOException {
+    out.write(MAGIC_BYTES);
+    out.write(FORMAT_VERSION);
+    out.write(codec.getId());
+    out.write(compression.getId());
+    CountingOutputStream encoded;
+    try (OutputStream compressed = compression.compress(new NonClosingOutputStream(out))) {
+      encoded = new CountingOutputStream(compressed);
+      codec.encode(object, encoded);
+      encoded.flush();
+    }
+    return encoded.getCount();
+  }
+
+  /**
+   * Returns {@code true} iff {@code in} starts with a codec header. Nothing is consumed from {@code
+   * in}.
+   */
+  static boolean hasHeader(PushbackInputStream in) throws IOException {
+    byte[] magic = new byte[MAGIC_BYTES.length];
+    int read = ByteStreams.read(in, magic, 0, magic.length);
+    in.unread(magic, 0, read);
+    return Arrays.equals(magic, MAGIC_BYTES);
+  }
+
+  /**
+   * Read an object written by {@link #write}, including its header, from {@code in}. Does not close
+   * {@code in}.
+   *
+   * @throws BatfishException if the header is missing, has an unsupported version, or identifies
+   *     an unknown codec or compression.
+   */
+  static @Nullable Object read(InputStream in) throws IOException, ClassNotFoundException {
+    byte[] header = new byte[HEADER_LENGTH_BYTES];
+    if (ByteStreams.read(in, header, 0, HEADER_LENGTH_BYTES) < HEADER_LENGTH_BYTES
+        || !Arrays.equals(Arrays.copyOf(header, MAGIC_BYTES.length), MAGIC_BYTES)) {
+      throw new BatfishException("Missing storage codec header");
+    }
+    byte version = header[MAGIC_BYTES.length];
+    if (version != FORMAT_VERSION) {
+      throw new BatfishException(
+          String.format(
+              "Unsupported storage format version %d (expected %d)", version, FORMAT_VERSION));
+    }
+    StorageCodec codec = codecFromId(header[MAGIC_BYTES.length + 1]);
+    Compression compression = Compression.fromId(header[MAGIC_BYTES.length + 2]);
+    return codec.decode(compression.decompress(in));
+  }
+
+  private static @Nonnull StorageCodec codecFromId(byte id) {
+    if (id == JAVA.getId()) {
+      return JAVA;
+    } else if (id == BINARY.getId()) {
+      return BINARY;
+    }
+    throw new BatfishException(String.format("Unknown storage codec %d", id));
+  }
+
+  /**
+   * Lets {@link #write} close the compression stream it wraps around an output stream (flushing
+   * any trailing data) without closing the underlying stream.
+   */
+  private static final class NonClosingOutputStream extends OutputStream {
+    private final OutputStream _out;
+
+    private NonClosingOutputStream(OutputStream out) {
+      _out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      _out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      _out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      _out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      _out.flush();
+    }
+  }
+
+  private StorageCodecs() {}
+}
@@ -14,6 +14,8 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -35,6 +37,7 @@ import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspConfigurationException;
 import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -160,6 +163,20 @@ public interface StorageProvider {
   void storeAnswer(NetworkId network, SnapshotId snapshot, String answerStr, AnswerId answerId)
       throws IOException;
 
+  /**
+   * Store the {@link ColumnarTable} form of the answer to an ad-hoc or analysis question, for
+   * paginated retrieval of its rows. The table is deleted when the answer is stored again.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param table The table of the answer
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error
+   */
+  void storeAnswerTable(
+      NetworkId network, SnapshotId snapshot, ColumnarTable table, AnswerId answerId)
+      throws IOException;
+
   /**
    * Store the metadata for the answer to an ad-hoc or analysis question.
    *
@@ -210,6 +227,19 @@ public interface StorageProvider {
   String loadAnswer(NetworkId network, SnapshotId snapshot, AnswerId answerId)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Load the {@link ColumnarTable} form of the answer to an ad-hoc or analysis question, or return
+   * {@link Optional#empty()} if it was not stored.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error reading the table
+   */
+  @Nonnull
+  Optional<ColumnarTable> loadAnswerTable(NetworkId network, SnapshotId snapshot, AnswerId answerId)
+      throws IOException;
+
   /**
    * Load the metadata for the answer to an ad-hoc or analysis question.
    *
@@ -758,6 +788,26 @@ public interface StorageProvider {
    */
   boolean hasDataPlane(NetworkSnapshot snapshot) throws IOException;
 
+  /**
+   * Loads the {@link BDD BDDs} stored under the given key for the given snapshot into {@code
+   * factory}, or returns {@link Optional#empty()} if there are none.
+   *
+   * @throws IOException if there is an error, or the stored BDDs are not compatible with {@code
+   *     factory}
+   */
+  @Nonnull
+  Optional<Map<String, BDD>> loadBdds(BDDFactory factory, NetworkSnapshot snapshot, String key)
+      throws IOException;
+
+  /**
+   * Stores named {@link BDD BDDs} under the given key for the given snapshot, so that they can be
+   * loaded into another {@link BDDFactory} with the same variables. Stored BDDs are deleted when
+   * the data plane of the snapshot is stored again.
+   *
+   * @throws IOException if there is an error
+   */
+  void storeBdds(Map<String, BDD> bdds, NetworkSnapshot snapshot, String key) throws IOException;
+
   /**
    * Returns a list of snapshot input object keys corresponding to environment BGP tables.
    *
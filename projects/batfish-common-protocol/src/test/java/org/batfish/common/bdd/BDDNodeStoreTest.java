@@ -0,0 +1,92 @@
+package org.batfish.common.bdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link BDDNodeStore}. */
+public final class BDDNodeStoreTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static byte[] write(Map<String, BDD> roots) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BDDNodeStore.write(roots, out);
+    return out.toByteArray();
+  }
+
+  private static Map<String, BDD> roots(BDDPacket pkt) {
+    IpSpaceToBDD dst = pkt.getDstIpSpaceToBDD();
+    BDD prefix = dst.toBDD(Prefix.parse("10.0.0.0/8"));
+    BDD ip = dst.toBDD(Ip.parse("10.1.2.3"));
+    return ImmutableMap.<String, BDD>builder()
+        .put("prefix", prefix)
+        .put("ip", ip)
+        .put("both", prefix.or(pkt.getSrcIpSpaceToBDD().toBDD(Prefix.parse("1.0.0.0/8"))))
+        .put("also prefix", prefix)
+        .put("zero", pkt.getFactory().zero())
+        .put("one", pkt.getFactory().one())
+        .put("ünïcode", ip.not())
+        .build();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] bytes = write(roots(new BDDPacket()));
+
+    BDDPacket pkt = new BDDPacket();
+    Map<String, BDD> read = BDDNodeStore.read(pkt.getFactory(), ByteBuffer.wrap(bytes));
+    assertThat(read, equalTo(roots(pkt)));
+  }
+
+  @Test
+  public void testDifferentVariableOrder() throws IOException {
+    byte[] bytes = write(roots(new BDDPacket()));
+
+    BDDPacket pkt = new BDDPacket();
+    BDDFactory factory = pkt.getFactory();
+    int[] order = new int[factory.varNum()];
+    Arrays.setAll(order, i -> order.length - 1 - i);
+    factory.setVarOrder(order);
+    Map<String, BDD> read = BDDNodeStore.read(factory, ByteBuffer.wrap(bytes));
+    assertThat(read, equalTo(roots(pkt)));
+  }
+
+  @Test
+  public void testSharedNodesWrittenOnce() throws IOException {
+    BDDPacket pkt = new BDDPacket();
+    BDD prefix = pkt.getDstIpSpaceToBDD().toBDD(Prefix.parse("10.0.0.0/8"));
+    int once = write(ImmutableMap.of("a", prefix)).length;
+    int twice = write(ImmutableMap.of("a", prefix, "b", prefix)).length;
+    // only the second root's name and reference are added
+    assertThat(twice - once, equalTo(2 * Integer.BYTES + 1));
+  }
+
+  @Test
+  public void testTooFewVariables() throws IOException {
+    byte[] bytes = write(roots(new BDDPacket()));
+    BDDFactory factory = BDDUtils.bddFactory(8);
+    _thrown.expect(IOException.class);
+    BDDNodeStore.read(factory, ByteBuffer.wrap(bytes));
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    byte[] bytes = write(roots(new BDDPacket()));
+    BDDPacket pkt = new BDDPacket();
+    _thrown.expect(IOException.class);
+    BDDNodeStore.read(pkt.getFactory(), ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+  }
+}
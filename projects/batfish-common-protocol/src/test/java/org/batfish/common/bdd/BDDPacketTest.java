@@ -25,7 +25,9 @@ import static org.junit.Assert.assertTrue;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import net.sf.javabdd.BDD;
+import net.sf.javabdd.ConcurrentJFactory;
 import org.batfish.common.bdd.BDDFlowConstraintGenerator.FlowPreference;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Ip;
@@ -317,4 +319,17 @@ public class BDDPacketTest {
     BDD swapped = mkBdd.apply(srcIp, dstIp).apply(srcPort);
     assertThat(pkt.swapSourceAndDestinationFields(orig), equalTo(swapped));
   }
+
+  @Test
+  public void testConcurrentFactory() {
+    BDDPacket pkt = new BDDPacket(ConcurrentJFactory.init(10000, 1000));
+    Ip ip = Ip.parse("1.2.3.4");
+    BDD dstIps =
+        IntStream.range(0, 64)
+            .parallel()
+            .mapToObj(i -> pkt.getDstIp().value(ip.asLong() + i))
+            .reduce(pkt.getFactory().zero(), BDD::or);
+    assertThat(dstIps.satCount() / pkt.getDstIp().value(ip.asLong()).satCount(), equalTo(64.0));
+    assertThat(pkt.getFlow(dstIps).get().setIngressNode("node").build(), hasDstIp(ip));
+  }
 }
@@ -284,6 +284,11 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Optional<DataPlane> loadParentDataPlane(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(
       NetworkSnapshot snapshot) {
@@ -353,6 +358,12 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Set<Flow> bddReachabilityFlows(
+      NetworkSnapshot snapshot, ReachabilityParameters reachabilityParameters) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public Set<Flow> bddLoopDetection(NetworkSnapshot snapshot) {
     throw new UnsupportedOperationException();
@@ -0,0 +1,146 @@
+package org.batfish.common.util.regex;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.AsSet;
+import org.junit.Test;
+
+/** Tests of {@link RegexMatchers}. */
+public final class RegexMatchersTest {
+
+  /** Cisco's {@code _}, as converted to a Java regex. */
+  private static final String UNDERSCORE = "(,|\\{|\\}|^|\\$| )";
+
+  private static final List<String> REGEXES =
+      ImmutableList.of(
+          "",
+          "^$",
+          "^",
+          "$",
+          ".*",
+          "1",
+          "^1",
+          "1$",
+          "^1$",
+          "^1 2$",
+          "^^1",
+          "1$$",
+          "^*1",
+          "(^|x)1",
+          "1(x|$)",
+          UNDERSCORE + "1" + UNDERSCORE,
+          "^" + UNDERSCORE + "1" + UNDERSCORE,
+          "^[0-9]+$",
+          "^[0-9]+ [0-9]+$",
+          "^(1|2)+$",
+          "^(?:1 )*2$",
+          "^\\d{1,3}$",
+          "^\\d{2}",
+          "\\d{2,}$",
+          "[^0-9]",
+          "[^ 0-9]",
+          "\\{.*\\}",
+          "[-1]",
+          "[1-]",
+          "\\s\\S",
+          "\\w+\\W",
+          "1.2",
+          "1.*?2",
+          "a|b|^$",
+          "(a*)*b",
+          "65000:[0-9]+$",
+          "^65000:(1|2)[0-9]*$",
+          "_");
+
+  private static final List<String> INPUTS =
+      ImmutableList.of(
+          "",
+          "1",
+          "2",
+          "12",
+          "1 2",
+          "2 1",
+          "11 2",
+          "1 2 3",
+          "123",
+          "{1,2}",
+          "3 {1,2} 4",
+          "x1",
+          "1x",
+          "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac",
+          "65000:1",
+          "65000:21",
+          "65000:3 65000:1",
+          "1\n",
+          "1\r\n",
+          "\n1",
+          "1 ",
+          "a😀b");
+
+  @Test
+  public void testAgreesWithPattern() {
+    for (String regex : REGEXES) {
+      Pattern pattern = Pattern.compile(regex);
+      RegexMatcher matcher = RegexMatchers.compile(regex);
+      for (String input : INPUTS) {
+        assertThat(
+            String.format("regex '%s' on input '%s'", regex, input),
+            matcher.find(input),
+            equalTo(pattern.matcher(input).find()));
+      }
+    }
+  }
+
+  @Test
+  public void testAsPath() {
+    List<AsPath> asPaths =
+        ImmutableList.of(
+            AsPath.empty(),
+            AsPath.ofSingletonAsSets(1L),
+            AsPath.ofSingletonAsSets(65000L, 0L, 4294967295L),
+            AsPath.of(ImmutableList.of(AsSet.of(3), AsSet.of(1, 2), AsSet.of(4))),
+            AsPath.of(ImmutableList.of(AsSet.empty())));
+    for (String regex : REGEXES) {
+      Pattern pattern = Pattern.compile(regex);
+      RegexMatcher matcher = RegexMatchers.compile(regex);
+      for (AsPath asPath : asPaths) {
+        assertThat(
+            String.format("regex '%s' on AS path '%s'", regex, asPath),
+            matcher.find(asPath),
+            equalTo(pattern.matcher(asPath.getAsPathString()).find()));
+      }
+    }
+  }
+
+  @Test
+  public void testCompile() {
+    assertThat(RegexMatchers.compile("^1_2$"), instanceOf(DfaRegexMatcher.class));
+    assertThat(
+        RegexMatchers.compile(UNDERSCORE + "1" + UNDERSCORE), instanceOf(DfaRegexMatcher.class));
+
+    // unsupported syntax falls back to Pattern
+    assertThat(RegexMatchers.compile("(1) \\1"), instanceOf(PatternRegexMatcher.class));
+    assertThat(RegexMatchers.compile("\\b1"), instanceOf(PatternRegexMatcher.class));
+    assertThat(RegexMatchers.compile("(?=1)"), instanceOf(PatternRegexMatcher.class));
+    assertThat(RegexMatchers.compile("1*+"), instanceOf(PatternRegexMatcher.class));
+    assertThat(RegexMatchers.compile("[1[2]]"), instanceOf(PatternRegexMatcher.class));
+    assertThat(RegexMatchers.compile("(?i)a"), instanceOf(PatternRegexMatcher.class));
+
+    RegexMatcher fallback = RegexMatchers.compile("(1) \\1");
+    assertThat(fallback.find("1 1"), equalTo(true));
+    assertThat(fallback.find(AsPath.ofSingletonAsSets(1L, 2L)), equalTo(false));
+    assertThat(fallback.getRegex(), equalTo("(1) \\1"));
+  }
+
+  @Test
+  public void testFromStringCached() {
+    assertThat(RegexMatchers.fromString("^1$"), sameInstance(RegexMatchers.fromString("^1$")));
+  }
+}
@@ -2,13 +2,17 @@ package org.batfish.datamodel;
 
 import static org.batfish.datamodel.Ip.getBitAtPosition;
 import static org.batfish.datamodel.matchers.IpSpaceMatchers.containsIp;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -21,6 +25,16 @@ public class IpTest {
 
   @Rule public ExpectedException _thrown = ExpectedException.none();
 
+  @Test
+  public void testInterned() {
+    assertThat(Ip.parse("1.2.3.4"), sameInstance(Ip.create(0x01020304L)));
+    assertThat(SerializationUtils.clone(Ip.parse("1.2.3.4")), sameInstance(Ip.parse("1.2.3.4")));
+    assertThat(
+        Ip.createAll(new long[] {0x01020304L, 5L}),
+        contains(sameInstance(Ip.parse("1.2.3.4")), sameInstance(Ip.create(5L))));
+    assertThat(Ip.getInternStats().getHits(), greaterThan(0L));
+  }
+
   @Test
   public void numSubnetBitsToSubnetLong() {
     // Test the boundaries (0 and 32) as well as a representative sample of intermediate values.
@@ -0,0 +1,115 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/** Tests of {@link LongInternTable}. */
+public final class LongInternTableTest {
+
+  /** A distinct object per creation, to check identity. */
+  private static final class Value {
+    private final long _key;
+
+    private Value(long key) {
+      _key = key;
+    }
+  }
+
+  @Test
+  public void testIntern() {
+    LongInternTable<Value> table = new LongInternTable<>(4, 1000, Value::new);
+    Value a = table.intern(1L);
+    assertThat(a._key, equalTo(1L));
+    assertThat(table.intern(1L), sameInstance(a));
+    assertThat(table.intern(-1L)._key, equalTo(-1L));
+    assertThat(table.intern(0L)._key, equalTo(0L));
+
+    LongInternTable.Stats stats = table.getStats();
+    assertThat(stats.getHits(), equalTo(1L));
+    assertThat(stats.getMisses(), equalTo(3L));
+    assertThat(stats.getEvictions(), equalTo(0L));
+    assertThat(stats.getSize(), equalTo(3));
+  }
+
+  @Test
+  public void testGrowth() {
+    LongInternTable<Value> table = new LongInternTable<>(2, 100000, Value::new);
+    List<Value> values = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      values.add(table.intern(i * 7919));
+    }
+    for (int i = 0; i < values.size(); i++) {
+      assertThat(table.intern(i * 7919L), sameInstance(values.get(i)));
+    }
+    assertThat(table.getStats().getSize(), equalTo(10000));
+  }
+
+  @Test
+  public void testEviction() {
+    LongInternTable<Value> table = new LongInternTable<>(4, 64, Value::new);
+    Random random = new Random(0);
+    for (int i = 0; i < 10000; i++) {
+      long key = random.nextInt(1000);
+      // whether or not it was evicted, the value for a key is always correct
+      assertThat(table.intern(key)._key, equalTo(key));
+    }
+    LongInternTable.Stats stats = table.getStats();
+    assertThat(stats.getSize(), lessThanOrEqualTo(64));
+    assertThat(stats.getEvictions(), equalTo(stats.getMisses() - stats.getSize()));
+
+    // recently interned keys remain canonical
+    Value recent = table.intern(12345L);
+    assertThat(table.intern(12345L), sameInstance(recent));
+  }
+
+  @Test
+  public void testInternAll() {
+    LongInternTable<Value> table = new LongInternTable<>(8, 1000, Value::new);
+    Value five = table.intern(5L);
+    List<Value> values = table.internAll(new long[] {3L, 5L, 100L, 3L});
+    assertThat(values.size(), equalTo(4));
+    assertThat(values.get(0)._key, equalTo(3L));
+    assertThat(values.get(1), sameInstance(five));
+    assertThat(values.get(2)._key, equalTo(100L));
+    assertThat(values.get(3), sameInstance(values.get(0)));
+  }
+
+  @Test
+  public void testConcurrentInterningIsCanonical() throws Exception {
+    LongInternTable<Value> table = new LongInternTable<>(16, 1 << 16, Value::new);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<Value>>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  List<Value> values = new ArrayList<>();
+                  for (long i = 0; i < 5000; i++) {
+                    values.add(table.intern(i));
+                  }
+                  return values;
+                }));
+      }
+      List<Value> expected = results.get(0).get();
+      for (Future<List<Value>> result : results) {
+        List<Value> values = result.get();
+        for (int i = 0; i < values.size(); i++) {
+          assertThat(values.get(i), sameInstance(expected.get(i)));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Table;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
@@ -25,6 +26,7 @@ public class MockDataPlane implements DataPlane {
     private SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> _ribs;
 
     @Nonnull private Table<String, String, Set<Layer2Vni>> _vniSettings;
+    @Nullable private Long _routeCount;
 
     private Builder() {
       _bgpRoutes = HashBasedTable.create();
@@ -80,6 +82,11 @@ public class MockDataPlane implements DataPlane {
       _ribs = ribs;
       return this;
     }
+
+    public Builder setRouteCount(@Nullable Long routeCount) {
+      _routeCount = routeCount;
+      return this;
+    }
   }
 
   public static Builder builder() {
@@ -98,6 +105,7 @@ public class MockDataPlane implements DataPlane {
       _ribs;
 
   @Nonnull private Table<String, String, Set<Layer2Vni>> _vniSettings;
+  @Nullable private final Long _routeCount;
 
   private MockDataPlane(Builder builder) {
     _bgpRoutes = builder._bgpRoutes;
@@ -108,6 +116,7 @@ public class MockDataPlane implements DataPlane {
     _forwardingAnalysis = builder._forwardingAnalysis;
     _ribs = ImmutableSortedMap.copyOf(builder._ribs);
     _vniSettings = builder._vniSettings;
+    _routeCount = builder._routeCount;
   }
 
   @Nonnull
@@ -164,4 +173,10 @@ public class MockDataPlane implements DataPlane {
   public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
     return _vniSettings;
   }
+
+  @Nonnull
+  @Override
+  public OptionalLong getRouteCount() {
+    return _routeCount == null ? OptionalLong.empty() : OptionalLong.of(_routeCount);
+  }
 }
@@ -5,10 +5,13 @@ import static org.batfish.datamodel.Prefix.parse;
 import static org.batfish.datamodel.Prefix.strict;
 import static org.batfish.datamodel.matchers.IpSpaceMatchers.containsIp;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import net.sf.javabdd.BDD;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.bdd.BDDInteger;
 import org.batfish.common.bdd.BDDUtils;
 import org.batfish.common.bdd.IpSpaceToBDD;
@@ -23,6 +26,15 @@ public class PrefixTest {
 
   @Rule public ExpectedException _thrown = ExpectedException.none();
 
+  @Test
+  public void testInterned() {
+    Prefix p = Prefix.parse("10.1.0.0/16");
+    assertThat(Prefix.create(Ip.parse("10.1.2.3"), 16), sameInstance(p));
+    assertThat(SerializationUtils.clone(p), sameInstance(p));
+    assertThat(Prefix.create(Ip.AUTO, 8).getStartIp(), equalTo(Ip.AUTO));
+    assertThat(Prefix.getInternStats().getHits(), greaterThan(0L));
+  }
+
   @Test
   public void testCanonicalization() {
     Prefix p = Prefix.parse("255.255.255.255/15");
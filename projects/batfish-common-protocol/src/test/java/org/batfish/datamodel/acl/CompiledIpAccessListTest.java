@@ -0,0 +1,129 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.ExprAclLine.rejecting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDstPort;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link CompiledIpAccessList}. */
+public final class CompiledIpAccessListTest {
+
+  private static final Map<String, IpSpace> NAMED_IP_SPACES =
+      ImmutableMap.of(
+          "servers",
+          AclIpSpace.union(
+              Prefix.parse("10.1.0.0/16").toIpSpace(), Ip.parse("10.3.0.1").toIpSpace()),
+          "unused",
+          Prefix.parse("10.9.0.0/16").toIpSpace());
+
+  private static final IpAccessList REFERENCED =
+      IpAccessList.builder()
+          .setName("referenced")
+          .setLines(ImmutableList.of(rejecting(matchDst(Prefix.parse("10.1.2.0/24")))))
+          .build();
+
+  private static final IpAccessList ACL =
+      IpAccessList.builder()
+          .setName("acl")
+          .setLines(
+              ImmutableList.of(
+                  rejecting(and(matchDst(Prefix.parse("10.1.1.0/24")), matchDstPort(22))),
+                  accepting(matchDst(Prefix.parse("10.1.0.0/16"))),
+                  new AclAclLine("ref", REFERENCED.getName()),
+                  rejecting(matchSrc(Prefix.parse("192.168.0.0/16"))),
+                  accepting(matchDst(new IpSpaceReference("servers"))),
+                  accepting(matchDst(new IpSpaceReference("undefined"))),
+                  accepting(matchDst(IpWildcard.parse("10.0.0.0:0.255.0.255"))),
+                  rejecting(
+                      or(matchDst(Prefix.parse("10.2.0.0/16")), matchDst(Ip.parse("10.4.1.1")))),
+                  accepting(matchDst(Prefix.parse("10.0.0.0/8")))))
+          .build();
+
+  private static final Map<String, IpAccessList> ACLS =
+      ImmutableMap.of(ACL.getName(), ACL, REFERENCED.getName(), REFERENCED);
+
+  private static Flow flow(String srcIp, String dstIp, int dstPort) {
+    return Flow.builder()
+        .setIngressNode("node")
+        .setIpProtocol(IpProtocol.TCP)
+        .setSrcIp(Ip.parse(srcIp))
+        .setDstIp(Ip.parse(dstIp))
+        .setSrcPort(12345)
+        .setDstPort(dstPort)
+        .build();
+  }
+
+  private static FilterResult filter(Flow flow) {
+    return CompiledIpAccessList.compile(ACL, NAMED_IP_SPACES)
+        .filter(flow, null, ACLS, NAMED_IP_SPACES);
+  }
+
+  @Test
+  public void testFilter() {
+    assertThat(filter(flow("1.1.1.1", "10.1.1.1", 22)).getMatchLine(), equalTo(0));
+    assertThat(filter(flow("1.1.1.1", "10.1.1.1", 80)).getMatchLine(), equalTo(1));
+    assertThat(filter(flow("192.168.1.1", "10.3.0.1", 80)).getMatchLine(), equalTo(3));
+    assertThat(filter(flow("1.1.1.1", "10.3.0.1", 80)).getMatchLine(), equalTo(4));
+    assertThat(filter(flow("1.1.1.1", "10.5.0.5", 80)).getMatchLine(), equalTo(6));
+    assertThat(filter(flow("1.1.1.1", "10.4.1.1", 80)).getMatchLine(), equalTo(7));
+    assertThat(filter(flow("1.1.1.1", "10.4.1.2", 80)).getMatchLine(), equalTo(8));
+
+    FilterResult noMatch = filter(flow("1.1.1.1", "11.0.0.1", 80));
+    assertThat(noMatch.getMatchLine(), equalTo(null));
+    assertThat(noMatch.getAction(), equalTo(LineAction.DENY));
+  }
+
+  @Test
+  public void testFilterMatchesUncompiled() {
+    CompiledIpAccessList compiled = CompiledIpAccessList.compile(ACL, NAMED_IP_SPACES);
+    String[] srcIps = {"1.1.1.1", "192.168.3.3"};
+    String[] dstIps = {
+      "10.1.1.1",
+      "10.1.2.3",
+      "10.1.3.3",
+      "10.2.0.1",
+      "10.3.0.1",
+      "10.3.0.2",
+      "10.4.1.1",
+      "10.4.1.2",
+      "10.6.7.8",
+      "10.7.0.7",
+      "11.0.0.1",
+      "0.0.0.0",
+      "255.255.255.255"
+    };
+    for (String srcIp : srcIps) {
+      for (String dstIp : dstIps) {
+        for (int dstPort : new int[] {22, 80}) {
+          Flow flow = flow(srcIp, dstIp, dstPort);
+          FilterResult expected = ACL.filter(flow, null, ACLS, NAMED_IP_SPACES);
+          FilterResult actual = compiled.filter(flow, null, ACLS, NAMED_IP_SPACES);
+          assertThat(flow.toString(), actual.getMatchLine(), equalTo(expected.getMatchLine()));
+          assertThat(flow.toString(), actual.getAction(), equalTo(expected.getAction()));
+        }
+      }
+    }
+  }
+}
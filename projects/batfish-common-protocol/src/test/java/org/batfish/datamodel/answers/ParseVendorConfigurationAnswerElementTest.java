@@ -1,12 +1,15 @@
 package org.batfish.datamodel.answers;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -49,4 +52,14 @@ public class ParseVendorConfigurationAnswerElementTest {
     _element.setErrors(errors);
     assertThat(_element.getErrors().get("error"), is(stackTrace));
   }
+
+  @Test
+  public void testJsonSerializationParseStats() throws IOException {
+    _element.getParseTimes().put("configs/a.cfg", 1234L);
+    _element.getParseTreeSizes().put("configs/a.cfg", 5678);
+    ParseVendorConfigurationAnswerElement clone =
+        BatfishObjectMapper.clone(_element, ParseVendorConfigurationAnswerElement.class);
+    assertThat(clone.getParseTimes(), equalTo(_element.getParseTimes()));
+    assertThat(clone.getParseTreeSizes(), equalTo(_element.getParseTreeSizes()));
+  }
 }
@@ -0,0 +1,87 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.batfish.datamodel.routing_policy.Environment.Direction.IN;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link RoutingPolicy}. */
+public final class RoutingPolicyTest {
+
+  private static final Bgpv4Route ROUTE =
+      Bgpv4Route.testBuilder().setNetwork(Prefix.parse("10.0.0.0/24")).build();
+
+  private Configuration _c;
+
+  @Before
+  public void setup() {
+    _c =
+        Configuration.builder()
+            .setHostname("c")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+  }
+
+  private RoutingPolicy policy(Statement... statements) {
+    return RoutingPolicy.builder()
+        .setName("p")
+        .setOwner(_c)
+        .setStatements(ImmutableList.copyOf(statements))
+        .build();
+  }
+
+  private static final List<Statement> SET_LP_AND_ACCEPT =
+      ImmutableList.of(
+          new SetLocalPreference(new LiteralLong(200)), Statements.ExitAccept.toStaticStatement());
+
+  @Test
+  public void testFreezeWithoutStats() {
+    RoutingPolicy p = policy(SET_LP_AND_ACCEPT.toArray(new Statement[0])).freeze(false);
+    Bgpv4Route.Builder builder = ROUTE.toBuilder();
+    assertTrue(p.processBgpRoute(ROUTE, builder, null, IN, null));
+    assertThat(builder.getLocalPreference(), equalTo(200L));
+    assertThat(p.getEvaluationStats().getEvaluations(), equalTo(0L));
+  }
+
+  @Test
+  public void testFreezeWithStats() {
+    RoutingPolicy p = policy(SET_LP_AND_ACCEPT.toArray(new Statement[0])).freeze(true);
+    for (int i = 0; i < 2; i++) {
+      Bgpv4Route.Builder builder = ROUTE.toBuilder();
+      assertTrue(p.processBgpRoute(ROUTE, builder, null, IN, null));
+      assertThat(builder.getLocalPreference(), equalTo(200L));
+    }
+    assertThat(p.getEvaluationStats().getEvaluations(), equalTo(2L));
+  }
+
+  @Test
+  public void testUnfrozenHasNoStats() {
+    RoutingPolicy p = policy(Statements.ExitReject.toStaticStatement());
+    assertFalse(p.processBgpRoute(ROUTE, ROUTE.toBuilder(), null, IN, null));
+    assertThat(p.getEvaluationStats().getEvaluations(), equalTo(0L));
+  }
+
+  @Test
+  public void testFreezeKeepsPolicy() {
+    RoutingPolicy p = policy(Statements.ExitAccept.toStaticStatement());
+    RoutingPolicy frozen = p.freeze(false);
+    assertThat(frozen, equalTo(p));
+    assertThat(frozen.getOwner(), sameInstance(_c));
+    assertThat(frozen.processReadOnly(ROUTE), equalTo(true));
+  }
+}
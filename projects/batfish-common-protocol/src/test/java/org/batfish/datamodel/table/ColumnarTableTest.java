@@ -0,0 +1,269 @@
+package org.batfish.datamodel.table;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.pojo.Node;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link ColumnarTable}. */
+public final class ColumnarTableTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static final String NODE = "node";
+  private static final String COUNT = "count";
+  private static final String TAGS = "tags";
+
+  private static final TableMetadata METADATA =
+      new TableMetadata(
+          ImmutableList.of(
+              new ColumnMetadata(NODE, Schema.NODE, "node", true, false),
+              new ColumnMetadata(COUNT, Schema.INTEGER, "count", false, true),
+              new ColumnMetadata(TAGS, Schema.list(Schema.STRING), "tags", false, true)));
+
+  private static final Row ROW0 =
+      Row.of(NODE, new Node("b"), COUNT, 2, TAGS, ImmutableList.of("x", "y"));
+  private static final Row ROW1 = Row.of(NODE, new Node("a"), COUNT, 10, TAGS, ImmutableList.of());
+  // rows equal to an earlier row must immediately follow it, since TableAnswerElement groups them
+  private static final Row ROW2 = Row.of(NODE, new Node("a"), COUNT, 10, TAGS, ImmutableList.of());
+  private static final Row ROW3 =
+      Row.of(NODE, new Node("c"), COUNT, 2, TAGS, ImmutableList.of("x"));
+
+  private static ColumnarTable table() {
+    TableAnswerElement table = new TableAnswerElement(METADATA);
+    table.addRow(ROW0);
+    table.addRow(ROW1);
+    table.addRow(ROW2);
+    table.addRow(ROW3);
+    table.setSummary(new AnswerSummary("notes", 1, 2, 3));
+    return ColumnarTable.of(table);
+  }
+
+  private static AnswerRowsOptions options(
+      Set<String> columns,
+      List<ColumnFilter> filters,
+      int maxRows,
+      int rowOffset,
+      List<ColumnSortOption> sortOrder,
+      boolean uniqueRows) {
+    return new AnswerRowsOptions(columns, filters, maxRows, rowOffset, sortOrder, uniqueRows);
+  }
+
+  private static List<Integer> select(ColumnarTable table, AnswerRowsOptions options) {
+    return table.select(options).getRowIds();
+  }
+
+  @Test
+  public void testOf() {
+    ColumnarTable table = table();
+    assertThat(table.getNumRows(), equalTo(4));
+    assertThat(table.getMetadata(), equalTo(METADATA));
+    assertThat(table.getSummary().getNotes(), equalTo("notes"));
+    assertThat(table.getRow(0, ImmutableSet.of()), equalTo(ROW0));
+    assertThat(table.getRow(3, ImmutableSet.of()), equalTo(ROW3));
+  }
+
+  @Test
+  public void testGetViewRowId() {
+    ColumnarTable table = table();
+    // equal rows share the ID of the last of them
+    assertThat(table.getViewRowId(0), equalTo(0));
+    assertThat(table.getViewRowId(1), equalTo(2));
+    assertThat(table.getViewRowId(2), equalTo(2));
+    assertThat(table.getViewRowId(3), equalTo(3));
+  }
+
+  @Test
+  public void testOfNoSummary() {
+    assertThat(ColumnarTable.of(new TableAnswerElement(METADATA)).getSummary(), nullValue());
+  }
+
+  @Test
+  public void testGetRowProjected() {
+    assertThat(
+        table().getRow(0, ImmutableSet.of(COUNT, NODE)),
+        equalTo(Row.of(COUNT, 2, NODE, new Node("b"))));
+  }
+
+  @Test
+  public void testGetRowMissingColumn() {
+    _thrown.expect(NoSuchElementException.class);
+    table().getRow(0, ImmutableSet.of("missing"));
+  }
+
+  @Test
+  public void testSelectAll() {
+    ColumnarTable.Selection selection =
+        table()
+            .select(
+                options(
+                    ImmutableSet.of(),
+                    ImmutableList.of(),
+                    Integer.MAX_VALUE,
+                    0,
+                    ImmutableList.of(),
+                    false));
+    assertThat(selection.getNumResults(), equalTo(4));
+    assertThat(selection.getRowIds(), contains(0, 1, 2, 3));
+  }
+
+  @Test
+  public void testSelectFiltered() {
+    ColumnarTable.Selection selection =
+        table()
+            .select(
+                options(
+                    ImmutableSet.of(),
+                    ImmutableList.of(new ColumnFilter(TAGS, "X")),
+                    Integer.MAX_VALUE,
+                    0,
+                    ImmutableList.of(),
+                    false));
+    assertThat(selection.getNumResults(), equalTo(2));
+    assertThat(selection.getRowIds(), contains(0, 3));
+  }
+
+  @Test
+  public void testSelectSortedStable() {
+    ColumnarTable table = table();
+    assertThat(
+        select(
+            table,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption(COUNT, false)),
+                false)),
+        contains(0, 3, 1, 2));
+    assertThat(
+        select(
+            table,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption(COUNT, true)),
+                false)),
+        contains(1, 2, 0, 3));
+    // nodes sort by name, lists lexicographically
+    assertThat(
+        select(
+            table,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption(NODE, false)),
+                false)),
+        contains(1, 2, 0, 3));
+    assertThat(
+        select(
+            table,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption(TAGS, true)),
+                false)),
+        contains(0, 3, 1, 2));
+  }
+
+  @Test
+  public void testSelectSortMissingColumn() {
+    _thrown.expect(IllegalArgumentException.class);
+    table()
+        .select(
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption("missing", false)),
+                false));
+  }
+
+  @Test
+  public void testSelectUnique() {
+    ColumnarTable table = table();
+    assertThat(
+        select(
+            table,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(),
+                true)),
+        contains(0, 1, 3));
+    // uniqueness is up to the projected columns
+    ColumnarTable.Selection selection =
+        table.select(
+            options(
+                ImmutableSet.of(COUNT),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(),
+                true));
+    assertThat(selection.getRowIds(), contains(0, 1));
+    assertThat(selection.getNumResults(), equalTo(4));
+  }
+
+  @Test
+  public void testSelectOffsetAndLimit() {
+    assertThat(
+        select(
+            table(),
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                2,
+                1,
+                ImmutableList.of(new ColumnSortOption(NODE, false)),
+                false)),
+        contains(2, 0));
+  }
+
+  @Test
+  public void testJavaSerialization() {
+    ColumnarTable table = table();
+    ColumnarTable clone = SerializationUtils.clone(table);
+    assertThat(clone.getMetadata(), equalTo(METADATA));
+    for (int i = 0; i < table.getNumRows(); i++) {
+      assertThat(clone.getRow(i, ImmutableSet.of()), equalTo(table.getRow(i, ImmutableSet.of())));
+    }
+    assertThat(
+        select(
+            clone,
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption(COUNT, true)),
+                false)),
+        contains(1, 2, 0, 3));
+  }
+}
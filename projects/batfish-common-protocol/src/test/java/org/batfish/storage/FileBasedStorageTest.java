@@ -6,6 +6,8 @@ import static org.batfish.storage.FileBasedStorage.ISP_CONFIGURATION_KEY;
 import static org.batfish.storage.FileBasedStorage.getWorkLogPath;
 import static org.batfish.storage.FileBasedStorage.keyInDir;
 import static org.batfish.storage.FileBasedStorage.objectKeyToRelativePath;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
@@ -20,16 +22,20 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -41,9 +47,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.sf.javabdd.BDD;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.BatfishException;
@@ -53,21 +64,35 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.autocomplete.IpCompletionMetadata;
 import org.batfish.common.autocomplete.LocationCompletionMetadata;
 import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
 import org.batfish.common.topology.Layer1Topology;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.common.util.UnzipUtility;
+import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.isp_configuration.BorderInterfaceInfo;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspFilter;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.NetworkId;
@@ -158,6 +183,210 @@ public final class FileBasedStorageTest {
     _storage.loadConversionContext(new NetworkSnapshot(networkId, snapshotId));
   }
 
+  @Test
+  public void testDeserializeObjectWithoutCodecHeader() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    Path path = _storage.getConversionContextPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    path.getParent().toFile().mkdirs();
+    try (OutputStream out = Files.newOutputStream(path);
+        ObjectOutputStream oos = new ObjectOutputStream(new LZ4FrameOutputStream(out))) {
+      oos.writeObject(new ConversionContext());
+    }
+
+    assertThat(_storage.loadConversionContext(snapshot), instanceOf(ConversionContext.class));
+  }
+
+  @Test
+  public void testSerializeObjectWritesCodecHeader() throws Exception {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeConversionContext(new ConversionContext(), snapshot);
+
+    Path path = _storage.getConversionContextPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    try (InputStream in = Files.newInputStream(path)) {
+      assertThat(StorageCodecs.read(in), instanceOf(ConversionContext.class));
+    }
+  }
+
+  private static @Nonnull MockDataPlane dataPlaneForTest() {
+    Bgpv4Route.Builder rb =
+        Bgpv4Route.testBuilder()
+            .setNextHopIp(Ip.parse("10.0.0.1"))
+            .setOriginatorIp(Ip.parse("10.0.0.1"))
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP);
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = HashBasedTable.create();
+    bgpRoutes.put(
+        "n1", "default", ImmutableSet.of(rb.setNetwork(Prefix.parse("1.0.0.0/8")).build()));
+    bgpRoutes.put("n1", "vrf1", ImmutableSet.of(rb.setNetwork(Prefix.parse("2.0.0.0/8")).build()));
+    bgpRoutes.put(
+        "n2", "default", ImmutableSet.of(rb.setNetwork(Prefix.parse("3.0.0.0/8")).build()));
+    return MockDataPlane.builder()
+        .setBgpRoutes(bgpRoutes)
+        .setFibs(
+            ImmutableMap.of(
+                "n1", ImmutableMap.of("default", MockFib.builder().build()),
+                "n3", ImmutableMap.of("default", MockFib.builder().build())))
+        .build();
+  }
+
+  @Test
+  public void testStoreDataPlaneLoadsVrfsLazily() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    MockDataPlane dataPlane = dataPlaneForTest();
+    _storage.storeDataPlane(dataPlane, snapshot);
+
+    DataPlane loaded = _storage.loadDataPlane(snapshot);
+    assertThat(loaded, instanceOf(SegmentedDataPlane.class));
+    SegmentedDataPlane segmented = (SegmentedDataPlane) loaded;
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+
+    // Accessing one VRF only loads that VRF
+    assertThat(
+        segmented.getBgpRoutes().get("n1", "vrf1"),
+        equalTo(dataPlane.getBgpRoutes().get("n1", "vrf1")));
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(1L));
+    assertThat(segmented.getBgpRoutes().get("n4", "default"), nullValue());
+    assertThat(segmented.getBgpRoutes().get("n2", "vrf1"), nullValue());
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(1L));
+    assertThat(segmented.getBgpRoutes().row("n1"), equalTo(dataPlane.getBgpRoutes().row("n1")));
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(2L));
+
+    // Whole-network views match the stored data plane
+    assertThat(segmented.getBgpRoutes(), equalTo(dataPlane.getBgpRoutes()));
+    assertThat(segmented.getFibs().keySet(), containsInAnyOrder("n1", "n2", "n3"));
+    assertThat(segmented.getFibs().get("n2"), anEmptyMap());
+    assertThat(segmented.getFibs().get("n3").keySet(), contains("default"));
+    assertThat(segmented.getLayer2Vnis().isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void testSegmentedDataPlaneBoundsLoadedSegments() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    MockDataPlane dataPlane = dataPlaneForTest();
+    _storage.storeDataPlane(dataPlane, snapshot);
+
+    // no room for any segment: each access reads the segment again
+    SegmentedDataPlane segmented =
+        SegmentedDataPlane.open(_storage.getDataPlanePath(snapshot), 1);
+    assertThat(segmented.getBgpRoutes().row("n1"), equalTo(dataPlane.getBgpRoutes().row("n1")));
+    assertThat(segmented.getBgpRoutes().row("n2"), equalTo(dataPlane.getBgpRoutes().row("n2")));
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+    assertThat(segmented.getBgpRoutes(), equalTo(dataPlane.getBgpRoutes()));
+    // whole-table access does not keep the segments it read
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+  }
+
+  @Test
+  public void testSegmentedTableWholeTableViews() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    MockDataPlane dataPlane = dataPlaneForTest();
+    _storage.storeDataPlane(dataPlane, snapshot);
+
+    SegmentedDataPlane segmented = (SegmentedDataPlane) _storage.loadDataPlane(snapshot);
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = segmented.getBgpRoutes();
+    // Answered from the index
+    assertThat(bgpRoutes.size(), equalTo(3));
+    assertThat(bgpRoutes.columnKeySet(), contains("default", "vrf1"));
+    assertThat(bgpRoutes.column("vrf1").keySet(), contains("n1"));
+    assertTrue(bgpRoutes.containsColumn("vrf1"));
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+
+    // Views load segments as they are accessed
+    assertThat(bgpRoutes.cellSet(), equalTo(dataPlane.getBgpRoutes().cellSet()));
+    assertThat(
+        ImmutableSet.copyOf(bgpRoutes.values()),
+        equalTo(ImmutableSet.copyOf(dataPlane.getBgpRoutes().values())));
+    assertThat(bgpRoutes.columnMap(), equalTo(dataPlane.getBgpRoutes().columnMap()));
+    assertThat(bgpRoutes.hashCode(), equalTo(dataPlane.getBgpRoutes().hashCode()));
+
+    _thrown.expect(UnsupportedOperationException.class);
+    bgpRoutes.clear();
+  }
+
+  @Test
+  public void testSegmentedTableRowKeysFromIndex() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeDataPlane(dataPlaneForTest(), snapshot);
+
+    SegmentedDataPlane segmented = (SegmentedDataPlane) _storage.loadDataPlane(snapshot);
+    assertThat(segmented.getBgpRoutes().rowKeySet(), contains("n1", "n2"));
+    assertThat(segmented.getBgpRoutes().rowMap().keySet(), contains("n1", "n2"));
+    assertTrue(segmented.getBgpRoutes().containsRow("n2"));
+    assertFalse(segmented.getBgpRoutes().containsRow("n3"));
+    assertTrue(segmented.getEvpnRoutes().isEmpty());
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+  }
+
+  @Test
+  public void testSegmentedDataPlaneRouteCountFromIndex() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    DataPlane dataPlane = dataPlaneForTest();
+    _storage.storeDataPlane(dataPlane, snapshot);
+
+    SegmentedDataPlane segmented = (SegmentedDataPlane) _storage.loadDataPlane(snapshot);
+    long expected = dataPlane.getBgpRoutes().values().stream().mapToLong(Set::size).sum();
+    assertThat(segmented.getRouteCount(), equalTo(OptionalLong.of(expected)));
+    assertThat(segmented.getLoadedSegmentCount(), equalTo(0L));
+  }
+
+  @Test
+  public void testSegmentedDataPlaneDetectsReplacedFile() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeDataPlane(dataPlaneForTest(), snapshot);
+    DataPlane loaded = _storage.loadDataPlane(snapshot);
+
+    _storage.storeDataPlane(dataPlaneForTest(), snapshot);
+
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage(containsString("was replaced after it was opened"));
+    loaded.getBgpRoutes().get("n1", "default");
+  }
+
+  @Test
+  public void testLoadDataPlaneWithoutSegments() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.serializeObject(dataPlaneForTest(), _storage.getDataPlanePath(snapshot));
+
+    DataPlane loaded = _storage.loadDataPlane(snapshot);
+    assertThat(loaded, instanceOf(MockDataPlane.class));
+    assertThat(loaded.getBgpRoutes(), equalTo(dataPlaneForTest().getBgpRoutes()));
+  }
+
+  @Test
+  public void testStoreBdds() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    assertThat(
+        _storage.loadBdds(new BDDPacket().getFactory(), snapshot, "key"),
+        equalTo(Optional.empty()));
+
+    BDDPacket pkt = new BDDPacket();
+    BDD bdd = pkt.getDstIpSpaceToBDD().toBDD(Prefix.parse("10.0.0.0/8"));
+    _storage.storeBdds(ImmutableMap.of("bdd", bdd), snapshot, "key");
+
+    BDDPacket otherPkt = new BDDPacket();
+    assertThat(
+        _storage.loadBdds(otherPkt.getFactory(), snapshot, "key"),
+        equalTo(
+            Optional.of(
+                ImmutableMap.of(
+                    "bdd", otherPkt.getDstIpSpaceToBDD().toBDD(Prefix.parse("10.0.0.0/8"))))));
+
+    // Storing a new data plane invalidates the BDDs
+    _storage.storeDataPlane(dataPlaneForTest(), snapshot);
+    assertThat(
+        _storage.loadBdds(otherPkt.getFactory(), snapshot, "key"), equalTo(Optional.empty()));
+  }
+
   @Test
   public void testLoadIspConfiguration() throws IOException {
     NetworkId networkId = new NetworkId("network");
@@ -566,6 +795,30 @@ public final class FileBasedStorageTest {
     assertFalse(_storage.hasAnswerMetadata(networkId, snapshotId, new AnswerId("missing")));
   }
 
+  @Test
+  public void testAnswerTableRoundtrip() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(ImmutableList.of(new ColumnMetadata("col", Schema.STRING, "desc"))));
+    table.addRow(Row.of("col", "value"));
+
+    assertThat(
+        _storage.loadAnswerTable(networkId, snapshotId, answerId), equalTo(Optional.empty()));
+
+    _storage.storeAnswerTable(networkId, snapshotId, ColumnarTable.of(table), answerId);
+    Optional<ColumnarTable> loaded = _storage.loadAnswerTable(networkId, snapshotId, answerId);
+    assertTrue(loaded.isPresent());
+    assertThat(loaded.get().getRow(0, ImmutableSet.of()), equalTo(Row.of("col", "value")));
+
+    // storing a new answer invalidates the table
+    _storage.storeAnswer(networkId, snapshotId, "answerStr", answerId);
+    assertThat(
+        _storage.loadAnswerTable(networkId, snapshotId, answerId), equalTo(Optional.empty()));
+  }
+
   @Test
   public void testCompletionMetadataRoundtrip() throws IOException {
     NetworkId networkId = new NetworkId("network");
@@ -0,0 +1,166 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OriginMechanism;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.bgp.community.StandardCommunity;
+import org.batfish.datamodel.route.nh.NextHopInterface;
+import org.batfish.datamodel.route.nh.NextHopIp;
+import org.batfish.storage.StorageCodecs.Compression;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class StorageCodecsTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static Object roundTrip(
+      Serializable object, StorageCodec codec, Compression compression) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StorageCodecs.write(object, codec, compression, out);
+    return StorageCodecs.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private static long encodedLength(Serializable object, StorageCodec codec) throws Exception {
+    return StorageCodecs.write(object, codec, Compression.LZ4, new ByteArrayOutputStream());
+  }
+
+  private static List<Bgpv4Route> routes(int count) {
+    Bgpv4Route.Builder rb =
+        Bgpv4Route.testBuilder()
+            .setNextHop(NextHopIp.of(Ip.parse("10.0.0.1")))
+            .setAsPath(AsPath.ofSingletonAsSets(65001L, 65002L))
+            .setCommunities(ImmutableSet.of(StandardCommunity.of(65001, 100)))
+            .setClusterList(ImmutableSet.of(1L, 2L))
+            .setLocalPreference(200)
+            .setReceivedFromIp(Ip.parse("10.0.0.2"));
+    return IntStream.range(0, count)
+        .mapToObj(i -> rb.setNetwork(Prefix.create(Ip.create(i << 8), 24)).setMetric(i).build())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @Test
+  public void testBinaryRoundTripsBgpRoutes() throws Exception {
+    Bgpv4Route.Builder rb = Bgpv4Route.testBuilder().setNetwork(Prefix.parse("1.0.0.0/8"));
+    ImmutableSet<Bgpv4Route> routes =
+        ImmutableSet.of(
+            rb.build(),
+            rb.setNextHop(NextHopIp.of(Ip.parse("10.0.0.1"))).build(),
+            rb.setNextHop(NextHopInterface.of("eth0", Ip.parse("10.0.0.1"))).build(),
+            rb.setOriginMechanism(OriginMechanism.REDISTRIBUTE)
+                .setSrcProtocol(RoutingProtocol.OSPF)
+                .setOriginType(OriginType.INCOMPLETE)
+                .build(),
+            rb.setProtocol(RoutingProtocol.IBGP)
+                .setReceivedFromIp(Ip.parse("10.0.0.2"))
+                .setReceivedFromRouteReflectorClient(true)
+                .setClusterList(ImmutableSet.of(1L))
+                .setTag(Long.MAX_VALUE)
+                .setWeight(-1)
+                .setNonForwarding(true)
+                .setNonRouting(true)
+                .build(),
+            // Does not fit a binary record, so falls back to Java serialization
+            rb.setOriginatorIp(Ip.AUTO).build());
+
+    assertThat(roundTrip(routes, StorageCodecs.BINARY, Compression.LZ4), equalTo(routes));
+  }
+
+  @Test
+  public void testBinaryRoundTripsBgpRouteSets() throws Exception {
+    ImmutableSet<Bgpv4Route> routes = ImmutableSet.copyOf(Lists.reverse(routes(100)));
+    ImmutableSet<Bgpv4Route> sortedRoutes =
+        ImmutableSortedSet.copyOf(Ordering.usingToString(), routes);
+
+    Object read = roundTrip(routes, StorageCodecs.BINARY, Compression.LZ4);
+    assertThat(read, instanceOf(ImmutableSet.class));
+    // Same order
+    assertThat(ImmutableList.copyOf((Set<?>) read), equalTo(routes.asList()));
+    // Interned in bulk
+    Bgpv4Route first = (Bgpv4Route) ((Set<?>) read).iterator().next();
+    assertThat(first.getNetwork().getStartIp(), sameInstance(Ip.create(99 << 8)));
+    // Sorted sets keep their type
+    assertThat(
+        roundTrip(sortedRoutes, StorageCodecs.BINARY, Compression.LZ4),
+        allOf(instanceOf(ImmutableSortedSet.class), equalTo(sortedRoutes)));
+  }
+
+  @Test
+  public void testBinaryEncodesBgpRoutesCompactly() throws Exception {
+    ImmutableList<Bgpv4Route> routes = ImmutableList.copyOf(routes(1000));
+
+    assertThat(
+        encodedLength(routes, StorageCodecs.BINARY),
+        lessThan(encodedLength(routes, StorageCodecs.JAVA) / 2));
+  }
+
+  @Test
+  public void testJavaRoundTrip() throws Exception {
+    ImmutableList<Bgpv4Route> routes = ImmutableList.copyOf(routes(10));
+
+    assertThat(roundTrip(routes, StorageCodecs.JAVA, Compression.LZ4), equalTo(routes));
+    assertThat(roundTrip(routes, StorageCodecs.JAVA, Compression.GZIP), equalTo(routes));
+    assertThat(roundTrip(routes, StorageCodecs.BINARY, Compression.GZIP), equalTo(routes));
+  }
+
+  @Test
+  public void testHasHeader() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StorageCodecs.write("foo", StorageCodecs.JAVA, Compression.LZ4, out);
+    PushbackInputStream withHeader =
+        new PushbackInputStream(
+            new ByteArrayInputStream(out.toByteArray()), StorageCodecs.HEADER_LENGTH_BYTES);
+    PushbackInputStream withoutHeader =
+        new PushbackInputStream(
+            new ByteArrayInputStream(new byte[] {1, 2}), StorageCodecs.HEADER_LENGTH_BYTES);
+
+    assertTrue(StorageCodecs.hasHeader(withHeader));
+    // Nothing is consumed
+    assertThat(StorageCodecs.read(withHeader), equalTo("foo"));
+    assertFalse(StorageCodecs.hasHeader(withoutHeader));
+    assertThat(withoutHeader.read(), equalTo(1));
+  }
+
+  @Test
+  public void testReadUnsupportedFormatVersion() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StorageCodecs.write("foo", StorageCodecs.JAVA, Compression.LZ4, out);
+    byte[] bytes = out.toByteArray();
+    bytes[StorageCodecs.HEADER_LENGTH_BYTES - 3] = StorageCodecs.FORMAT_VERSION + 1;
+
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage(containsString("Unsupported storage format version"));
+    StorageCodecs.read(new ByteArrayInputStream(bytes));
+  }
+}
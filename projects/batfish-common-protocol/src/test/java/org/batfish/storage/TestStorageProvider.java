@@ -11,6 +11,8 @@ import java.util.SortedSet;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -31,6 +33,7 @@ import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -149,6 +152,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public void storeAnswerTable(
+      NetworkId network, SnapshotId snapshot, ColumnarTable table, AnswerId answerId) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerMetadata answerMetadata, AnswerId answerId) {
@@ -160,6 +169,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public @Nonnull Optional<ColumnarTable> loadAnswerTable(
+      NetworkId network, SnapshotId snapshot, AnswerId answerId) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public AnswerMetadata loadAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerId answerId) {
@@ -489,6 +504,19 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Nonnull
+  @Override
+  public Optional<Map<String, BDD>> loadBdds(
+      BDDFactory factory, NetworkSnapshot snapshot, String key) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeBdds(Map<String, BDD> bdds, NetworkSnapshot snapshot, String key)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   @Nonnull
   @Override
   public Stream<String> listInputEnvironmentBgpTableKeys(NetworkSnapshot snapshot)
@@ -3,25 +3,23 @@ package org.batfish.bddreachability;
 import static org.batfish.bddreachability.BDDReachabilityUtils.backwardFixpoint;
 import static org.batfish.bddreachability.BDDReachabilityUtils.getIngressStateExprBdds;
 import static org.batfish.bddreachability.BDDReachabilityUtils.toIngressLocation;
-import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Table;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
-import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.symbolic.IngressLocation;
 import org.batfish.symbolic.state.StateExpr;
@@ -29,16 +27,14 @@ import org.batfish.symbolic.state.StateExpr;
 /** A reachability analysis that detects loops. */
 public class BDDLoopDetectionAnalysis {
   private final BDDPacket _bddPacket;
-  private final Table<StateExpr, StateExpr, Transition> _forwardEdgeTable;
+  private final BDDReachabilityGraph _graph;
   private final Set<StateExpr> _ingressLocationStates;
 
   private BDDLoopDetectionAnalysis(
-      BDDPacket bddPacket,
-      Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
-      Set<StateExpr> ingressLocationStates) {
+      BDDPacket bddPacket, BDDReachabilityGraph graph, Set<StateExpr> ingressLocationStates) {
     _bddPacket = bddPacket;
     _ingressLocationStates = ingressLocationStates;
-    _forwardEdgeTable = forwardEdgeTable;
+    _graph = graph;
   }
 
   private static Collection<Edge> getLoopEdges(
@@ -51,7 +47,7 @@ public class BDDLoopDetectionAnalysis {
       BDDPacket bddPacket, Stream<Edge> edges, Set<StateExpr> ingressLocationStates) {
     this(
         bddPacket,
-        BDDReachabilityUtils.computeForwardEdgeTable(getLoopEdges(edges, ingressLocationStates)),
+        BDDReachabilityGraph.create(getLoopEdges(edges, ingressLocationStates).stream()),
         ingressLocationStates);
   }
 
@@ -80,20 +76,23 @@ public class BDDLoopDetectionAnalysis {
        * may be on loops. In practice this is most likely way more iterations than necessary.
        */
       int numRounds = 256 * 6;
-      Map<StateExpr, BDD> reachableInNRounds = reachableInNRounds(numRounds);
+      BDD[] reachableInNRounds = reachableInNRounds(numRounds);
 
       /*
        * Identify which of the candidates are actually on loops
        */
-      Map<StateExpr, BDD> loopBDDs =
-          reachableInNRounds.entrySet().stream()
-              .filter(entry -> confirmLoop(entry.getKey(), entry.getValue()))
-              .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+      Map<StateExpr, BDD> loopBDDs = new HashMap<>();
+      for (int state = 0; state < reachableInNRounds.length; state++) {
+        BDD bdd = reachableInNRounds[state];
+        if (bdd != null && confirmLoop(state, bdd)) {
+          loopBDDs.put(_graph.getState(state), bdd);
+        }
+      }
 
       /*
        * Run backward to find the ingress locations/headerspaces that lead to loops.
        */
-      backwardFixpoint(_forwardEdgeTable, loopBDDs);
+      backwardFixpoint(_graph, loopBDDs);
 
       /*
        * Extract the ingress location BDDs.
@@ -105,24 +104,30 @@ public class BDDLoopDetectionAnalysis {
     }
   }
 
-  private Map<StateExpr, BDD> propagate(Map<StateExpr, BDD> bdds) {
+  /**
+   * Returns the sets of packets that reach each state in one step from the given sets, indexed by
+   * state id. Empty sets are null.
+   */
+  private BDD[] propagate(BDD[] bdds) {
     Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.propagate").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDD zero = _bddPacket.getFactory().zero();
-      Map<StateExpr, BDD> newReachableInNRounds = new HashMap<>();
-      bdds.forEach(
-          (source, sourceBdd) ->
-              _forwardEdgeTable
-                  .row(source)
-                  .forEach(
-                      (target, transition) -> {
-                        BDD targetBdd = newReachableInNRounds.getOrDefault(target, zero);
-                        BDD newTragetBdd = targetBdd.or(transition.transitForward(sourceBdd));
-                        if (!newTragetBdd.isZero()) {
-                          newReachableInNRounds.put(target, newTragetBdd);
-                        }
-                      }));
+      BDD[] newReachableInNRounds = new BDD[bdds.length];
+      for (int source = 0; source < bdds.length; source++) {
+        BDD sourceBdd = bdds[source];
+        if (sourceBdd == null) {
+          continue;
+        }
+        for (int e = _graph.forwardStart(source); e < _graph.forwardStart(source + 1); e++) {
+          BDD result = _graph.transition(e).transitForward(sourceBdd);
+          if (result.isZero()) {
+            continue;
+          }
+          int target = _graph.target(e);
+          BDD targetBdd = newReachableInNRounds[target];
+          newReachableInNRounds[target] = targetBdd == null ? result : targetBdd.or(result);
+        }
+      }
       return newReachableInNRounds;
     } finally {
       span.finish();
@@ -133,46 +138,46 @@ public class BDDLoopDetectionAnalysis {
    * Run BFS from one step past the initial state. Each round, check if the initial state has been
    * reached yet.
    */
-  private boolean confirmLoop(StateExpr stateExpr, BDD bdd) {
+  private boolean confirmLoop(int state, BDD bdd) {
     Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.confirmLoop").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      Map<StateExpr, BDD> reachable = propagate(ImmutableMap.of(stateExpr, bdd));
-      Set<StateExpr> dirty = new HashSet<>(reachable.keySet());
+      BDD[] initial = new BDD[_graph.getNumStates()];
+      initial[state] = bdd;
+      BDD[] reachable = propagate(initial);
+      BitSet dirty = new BitSet(reachable.length);
+      for (int i = 0; i < reachable.length; i++) {
+        if (reachable[i] != null) {
+          dirty.set(i);
+        }
+      }
 
-      BDD zero = _bddPacket.getFactory().zero();
       while (!dirty.isEmpty()) {
-        Set<StateExpr> newDirty = new HashSet<>();
-
-        dirty.forEach(
-            preState -> {
-              Map<StateExpr, Transition> preStateOutEdges = _forwardEdgeTable.row(preState);
-              if (preStateOutEdges == null) {
-                // preState has no out-edges
-                return;
-              }
-
-              BDD preStateBDD = reachable.get(preState);
-              preStateOutEdges.forEach(
-                  (postState, transition) -> {
-                    BDD result = transition.transitForward(preStateBDD);
-                    if (result.isZero()) {
-                      return;
-                    }
-
-                    // update postState BDD reverse-reachable from leaf
-                    BDD oldReach = reachable.getOrDefault(postState, zero);
-                    BDD newReach = oldReach == null ? result : oldReach.or(result);
-                    if (oldReach == null || !oldReach.equals(newReach)) {
-                      reachable.put(postState, newReach);
-                      newDirty.add(postState);
-                    }
-                  });
-            });
+        BitSet newDirty = new BitSet(reachable.length);
+        for (int preState = dirty.nextSetBit(0);
+            preState >= 0;
+            preState = dirty.nextSetBit(preState + 1)) {
+          BDD preStateBDD = reachable[preState];
+          for (int e = _graph.forwardStart(preState); e < _graph.forwardStart(preState + 1); e++) {
+            BDD result = _graph.transition(e).transitForward(preStateBDD);
+            if (result.isZero()) {
+              continue;
+            }
+
+            // update postState BDD reverse-reachable from leaf
+            int postState = _graph.target(e);
+            BDD oldReach = reachable[postState];
+            BDD newReach = oldReach == null ? result : oldReach.or(result);
+            if (oldReach == null || !oldReach.equals(newReach)) {
+              reachable[postState] = newReach;
+              newDirty.set(postState);
+            }
+          }
+        }
 
         dirty = newDirty;
-        if (dirty.contains(stateExpr)) {
-          if (reachable.get(stateExpr).andSat(bdd)) {
+        if (dirty.get(state)) {
+          if (reachable[state].andSat(bdd)) {
             return true;
           }
         }
@@ -183,18 +188,30 @@ public class BDDLoopDetectionAnalysis {
     }
   }
 
-  private Map<StateExpr, BDD> reachableInNRounds(int numRounds) {
+  /**
+   * Returns the sets of packets that reach each state in exactly {@code numRounds} steps from the
+   * ingress locations (or fewer, if no state can be reached in more), indexed by state id.
+   */
+  private BDD[] reachableInNRounds(int numRounds) {
     Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.reachableInNRounds").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       BDD one = _bddPacket.getFactory().one();
 
       // All ingress locations are reachable in 0 rounds.
-      Map<StateExpr, BDD> reachableInNRounds =
-          toImmutableMap(_ingressLocationStates, Function.identity(), k -> one);
+      BDD[] reachableInNRounds = new BDD[_graph.getNumStates()];
+      boolean empty = true;
+      for (StateExpr ingressLocationState : _ingressLocationStates) {
+        int id = _graph.getId(ingressLocationState);
+        if (id >= 0) {
+          reachableInNRounds[id] = one;
+          empty = false;
+        }
+      }
 
-      for (int round = 0; !reachableInNRounds.isEmpty() && round < numRounds; round++) {
+      for (int round = 0; !empty && round < numRounds; round++) {
         reachableInNRounds = propagate(reachableInNRounds);
+        empty = Arrays.stream(reachableInNRounds).allMatch(Objects::isNull);
       }
       return reachableInNRounds;
     } finally {
@@ -1,12 +1,10 @@
 package org.batfish.bddreachability;
 
-import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
 import static org.batfish.bddreachability.BDDReachabilityUtils.getIngressLocationBdds;
 
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Table;
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -52,10 +50,9 @@ import org.batfish.symbolic.state.StateExpr;
 public class BDDReachabilityAnalysis {
   private final BDDPacket _bddPacket;
 
+  private final BDDReachabilityGraph _graph;
   // preState --> postState --> transition from pre to post
-  private final Table<StateExpr, StateExpr, Transition> _forwardEdgeTable;
-  // postState --> preState --> transition from pre to post
-  private final Supplier<Table<StateExpr, StateExpr, Transition>> _transposedEdgeTable;
+  private final Supplier<Table<StateExpr, StateExpr, Transition>> _forwardEdgeTable;
 
   // stateExprs that correspond to the IngressLocations of interest
   private final ImmutableSet<StateExpr> _ingressLocationStates;
@@ -71,9 +68,8 @@ public class BDDReachabilityAnalysis {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       _bddPacket = packet;
-      _forwardEdgeTable = computeForwardEdgeTable(edges);
-      _transposedEdgeTable =
-          Suppliers.memoize(() -> BDDReachabilityUtils.transposeAndMaterialize(_forwardEdgeTable));
+      _graph = BDDReachabilityGraph.create(edges);
+      _forwardEdgeTable = Suppliers.memoize(_graph::toForwardEdgeTable);
       _ingressLocationStates = ImmutableSet.copyOf(ingressLocationStates);
       _queryHeaderSpaceBdd = queryHeaderSpaceBdd;
     } finally {
@@ -91,8 +87,7 @@ public class BDDReachabilityAnalysis {
       assert span != null; // avoid unused warning
       Map<StateExpr, BDD> reverseReachableStates = new HashMap<>();
       reverseReachableStates.put(Query.INSTANCE, _queryHeaderSpaceBdd);
-      BDDReachabilityUtils.backwardFixpointTransposed(
-          _transposedEdgeTable.get(), reverseReachableStates);
+      BDDReachabilityUtils.backwardFixpoint(_graph, reverseReachableStates);
       return ImmutableMap.copyOf(reverseReachableStates);
     } finally {
       span.finish();
@@ -106,8 +101,7 @@ public class BDDReachabilityAnalysis {
    */
   public Map<StateExpr, BDD> computeReverseReachableStates(Map<StateExpr, BDD> roots) {
     Map<StateExpr, BDD> reverseReachableStates = new HashMap<>(roots);
-    BDDReachabilityUtils.backwardFixpointTransposed(
-        _transposedEdgeTable.get(), reverseReachableStates);
+    BDDReachabilityUtils.backwardFixpoint(_graph, reverseReachableStates);
     return ImmutableMap.copyOf(reverseReachableStates);
   }
 
@@ -122,7 +116,7 @@ public class BDDReachabilityAnalysis {
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>();
       BDD one = _bddPacket.getFactory().one();
       _ingressLocationStates.forEach(state -> forwardReachableStates.put(state, one));
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(_graph, forwardReachableStates);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
@@ -143,7 +137,7 @@ public class BDDReachabilityAnalysis {
       assert scope != null; // avoid unused warning
       assert span != null; // avoid unused warning
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>(initialReachableStates);
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(_graph, forwardReachableStates);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
@@ -190,10 +184,15 @@ public class BDDReachabilityAnalysis {
   }
 
   public Map<StateExpr, Map<StateExpr, Transition>> getForwardEdgeMap() {
-    return _forwardEdgeTable.rowMap();
+    return _forwardEdgeTable.get().rowMap();
   }
 
   public Table<StateExpr, StateExpr, Transition> getForwardEdgeTable() {
-    return ImmutableTable.copyOf(_forwardEdgeTable);
+    return _forwardEdgeTable.get();
+  }
+
+  /** Returns the compiled reachability graph. */
+  public BDDReachabilityGraph getGraph() {
+    return _graph;
   }
 }
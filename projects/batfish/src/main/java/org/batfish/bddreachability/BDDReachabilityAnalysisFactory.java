@@ -245,6 +245,9 @@ public final class BDDReachabilityAnalysisFactory {
   private final BDD _zero;
   private final IpsRoutedOutInterfacesFactory _ipsRoutesOutInterfacesFactory;
 
+  // destination IP BDDs of the forwarding analysis, by name
+  private final StoredIpSpaceBdds _forwardingBdds;
+
   public BDDReachabilityAnalysisFactory(
       BDDPacket packet,
       Map<String, Configuration> configs,
@@ -252,6 +255,31 @@ public final class BDDReachabilityAnalysisFactory {
       IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
       boolean ignoreFilters,
       boolean initializeSessions) {
+    this(
+        packet,
+        configs,
+        forwardingAnalysis,
+        ipsRoutedOutInterfacesFactory,
+        ignoreFilters,
+        initializeSessions,
+        ImmutableMap.of());
+  }
+
+  /**
+   * Create a factory that reuses the forwarding BDDs of a previous analysis of the same snapshot.
+   *
+   * @param storedForwardingBdds the result of {@link #getForwardingBdds()} of a previous analysis,
+   *     possibly using a different {@link BDDPacket}. Ignored if it was built with different
+   *     destination IP variables.
+   */
+  public BDDReachabilityAnalysisFactory(
+      BDDPacket packet,
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
+      boolean ignoreFilters,
+      boolean initializeSessions,
+      Map<String, BDD> storedForwardingBdds) {
     Span span = GlobalTracer.get().buildSpan("Construct BDDReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -290,43 +318,60 @@ public final class BDDReachabilityAnalysisFactory {
       _srcIpSpaceToBDD = _bddPacket.getSrcIpSpaceToBDD();
 
       _aclPermitBDDs = computeAclBDDs(this::ipAccessListToBddForNode, configs);
+      if (_bddPacket.isConcurrent() && !_ignoreFilters) {
+        warmAclBDDs(_aclPermitBDDs);
+      }
       _aclDenyBDDs = computeAclDenyBDDs(_aclPermitBDDs);
 
       _bddIncomingTransformations = computeBDDIncomingTransformations();
       _bddOutgoingTransformations = computeBDDOutgoingTransformations();
 
-      _arpTrueEdgeBDDs = computeArpTrueEdgeBDDs(vrfForwardingBehavior, _dstIpSpaceToBDD);
+      _forwardingBdds = new StoredIpSpaceBdds(_bddPacket, storedForwardingBdds);
+      _arpTrueEdgeBDDs = computeArpTrueEdgeBDDs(vrfForwardingBehavior, _forwardingBdds);
       _neighborUnreachableBDDs =
           computeIfaceForwardingBehaviorBDDs(
               vrfForwardingBehavior,
+              "neighborUnreachable",
               InterfaceForwardingBehavior::getNeighborUnreachable,
-              _dstIpSpaceToBDD);
+              _forwardingBdds);
       _deliveredToSubnetBDDs =
           computeIfaceForwardingBehaviorBDDs(
               vrfForwardingBehavior,
+              "deliveredToSubnet",
               InterfaceForwardingBehavior::getDeliveredToSubnet,
-              _dstIpSpaceToBDD);
+              _forwardingBdds);
       _exitsNetworkBDDs =
           computeIfaceForwardingBehaviorBDDs(
               vrfForwardingBehavior,
+              "exitsNetwork",
               InterfaceForwardingBehavior::getExitsNetwork,
-              _dstIpSpaceToBDD);
+              _forwardingBdds);
       _insufficientInfoBDDs =
           computeIfaceForwardingBehaviorBDDs(
               vrfForwardingBehavior,
+              "insufficientInfo",
               InterfaceForwardingBehavior::getInsufficientInfo,
-              _dstIpSpaceToBDD);
+              _forwardingBdds);
       _nullRoutedBDDs =
           computeVrfForwardingBehaviorBDDs(
-              vrfForwardingBehavior, VrfForwardingBehavior::getNullRoutedIps, _dstIpSpaceToBDD);
+              vrfForwardingBehavior,
+              "nullRouted",
+              VrfForwardingBehavior::getNullRoutedIps,
+              _forwardingBdds);
       _routableBDDs =
           computeVrfForwardingBehaviorBDDs(
-              vrfForwardingBehavior, VrfForwardingBehavior::getRoutableIps, _dstIpSpaceToBDD);
+              vrfForwardingBehavior,
+              "routable",
+              VrfForwardingBehavior::getRoutableIps,
+              _forwardingBdds);
       _ifaceAcceptBDDs =
           computeIfaceForwardingBehaviorBDDs(
-              vrfForwardingBehavior, InterfaceForwardingBehavior::getAcceptedIps, _dstIpSpaceToBDD);
+              vrfForwardingBehavior,
+              "accepted",
+              InterfaceForwardingBehavior::getAcceptedIps,
+              _forwardingBdds);
       _vrfAcceptBDDs = computeVrfAcceptBDDs(); // must do this after populating _ifaceAcceptBDDs
-      _nextVrfBDDs = computeNextVrfBDDs(vrfForwardingBehavior, _dstIpSpaceToBDD);
+      _nextVrfBDDs = computeNextVrfBDDs(vrfForwardingBehavior, _forwardingBdds);
       _interfacesToVrfsMap = computeInterfacesToVrfsMap(configs);
 
       _dstIpVars = Arrays.stream(_bddPacket.getDstIp().getBitvec()).reduce(_one, BDD::and);
@@ -401,6 +446,33 @@ public final class BDDReachabilityAnalysisFactory {
     }
   }
 
+  /**
+   * Compute all ACL BDDs up front, one node per thread. Only valid when the {@link BDDPacket} is
+   * {@link BDDPacket#isConcurrent() concurrent}. The ACLs of a node share a {@link
+   * MemoizedIpAccessListToBdd}, which is not thread-safe, so each node's ACLs are converted by a
+   * single thread.
+   */
+  private static void warmAclBDDs(Map<String, Map<String, Supplier<BDD>>> aclBDDs) {
+    Span span =
+        GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.warmAclBDDs").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      aclBDDs.values().parallelStream().forEach(BDDReachabilityAnalysisFactory::warmNodeAclBDDs);
+    } finally {
+      span.finish();
+    }
+  }
+
+  private static void warmNodeAclBDDs(Map<String, Supplier<BDD>> nodeAclBDDs) {
+    for (Supplier<BDD> aclBDD : nodeAclBDDs.values()) {
+      try {
+        aclBDD.get();
+      } catch (RuntimeException e) {
+        // Not memoized, so rethrown if and when the ACL is actually used
+      }
+    }
+  }
+
   Map<String, Map<String, Supplier<BDD>>> getAclPermitBdds() {
     return _aclPermitBDDs;
   }
@@ -488,8 +560,9 @@ public final class BDDReachabilityAnalysisFactory {
 
   private static @Nonnull Map<String, Map<String, BDD>> computeVrfForwardingBehaviorBDDs(
       Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior,
+      String name,
       Function<VrfForwardingBehavior, IpSpace> ipSpaceGetter,
-      IpSpaceToBDD toBDD) {
+      StoredIpSpaceBdds toBDD) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeVrfForwardingBehaviorBDDs")
@@ -503,7 +576,12 @@ public final class BDDReachabilityAnalysisFactory {
               toImmutableMap(
                   nodeEntry.getValue(),
                   Entry::getKey, // vrf
-                  vrfEntry -> ipSpaceGetter.apply(vrfEntry.getValue()).accept(toBDD)));
+                  vrfEntry ->
+                      toBDD.toBdd(
+                          ipSpaceGetter.apply(vrfEntry.getValue()),
+                          name,
+                          nodeEntry.getKey(),
+                          vrfEntry.getKey())));
     } finally {
       span.finish();
     }
@@ -513,6 +591,21 @@ public final class BDDReachabilityAnalysisFactory {
     return _dstIpSpaceToBDD;
   }
 
+  /**
+   * Returns the destination IP {@link BDD BDDs} computed from the forwarding analysis, by name.
+   * They can be stored and passed to a later factory for the same snapshot to skip their
+   * construction.
+   */
+  public @Nonnull Map<String, BDD> getForwardingBdds() {
+    return _forwardingBdds.getBdds();
+  }
+
+  /** Returns the number of forwarding BDDs that were reused from a previous analysis. */
+  @VisibleForTesting
+  int getReusedForwardingBdds() {
+    return _forwardingBdds.getReused();
+  }
+
   Map<String, Map<String, Map<String, BDD>>> getIfaceAcceptBDDs() {
     return _ifaceAcceptBDDs;
   }
@@ -524,7 +617,7 @@ public final class BDDReachabilityAnalysisFactory {
   private static Map<String, Map<String, Map<org.batfish.datamodel.Edge, BDD>>>
       computeArpTrueEdgeBDDs(
           Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior,
-          IpSpaceToBDD ipSpaceToBDD) {
+          StoredIpSpaceBdds ipSpaceToBDD) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeArpTrueEdgeBDDs")
@@ -542,7 +635,18 @@ public final class BDDReachabilityAnalysisFactory {
                       toImmutableMap(
                           vrfEntry.getValue().getArpTrueEdge(),
                           Entry::getKey,
-                          edgeEntry -> edgeEntry.getValue().accept(ipSpaceToBDD))));
+                          edgeEntry -> {
+                            org.batfish.datamodel.Edge edge = edgeEntry.getKey();
+                            return ipSpaceToBDD.toBdd(
+                                edgeEntry.getValue(),
+                                "arpTrueEdge",
+                                nodeEntry.getKey(),
+                                vrfEntry.getKey(),
+                                edge.getNode1(),
+                                edge.getInt1(),
+                                edge.getNode2(),
+                                edge.getInt2());
+                          })));
     } finally {
       span.finish();
     }
@@ -550,8 +654,9 @@ public final class BDDReachabilityAnalysisFactory {
 
   private static Map<String, Map<String, Map<String, BDD>>> computeIfaceForwardingBehaviorBDDs(
       Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior,
+      String name,
       Function<InterfaceForwardingBehavior, IpSpace> dispositionIpSpaceGetter,
-      IpSpaceToBDD ipSpaceToBDD) {
+      StoredIpSpaceBdds ipSpaceToBDD) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeDispositionBDDs")
@@ -570,9 +675,12 @@ public final class BDDReachabilityAnalysisFactory {
                           vrfEntry.getValue().getInterfaceForwardingBehavior(),
                           Entry::getKey,
                           ifaceEntry ->
-                              dispositionIpSpaceGetter
-                                  .apply(ifaceEntry.getValue())
-                                  .accept(ipSpaceToBDD))));
+                              ipSpaceToBDD.toBdd(
+                                  dispositionIpSpaceGetter.apply(ifaceEntry.getValue()),
+                                  name,
+                                  nodeEntry.getKey(),
+                                  vrfEntry.getKey(),
+                                  ifaceEntry.getKey()))));
     } finally {
       span.finish();
     }
@@ -1820,7 +1928,7 @@ public final class BDDReachabilityAnalysisFactory {
 
   private Map<String, Map<String, Map<String, BDD>>> computeNextVrfBDDs(
       Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior,
-      IpSpaceToBDD ipSpaceToBDD) {
+      StoredIpSpaceBdds ipSpaceToBDD) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeNextVrfBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1837,7 +1945,12 @@ public final class BDDReachabilityAnalysisFactory {
                           nextVrfIpsByVrfEntry.getValue().getNextVrfIps() /* nextVrfIpsByNextVrf */,
                           Entry::getKey,
                           nextVrfIpsByNextVrfEntry ->
-                              nextVrfIpsByNextVrfEntry.getValue().accept(ipSpaceToBDD))));
+                              ipSpaceToBDD.toBdd(
+                                  nextVrfIpsByNextVrfEntry.getValue(),
+                                  "nextVrf",
+                                  nextVrfIpsByNodeVrfEntry.getKey(),
+                                  nextVrfIpsByVrfEntry.getKey(),
+                                  nextVrfIpsByNextVrfEntry.getKey()))));
     } finally {
       span.finish();
     }
@@ -0,0 +1,166 @@
+package org.batfish.bddreachability;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.symbolic.state.StateExpr;
+
+/**
+ * Computes the least fixpoint of reachable sets over a {@link BDDReachabilityGraph}.
+ *
+ * <p>Rather than re-applying each transition to the entire reachable set of its source state
+ * whenever that set grows, only the newly reachable part (the delta) is propagated. This is sound
+ * because transitions distribute over union. States are processed in topological order of the
+ * strongly connected components of the graph, so that each component is only processed once all
+ * components that can reach it have converged, and the work inside loops (e.g. ECMP loops) is
+ * confined to the component.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDReachabilityFixpoint {
+
+  /** The work done by a fixpoint computation. */
+  public static final class Stats {
+    private final BDDReachabilityGraph _graph;
+    private final boolean _backward;
+    private final int[] _traversals;
+    private final long _stateVisits;
+
+    private Stats(
+        BDDReachabilityGraph graph, boolean backward, int[] traversals, long stateVisits) {
+      _graph = graph;
+      _backward = backward;
+      _traversals = traversals;
+      _stateVisits = stateVisits;
+    }
+
+    /** Number of strongly connected components of the graph. */
+    public int getComponents() {
+      return _graph.getNumComponents();
+    }
+
+    /** Number of times a state was taken from the worklist to propagate its delta. */
+    public long getStateVisits() {
+      return _stateVisits;
+    }
+
+    /** Total number of times a transition was applied. */
+    public long getTraversals() {
+      long total = 0;
+      for (int count : _traversals) {
+        total += count;
+      }
+      return total;
+    }
+
+    /**
+     * Returns the number of times each edge's transition was applied, as a table from the state
+     * traversed from to the state traversed to (i.e. from post-state to pre-state for a backward
+     * fixpoint). Edges that were never applied are omitted.
+     */
+    public @Nonnull Table<StateExpr, StateExpr, Integer> getEdgeTraversals() {
+      ImmutableTable.Builder<StateExpr, StateExpr, Integer> builder = ImmutableTable.builder();
+      for (int e = 0; e < _traversals.length; e++) {
+        if (_traversals[e] > 0) {
+          StateExpr source = _graph.getState(_graph.source(e));
+          StateExpr target = _graph.getState(_graph.target(e));
+          if (_backward) {
+            builder.put(target, source, _traversals[e]);
+          } else {
+            builder.put(source, target, _traversals[e]);
+          }
+        }
+      }
+      return builder.build();
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("components", getComponents())
+          .add("stateVisits", _stateVisits)
+          .add("traversals", getTraversals())
+          .toString();
+    }
+  }
+
+  private BDDReachabilityFixpoint() {}
+
+  /**
+   * Applies the edges of {@code graph} to {@code reachableSets} until a fixpoint is reached, and
+   * returns the work done. If {@code backward}, edges are traversed from post-state to pre-state.
+   */
+  static @Nonnull Stats fixpoint(
+      BDDReachabilityGraph graph,
+      boolean backward,
+      Map<StateExpr, BDD> reachableSets,
+      BiFunction<Transition, BDD, BDD> traverse) {
+    int n = graph.getNumStates();
+    int lastComponent = graph.getNumComponents() - 1;
+    BDD[] reach = graph.toArray(reachableSets);
+    // the part of each state's reachable set not yet propagated to its successors
+    BDD[] deltas = reach.clone();
+    int[] traversals = new int[graph.getNumEdges()];
+    PriorityQueue<Integer> worklist =
+        new PriorityQueue<>(
+            Math.max(1, n),
+            (i, j) -> {
+              int orderI = graph.componentOrder(i);
+              int orderJ = graph.componentOrder(j);
+              int byComponent =
+                  backward
+                      ? Integer.compare(lastComponent - orderI, lastComponent - orderJ)
+                      : Integer.compare(orderI, orderJ);
+              return byComponent != 0 ? byComponent : Integer.compare(i, j);
+            });
+    for (int i = 0; i < n; i++) {
+      if (deltas[i] != null) {
+        worklist.add(i);
+      }
+    }
+
+    long stateVisits = 0;
+    while (!worklist.isEmpty()) {
+      int v = worklist.poll();
+      BDD delta = deltas[v];
+      deltas[v] = null;
+      stateVisits++;
+      int start = backward ? graph.reverseStart(v) : graph.forwardStart(v);
+      int end = backward ? graph.reverseStart(v + 1) : graph.forwardStart(v + 1);
+      for (int p = start; p < end; p++) {
+        int e = backward ? graph.reverseEdge(p) : p;
+        traversals[e]++;
+        BDD result = traverse.apply(graph.transition(e), delta);
+        if (result.isZero()) {
+          continue;
+        }
+        int w = backward ? graph.source(e) : graph.target(e);
+        BDD oldReach = reach[w];
+        BDD added = oldReach == null ? result : result.diff(oldReach);
+        if (added.isZero()) {
+          continue;
+        }
+        reach[w] = oldReach == null ? result : oldReach.or(added);
+        if (deltas[w] == null) {
+          deltas[w] = added;
+          worklist.add(w);
+        } else {
+          deltas[w] = deltas[w].or(added);
+        }
+      }
+    }
+
+    for (int i = 0; i < n; i++) {
+      if (reach[i] != null) {
+        reachableSets.put(graph.getState(i), reach[i]);
+      }
+    }
+    return new Stats(graph, backward, traversals, stateVisits);
+  }
+}
@@ -0,0 +1,369 @@
+package org.batfish.bddreachability;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.google.common.collect.Table.Cell;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.bddreachability.transition.Transitions;
+import org.batfish.symbolic.state.StateExpr;
+
+/**
+ * A compiled, immutable reachability graph.
+ *
+ * <p>{@link StateExpr States} are numbered densely from 0. Edges are stored in compressed sparse
+ * row form: the out-edges of state {@code s} are the edge ids in {@code [forwardOffsets[s],
+ * forwardOffsets[s + 1])}, with targets in {@code targets} and {@link Transition transitions} in
+ * {@code transitions}. In-edges are stored the same way, as forward edge ids, so both directions
+ * share the transitions. Reachable sets are computed in {@link BDD} arrays indexed by state id (see
+ * {@link BDDReachabilityFixpoint}), so the fixpoint does no hashing of states. Use {@link
+ * BDDReachabilityUtils#forwardFixpoint(BDDReachabilityGraph, Map)} and {@link
+ * BDDReachabilityUtils#backwardFixpoint(BDDReachabilityGraph, Map)} to run it.
+ *
+ * <p>The strongly connected components are computed once, in topological order, for use as the
+ * fixpoint's visiting order.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDReachabilityGraph {
+  private final @Nonnull List<StateExpr> _states;
+  private final @Nonnull Map<StateExpr, Integer> _ids;
+
+  private final @Nonnull int[] _forwardOffsets;
+  private final @Nonnull int[] _sources;
+  private final @Nonnull int[] _targets;
+  private final @Nonnull Transition[] _transitions;
+
+  private final @Nonnull int[] _reverseOffsets;
+  private final @Nonnull int[] _reverseEdges;
+
+  /** Index of each state's component in topological order: edges never go to a lower index. */
+  private final @Nonnull int[] _componentOrder;
+
+  private final int _components;
+
+  private BDDReachabilityGraph(
+      List<StateExpr> states,
+      Map<StateExpr, Integer> ids,
+      int[] sources,
+      int[] targets,
+      Transition[] transitions) {
+    int numStates = states.size();
+    int numEdges = sources.length;
+    _states = ImmutableList.copyOf(states);
+    _ids = ImmutableMap.copyOf(ids);
+
+    // Sort edges by source, then by target, with two stable counting sorts. Parallel edges are
+    // then adjacent in input order, and are merged as in
+    // BDDReachabilityUtils.computeForwardEdgeTable.
+    int[] order =
+        countingSort(countingSort(identity(numEdges), targets, numStates), sources, numStates);
+    int[] mergedSources = new int[numEdges];
+    int[] mergedTargets = new int[numEdges];
+    Transition[] mergedTransitions = new Transition[numEdges];
+    int numMerged = 0;
+    for (int i = 0; i < numEdges; i++) {
+      int e = order[i];
+      if (numMerged > 0
+          && mergedSources[numMerged - 1] == sources[e]
+          && mergedTargets[numMerged - 1] == targets[e]) {
+        mergedTransitions[numMerged - 1] =
+            Transitions.or(mergedTransitions[numMerged - 1], transitions[e]);
+        continue;
+      }
+      mergedSources[numMerged] = sources[e];
+      mergedTargets[numMerged] = targets[e];
+      mergedTransitions[numMerged] = transitions[e];
+      numMerged++;
+    }
+    _sources = Arrays.copyOf(mergedSources, numMerged);
+    _targets = Arrays.copyOf(mergedTargets, numMerged);
+    _transitions = Arrays.copyOf(mergedTransitions, numMerged);
+
+    // edges are sorted by source, so forward offsets are a prefix sum of out-degrees
+    _forwardOffsets = new int[numStates + 1];
+    for (int e = 0; e < numMerged; e++) {
+      _forwardOffsets[_sources[e] + 1]++;
+    }
+    for (int s = 0; s < numStates; s++) {
+      _forwardOffsets[s + 1] += _forwardOffsets[s];
+    }
+
+    // counting sort of edges by target
+    _reverseOffsets = new int[numStates + 1];
+    for (int e = 0; e < numMerged; e++) {
+      _reverseOffsets[_targets[e] + 1]++;
+    }
+    for (int s = 0; s < numStates; s++) {
+      _reverseOffsets[s + 1] += _reverseOffsets[s];
+    }
+    _reverseEdges = new int[numMerged];
+    int[] next = Arrays.copyOf(_reverseOffsets, numStates);
+    for (int e = 0; e < numMerged; e++) {
+      _reverseEdges[next[_targets[e]]++] = e;
+    }
+
+    _componentOrder = new int[numStates];
+    _components = computeComponentOrder();
+  }
+
+  private static int[] identity(int n) {
+    int[] identity = new int[n];
+    Arrays.setAll(identity, i -> i);
+    return identity;
+  }
+
+  /**
+   * Returns {@code order} stably sorted by {@code keys[order[i]]}, each in {@code [0, numKeys)}.
+   */
+  private static int[] countingSort(int[] order, int[] keys, int numKeys) {
+    int[] starts = new int[numKeys + 1];
+    for (int i : order) {
+      starts[keys[i] + 1]++;
+    }
+    for (int k = 0; k < numKeys; k++) {
+      starts[k + 1] += starts[k];
+    }
+    int[] sorted = new int[order.length];
+    for (int i : order) {
+      sorted[starts[keys[i]]++] = i;
+    }
+    return sorted;
+  }
+
+  /**
+   * Compiles the given edges. Parallel edges (with the same pre-state and post-state) are merged
+   * with {@link Transitions#or(Transition...)}.
+   */
+  public static @Nonnull BDDReachabilityGraph create(Stream<Edge> edges) {
+    Builder builder = new Builder();
+    edges.forEach(
+        edge -> builder.add(edge.getPreState(), edge.getPostState(), edge.getTransition()));
+    return builder.build();
+  }
+
+  /** Compiles the given graph, whose rows are pre-states and columns are post-states. */
+  public static @Nonnull BDDReachabilityGraph create(
+      Table<StateExpr, StateExpr, Transition> edgeTable) {
+    Builder builder = new Builder();
+    for (Cell<StateExpr, StateExpr, Transition> cell : edgeTable.cellSet()) {
+      builder.add(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+    }
+    return builder.build();
+  }
+
+  private static final class Builder {
+    private final List<StateExpr> _states = new ArrayList<>();
+    private final Map<StateExpr, Integer> _ids = new HashMap<>();
+    private int[] _sources = new int[16];
+    private int[] _targets = new int[16];
+    private Transition[] _transitions = new Transition[16];
+    private int _numEdges;
+
+    private int id(StateExpr state) {
+      Integer id = _ids.get(state);
+      if (id == null) {
+        id = _states.size();
+        _ids.put(state, id);
+        _states.add(state);
+      }
+      return id;
+    }
+
+    private void add(StateExpr preState, StateExpr postState, Transition transition) {
+      if (_numEdges == _sources.length) {
+        _sources = Arrays.copyOf(_sources, 2 * _numEdges);
+        _targets = Arrays.copyOf(_targets, 2 * _numEdges);
+        _transitions = Arrays.copyOf(_transitions, 2 * _numEdges);
+      }
+      _sources[_numEdges] = id(preState);
+      _targets[_numEdges] = id(postState);
+      _transitions[_numEdges] = transition;
+      _numEdges++;
+    }
+
+    private BDDReachabilityGraph build() {
+      return new BDDReachabilityGraph(
+          _states,
+          _ids,
+          Arrays.copyOf(_sources, _numEdges),
+          Arrays.copyOf(_targets, _numEdges),
+          Arrays.copyOf(_transitions, _numEdges));
+    }
+  }
+
+  /**
+   * Computes the strongly connected components with an iterative version of Tarjan's algorithm,
+   * filling in {@link #_componentOrder}, and returns the number of components.
+   *
+   * <p>Tarjan's algorithm completes components in reverse topological order, so they are numbered
+   * from the end.
+   */
+  private int computeComponentOrder() {
+    int n = _states.size();
+    int[] index = new int[n];
+    int[] lowLink = new int[n];
+    boolean[] onStack = new boolean[n];
+    Arrays.fill(index, -1);
+    // the next out-edge to follow from each state on the DFS path
+    int[] nextEdge = Arrays.copyOf(_forwardOffsets, n);
+    Deque<Integer> path = new ArrayDeque<>();
+    Deque<Integer> componentStack = new ArrayDeque<>();
+    int nextIndex = 0;
+    int completed = 0;
+    for (int root = 0; root < n; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      path.push(root);
+      index[root] = lowLink[root] = nextIndex++;
+      componentStack.push(root);
+      onStack[root] = true;
+      while (!path.isEmpty()) {
+        int v = path.peek();
+        if (nextEdge[v] < _forwardOffsets[v + 1]) {
+          int w = _targets[nextEdge[v]++];
+          if (index[w] < 0) {
+            path.push(w);
+            index[w] = lowLink[w] = nextIndex++;
+            componentStack.push(w);
+            onStack[w] = true;
+          } else if (onStack[w]) {
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+          continue;
+        }
+        path.pop();
+        if (!path.isEmpty()) {
+          int parent = path.peek();
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+        }
+        if (lowLink[v] == index[v]) {
+          int w;
+          do {
+            w = componentStack.pop();
+            onStack[w] = false;
+            _componentOrder[w] = completed;
+          } while (w != v);
+          completed++;
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      _componentOrder[i] = completed - 1 - _componentOrder[i];
+    }
+    return completed;
+  }
+
+  /** Number of states. Ids are {@code 0} to {@code getNumStates() - 1}. */
+  public int getNumStates() {
+    return _states.size();
+  }
+
+  /** Number of edges, after merging parallel edges. */
+  public int getNumEdges() {
+    return _targets.length;
+  }
+
+  /** Number of strongly connected components. */
+  public int getNumComponents() {
+    return _components;
+  }
+
+  /** Returns the id of the given state, or -1 if it is not in the graph. */
+  public int getId(StateExpr state) {
+    Integer id = _ids.get(state);
+    return id == null ? -1 : id;
+  }
+
+  public @Nonnull StateExpr getState(int id) {
+    return _states.get(id);
+  }
+
+  /** Returns the states of the graph, indexed by id. */
+  public @Nonnull List<StateExpr> getStates() {
+    return _states;
+  }
+
+  /** The first out-edge of {@code state}. Its out-edges end at {@code forwardStart(state + 1)}. */
+  int forwardStart(int state) {
+    return _forwardOffsets[state];
+  }
+
+  /** The first in-edge position of {@code state}. See {@link #reverseEdge(int)}. */
+  int reverseStart(int state) {
+    return _reverseOffsets[state];
+  }
+
+  /** The edge id at the given in-edge position. */
+  int reverseEdge(int position) {
+    return _reverseEdges[position];
+  }
+
+  int source(int edge) {
+    return _sources[edge];
+  }
+
+  int target(int edge) {
+    return _targets[edge];
+  }
+
+  @Nonnull
+  Transition transition(int edge) {
+    return _transitions[edge];
+  }
+
+  /** Topological index of the component of {@code state}. */
+  int componentOrder(int state) {
+    return _componentOrder[state];
+  }
+
+  /**
+   * Returns an array of the given reachable sets, indexed by state id. States not in the graph are
+   * ignored.
+   */
+  @Nonnull
+  BDD[] toArray(Map<StateExpr, BDD> reachableSets) {
+    BDD[] array = new BDD[_states.size()];
+    reachableSets.forEach(
+        (state, bdd) -> {
+          int id = getId(state);
+          if (id >= 0) {
+            array[id] = bdd;
+          }
+        });
+    return array;
+  }
+
+  /** Returns the non-null entries of the given array, indexed by state id, as a map. */
+  @Nonnull
+  Map<StateExpr, BDD> toMap(BDD[] reachableSets) {
+    ImmutableMap.Builder<StateExpr, BDD> map = ImmutableMap.builder();
+    for (int i = 0; i < reachableSets.length; i++) {
+      if (reachableSets[i] != null) {
+        map.put(_states.get(i), reachableSets[i]);
+      }
+    }
+    return map.build();
+  }
+
+  /** Returns the edges as a table from pre-state to post-state. */
+  public @Nonnull Table<StateExpr, StateExpr, Transition> toForwardEdgeTable() {
+    ImmutableTable.Builder<StateExpr, StateExpr, Transition> builder = ImmutableTable.builder();
+    for (int e = 0; e < _targets.length; e++) {
+      builder.put(_states.get(_sources[e]), _states.get(_targets[e]), _transitions[e]);
+    }
+    return builder.build();
+  }
+}
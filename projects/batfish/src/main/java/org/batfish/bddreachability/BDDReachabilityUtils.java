@@ -14,7 +14,6 @@ import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -53,48 +52,32 @@ public final class BDDReachabilityUtils {
             (t1, t2) -> Transitions.or(t1, t2)));
   }
 
-  /** Apply edges to the reachableSets until a fixed point is reached. */
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached, and return the work done. See
+   * {@link BDDReachabilityFixpoint}.
+   */
   @VisibleForTesting
-  static void fixpoint(
+  static BDDReachabilityFixpoint.Stats fixpoint(
       Map<StateExpr, BDD> reachableSets,
       Table<StateExpr, StateExpr, Transition> edges,
       BiFunction<Transition, BDD, BDD> traverse) {
+    return fixpoint(BDDReachabilityGraph.create(edges), false, reachableSets, traverse);
+  }
+
+  private static BDDReachabilityFixpoint.Stats fixpoint(
+      BDDReachabilityGraph graph,
+      boolean backward,
+      Map<StateExpr, BDD> reachableSets,
+      BiFunction<Transition, BDD, BDD> traverse) {
     Span span = GlobalTracer.get().buildSpan("BDDReachabilityAnalysis.fixpoint").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      Set<StateExpr> dirtyStates = ImmutableSet.copyOf(reachableSets.keySet());
-
-      while (!dirtyStates.isEmpty()) {
-        Set<StateExpr> newDirtyStates = new HashSet<>();
-
-        dirtyStates.forEach(
-            dirtyState -> {
-              Map<StateExpr, Transition> dirtyStateEdges = edges.row(dirtyState);
-              if (dirtyStateEdges == null) {
-                // dirtyState has no edges
-                return;
-              }
-
-              BDD dirtyStateBDD = reachableSets.get(dirtyState);
-              dirtyStateEdges.forEach(
-                  (neighbor, edge) -> {
-                    BDD result = traverse.apply(edge, dirtyStateBDD);
-                    if (result.isZero()) {
-                      return;
-                    }
-
-                    // update neighbor's reachable set
-                    BDD oldReach = reachableSets.get(neighbor);
-                    BDD newReach = oldReach == null ? result : oldReach.or(result);
-                    if (oldReach == null || !oldReach.equals(newReach)) {
-                      reachableSets.put(neighbor, newReach);
-                      newDirtyStates.add(neighbor);
-                    }
-                  });
-            });
-
-        dirtyStates = newDirtyStates;
-      }
+      BDDReachabilityFixpoint.Stats stats =
+          BDDReachabilityFixpoint.fixpoint(graph, backward, reachableSets, traverse);
+      span.setTag("components", stats.getComponents());
+      span.setTag("stateVisits", stats.getStateVisits());
+      span.setTag("traversals", stats.getTraversals());
+      return stats;
     } finally {
       span.finish();
     }
@@ -118,20 +101,30 @@ public final class BDDReachabilityUtils {
    * Runs a fixpoint through the given graph backwards from the given states.
    *
    * <p>If this function will be called more than once on the same edge table, prefer {@link
-   * #backwardFixpointTransposed(Table, Map)} on a transposed, materialized edge table (see {@link
-   * BDDReachabilityUtils#transposeAndMaterialize(Table)}) to save redundant computations.
+   * #backwardFixpoint(BDDReachabilityGraph, Map)} on a {@link BDDReachabilityGraph compiled graph}
+   * to save redundant computations.
    */
-  public static void backwardFixpoint(
+  public static BDDReachabilityFixpoint.Stats backwardFixpoint(
       Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
       Map<StateExpr, BDD> reverseReachable) {
-    backwardFixpointTransposed(transposeAndMaterialize(forwardEdgeTable), reverseReachable);
+    return backwardFixpoint(BDDReachabilityGraph.create(forwardEdgeTable), reverseReachable);
+  }
+
+  /** Runs a fixpoint through the given graph backwards from the given states. */
+  public static BDDReachabilityFixpoint.Stats backwardFixpoint(
+      BDDReachabilityGraph graph, Map<StateExpr, BDD> reverseReachable) {
+    return fixpoint(graph, true, reverseReachable, Transition::transitBackward);
   }
 
   /** See {@link #backwardFixpoint(Table, Map)}. */
-  public static void backwardFixpointTransposed(
+  public static BDDReachabilityFixpoint.Stats backwardFixpointTransposed(
       Table<StateExpr, StateExpr, Transition> transposedEdgeTable,
       Map<StateExpr, BDD> reverseReachable) {
-    fixpoint(reverseReachable, transposedEdgeTable, Transition::transitBackward);
+    return fixpoint(
+        BDDReachabilityGraph.create(transposedEdgeTable),
+        false,
+        reverseReachable,
+        Transition::transitBackward);
   }
 
   /**
@@ -154,9 +147,15 @@ public final class BDDReachabilityUtils {
                 Edge::getPostState, Edge::getPreState, Edge::getTransition));
   }
 
-  public static void forwardFixpoint(
+  public static BDDReachabilityFixpoint.Stats forwardFixpoint(
       Table<StateExpr, StateExpr, Transition> forwardEdgeTable, Map<StateExpr, BDD> reachable) {
-    fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
+    return forwardFixpoint(BDDReachabilityGraph.create(forwardEdgeTable), reachable);
+  }
+
+  /** Runs a fixpoint through the given graph forwards from the given states. */
+  public static BDDReachabilityFixpoint.Stats forwardFixpoint(
+      BDDReachabilityGraph graph, Map<StateExpr, BDD> reachable) {
+    return fixpoint(graph, false, reachable, Transition::transitForward);
   }
 
   static Map<StateExpr, BDD> getIngressStateExprBdds(
@@ -0,0 +1,77 @@
+package org.batfish.bddreachability;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.IpSpaceToBDD;
+import org.batfish.datamodel.IpSpace;
+
+/**
+ * Converts the destination {@link IpSpace IpSpaces} of a forwarding analysis to {@link BDD BDDs},
+ * reusing BDDs stored by a previous analysis of the same snapshot when available.
+ *
+ * <p>Each BDD is named by the path of keys (e.g. node, VRF, interface) it is found under. All named
+ * BDDs, whether reused or converted, are recorded so that they can be stored for the next analysis.
+ * Stored BDDs are only reused if they were built with the same destination IP variables as {@code
+ * pkt}.
+ */
+@ParametersAreNonnullByDefault
+final class StoredIpSpaceBdds {
+  /** Name of the conjunction of the destination IP variables, used to validate stored BDDs. */
+  private static final String DST_IP_VARS = "dstIpVars";
+
+  private final @Nonnull IpSpaceToBDD _toBdd;
+  private final @Nonnull Map<String, BDD> _stored;
+  private final @Nonnull Map<String, BDD> _bdds;
+  private int _reused;
+
+  StoredIpSpaceBdds(BDDPacket pkt, Map<String, BDD> stored) {
+    _toBdd = pkt.getDstIpSpaceToBDD();
+    BDD dstIpVars =
+        Arrays.stream(pkt.getDstIp().getBitvec()).reduce(pkt.getFactory().one(), BDD::and);
+    BDD storedDstIpVars = stored.get(DST_IP_VARS);
+    _stored =
+        storedDstIpVars != null && storedDstIpVars.equals(dstIpVars) ? stored : ImmutableMap.of();
+    _bdds = new LinkedHashMap<>();
+    _bdds.put(DST_IP_VARS, dstIpVars);
+  }
+
+  /** Returns the {@link BDD} of the given {@link IpSpace}, named by the given path of keys. */
+  @Nonnull
+  BDD toBdd(IpSpace ipSpace, String... path) {
+    String name = name(path);
+    BDD bdd = _stored.get(name);
+    if (bdd == null) {
+      bdd = ipSpace.accept(_toBdd);
+    } else {
+      _reused++;
+    }
+    _bdds.put(name, bdd);
+    return bdd;
+  }
+
+  /** Returns all named {@link BDD BDDs} returned by {@link #toBdd(IpSpace, String...)}. */
+  @Nonnull
+  Map<String, BDD> getBdds() {
+    return ImmutableMap.copyOf(_bdds);
+  }
+
+  /** Returns the number of {@link BDD BDDs} that were reused rather than converted. */
+  int getReused() {
+    return _reused;
+  }
+
+  /** Encodes each key with its length, so that names are unambiguous whatever the keys contain. */
+  private static @Nonnull String name(String... path) {
+    StringBuilder name = new StringBuilder();
+    for (String key : path) {
+      name.append(key.length()).append(':').append(key);
+    }
+    return name.toString();
+  }
+}
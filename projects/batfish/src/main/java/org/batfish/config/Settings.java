@@ -38,6 +38,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_PARSE_REUSE = "parsereuse";
 
+  private static final String ARG_CONVERSION_REUSE = "conversionreuse";
+
   private static final String ARG_EXIT_ON_FIRST_ERROR = "ee";
 
   private static final String ARG_FLATTEN = "flatten";
@@ -54,6 +56,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_JOBS = "jobs";
 
+  private static final String ARG_MAX_CONCURRENT_TASKS = "maxconcurrenttasks";
+
   private static final String ARG_MAX_PARSER_CONTEXT_LINES = "maxparsercontextlines";
 
   private static final String ARG_MAX_PARSER_CONTEXT_TOKENS = "maxparsercontexttokens";
@@ -72,8 +76,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_SEQUENTIAL = "sequential";
 
+  private static final String ARG_TASK_MEMORY_BUDGET_MB = "taskmemorybudget";
+
   private static final String ARG_SERVICE_BIND_HOST = "servicebindhost";
 
+  private static final String ARG_SIZE_AWARE_JOBS = "sizeawarejobs";
+
   public static final String ARG_SERVICE_HOST = "servicehost";
 
   public static final String ARG_SERVICE_NAME = "servicename";
@@ -286,6 +294,19 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  public boolean getConcurrentBddFactory() {
+    return _config.getBoolean(BfConsts.ARG_CONCURRENT_BDD_FACTORY);
+  }
+
+  public boolean getConversionReuse() {
+    return _config.getBoolean(ARG_CONVERSION_REUSE);
+  }
+
+  /** The maximum number of tasks the worker service runs at once. */
+  public int getMaxConcurrentTasks() {
+    return _config.getInt(ARG_MAX_CONCURRENT_TASKS);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -352,10 +373,26 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getInt(ARG_SERVICE_PORT);
   }
 
+  /**
+   * The heap memory (in MB) that must be available for the worker service to start a task while
+   * other tasks are running.
+   */
+  public int getTaskMemoryBudgetMb() {
+    return _config.getInt(ARG_TASK_MEMORY_BUDGET_MB);
+  }
+
   public boolean getShuffleJobs() {
     return !_config.getBoolean(ARG_NO_SHUFFLE);
   }
 
+  /**
+   * Whether parallel jobs should be run largest-first on a work-stealing pool, rather than in
+   * submission (or shuffled) order on a fixed pool.
+   */
+  public boolean getSizeAwareJobs() {
+    return _config.getBoolean(ARG_SIZE_AWARE_JOBS);
+  }
+
   public String getSnapshotName() {
     return _config.getString(BfConsts.ARG_SNAPSHOT_NAME);
   }
@@ -465,6 +502,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_IGNORE_UNKNOWN, true);
     setDefaultProperty(ARG_JOBS, Integer.MAX_VALUE);
     setDefaultProperty(BfConsts.ARG_LOG_LEVEL, "debug");
+    setDefaultProperty(ARG_MAX_CONCURRENT_TASKS, 1);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_LINES, 10);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
     setDefaultProperty(ARG_MAX_PARSE_TREE_PRINT_LENGTH, 0);
@@ -472,16 +510,20 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(ARG_PARSE_REUSE, true);
+    setDefaultProperty(BfConsts.ARG_CONCURRENT_BDD_FACTORY, false);
+    setDefaultProperty(ARG_CONVERSION_REUSE, true);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
     setDefaultProperty(ARG_RUN_MODE, RunMode.WORKER.toString());
     setDefaultProperty(ARG_SEQUENTIAL, false);
     setDefaultProperty(ARG_SERVICE_BIND_HOST, "localhost");
+    setDefaultProperty(ARG_SIZE_AWARE_JOBS, false);
     setDefaultProperty(ARG_SERVICE_HOST, "localhost");
     setDefaultProperty(ARG_SERVICE_NAME, "worker-service");
     setDefaultProperty(ARG_SERVICE_PORT, BfConsts.SVC_PORT);
     setDefaultProperty(BfConsts.ARG_SNAPSHOT_NAME, null);
+    setDefaultProperty(ARG_TASK_MEMORY_BUDGET_MB, 0);
     setDefaultProperty(BfConsts.ARG_STORAGE_BASE, null);
     setDefaultProperty(BfConsts.ARG_TASK_PLUGIN, null);
     setDefaultProperty(ARG_THROW_ON_LEXER_ERROR, true);
@@ -614,6 +656,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_HISTOGRAM, "build histogram of unimplemented features");
 
+    addOption(
+        ARG_MAX_CONCURRENT_TASKS,
+        "maximum number of tasks the worker service runs at once",
+        ARGNAME_NUMBER);
+
     addOption(
         ARG_MAX_PARSER_CONTEXT_LINES,
         "max number of surrounding lines to print on parser error",
@@ -636,6 +683,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
 
+    addBooleanOption(ARG_CONVERSION_REUSE, "reuse per-device conversion results when appropriate");
+
+    addBooleanOption(
+        BfConsts.ARG_CONCURRENT_BDD_FACTORY,
+        "use a thread-safe BDD factory so reachability analysis can build ACL BDDs in parallel");
+
     addBooleanOption(ARG_PRINT_PARSE_TREES, "print parse trees");
 
     addBooleanOption(
@@ -650,6 +703,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_SEQUENTIAL, "force sequential operation");
 
+    addBooleanOption(
+        ARG_SIZE_AWARE_JOBS, "run largest parallel jobs first on a work-stealing pool");
+
     addOption(
         ARG_SERVICE_BIND_HOST,
         "local hostname used bind service (default is 0.0.0.0 which listens on all interfaces)",
@@ -669,6 +725,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         BfConsts.ARG_SYNTHESIZE_TOPOLOGY,
         "synthesize topology from interface ip subnet information");
 
+    addOption(
+        ARG_TASK_MEMORY_BUDGET_MB,
+        "heap memory (in MB) needed to start a task while other tasks are running",
+        ARGNAME_NUMBER);
+
     addOption(BfConsts.ARG_TASK_PLUGIN, "fully-qualified name of task plugin class", ARGNAME_NAME);
 
     addOption(BfConsts.ARG_TESTRIG, "ID of snapshot", ARGNAME_NAME);
@@ -794,6 +855,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(ARG_IGNORE_UNSUPPORTED);
     getBooleanOptionValue(BfConsts.COMMAND_INIT_INFO);
     getIntOptionValue(ARG_JOBS);
+    getIntOptionValue(ARG_MAX_CONCURRENT_TASKS);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_LINES);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
@@ -809,8 +871,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getStringOptionValue(ARG_SERVICE_HOST);
     getStringOptionValue(ARG_SERVICE_NAME);
     getIntOptionValue(ARG_SERVICE_PORT);
+    getIntOptionValue(ARG_TASK_MEMORY_BUDGET_MB);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
+    getBooleanOptionValue(ARG_SIZE_AWARE_JOBS);
     getBooleanOptionValue(ARG_PARSE_REUSE);
+    getBooleanOptionValue(ARG_CONVERSION_REUSE);
+    getBooleanOptionValue(BfConsts.ARG_CONCURRENT_BDD_FACTORY);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getPathOptionValue(BfConsts.ARG_STORAGE_BASE);
     getStringOptionValue(BfConsts.ARG_TASK_PLUGIN);
@@ -833,6 +899,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(BfConsts.ARG_CONTAINER, container);
   }
 
+  public void setConcurrentBddFactory(boolean concurrentBddFactory) {
+    _config.setProperty(BfConsts.ARG_CONCURRENT_BDD_FACTORY, concurrentBddFactory);
+  }
+
+  public void setConversionReuse(boolean conversionReuse) {
+    _config.setProperty(ARG_CONVERSION_REUSE, conversionReuse);
+  }
+
   public void setDebugFlags(List<String> debugFlags) {
     _config.setProperty(ARG_DEBUG_FLAGS, debugFlags);
   }
@@ -904,6 +978,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_SEQUENTIAL, sequential);
   }
 
+  public void setSizeAwareJobs(boolean sizeAwareJobs) {
+    _config.setProperty(ARG_SIZE_AWARE_JOBS, sizeAwareJobs);
+  }
+
   public void setStorageBase(Path storageBase) {
     _config.setProperty(BfConsts.ARG_STORAGE_BASE, storageBase.toString());
   }
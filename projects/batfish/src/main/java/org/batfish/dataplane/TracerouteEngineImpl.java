@@ -1,5 +1,6 @@
 package org.batfish.dataplane;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -7,11 +8,16 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 import org.batfish.common.plugin.TracerouteEngine;
 import org.batfish.common.traceroute.TraceDag;
 import org.batfish.datamodel.Configuration;
@@ -19,6 +25,7 @@ import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
+import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
 import org.batfish.dataplane.traceroute.TracerouteEngineImplContext;
 
@@ -30,6 +37,9 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
    */
   private static final int CHUNK_SIZE = 256;
 
+  /** Bounds the number of chunks whose traces are held in memory at once while streaming. */
+  private static final int MAX_CHUNKS_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
   private final DataPlane _dataPlane;
   private final Topology _topology;
   private final Map<String, Configuration> _configurations;
@@ -60,21 +70,75 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
     ImmutableMap.Builder<Flow, TraceDag> result =
         ImmutableMap.builderWithExpectedSize(flows.size());
-    Iterables.partition(flows, CHUNK_SIZE)
-        .forEach(
-            c ->
-                result.putAll(
-                    new TracerouteEngineImplContext(
-                            _dataPlane,
-                            _topology,
-                            sessions,
-                            // This copy is annoying, but should add negligible runtime overhead.
-                            // Copying is much faster than even producing a NO_ROUTE trace.
-                            ImmutableSet.copyOf(c),
-                            _dataPlane.getFibs(),
-                            ignoreFilters,
-                            _configurations)
-                        .buildTraceDags()));
+    streamTraceDags(flows, sessions, ignoreFilters, result::put);
     return result.build();
   }
+
+  @Override
+  public void streamTraces(
+      Iterable<Flow> flows, boolean ignoreFilters, BiConsumer<Flow, List<Trace>> consumer) {
+    streamTraceDags(
+        flows,
+        ImmutableSet.of(),
+        ignoreFilters,
+        (flow, dag) ->
+            consumer.accept(
+                flow,
+                dag.getTraces()
+                    .map(TraceAndReverseFlow::getTrace)
+                    .collect(ImmutableList.toImmutableList())));
+  }
+
+  /**
+   * Traces chunks of {@link #CHUNK_SIZE} flows in parallel. At most {@link #MAX_CHUNKS_IN_FLIGHT}
+   * chunks are traced or waiting to be consumed at once: if the consumer falls behind, no more
+   * flows are read until it catches up.
+   */
+  @Override
+  public void streamTraceDags(
+      Iterable<Flow> flows,
+      Set<FirewallSessionTraceInfo> sessions,
+      boolean ignoreFilters,
+      BiConsumer<Flow, TraceDag> consumer) {
+    Deque<CompletableFuture<Map<Flow, TraceDag>>> inFlight = new ArrayDeque<>();
+    try {
+      for (List<Flow> chunk : Iterables.partition(flows, CHUNK_SIZE)) {
+        if (inFlight.size() == MAX_CHUNKS_IN_FLIGHT) {
+          join(inFlight.remove()).forEach(consumer);
+        }
+        inFlight.add(
+            CompletableFuture.supplyAsync(() -> traceChunk(chunk, sessions, ignoreFilters)));
+      }
+      while (!inFlight.isEmpty()) {
+        join(inFlight.remove()).forEach(consumer);
+      }
+    } finally {
+      inFlight.forEach(future -> future.cancel(false));
+    }
+  }
+
+  private Map<Flow, TraceDag> traceChunk(
+      List<Flow> chunk, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
+    return new TracerouteEngineImplContext(
+            _dataPlane,
+            _topology,
+            sessions,
+            // This copy is annoying, but should add negligible runtime overhead.
+            // Copying is much faster than even producing a NO_ROUTE trace.
+            ImmutableSet.copyOf(chunk),
+            _dataPlane.getFibs(),
+            ignoreFilters,
+            _configurations)
+        .buildTraceDags();
+  }
+
+  /** Waits for a chunk, rethrowing any exception thrown while tracing it. */
+  private static Map<Flow, TraceDag> join(CompletableFuture<Map<Flow, TraceDag>> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
 }
@@ -279,10 +279,31 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
       Rib mainRib,
       BgpTopology topology,
       PrefixTracer prefixTracer) {
+    this(
+        process,
+        configuration,
+        RoutingPolicies.from(configuration),
+        vrfName,
+        mainRib,
+        topology,
+        prefixTracer);
+  }
+
+  /**
+   * Create a new BGP process that evaluates the given routing policies of {@code configuration}.
+   */
+  BgpRoutingProcess(
+      BgpProcess process,
+      Configuration configuration,
+      RoutingPolicies policies,
+      String vrfName,
+      Rib mainRib,
+      BgpTopology topology,
+      PrefixTracer prefixTracer) {
     _process = process;
     _c = configuration;
     _hostname = configuration.getHostname();
-    _policies = RoutingPolicies.from(configuration);
+    _policies = policies;
     _vrfName = vrfName;
     _mainRib = mainRib;
     _topology = topology;
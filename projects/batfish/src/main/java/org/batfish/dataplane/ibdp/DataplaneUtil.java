@@ -6,6 +6,7 @@ import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
@@ -143,5 +144,33 @@ public final class DataplaneUtil {
     return result.build();
   }
 
+  /**
+   * Returns the entries of {@code computed}, plus the entries of {@code parent} for the {@code
+   * reusedNodes} (which must not be keys of {@code computed}).
+   */
+  static @Nonnull <V> SortedMap<String, V> withReusedNodes(
+      Map<String, V> computed, Map<String, V> parent, Set<String> reusedNodes) {
+    ImmutableSortedMap.Builder<String, V> result = ImmutableSortedMap.naturalOrder();
+    result.putAll(computed);
+    reusedNodes.stream()
+        .filter(parent::containsKey)
+        .forEach(hostname -> result.put(hostname, parent.get(hostname)));
+    return result.build();
+  }
+
+  /**
+   * Returns the cells of {@code computed}, plus the rows of {@code parent} for the {@code
+   * reusedNodes} (which must not be rows of {@code computed}).
+   */
+  static @Nonnull <V> Table<String, String, V> withReusedNodes(
+      Table<String, String, V> computed, Table<String, String, V> parent, Set<String> reusedNodes) {
+    ImmutableTable.Builder<String, String, V> result = ImmutableTable.builder();
+    result.putAll(computed);
+    for (String hostname : reusedNodes) {
+      parent.row(hostname).forEach((vrf, value) -> result.put(hostname, vrf, value));
+    }
+    return result.build();
+  }
+
   private DataplaneUtil() {}
 }
@@ -14,12 +14,18 @@ import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.prunedVxlanTopology
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,7 +33,11 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.BdpOscillationException;
@@ -44,6 +54,7 @@ import org.batfish.common.topology.broadcast.BroadcastL3Adjacencies;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
 import org.batfish.datamodel.NetworkConfigurations;
@@ -54,6 +65,7 @@ import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.eigrp.EigrpTopologyUtils;
 import org.batfish.datamodel.ipsec.IpsecTopology;
 import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.routing_policy.RoutingPolicy.EvaluationStats;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
@@ -86,15 +98,21 @@ final class IncrementalBdpEngine {
   private PartialDataplane nextDataplane(
       TopologyContext currentTopologyContext,
       SortedMap<String, Node> nodes,
-      List<VirtualRouter> vrs) {
+      List<VirtualRouter> vrs,
+      @Nullable DataPlane parentDataPlane,
+      Map<String, Configuration> reusedConfigurations) {
     LOGGER.info("Updating dataplane");
     computeFibs(vrs);
 
-    return PartialDataplane.builder()
-        .setNodes(nodes)
-        .setLayer3Topology(currentTopologyContext.getLayer3Topology())
-        .setL3Adjacencies(currentTopologyContext.getL3Adjacencies())
-        .build();
+    PartialDataplane.Builder dataplane =
+        PartialDataplane.builder()
+            .setNodes(nodes)
+            .setLayer3Topology(currentTopologyContext.getLayer3Topology())
+            .setL3Adjacencies(currentTopologyContext.getL3Adjacencies());
+    if (parentDataPlane != null) {
+      dataplane.setReusedNodes(parentDataPlane, reusedConfigurations);
+    }
+    return dataplane.build();
   }
 
   /**
@@ -219,6 +237,21 @@ final class IncrementalBdpEngine {
       Map<String, Configuration> configurations,
       TopologyContext initialTopologyContext,
       Set<BgpAdvertisement> externalAdverts) {
+    return computeDataPlane(configurations, initialTopologyContext, externalAdverts, null);
+  }
+
+  /**
+   * Computes the dataplane. If warm start is enabled and {@code parentDataPlane} is given, nodes
+   * that cannot be influenced by any difference from the parent snapshot (see {@link WarmStart})
+   * take their converged state from {@code parentDataPlane}, and the fixed-point computation only
+   * runs on the rest of the network. If the warm start fails for any reason, the dataplane is
+   * computed from scratch.
+   */
+  ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Set<BgpAdvertisement> externalAdverts,
+      @Nullable DataPlane parentDataPlane) {
     Span span = GlobalTracer.get().buildSpan("Compute Data Plane").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -229,116 +262,189 @@ final class IncrementalBdpEngine {
       Map<Ip, Map<String, Set<String>>> ipVrfOwners =
           new IpOwners(configurations, initialTopologyContext.getL3Adjacencies()).getIpVrfOwners();
 
-      // Generate our nodes, keyed by name, sorted for determinism
-      SortedMap<String, Node> nodes =
-          toImmutableSortedMap(configurations.values(), Configuration::getHostname, Node::new);
-      // A collection of all the virtual routers in random order enables parallelization across all
-      // VRs, and likely spreads nodes with similar hostnames across different cores. In contrast,
-      // nodes.values().parallelStream().flatMap(get vrs stream) is only node-parallel and clusters
-      // nodes by hostname. See https://github.com/batfish/batfish/pull/7054 description.
-      List<VirtualRouter> vrs =
-          toListInRandomOrder(nodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
-      NetworkConfigurations networkConfigurations = NetworkConfigurations.of(configurations);
-
-      /*
-       * Run the data plane computation here:
-       * - First, let the IGP routes converge
-       * - Second, re-init BGP neighbors with reachability checks
-       * - Third, let the EGP routes converge
-       * - Finally, compute FIBs, return answer
-       */
-      IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
-      // TODO: eventually, IGP needs to be part of fixed-point below, because tunnels.
-      computeIgpDataPlane(nodes, vrs, initialTopologyContext, ipVrfOwners, answerElement);
-
-      LOGGER.info("Initialize virtual routers before topology fixed point");
-      Span initializationSpan =
-          GlobalTracer.get().buildSpan("Initialize virtual routers for iBDP-external").start();
-      try (Scope innerScope = GlobalTracer.get().scopeManager().activate(initializationSpan)) {
-        assert innerScope != null; // avoid unused warning
-        vrs.parallelStream()
-            .forEach(
-                vr -> vr.initForEgpComputationBeforeTopologyLoop(externalAdverts, ipVrfOwners));
-      } finally {
-        initializationSpan.finish();
+      Map<String, String> nodeFingerprints = ImmutableMap.of();
+      if (_settings.getWarmStart()) {
+        try {
+          WarmStart warmStart =
+              WarmStart.create(
+                  configurations, initialTopologyContext, ipVrfOwners, externalAdverts);
+          nodeFingerprints = warmStart.getFingerprints();
+          if (parentDataPlane != null) {
+            Set<String> reusedNodes =
+                warmStart.getReusableNodes(parentDataPlane.getNodeFingerprints());
+            LOGGER.info(
+                "Reusing the converged state of {} of {} nodes from parent snapshot",
+                reusedNodes.size(),
+                configurations.size());
+            if (!reusedNodes.isEmpty()) {
+              return computeDataPlane(
+                  configurations,
+                  initialTopologyContext,
+                  externalAdverts,
+                  ipVrfOwners,
+                  nodeFingerprints,
+                  parentDataPlane,
+                  reusedNodes);
+            }
+          }
+        } catch (RuntimeException e) {
+          // e.g., no convergence, or the parent's stored dataplane could not be read
+          LOGGER.warn("Warm-started dataplane computation failed, computing from scratch", e);
+        }
       }
+      return computeDataPlane(
+          configurations,
+          initialTopologyContext,
+          externalAdverts,
+          ipVrfOwners,
+          nodeFingerprints,
+          null,
+          ImmutableSet.of());
+    } finally {
+      span.finish();
+    }
+  }
 
-      /*
-       * Perform a fixed-point computation, in which every round the topology is updated based
-       * on what we have learned in the previous round.
-       */
-      // Since the topology iterations are incremental, clear fields that are pruned to get the real
-      // topology. They are not actually yet included in topologies.
-      TopologyContext priorTopologyContext =
-          initialTopologyContext.toBuilder()
-              .setIpsecTopology(IpsecTopology.EMPTY)
-              .setTunnelTopology(TunnelTopology.EMPTY)
-              .setVxlanTopology(VxlanTopology.EMPTY)
-              .build();
-      PartialDataplane currentDataplane = nextDataplane(priorTopologyContext, nodes, vrs);
-
-      TopologyContext currentTopologyContext =
-          nextTopologyContext(
-              priorTopologyContext,
-              currentDataplane,
-              initialTopologyContext,
-              networkConfigurations,
-              ipVrfOwners);
-      int topologyIterations = 0;
-      boolean converged = false;
-      while (!converged && topologyIterations++ < MAX_TOPOLOGY_ITERATIONS) {
-        Span iterSpan =
-            GlobalTracer.get().buildSpan("Topology iteration " + topologyIterations).start();
-        LOGGER.info("Starting topology iteration {}", topologyIterations);
-        try (Scope iterScope = GlobalTracer.get().scopeManager().activate(iterSpan)) {
-          assert iterScope != null; // avoid unused warning
-
-          boolean isOscillating =
-              computeNonMonotonicPortionOfDataPlane(
-                  nodes, vrs, answerElement, currentTopologyContext, networkConfigurations);
-          if (isOscillating) {
-            // If we are oscillating here, network has no stable solution.
-            LOGGER.error("Network has no stable solution");
-            throw new BdpOscillationException("Network has no stable solution");
-          }
+  /**
+   * Runs the fixed-point computation on all nodes except {@code reusedNodes}, whose state is taken
+   * from {@code parentDataPlane}.
+   */
+  private ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Set<BgpAdvertisement> externalAdverts,
+      Map<Ip, Map<String, Set<String>>> ipVrfOwners,
+      Map<String, String> nodeFingerprints,
+      @Nullable DataPlane parentDataPlane,
+      Set<String> reusedNodes) {
+    Map<String, Configuration> reusedConfigurations =
+        Maps.filterKeys(configurations, reusedNodes::contains);
+
+    // Generate our nodes, keyed by name, sorted for determinism. Configurations are not modified
+    // during the computation, so routing policies can be frozen once.
+    boolean collectPolicyStats = _settings.getPolicyStats();
+    SortedMap<String, Node> nodes =
+        toImmutableSortedMap(
+            Maps.filterKeys(configurations, hostname -> !reusedNodes.contains(hostname)).values(),
+            Configuration::getHostname,
+            c -> new Node(c, RoutingPolicies.freeze(c, collectPolicyStats)));
+    // A collection of all the virtual routers in random order enables parallelization across all
+    // VRs, and likely spreads nodes with similar hostnames across different cores. In contrast,
+    // nodes.values().parallelStream().flatMap(get vrs stream) is only node-parallel and clusters
+    // nodes by hostname. See https://github.com/batfish/batfish/pull/7054 description.
+    List<VirtualRouter> vrs =
+        toListInRandomOrder(nodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
+    NetworkConfigurations networkConfigurations = NetworkConfigurations.of(configurations);
 
-          currentDataplane = nextDataplane(currentTopologyContext, nodes, vrs);
-          TopologyContext nextTopologyContext =
-              nextTopologyContext(
-                  currentTopologyContext,
-                  currentDataplane,
-                  initialTopologyContext,
-                  networkConfigurations,
-                  ipVrfOwners);
-          converged = currentTopologyContext.equals(nextTopologyContext);
-          currentTopologyContext = nextTopologyContext;
-        } finally {
-          iterSpan.finish();
+    /*
+     * Run the data plane computation here:
+     * - First, let the IGP routes converge
+     * - Second, re-init BGP neighbors with reachability checks
+     * - Third, let the EGP routes converge
+     * - Finally, compute FIBs, return answer
+     */
+    IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
+    // TODO: eventually, IGP needs to be part of fixed-point below, because tunnels.
+    computeIgpDataPlane(nodes, vrs, initialTopologyContext, ipVrfOwners, answerElement);
+
+    LOGGER.info("Initialize virtual routers before topology fixed point");
+    Span initializationSpan =
+        GlobalTracer.get().buildSpan("Initialize virtual routers for iBDP-external").start();
+    try (Scope innerScope = GlobalTracer.get().scopeManager().activate(initializationSpan)) {
+      assert innerScope != null; // avoid unused warning
+      vrs.parallelStream()
+          .forEach(vr -> vr.initForEgpComputationBeforeTopologyLoop(externalAdverts, ipVrfOwners));
+    } finally {
+      initializationSpan.finish();
+    }
+
+    /*
+     * Perform a fixed-point computation, in which every round the topology is updated based
+     * on what we have learned in the previous round.
+     */
+    // Since the topology iterations are incremental, clear fields that are pruned to get the real
+    // topology. They are not actually yet included in topologies.
+    TopologyContext priorTopologyContext =
+        initialTopologyContext.toBuilder()
+            .setIpsecTopology(IpsecTopology.EMPTY)
+            .setTunnelTopology(TunnelTopology.EMPTY)
+            .setVxlanTopology(VxlanTopology.EMPTY)
+            .build();
+    PartialDataplane currentDataplane =
+        nextDataplane(priorTopologyContext, nodes, vrs, parentDataPlane, reusedConfigurations);
+
+    TopologyContext currentTopologyContext =
+        nextTopologyContext(
+            priorTopologyContext,
+            currentDataplane,
+            initialTopologyContext,
+            networkConfigurations,
+            ipVrfOwners);
+    int topologyIterations = 0;
+    boolean converged = false;
+    while (!converged && topologyIterations++ < MAX_TOPOLOGY_ITERATIONS) {
+      Span iterSpan =
+          GlobalTracer.get().buildSpan("Topology iteration " + topologyIterations).start();
+      LOGGER.info("Starting topology iteration {}", topologyIterations);
+      try (Scope iterScope = GlobalTracer.get().scopeManager().activate(iterSpan)) {
+        assert iterScope != null; // avoid unused warning
+
+        boolean isOscillating =
+            computeNonMonotonicPortionOfDataPlane(
+                nodes, vrs, answerElement, currentTopologyContext, networkConfigurations);
+        if (isOscillating) {
+          // If we are oscillating here, network has no stable solution.
+          LOGGER.error("Network has no stable solution");
+          throw new BdpOscillationException("Network has no stable solution");
         }
-      }
 
-      if (!converged) {
-        LOGGER.error(
-            "Could not reach a fixed point topology in {} iterations", MAX_TOPOLOGY_ITERATIONS);
-        throw new BdpOscillationException(
-            String.format(
-                "Could not reach a fixed point topology in %d iterations",
-                MAX_TOPOLOGY_ITERATIONS));
+        currentDataplane =
+            nextDataplane(
+                currentTopologyContext, nodes, vrs, parentDataPlane, reusedConfigurations);
+        TopologyContext nextTopologyContext =
+            nextTopologyContext(
+                currentTopologyContext,
+                currentDataplane,
+                initialTopologyContext,
+                networkConfigurations,
+                ipVrfOwners);
+        converged = currentTopologyContext.equals(nextTopologyContext);
+        currentTopologyContext = nextTopologyContext;
+      } finally {
+        iterSpan.finish();
       }
+    }
 
-      // Generate the answers from the computation, compute final FIBs
-      // TODO: Properly finalize topologies, IpOwners, etc.
-      LOGGER.info("Finalizing dataplane");
-      answerElement.setVersion(BatfishVersion.getVersionStatic());
-      IncrementalDataPlane finalDataplane =
-          IncrementalDataPlane.builder()
-              .setNodes(nodes)
-              .setPartialDataplane(currentDataplane)
-              .build();
-      return new IbdpResult(answerElement, finalDataplane, currentTopologyContext, nodes);
-    } finally {
-      span.finish();
+    if (!converged) {
+      LOGGER.error(
+          "Could not reach a fixed point topology in {} iterations", MAX_TOPOLOGY_ITERATIONS);
+      throw new BdpOscillationException(
+          String.format(
+              "Could not reach a fixed point topology in %d iterations", MAX_TOPOLOGY_ITERATIONS));
+    }
+
+    // Generate the answers from the computation, compute final FIBs
+    // TODO: Properly finalize topologies, IpOwners, etc.
+    LOGGER.info("Finalizing dataplane");
+    answerElement.setVersion(BatfishVersion.getVersionStatic());
+    if (collectPolicyStats) {
+      EvaluationStats policyStats =
+          nodes.values().stream()
+              .map(n -> n.getRoutingPolicies().getEvaluationStats())
+              .reduce(EvaluationStats.EMPTY, EvaluationStats::plus);
+      answerElement.setPolicyEvaluations(policyStats.getEvaluations());
+      answerElement.setPolicyEvaluationMillis(
+          TimeUnit.NANOSECONDS.toMillis(policyStats.getEvaluationNanos()));
+    }
+    IncrementalDataPlane.Builder finalDataplane =
+        IncrementalDataPlane.builder()
+            .setNodes(nodes)
+            .setPartialDataplane(currentDataplane)
+            .setNodeFingerprints(nodeFingerprints);
+    if (parentDataPlane != null) {
+      finalDataplane.setReusedNodes(parentDataPlane, reusedNodes);
     }
+    return new IbdpResult(answerElement, finalDataplane.build(), currentTopologyContext, nodes);
   }
 
   /**
@@ -657,6 +763,19 @@ final class IncrementalBdpEngine {
 
       Schedule currentSchedule = _settings.getScheduleName();
 
+      /*
+       * In worklist mode, only nodes with pending work are processed. The worklist starts with
+       * every node, since the topology may have changed. Within an iteration, nodes that become
+       * dirty activate their protocol neighbors in later parts of the schedule, since those
+       * neighbors would otherwise miss the messages they pull from them.
+       */
+      boolean useWorklist = _settings.getWorklist();
+      SetMultimap<String, String> protocolNeighbors =
+          useWorklist
+              ? computeProtocolNeighbors(nodes.keySet(), topologyContext)
+              : ImmutableSetMultimap.of();
+      Set<String> activeNodes = new HashSet<>(nodes.keySet());
+
       // Go into iteration mode, until the routes converge (or oscillation is detected)
       do {
         _numIterations++;
@@ -684,10 +803,19 @@ final class IncrementalBdpEngine {
           Span depRoutesspan =
               GlobalTracer.get().buildSpan("Re-Init for new route iteration").start();
 
+          List<VirtualRouter> initialVrs;
           try (Scope reiinitscope = GlobalTracer.get().scopeManager().activate(depRoutesspan)) {
             assert reiinitscope != null; // avoid unused warning
 
-            vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
+            if (useWorklist) {
+              LOGGER.info(
+                  "Iteration {}: {} of {} nodes active",
+                  _numIterations,
+                  activeNodes.size(),
+                  nodes.size());
+            }
+            initialVrs = useWorklist ? getVirtualRouters(nodes, activeNodes) : vrs;
+            initialVrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
           } finally {
             depRoutesspan.finish();
           }
@@ -703,19 +831,28 @@ final class IncrementalBdpEngine {
           LOGGER.info("Redistribute");
           try (Scope redistscope = GlobalTracer.get().scopeManager().activate(redistributeSpan)) {
             assert redistscope != null; // avoid unused warning
-            vrs.parallelStream().forEach(VirtualRouter::redistribute);
+            initialVrs.parallelStream().forEach(VirtualRouter::redistribute);
 
             // Handle process-specific route resolution and cross-VRF leaking here too.
-            vrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
-            queueRoutesForCrossVrfLeaking(vrs);
+            initialVrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
+            queueRoutesForCrossVrfLeaking(initialVrs);
           } finally {
             redistributeSpan.finish();
           }
 
           // compute dependent routes for each allowable set of nodes until we cover all nodes
           int nodeSet = 0;
+          Set<String> processedNodes = new HashSet<>();
           while (schedule.hasNext()) {
             Map<String, Node> iterationNodes = schedule.next();
+            if (useWorklist) {
+              iterationNodes =
+                  ImmutableMap.copyOf(Maps.filterKeys(iterationNodes, activeNodes::contains));
+              if (iterationNodes.isEmpty()) {
+                ++nodeSet;
+                continue;
+              }
+            }
             List<VirtualRouter> iterationVrs =
                 toListInRandomOrder(
                     iterationNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
@@ -723,12 +860,17 @@ final class IncrementalBdpEngine {
                 String.format("Iteration %d Schedule %d", _numIterations, nodeSet);
             computeDependentRoutesIteration(
                 iterationVrs, iterationlabel, nodes, networkConfigurations, _numIterations);
+            if (useWorklist) {
+              processedNodes.addAll(iterationNodes.keySet());
+              activateNeighborsOfDirtyNodes(iterationNodes, protocolNeighbors, activeNodes);
+            }
             ++nodeSet;
           }
 
           // Tell each VR that a route computation round has ended.
           // This must be the last thing called on a VR in a routing round.
-          vrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
+          (useWorklist ? getVirtualRouters(nodes, processedNodes) : vrs)
+              .parallelStream().forEach(VirtualRouter::endOfEgpRound);
 
           /*
            * Perform various bookkeeping at the end of the iteration:
@@ -757,10 +899,14 @@ final class IncrementalBdpEngine {
               return true; // Found an oscillation
             }
           }
+
+          if (useWorklist) {
+            activeNodes = computeNextWorklist(nodes, processedNodes, protocolNeighbors);
+          }
         } finally {
           iterSpan.finish();
         }
-      } while (hasNotReachedRoutingFixedPoint(vrs));
+      } while (useWorklist ? !activeNodes.isEmpty() : hasNotReachedRoutingFixedPoint(vrs));
 
       ae.setDependentRoutesIterations(_numIterations);
       return false; // No oscillations
@@ -782,6 +928,120 @@ final class IncrementalBdpEngine {
     }
   }
 
+  /**
+   * Compute the nodes that are active at the start of the next iteration. Only nodes processed in
+   * the current iteration and their protocol neighbors can have become dirty, so the rest of the
+   * network is not examined.
+   *
+   * @return an empty set if a routing fixed point has been reached; otherwise, the nodes that are
+   *     dirty or have main RIB changes to redistribute, plus their protocol neighbors.
+   */
+  private Set<String> computeNextWorklist(
+      SortedMap<String, Node> allNodes,
+      Set<String> processedNodes,
+      SetMultimap<String, String> protocolNeighbors) {
+    Span span =
+        GlobalTracer.get()
+            .buildSpan("Iteration " + _numIterations + ": Compute next worklist")
+            .start();
+    LOGGER.info("Iteration {}: Compute next worklist", _numIterations);
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      Set<String> candidates = withNeighbors(processedNodes, protocolNeighbors);
+      Set<String> dirty =
+          candidates.parallelStream()
+              .filter(hostname -> hasVirtualRouter(allNodes, hostname, VirtualRouter::isDirty))
+              .collect(ImmutableSet.toImmutableSet());
+      if (dirty.isEmpty()) {
+        // Same fixed-point condition as hasNotReachedRoutingFixedPoint
+        return new HashSet<>();
+      }
+      Set<String> pending =
+          candidates.parallelStream()
+              .filter(
+                  hostname ->
+                      dirty.contains(hostname)
+                          || hasVirtualRouter(
+                              allNodes, hostname, VirtualRouter::hasMainRibDeltaPrevRound))
+              .collect(ImmutableSet.toImmutableSet());
+      return withNeighbors(pending, protocolNeighbors);
+    } finally {
+      span.finish();
+    }
+  }
+
+  /**
+   * Add the protocol neighbors of each node in {@code processedNodes} with a dirty virtual router
+   * to {@code activeNodes}, so that they pull and process its messages.
+   */
+  private static void activateNeighborsOfDirtyNodes(
+      Map<String, Node> processedNodes,
+      SetMultimap<String, String> protocolNeighbors,
+      Set<String> activeNodes) {
+    processedNodes.entrySet().parallelStream()
+        .filter(e -> e.getValue().getVirtualRouters().stream().anyMatch(VirtualRouter::isDirty))
+        .map(Entry::getKey)
+        .collect(ImmutableList.toImmutableList())
+        .forEach(hostname -> activeNodes.addAll(protocolNeighbors.get(hostname)));
+  }
+
+  private static boolean hasVirtualRouter(
+      Map<String, Node> allNodes, String hostname, Predicate<VirtualRouter> predicate) {
+    return allNodes.get(hostname).getVirtualRouters().stream().anyMatch(predicate);
+  }
+
+  /** Return the virtual routers of the given nodes, in random order */
+  private static List<VirtualRouter> getVirtualRouters(
+      SortedMap<String, Node> allNodes, Set<String> hostnames) {
+    return toListInRandomOrder(
+        hostnames.stream()
+            .flatMap(hostname -> allNodes.get(hostname).getVirtualRouters().stream()));
+  }
+
+  /** Return a mutable set of the given nodes and their protocol neighbors */
+  private static Set<String> withNeighbors(
+      Set<String> hostnames, SetMultimap<String, String> protocolNeighbors) {
+    Set<String> result = new HashSet<>(hostnames);
+    hostnames.forEach(hostname -> result.addAll(protocolNeighbors.get(hostname)));
+    return result;
+  }
+
+  /**
+   * Compute the hostnames of nodes that have a BGP, OSPF, EIGRP, or IS-IS adjacency with each node,
+   * in either direction. Only adjacencies between the given {@code hostnames} are considered.
+   */
+  private static SetMultimap<String, String> computeProtocolNeighbors(
+      Set<String> hostnames, TopologyContext topologyContext) {
+    ImmutableSetMultimap.Builder<String, String> neighbors = ImmutableSetMultimap.builder();
+    BiConsumer<String, String> addAdjacency =
+        (a, b) -> {
+          if (hostnames.contains(a) && hostnames.contains(b)) {
+            neighbors.put(a, b);
+            neighbors.put(b, a);
+          }
+        };
+    topologyContext
+        .getBgpTopology()
+        .getGraph()
+        .edges()
+        .forEach(e -> addAdjacency.accept(e.source().getHostname(), e.target().getHostname()));
+    topologyContext
+        .getOspfTopology()
+        .edges()
+        .forEach(e -> addAdjacency.accept(e.getTail().getHostname(), e.getHead().getHostname()));
+    topologyContext
+        .getEigrpTopology()
+        .getNetwork()
+        .edges()
+        .forEach(e -> addAdjacency.accept(e.getNode1().getHostname(), e.getNode2().getHostname()));
+    topologyContext
+        .getIsisTopology()
+        .getNetwork()
+        .edges()
+        .forEach(e -> addAdjacency.accept(e.getNode1().getNode(), e.getNode2().getNode()));
+    return neighbors.build();
+  }
+
   /**
    * Compute the hashcode that uniquely identifies the state of the network at a given iteration
    *
@@ -851,6 +1111,17 @@ final class IncrementalBdpEngine {
    * @return the number of iterations it took for internal OSPF routes to converge
    */
   private int initOspfInternalRoutes(Map<String, Node> allNodes, OspfTopology ospfTopology) {
+    if (_settings.getOspfSpf()) {
+      // Intra-area routes converge at once, leaving inter-area and external routes to iterate
+      Span span = GlobalTracer.get().buildSpan("OSPF internal: SPF").start();
+      LOGGER.info("OSPF internal: SPF");
+      try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+        assert scope != null; // avoid unused warning
+        OspfSpf.computeIntraAreaRoutes(allNodes, ospfTopology);
+      } finally {
+        span.finish();
+      }
+    }
     int ospfInternalIterations = 0;
     boolean dirty = true;
 
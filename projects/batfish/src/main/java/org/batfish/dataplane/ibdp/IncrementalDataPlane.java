@@ -3,8 +3,10 @@ package org.batfish.dataplane.ibdp;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.util.CollectionUtil.toImmutableSortedMap;
 import static org.batfish.common.util.StreamUtil.toListInRandomOrder;
+import static org.batfish.dataplane.ibdp.DataplaneUtil.withReusedNodes;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Table;
 import java.io.Serializable;
 import java.util.List;
@@ -85,6 +87,12 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     return _ribs;
   }
 
+  @Nonnull
+  @Override
+  public Map<String, String> getNodeFingerprints() {
+    return _nodeFingerprints;
+  }
+
   //////////
   // Builder
   //////////
@@ -93,6 +101,9 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
 
     @Nullable private Map<String, Node> _nodes;
     @Nullable private PartialDataplane _partialDataplane;
+    @Nonnull private Map<String, String> _nodeFingerprints = ImmutableMap.of();
+    @Nullable private DataPlane _parentDataPlane;
+    @Nonnull private Set<String> _reusedNodes = ImmutableSet.of();
 
     public Builder setNodes(@Nonnull Map<String, Node> nodes) {
       _nodes = ImmutableMap.copyOf(nodes);
@@ -104,6 +115,21 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
       return this;
     }
 
+    public Builder setNodeFingerprints(Map<String, String> nodeFingerprints) {
+      _nodeFingerprints = ImmutableMap.copyOf(nodeFingerprints);
+      return this;
+    }
+
+    /**
+     * Include nodes that are not part of the computation, with their routing state taken from the
+     * converged {@code parentDataPlane}.
+     */
+    public Builder setReusedNodes(DataPlane parentDataPlane, Set<String> reusedNodes) {
+      _parentDataPlane = parentDataPlane;
+      _reusedNodes = ImmutableSet.copyOf(reusedNodes);
+      return this;
+    }
+
     public IncrementalDataPlane build() {
       return new IncrementalDataPlane(this);
     }
@@ -133,6 +159,8 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
   private final SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
       _prefixTracerSummary;
 
+  @Nonnull private final Map<String, String> _nodeFingerprints;
+
   private IncrementalDataPlane(Builder builder) {
     checkArgument(builder._nodes != null, "Dataplane must have nodes to be constructed");
     checkArgument(builder._partialDataplane != null, "Must have partial dataplane");
@@ -146,17 +174,43 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     List<VirtualRouter> vrs =
         toListInRandomOrder(nodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
     LOGGER.info("Computing BGP routes");
-    _bgpRoutes = DataplaneUtil.computeBgpRoutes(vrs);
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = DataplaneUtil.computeBgpRoutes(vrs);
     LOGGER.info("Computing BGP backup routes");
-    _bgpBackupRoutes = DataplaneUtil.computeBgpBackupRoutes(nodes, _bgpRoutes);
+    Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes =
+        DataplaneUtil.computeBgpBackupRoutes(nodes, bgpRoutes);
     LOGGER.info("Computing EVPN routes");
-    _evpnRoutes = DataplaneUtil.computeEvpnRoutes(vrs);
+    Table<String, String, Set<EvpnRoute<?, ?>>> evpnRoutes = DataplaneUtil.computeEvpnRoutes(vrs);
     LOGGER.info("Computing EVPN BGP backup routes");
-    _evpnBackupRoutes = DataplaneUtil.computeEvpnBackupRoutes(nodes, _evpnRoutes);
+    Table<String, String, Set<EvpnRoute<?, ?>>> evpnBackupRoutes =
+        DataplaneUtil.computeEvpnBackupRoutes(nodes, evpnRoutes);
     LOGGER.info("Computing main RIBs");
-    _ribs = DataplaneUtil.computeRibs(nodes);
-    _prefixTracerSummary = computePrefixTracingInfo(nodes);
-    _vniSettings = DataplaneUtil.computeVniSettings(nodes);
+    SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> ribs =
+        DataplaneUtil.computeRibs(nodes);
+    SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+        prefixTracerSummary = computePrefixTracingInfo(nodes);
+    Table<String, String, Set<Layer2Vni>> vniSettings = DataplaneUtil.computeVniSettings(nodes);
+
+    DataPlane parent = builder._parentDataPlane;
+    if (parent != null) {
+      LOGGER.info("Adding state of {} nodes reused from parent", builder._reusedNodes.size());
+      Set<String> reused = builder._reusedNodes;
+      bgpRoutes = withReusedNodes(bgpRoutes, parent.getBgpRoutes(), reused);
+      bgpBackupRoutes = withReusedNodes(bgpBackupRoutes, parent.getBgpBackupRoutes(), reused);
+      evpnRoutes = withReusedNodes(evpnRoutes, parent.getEvpnRoutes(), reused);
+      evpnBackupRoutes = withReusedNodes(evpnBackupRoutes, parent.getEvpnBackupRoutes(), reused);
+      ribs = withReusedNodes(ribs, parent.getRibs(), reused);
+      prefixTracerSummary =
+          withReusedNodes(prefixTracerSummary, parent.getPrefixTracingInfoSummary(), reused);
+      vniSettings = withReusedNodes(vniSettings, parent.getLayer2Vnis(), reused);
+    }
+    _bgpRoutes = bgpRoutes;
+    _bgpBackupRoutes = bgpBackupRoutes;
+    _evpnRoutes = evpnRoutes;
+    _evpnBackupRoutes = evpnBackupRoutes;
+    _ribs = ribs;
+    _prefixTracerSummary = prefixTracerSummary;
+    _vniSettings = vniSettings;
+    _nodeFingerprints = builder._nodeFingerprints;
   }
 
   private static SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
@@ -1,8 +1,10 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nonnull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
@@ -11,6 +13,7 @@ import org.batfish.common.plugin.Plugin;
 import org.batfish.common.topology.TopologyProvider;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.isis.IsisTopology;
 
@@ -23,6 +26,7 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
   public static final String PLUGIN_NAME = "ibdp";
 
   private IncrementalBdpEngine _engine;
+  private IncrementalDataPlaneSettings _settings;
 
   public IncrementalDataPlanePlugin() {}
 
@@ -47,8 +51,10 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
             .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
             .build();
 
+    DataPlane parentDataPlane =
+        _settings.getWarmStart() ? _batfish.loadParentDataPlane(snapshot).orElse(null) : null;
     ComputeDataPlaneResult answer =
-        _engine.computeDataPlane(configurations, topologyContext, externalAdverts);
+        _engine.computeDataPlane(configurations, topologyContext, externalAdverts, parentDataPlane);
     _logger.infof(
         "Generated data-plane for snapshot:%s; iterations:%s",
         snapshot.getSnapshot(),
@@ -56,11 +62,23 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
     return answer;
   }
 
+  /**
+   * Computes the data plane of the given {@code configurations} with the given engine {@code
+   * settings}, without a {@link org.batfish.common.plugin.IBatfish} instance or storage. For tools
+   * such as benchmarks.
+   */
+  public static @Nonnull ComputeDataPlaneResult computeDataPlaneFromConfigurations(
+      Map<String, Configuration> configurations,
+      TopologyContext topologyContext,
+      IncrementalDataPlaneSettings settings) {
+    return new IncrementalBdpEngine(settings)
+        .computeDataPlane(configurations, topologyContext, ImmutableSet.of());
+  }
+
   @Override
   protected void dataPlanePluginInitialize() {
-    _engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration()));
+    _settings = new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration());
+    _engine = new IncrementalBdpEngine(_settings);
   }
 
   @Override
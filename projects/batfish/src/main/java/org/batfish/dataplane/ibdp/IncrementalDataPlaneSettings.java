@@ -17,7 +17,11 @@ public final class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_OSPF_SPF = "ospfspf";
+  public static final String PROP_POLICY_STATS = "policystats";
   public static final String PROP_SCHEDULE = "schedule";
+  public static final String PROP_WARM_START = "warmstart";
+  public static final String PROP_WORKLIST = "worklist";
 
   /**
    * Return the underlying configuration (it will be mutable).
@@ -49,6 +53,10 @@ public final class IncrementalDataPlaneSettings {
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
+    _config.setProperty(PROP_WORKLIST, false);
+    _config.setProperty(PROP_POLICY_STATS, false);
+    _config.setProperty(PROP_WARM_START, false);
+    _config.setProperty(PROP_OSPF_SPF, false);
   }
 
   /** Return the dataplane computation {@link Schedule} */
@@ -56,6 +64,35 @@ public final class IncrementalDataPlaneSettings {
     return Schedule.valueOf(_config.getString(PROP_SCHEDULE));
   }
 
+  /**
+   * Whether EGP iterations should only process nodes with pending work (and the protocol neighbors
+   * that consume it), rather than every node in the network.
+   */
+  public boolean getWorklist() {
+    return _config.getBoolean(PROP_WORKLIST);
+  }
+
+  /** Whether to count and time routing policy evaluations during dataplane computation. */
+  public boolean getPolicyStats() {
+    return _config.getBoolean(PROP_POLICY_STATS);
+  }
+
+  /**
+   * Whether the dataplane of a snapshot with a parent snapshot should reuse the converged routing
+   * state of the parent for parts of the network that are unchanged.
+   */
+  public boolean getWarmStart() {
+    return _config.getBoolean(PROP_WARM_START);
+  }
+
+  /**
+   * Whether OSPF intra-area routes should be computed with a shortest path first computation over
+   * each area, rather than propagated one hop per iteration.
+   */
+  public boolean getOspfSpf() {
+    return _config.getBoolean(PROP_OSPF_SPF);
+  }
+
   /**
    * If the schedule is of type {@link NodeColoredSchedule}, get the type of {@link Coloring} to
    * perform
@@ -25,14 +25,22 @@ public final class Node {
    * @param configuration the {@link Configuration} backing this node
    */
   public Node(Configuration configuration) {
+    this(configuration, RoutingPolicies.from(configuration));
+  }
+
+  /**
+   * Create a new node based on the configuration, evaluating the given routing policies of that
+   * configuration.
+   */
+  Node(Configuration configuration, RoutingPolicies routingPolicies) {
     _c = configuration;
+    _routingPolicies = routingPolicies;
     ImmutableSortedMap.Builder<String, VirtualRouter> b = ImmutableSortedMap.naturalOrder();
     for (String vrfName : _c.getVrfs().keySet()) {
       VirtualRouter vr = new VirtualRouter(vrfName, this);
       b.put(vrfName, vr);
     }
     _virtualRouters = b.build();
-    _routingPolicies = RoutingPolicies.from(configuration);
   }
 
   /** @return The {@link Configuration} backing this Node */
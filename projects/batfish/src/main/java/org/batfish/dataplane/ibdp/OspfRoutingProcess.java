@@ -8,6 +8,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Streams;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
@@ -351,6 +352,49 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     _changeset.from(RibDelta.importRibDelta(_ospfRib, intraAreaDelta));
   }
 
+  /**
+   * Process the intra-area route advertisements this process receives at convergence, as computed
+   * by {@link OspfSpf} after initialization. Since every process gets its converged intra-area
+   * routes this way, they are not flooded to neighbors; inter-area routes derived from them by an
+   * ABR still are.
+   *
+   * @param advertisements in-transit routes, keyed by the name of the interface they arrive on
+   */
+  void processSpfIntraAreaAdvertisements(Multimap<String, OspfIntraAreaRoute> advertisements) {
+    RibDelta.Builder<OspfIntraAreaRoute> intraAreaDelta = RibDelta.builder();
+    RibDelta.Builder<OspfInterAreaRoute> interAreaDelta = RibDelta.builder();
+    advertisements.forEach(
+        (ifaceName, route) ->
+            processIntraAreaAdvertisement(
+                intraAreaDelta,
+                interAreaDelta,
+                ifaceName,
+                getIncrementalCost(ifaceName, false),
+                RouteAdvertisement.adding(route)));
+    RibDelta<OspfInterAreaRoute> spfInterAreaDelta = interAreaDelta.build();
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, intraAreaDelta.build()));
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, spfInterAreaDelta));
+    _initializationDelta =
+        new InternalDelta(
+            RibDelta.empty(),
+            RibDelta.<OspfInterAreaRoute>builder()
+                .from(_initializationDelta._interArea)
+                .from(spfInterAreaDelta)
+                .build(),
+            _initializationDelta._internalSummary);
+  }
+
+  /** The intra-area routes of this process. */
+  @Nonnull
+  Set<OspfIntraAreaRoute> getIntraAreaRoutes() {
+    return _intraAreaRib.getTypedRoutes();
+  }
+
+  /** Whether this process has configuration for the given area. */
+  boolean hasArea(long areaNumber) {
+    return _process.getAreas().containsKey(areaNumber);
+  }
+
   /** Initialize inter-area routes based the initial intra-area routes. */
   @VisibleForTesting
   @Nonnull
@@ -0,0 +1,242 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OspfIntraAreaRoute;
+import org.batfish.datamodel.ospf.OspfNeighborConfigId;
+import org.batfish.datamodel.ospf.OspfSessionProperties;
+import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.datamodel.route.nh.NextHopIp;
+
+/**
+ * Computes converged OSPF intra-area routes with a shortest path first computation over the
+ * adjacencies of each area, rather than by propagating routes one hop per iteration.
+ *
+ * <p>For each process and area, a Dijkstra search (with equal-cost multipath) over the adjacencies
+ * of the area finds the neighbors through which the intra-area routes of every other process in the
+ * area are best reached. The resulting advertisements are processed as if received from those
+ * neighbors, so import transformations and ABR conversion to inter-area routes are unchanged.
+ * Searches for different processes run in parallel.
+ *
+ * <p>The result equals that of the iterative computation only if link costs are positive and no
+ * inbound distribute list can change routes in transit, so the computation is only done in that
+ * case.
+ */
+@ParametersAreNonnullByDefault
+final class OspfSpf {
+
+  private static final Logger LOGGER = LogManager.getLogger(OspfSpf.class);
+
+  /**
+   * Computes the converged intra-area routes of all OSPF processes of {@code allNodes} and passes
+   * them to the processes, which must have been initialized. Returns {@code false} without changing
+   * any process if the computation is not applicable to the network.
+   */
+  static boolean computeIntraAreaRoutes(Map<String, Node> allNodes, OspfTopology topology) {
+    OspfSpf spf = create(allNodes, topology);
+    if (spf == null) {
+      return false;
+    }
+    // Sources must be read before any process imports the routes it receives
+    Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>> originatedRoutes = new IdentityHashMap<>();
+    spf._processes.forEach(p -> originatedRoutes.put(p, p.getIntraAreaRoutes()));
+    Map<OspfRoutingProcess, Multimap<String, OspfIntraAreaRoute>> received =
+        spf._processes.parallelStream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    p -> p, p -> spf.computeReceivedRoutes(p, originatedRoutes)));
+    spf._processes.parallelStream()
+        .forEach(p -> p.processSpfIntraAreaAdvertisements(received.get(p)));
+    return true;
+  }
+
+  /** An adjacency over which {@link #_sender} sends intra-area routes to a neighbor. */
+  private static final class Channel {
+    private final @Nonnull OspfRoutingProcess _sender;
+    private final @Nonnull String _receiverInterface;
+    private final long _cost;
+    private final @Nonnull Ip _nextHopIp;
+
+    private Channel(OspfRoutingProcess sender, String receiverInterface, long cost, Ip nextHopIp) {
+      _sender = sender;
+      _receiverInterface = receiverInterface;
+      _cost = cost;
+      _nextHopIp = nextHopIp;
+    }
+  }
+
+  /**
+   * Returns an {@link OspfSpf} for the network, or {@code null} if its result would differ from
+   * that of the iterative computation.
+   */
+  private static @Nullable OspfSpf create(Map<String, Node> allNodes, OspfTopology topology) {
+    Map<Long, ListMultimap<OspfRoutingProcess, Channel>> incomingByArea = new HashMap<>();
+    for (EdgeId edge : topology.edges()) {
+      // The head of an incoming edge of a process sends its routes to the tail
+      OspfRoutingProcess sender = getProcess(edge.getHead(), allNodes);
+      OspfRoutingProcess receiver = getProcess(edge.getTail(), allNodes);
+      if (sender == null || receiver == null) {
+        continue;
+      }
+      OspfSessionProperties session = topology.getSession(edge).orElse(null);
+      if (session == null || session.getIpLink() == null || !sender.hasArea(session.getArea())) {
+        LOGGER.info("Not using OSPF SPF: no usable session for {}", edge);
+        return null;
+      }
+      String receiverInterface = edge.getTail().getInterfaceName();
+      Interface iface =
+          allNodes
+              .get(edge.getTail().getHostname())
+              .getConfiguration()
+              .getAllInterfaces()
+              .get(receiverInterface);
+      if (iface == null || iface.getOspfInboundDistributeListPolicy() != null) {
+        LOGGER.info("Not using OSPF SPF: distribute list on {}", edge.getTail());
+        return null;
+      }
+      long cost = receiver.getIncrementalCost(receiverInterface, false);
+      if (cost <= 0) {
+        LOGGER.info("Not using OSPF SPF: non-positive cost on {}", edge.getTail());
+        return null;
+      }
+      incomingByArea
+          .computeIfAbsent(
+              session.getArea(), a -> MultimapBuilder.hashKeys().arrayListValues().build())
+          .put(
+              receiver, new Channel(sender, receiverInterface, cost, session.getIpLink().getIp2()));
+    }
+    ImmutableSet<OspfRoutingProcess> processes =
+        allNodes.values().stream()
+            .flatMap(n -> n.getVirtualRouters().stream())
+            .flatMap(vr -> vr.getOspfProcesses().values().stream())
+            .collect(ImmutableSet.toImmutableSet());
+    return new OspfSpf(processes, incomingByArea);
+  }
+
+  private static @Nullable OspfRoutingProcess getProcess(
+      OspfNeighborConfigId id, Map<String, Node> allNodes) {
+    Node node = allNodes.get(id.getHostname());
+    if (node == null) {
+      return null;
+    }
+    return node.getVirtualRouter(id.getVrfName())
+        .map(vr -> vr.getOspfProcesses().get(id.getProcName()))
+        .orElse(null);
+  }
+
+  private OspfSpf(
+      Set<OspfRoutingProcess> processes,
+      Map<Long, ListMultimap<OspfRoutingProcess, Channel>> incomingByArea) {
+    _processes = processes;
+    _incomingByArea = incomingByArea;
+  }
+
+  /**
+   * Returns the in-transit intra-area routes {@code receiver} gets from its neighbors at
+   * convergence, keyed by the interface they arrive on.
+   */
+  private @Nonnull Multimap<String, OspfIntraAreaRoute> computeReceivedRoutes(
+      OspfRoutingProcess receiver,
+      Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>> originatedRoutes) {
+    ImmutableListMultimap.Builder<String, OspfIntraAreaRoute> received =
+        ImmutableListMultimap.builder();
+    _incomingByArea.forEach(
+        (area, incoming) -> {
+          if (!incoming.containsKey(receiver)) {
+            return;
+          }
+          Map<OspfRoutingProcess, Long> distances = new IdentityHashMap<>();
+          Map<OspfRoutingProcess, Set<Channel>> firstHops = new IdentityHashMap<>();
+          shortestPaths(receiver, incoming, distances, firstHops);
+          firstHops.forEach(
+              (source, channels) -> {
+                long distance = distances.get(source);
+                for (OspfIntraAreaRoute route : originatedRoutes.get(source)) {
+                  if (route.getArea() != area) {
+                    continue;
+                  }
+                  for (Channel channel : channels) {
+                    // the route as exported by the neighbor on the shortest path
+                    received.put(
+                        channel._receiverInterface,
+                        route.toBuilder()
+                            .setMetric(route.getMetric() + distance - channel._cost)
+                            .setNextHop(NextHopIp.of(channel._nextHopIp))
+                            .setNonRouting(true)
+                            .build());
+                  }
+                }
+              });
+        });
+    return received.build();
+  }
+
+  /**
+   * Runs Dijkstra from {@code receiver} against the direction of the channels of an area. Fills
+   * {@code distances} with the cost of the best paths from each process to the receiver, and {@code
+   * firstHops} with the channels into the receiver that those paths end with.
+   */
+  private static void shortestPaths(
+      OspfRoutingProcess receiver,
+      ListMultimap<OspfRoutingProcess, Channel> incoming,
+      Map<OspfRoutingProcess, Long> distances,
+      Map<OspfRoutingProcess, Set<Channel>> firstHops) {
+    PriorityQueue<Entry<OspfRoutingProcess, Long>> queue =
+        new PriorityQueue<>(Comparator.comparingLong(Entry::getValue));
+    Set<OspfRoutingProcess> done = Collections.newSetFromMap(new IdentityHashMap<>());
+    distances.put(receiver, 0L);
+    queue.add(new SimpleImmutableEntry<>(receiver, 0L));
+    while (!queue.isEmpty()) {
+      OspfRoutingProcess process = queue.remove().getKey();
+      if (!done.add(process)) {
+        continue;
+      }
+      long distance = distances.get(process);
+      List<Channel> channels = incoming.get(process);
+      for (Channel channel : channels) {
+        OspfRoutingProcess sender = channel._sender;
+        if (sender == receiver) {
+          continue;
+        }
+        long candidate = distance + channel._cost;
+        Long current = distances.get(sender);
+        Set<Channel> hops = process == receiver ? ImmutableSet.of(channel) : firstHops.get(process);
+        if (current == null || candidate < current) {
+          distances.put(sender, candidate);
+          firstHops.put(sender, new HashSet<>(hops));
+          queue.add(new SimpleImmutableEntry<>(sender, candidate));
+        } else if (candidate == current) {
+          firstHops.get(sender).addAll(hops);
+        }
+      }
+    }
+  }
+
+  private final @Nonnull Set<OspfRoutingProcess> _processes;
+
+  /** The channels into each process, by area. */
+  private final @Nonnull Map<Long, ListMultimap<OspfRoutingProcess, Channel>> _incomingByArea;
+}
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.dataplane.ibdp.DataplaneUtil.computeConfigurations;
 import static org.batfish.dataplane.ibdp.DataplaneUtil.computeFibs;
 import static org.batfish.dataplane.ibdp.DataplaneUtil.computeForwardingAnalysis;
+import static org.batfish.dataplane.ibdp.DataplaneUtil.withReusedNodes;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Table;
@@ -96,6 +97,8 @@ public final class PartialDataplane implements DataPlane {
     @Nullable private Map<String, Node> _nodes;
     @Nullable private Topology _layer3Topology;
     @Nullable private L3Adjacencies _l3Adjacencies;
+    @Nullable private DataPlane _parentDataPlane;
+    @Nonnull private Map<String, Configuration> _reusedConfigurations = ImmutableMap.of();
 
     public Builder setNodes(@Nonnull Map<String, Node> nodes) {
       _nodes = ImmutableMap.copyOf(nodes);
@@ -112,6 +115,19 @@ public final class PartialDataplane implements DataPlane {
       return this;
     }
 
+    /**
+     * Include nodes that are not part of the computation, with their FIBs and VNIs taken from the
+     * converged {@code parentDataPlane}.
+     *
+     * @param reusedConfigurations the configurations of the reused nodes, keyed by hostname
+     */
+    public Builder setReusedNodes(
+        DataPlane parentDataPlane, Map<String, Configuration> reusedConfigurations) {
+      _parentDataPlane = parentDataPlane;
+      _reusedConfigurations = ImmutableMap.copyOf(reusedConfigurations);
+      return this;
+    }
+
     public PartialDataplane build() {
       return new PartialDataplane(this);
     }
@@ -138,10 +154,19 @@ public final class PartialDataplane implements DataPlane {
 
     Map<String, Node> nodes = builder._nodes;
     Map<String, Configuration> configs = computeConfigurations(nodes);
-    _fibs = computeFibs(nodes);
+    Map<String, Map<String, Fib>> fibs = computeFibs(nodes);
+    Table<String, String, Set<Layer2Vni>> vniSettings = DataplaneUtil.computeVniSettings(nodes);
+    DataPlane parent = builder._parentDataPlane;
+    if (parent != null) {
+      Set<String> reusedNodes = builder._reusedConfigurations.keySet();
+      configs = withReusedNodes(configs, builder._reusedConfigurations, reusedNodes);
+      fibs = withReusedNodes(fibs, parent.getFibs(), reusedNodes);
+      vniSettings = withReusedNodes(vniSettings, parent.getLayer2Vnis(), reusedNodes);
+    }
+    _fibs = fibs;
     _forwardingAnalysis =
         computeForwardingAnalysis(_fibs, configs, builder._layer3Topology, builder._l3Adjacencies);
-    _vniSettings = DataplaneUtil.computeVniSettings(nodes);
+    _vniSettings = vniSettings;
     _l3Adjacencies = builder._l3Adjacencies;
     _layer3Topology = builder._layer3Topology;
   }
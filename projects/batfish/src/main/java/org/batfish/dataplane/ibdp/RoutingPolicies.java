@@ -1,12 +1,14 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.RoutingPolicy.EvaluationStats;
 
 /** Internal iBDP implementation. A collection of all routing polices on a single device. */
 @ParametersAreNonnullByDefault
@@ -42,6 +44,26 @@ final class RoutingPolicies {
     return new RoutingPolicies(c.getRoutingPolicies(), c.getHostname());
   }
 
+  /**
+   * Returns the {@link RoutingPolicy#freeze(boolean) frozen} routing policies of {@code c}, which
+   * collect evaluation statistics iff {@code collectStats}. {@code c} must not be modified
+   * afterwards.
+   */
+  @Nonnull
+  static RoutingPolicies freeze(Configuration c, boolean collectStats) {
+    return new RoutingPolicies(
+        Maps.transformValues(c.getRoutingPolicies(), policy -> policy.freeze(collectStats)),
+        c.getHostname());
+  }
+
+  /** Returns the total {@link EvaluationStats} of all policies on this device. */
+  @Nonnull
+  EvaluationStats getEvaluationStats() {
+    return _policies.values().stream()
+        .map(RoutingPolicy::getEvaluationStats)
+        .reduce(EvaluationStats.EMPTY, EvaluationStats::plus);
+  }
+
   @Nonnull private final Map<String, RoutingPolicy> _policies;
   // For internal informational purposes only
   @Nonnull private final String _hostname;
@@ -251,7 +251,7 @@ public final class VirtualRouter {
     _resolutionRestriction =
         resolutionPolicy == null
             ? alwaysTrue()
-            : _c.getRoutingPolicies().get(resolutionPolicy)::processReadOnly;
+            : _node.getRoutingPolicies().getOrThrow(resolutionPolicy)::processReadOnly;
     // Main RIB + delta builder
     _mainRib = new Rib(_c.getMainRibEnforceResolvability() ? _resolutionRestriction : null);
     _mainRibs = ImmutableMap.of(RibId.DEFAULT_RIB_NAME, _mainRib);
@@ -269,7 +269,13 @@ public final class VirtualRouter {
     if (_vrf.getBgpProcess() != null) {
       _bgpRoutingProcess =
           new BgpRoutingProcess(
-              _vrf.getBgpProcess(), _c, _name, _mainRib, BgpTopology.EMPTY, _prefixTracer);
+              _vrf.getBgpProcess(),
+              _c,
+              _node.getRoutingPolicies(),
+              _name,
+              _mainRib,
+              BgpTopology.EMPTY,
+              _prefixTracer);
     }
     _ribExprEvaluator = new RibExprEvaluator(_mainRib);
   }
@@ -375,7 +381,7 @@ public final class VirtualRouter {
         _vrf.getEigrpProcesses().values().stream()
             .map(
                 eigrpProcess ->
-                    new EigrpRoutingProcess(eigrpProcess, _name, RoutingPolicies.from(_c)))
+                    new EigrpRoutingProcess(eigrpProcess, _name, _node.getRoutingPolicies()))
             .collect(ImmutableMap.toImmutableMap(EigrpRoutingProcess::getAsn, Function.identity()));
     _eigrpProcesses.values().forEach(p -> p.initialize(_node));
   }
@@ -1442,6 +1448,14 @@ public final class VirtualRouter {
         || (_bgpRoutingProcess != null && _bgpRoutingProcess.isDirty());
   }
 
+  /**
+   * Whether the main RIB changed during the previous round, i.e., whether {@link #redistribute()}
+   * and {@link #updateResolvableRoutes()} have work to do in the next round.
+   */
+  boolean hasMainRibDeltaPrevRound() {
+    return !_mainRibDeltaPrevRound.isEmpty();
+  }
+
   void eigrpIteration(Map<String, Node> allNodes) {
     _eigrpProcesses.values().forEach(p -> p.executeIteration(allNodes));
   }
@@ -0,0 +1,410 @@
+package org.batfish.dataplane.ibdp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.datamodel.bgp.BgpTopologyUtils.initBgpTopology;
+import static org.batfish.datamodel.eigrp.EigrpTopologyUtils.initEigrpTopology;
+import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.computeVxlanTopology;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeMultimap;
+import com.google.common.graph.EndpointPair;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.BgpPeerConfigId.BgpPeerConfigType;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpsecPeerConfigId;
+import org.batfish.datamodel.Vrf;
+import org.batfish.version.BatfishVersion;
+
+/**
+ * Decides which nodes of a snapshot can reuse the converged routing state of a parent snapshot.
+ *
+ * <p>Each node gets a fingerprint of its configuration, its possible interactions with other nodes
+ * (layer-1 and initial layer-3 edges, candidate BGP sessions before reachability checks, OSPF,
+ * IS-IS, EIGRP, and RIP adjacencies, and IPsec, tunnel, and VXLAN peerings), the owners of its IPs,
+ * and the external BGP advertisements sent to it. Nodes whose fingerprint differs from the parent
+ * snapshot are recomputed, and so is any state that depends on them:
+ *
+ * <ul>
+ *   <li>the routes of a protocol depend on those of the same protocol at the other end of each of
+ *       its sessions and adjacencies;
+ *   <li>the main RIB of a node depends on all of its protocols, and in turn BGP depends on the main
+ *       RIB (for next hop resolution and redistribution), as does any IGP with an export policy or
+ *       generated routes;
+ *   <li>a change to the FIB of a node may change forwarding anywhere in its connected component,
+ *       so it invalidates nodes in that component whose sessions or peerings are only established
+ *       after a reachability check: numbered BGP sessions, IPsec and tunnel peerings, and all nodes
+ *       of a component with VXLAN peerings (which change layer-3 adjacencies).
+ * </ul>
+ *
+ * <p>A node is reused if none of its state is invalidated. Since every session of a reused node
+ * is with another reused node, the recomputed nodes never exchange routes with reused ones.
+ */
+@ParametersAreNonnullByDefault
+final class WarmStart {
+
+  /** Routing state of a node that is invalidated separately. */
+  private enum RoutingState {
+    MAIN_RIB,
+    BGP,
+    OSPF,
+    ISIS,
+    EIGRP,
+    RIP
+  }
+
+  /**
+   * Computes the fingerprints and dependencies of the nodes with the given {@code
+   * configurations}.
+   */
+  static @Nonnull WarmStart create(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Map<Ip, Map<String, Set<String>>> ipVrfOwners,
+      Set<BgpAdvertisement> externalAdverts) {
+    WarmStart warmStart = new WarmStart(configurations.keySet());
+
+    initialTopologyContext
+        .getLayer1Topologies()
+        .getCombinedL1()
+        .getGraph()
+        .edges()
+        .forEach(
+            e ->
+                warmStart.addEdge(
+                    e.getNode1().getHostname(), e.getNode2().getHostname(), e.toString()));
+    initialTopologyContext
+        .getLayer3Topology()
+        .getEdges()
+        .forEach(e -> warmStart.addEdge(e.getNode1(), e.getNode2(), e.toString()));
+    for (EndpointPair<BgpPeerConfigId> e :
+        initBgpTopology(
+                configurations, ipVrfOwners, false, initialTopologyContext.getL3Adjacencies())
+            .getGraph()
+            .edges()) {
+      String hostname1 = e.nodeU().getHostname();
+      String hostname2 = e.nodeV().getHostname();
+      warmStart.addSession(RoutingState.BGP, hostname1, hostname2, e.toString());
+      // only unnumbered sessions are established without a reachability check
+      if (e.nodeU().getType() != BgpPeerConfigType.UNNUMBERED
+          || e.nodeV().getType() != BgpPeerConfigType.UNNUMBERED) {
+        warmStart.addForwardingDependent(hostname1, hostname2);
+      }
+    }
+    initialTopologyContext
+        .getOspfTopology()
+        .edges()
+        .forEach(
+            e ->
+                warmStart.addSession(
+                    RoutingState.OSPF,
+                    e.getTail().getHostname(),
+                    e.getHead().getHostname(),
+                    e.toString()));
+    initialTopologyContext
+        .getIsisTopology()
+        .getNetwork()
+        .edges()
+        .forEach(
+            e ->
+                warmStart.addSession(
+                    RoutingState.ISIS,
+                    e.getNode1().getNode(),
+                    e.getNode2().getNode(),
+                    e.toString()));
+    initEigrpTopology(configurations, initialTopologyContext.getLayer3Topology())
+        .getNetwork()
+        .edges()
+        .forEach(
+            e ->
+                warmStart.addSession(
+                    RoutingState.EIGRP,
+                    e.getNode1().getHostname(),
+                    e.getNode2().getHostname(),
+                    "EIGRP " + e));
+    Set<String> ripNodes =
+        configurations.values().stream()
+            .filter(c -> c.getVrfs().values().stream().anyMatch(v -> v.getRipProcess() != null))
+            .map(Configuration::getHostname)
+            .collect(ImmutableSet.toImmutableSet());
+    initialTopologyContext.getLayer3Topology().getEdges().stream()
+        .filter(e -> ripNodes.contains(e.getNode1()) && ripNodes.contains(e.getNode2()))
+        .forEach(
+            e -> warmStart.addSession(RoutingState.RIP, e.getNode1(), e.getNode2(), "RIP " + e));
+    for (EndpointPair<IpsecPeerConfigId> e :
+        initialTopologyContext.getIpsecTopology().getGraph().edges()) {
+      warmStart.addEdge(
+          e.nodeU().getHostName(),
+          e.nodeV().getHostName(),
+          String.format(
+              "IPsec %s:%s -> %s:%s",
+              e.nodeU().getHostName(),
+              e.nodeU().getIpsecPeerConfigName(),
+              e.nodeV().getHostName(),
+              e.nodeV().getIpsecPeerConfigName()));
+      warmStart.addForwardingDependent(e.nodeU().getHostName(), e.nodeV().getHostName());
+    }
+    initialTopologyContext
+        .getTunnelTopology()
+        .getGraph()
+        .edges()
+        .forEach(
+            e -> {
+              warmStart.addEdge(
+                  e.nodeU().getHostname(), e.nodeV().getHostname(), "Tunnel " + e.toString());
+              warmStart.addForwardingDependent(e.nodeU().getHostname(), e.nodeV().getHostname());
+            });
+    // VXLAN peerings are only known after the dataplane is computed, so use all candidates
+    computeVxlanTopology(configurations)
+        .getGraph()
+        .edges()
+        .forEach(
+            e -> {
+              warmStart.addEdge(
+                  e.nodeU().getHostname(), e.nodeV().getHostname(), "VXLAN " + e.toString());
+              warmStart._vxlanNodes.add(e.nodeU().getHostname());
+              warmStart._vxlanNodes.add(e.nodeV().getHostname());
+            });
+    configurations.forEach(
+        (hostname, configuration) ->
+            warmStart._redistributingIgps.putAll(hostname, redistributingIgps(configuration)));
+
+    SetMultimap<String, String> ownership = TreeMultimap.create();
+    ipVrfOwners.forEach(
+        (ip, owners) -> {
+          String description = String.format("%s owned by %s", ip, sorted(owners));
+          owners.keySet().forEach(hostname -> ownership.put(hostname, description));
+        });
+    SetMultimap<String, String> adverts = TreeMultimap.create();
+    externalAdverts.forEach(advert -> adverts.put(advert.getDstNode(), advert.toString()));
+
+    ImmutableMap.Builder<String, String> fingerprints = ImmutableMap.builder();
+    configurations.forEach(
+        (hostname, configuration) -> {
+          Hasher hasher =
+              Hashing.murmur3_128().newHasher().putString(BatfishVersion.getVersionStatic(), UTF_8);
+          // stream the serialized form into the hasher rather than materializing it
+          try (ObjectOutputStream out = new ObjectOutputStream(Funnels.asOutputStream(hasher))) {
+            out.writeObject(configuration);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          warmStart._edges.get(hostname).forEach(e -> hasher.putString(e, UTF_8));
+          ownership.get(hostname).forEach(o -> hasher.putString(o, UTF_8));
+          adverts.get(hostname).forEach(a -> hasher.putString(a, UTF_8));
+          fingerprints.put(hostname, hasher.hash().toString());
+        });
+    warmStart._fingerprints = fingerprints.build();
+    return warmStart;
+  }
+
+  /** Returns the IGPs of {@code configuration} whose routes may depend on its main RIB. */
+  private static @Nonnull Set<RoutingState> redistributingIgps(Configuration configuration) {
+    Set<RoutingState> igps = EnumSet.noneOf(RoutingState.class);
+    for (Vrf vrf : configuration.getVrfs().values()) {
+      if (vrf.getOspfProcesses().values().stream()
+          .anyMatch(p -> p.getExportPolicy() != null || !p.getGeneratedRoutes().isEmpty())) {
+        igps.add(RoutingState.OSPF);
+      }
+      if (vrf.getIsisProcess() != null && vrf.getIsisProcess().getExportPolicy() != null) {
+        igps.add(RoutingState.ISIS);
+      }
+      if (vrf.getEigrpProcesses().values().stream()
+          .anyMatch(p -> p.getRedistributionPolicy() != null)) {
+        igps.add(RoutingState.EIGRP);
+      }
+      if (vrf.getRipProcess() != null && vrf.getRipProcess().getExportPolicy() != null) {
+        igps.add(RoutingState.RIP);
+      }
+    }
+    return igps;
+  }
+
+  private static @Nonnull Map<String, Set<String>> sorted(Map<String, Set<String>> owners) {
+    Map<String, Set<String>> result = new TreeMap<>();
+    owners.forEach((hostname, vrfs) -> result.put(hostname, new TreeSet<>(vrfs)));
+    return result;
+  }
+
+  private WarmStart(Set<String> hostnames) {
+    _hostnames = ImmutableSet.copyOf(hostnames);
+    _neighbors = TreeMultimap.create();
+    _edges = TreeMultimap.create();
+    _sessions = new EnumMap<>(RoutingState.class);
+    for (RoutingState state : RoutingState.values()) {
+      _sessions.put(state, HashMultimap.create());
+    }
+    _redistributingIgps = HashMultimap.create();
+    _forwardingDependent = new HashSet<>();
+    _vxlanNodes = new HashSet<>();
+    _fingerprints = ImmutableMap.of();
+  }
+
+  /** Records a possible interaction between two nodes, described by {@code description}. */
+  private void addEdge(String hostname1, String hostname2, String description) {
+    if (!_hostnames.contains(hostname1) || !_hostnames.contains(hostname2)) {
+      return;
+    }
+    _neighbors.put(hostname1, hostname2);
+    _neighbors.put(hostname2, hostname1);
+    _edges.put(hostname1, description);
+    _edges.put(hostname2, description);
+  }
+
+  /** Records a possible session of the given {@code protocol} between two nodes. */
+  private void addSession(
+      RoutingState protocol, String hostname1, String hostname2, String description) {
+    if (!_hostnames.contains(hostname1) || !_hostnames.contains(hostname2)) {
+      return;
+    }
+    addEdge(hostname1, hostname2, description);
+    _sessions.get(protocol).put(hostname1, hostname2);
+    _sessions.get(protocol).put(hostname2, hostname1);
+  }
+
+  /** Records that two nodes may only interact once forwarding between them is checked. */
+  private void addForwardingDependent(String hostname1, String hostname2) {
+    if (!_hostnames.contains(hostname1) || !_hostnames.contains(hostname2)) {
+      return;
+    }
+    _forwardingDependent.add(hostname1);
+    _forwardingDependent.add(hostname2);
+  }
+
+  /** The fingerprint of each node, keyed by hostname. */
+  @Nonnull
+  Map<String, String> getFingerprints() {
+    return _fingerprints;
+  }
+
+  /**
+   * Returns the nodes whose converged state in a parent snapshot with the given {@code
+   * parentFingerprints} is still valid: those none of whose routing state depends on a node with a
+   * different fingerprint than in the parent.
+   */
+  @Nonnull
+  Set<String> getReusableNodes(Map<String, String> parentFingerprints) {
+    // group nodes into connected components, and find the nodes of each component whose sessions
+    // and peerings depend on forwarding in that component
+    Map<String, Integer> components = new HashMap<>();
+    List<Set<String>> forwardingDependents = new ArrayList<>();
+    for (String start : _hostnames) {
+      if (components.containsKey(start)) {
+        continue;
+      }
+      int index = forwardingDependents.size();
+      Set<String> component = new HashSet<>();
+      Queue<String> queue = new ArrayDeque<>();
+      components.put(start, index);
+      queue.add(start);
+      while (!queue.isEmpty()) {
+        String hostname = queue.remove();
+        component.add(hostname);
+        for (String neighbor : _neighbors.get(hostname)) {
+          if (components.putIfAbsent(neighbor, index) == null) {
+            queue.add(neighbor);
+          }
+        }
+      }
+      forwardingDependents.add(
+          component.stream().anyMatch(_vxlanNodes::contains)
+              ? component
+              : Sets.intersection(component, _forwardingDependent));
+    }
+
+    // invalidate all state of changed nodes, and then everything that depends on it
+    Invalidation invalidation = new Invalidation();
+    _hostnames.stream()
+        .filter(hostname -> !_fingerprints.get(hostname).equals(parentFingerprints.get(hostname)))
+        .forEach(invalidation::invalidateAll);
+    Set<Integer> changedComponents = new HashSet<>();
+    while (!invalidation._queue.isEmpty()) {
+      Entry<String, RoutingState> invalidated = invalidation._queue.remove();
+      String hostname = invalidated.getKey();
+      RoutingState state = invalidated.getValue();
+      if (state == RoutingState.MAIN_RIB) {
+        invalidation.invalidate(hostname, RoutingState.BGP);
+        _redistributingIgps.get(hostname).forEach(igp -> invalidation.invalidate(hostname, igp));
+        // the FIB of the node may change, and with it forwarding in its component
+        int component = components.get(hostname);
+        if (changedComponents.add(component)) {
+          forwardingDependents.get(component).forEach(invalidation::invalidateAll);
+        }
+      } else {
+        invalidation.invalidate(hostname, RoutingState.MAIN_RIB);
+        _sessions.get(state).get(hostname).forEach(peer -> invalidation.invalidate(peer, state));
+      }
+    }
+    // all invalidated state invalidates the main RIB of its node
+    return _hostnames.stream()
+        .filter(hostname -> !invalidation._invalid.containsEntry(RoutingState.MAIN_RIB, hostname))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /** Invalidated routing state, and the state whose dependents are still to be invalidated. */
+  private static final class Invalidation {
+    private final SetMultimap<RoutingState, String> _invalid = HashMultimap.create();
+    private final Queue<Entry<String, RoutingState>> _queue = new ArrayDeque<>();
+
+    private void invalidate(String hostname, RoutingState state) {
+      if (_invalid.put(state, hostname)) {
+        _queue.add(Maps.immutableEntry(hostname, state));
+      }
+    }
+
+    private void invalidateAll(String hostname) {
+      for (RoutingState state : RoutingState.values()) {
+        invalidate(hostname, state);
+      }
+    }
+  }
+
+  private final @Nonnull Set<String> _hostnames;
+
+  /** The nodes each node may interact with. */
+  private final @Nonnull SetMultimap<String, String> _neighbors;
+
+  /** Descriptions of the possible interactions of each node. */
+  private final @Nonnull SetMultimap<String, String> _edges;
+
+  /** For each protocol, the nodes each node may have a session with. */
+  private final @Nonnull Map<RoutingState, SetMultimap<String, String>> _sessions;
+
+  /** The IGPs of each node whose routes may depend on its main RIB. */
+  private final @Nonnull SetMultimap<String, RoutingState> _redistributingIgps;
+
+  /** Nodes with sessions or peerings that are only established after a reachability check. */
+  private final @Nonnull Set<String> _forwardingDependent;
+
+  /** Nodes with candidate VXLAN peerings. */
+  private final @Nonnull Set<String> _vxlanNodes;
+
+  private @Nonnull Map<String, String> _fingerprints;
+}
@@ -94,11 +94,18 @@ public final class NodeColoredSchedule extends IbdpSchedule {
 
     // Process BGP connections
     for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
-      _graph.addEdge(edge.source().getHostname(), edge.target().getHostname());
+      addEdge(edge.source().getHostname(), edge.target().getHostname());
     }
     // Process OSPF edges
     for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
-      _graph.addEdge(edge.getTail().getHostname(), edge.getHead().getHostname());
+      addEdge(edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+  }
+
+  /** Add an edge between two nodes, unless one of them is not being scheduled. */
+  private void addEdge(String source, String target) {
+    if (_graph.containsVertex(source) && _graph.containsVertex(target)) {
+      _graph.addEdge(source, target);
     }
   }
 
@@ -1406,7 +1406,7 @@ class FlowTracer {
         createFilterStep(
             flow,
             _ingressInterface,
-            filter,
+            _tracerouteContext.getCompiledFilter(filter, _currentConfig.getIpSpaces()),
             filterType,
             _currentConfig.getIpAccessLists(),
             _currentConfig.getIpSpaces(),
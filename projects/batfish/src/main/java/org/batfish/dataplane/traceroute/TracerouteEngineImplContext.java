@@ -5,6 +5,8 @@ import static org.batfish.dataplane.traceroute.TracerouteUtils.buildSessionsByIn
 import static org.batfish.dataplane.traceroute.TracerouteUtils.buildSessionsByOriginatingVrf;
 import static org.batfish.dataplane.traceroute.TracerouteUtils.validateInputs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
@@ -18,19 +20,24 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
 import org.batfish.common.traceroute.TraceDag;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibImpl;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.InterfaceForwardingBehavior;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.IpSpaceContainsIp;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.Hop;
@@ -52,6 +59,17 @@ public class TracerouteEngineImplContext {
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
   private final Map<Ip, IpSpaceContainsIp> _containsIp;
+
+  /**
+   * FIBs compiled for the flows of this context, by node and VRF. Kept here rather than relying on
+   * the memoization in {@link FibImpl}, since a data plane loaded from storage may drop and reload
+   * a node's {@link FibImpl}s between hops.
+   */
+  private final Map<String, Map<String, Optional<Fib>>> _compiledFibs;
+
+  /** Filters compiled for the flows of this context, keyed by identity. */
+  private final Cache<IpAccessList, CompiledIpAccessList> _compiledFilters;
+
   private final boolean _ignoreFilters;
   private final Topology _topology;
 
@@ -69,6 +87,8 @@ public class TracerouteEngineImplContext {
     _ignoreFilters = ignoreFilters;
     _forwardingAnalysis = dataPlane.getForwardingAnalysis();
     _containsIp = new ConcurrentHashMap<>();
+    _compiledFibs = new ConcurrentHashMap<>();
+    _compiledFilters = CacheBuilder.newBuilder().weakKeys().build();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
     _sessionsByOriginatingVrf = buildSessionsByOriginatingVrf(sessions);
     _topology = topology;
@@ -139,9 +159,22 @@ public class TracerouteEngineImplContext {
     return _configurations;
   }
 
-  /** Return a FIB for a given node and VRF */
+  /**
+   * Return a FIB for a given node and VRF. FIBs computed by the dataplane engine are returned in
+   * their compiled form, which is faster for the per-hop lookups of traceroute.
+   */
   Optional<Fib> getFib(String node, String vrf) {
-    return Optional.ofNullable(getFibs(node).get(vrf));
+    return _compiledFibs
+        .computeIfAbsent(node, n -> new ConcurrentHashMap<>())
+        .computeIfAbsent(
+            vrf,
+            v -> {
+              Fib fib = getFibs(node).get(v);
+              if (fib instanceof FibImpl) {
+                return Optional.of(((FibImpl) fib).getCompiled());
+              }
+              return Optional.ofNullable(fib);
+            });
   }
 
   /** Get all fibs for a given node */
@@ -154,6 +187,20 @@ public class TracerouteEngineImplContext {
     return _ignoreFilters;
   }
 
+  /**
+   * Returns {@code filter} compiled with the given {@code namedIpSpaces} of its device, compiling
+   * it on first use.
+   */
+  @Nonnull
+  CompiledIpAccessList getCompiledFilter(IpAccessList filter, Map<String, IpSpace> namedIpSpaces) {
+    try {
+      return _compiledFilters.get(
+          filter, () -> CompiledIpAccessList.compile(filter, namedIpSpaces));
+    } catch (ExecutionException e) {
+      throw new BatfishException("Failed to compile filter " + filter.getName(), e.getCause());
+    }
+  }
+
   Collection<FirewallSessionTraceInfo> getSessionsForIncomingInterface(
       String node, String inputIface) {
     return _sessionsByIngressInterface.get(NodeInterfacePair.of(node, inputIface));
@@ -39,6 +39,7 @@ import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.EnterInputIfaceStep;
 import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
@@ -136,11 +137,10 @@ public final class TracerouteUtils {
         .build();
   }
 
-  @VisibleForTesting
   static FilterStep createFilterStep(
       Flow currentFlow,
       @Nullable String inInterfaceName,
-      IpAccessList filter,
+      CompiledIpAccessList filter,
       FilterType filterType,
       Map<String, IpAccessList> aclDefinitions,
       Map<String, IpSpace> namedIpSpaces,
@@ -156,7 +156,8 @@ public final class TracerouteUtils {
     }
 
     return new FilterStep(
-        new FilterStepDetail(filter.getName(), filterType, inInterfaceName, currentFlow), action);
+        new FilterStepDetail(filter.getAcl().getName(), filterType, inInterfaceName, currentFlow),
+        action);
   }
 
   /**
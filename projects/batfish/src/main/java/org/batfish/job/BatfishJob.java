@@ -14,4 +14,13 @@ public abstract class BatfishJob<R extends BatfishJobResult<?, ?>> implements Ca
     _settings = settings;
     _logger = new BatfishLogger(_settings.getLogLevel(), _settings.getTimestamp());
   }
+
+  /**
+   * Returns an estimate of the cost of this job relative to other jobs of the same type, used to
+   * start larger jobs first when {@link Settings#getSizeAwareJobs() size-aware scheduling} is
+   * enabled. Jobs that do not override this are treated as equally sized.
+   */
+  public long getSizeHint() {
+    return 0L;
+  }
 }
@@ -3,6 +3,7 @@ package org.batfish.job;
 import com.google.common.base.Throwables;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
@@ -112,8 +113,13 @@ public class BatfishJobExecutor {
     ExecutorService pool = createExecutorService();
     ExecutorCompletionService<JobResultT> completionService = new ExecutorCompletionService<>(pool);
 
-    if (!_settings.getSequential() && _settings.getShuffleJobs()) {
-      Collections.shuffle(jobs);
+    if (!_settings.getSequential()) {
+      if (_settings.getSizeAwareJobs()) {
+        // Start the largest jobs first, so that none of them is left to run alone at the end.
+        jobs.sort(Comparator.comparingLong(BatfishJob<JobResultT>::getSizeHint).reversed());
+      } else if (_settings.getShuffleJobs()) {
+        Collections.shuffle(jobs);
+      }
     }
 
     for (JobT job : jobs) {
@@ -160,6 +166,9 @@ public class BatfishJobExecutor {
       return Executors.newSingleThreadExecutor();
     }
     // if parallel processing is allowed
+    if (_settings.getSizeAwareJobs()) {
+      return Executors.newWorkStealingPool(_settings.getAvailableThreads());
+    }
     return Executors.newFixedThreadPool(_settings.getAvailableThreads());
   }
 
@@ -0,0 +1,29 @@
+package org.batfish.job;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * A store of {@link ConversionResult conversion results}, keyed by a hash of everything the
+ * conversion depends on, so that unchanged devices need not be converted again in a new snapshot.
+ */
+@ParametersAreNonnullByDefault
+public interface ConversionCache {
+
+  /**
+   * Returns the key under which the conversion of {@code vendorConfiguration} is cached. Must be
+   * called before the vendor configuration is converted.
+   */
+  @Nonnull
+  String getKey(VendorConfiguration vendorConfiguration);
+
+  /** Returns the conversion result cached under {@code key}, or {@code null} if there is none. */
+  @Nullable
+  ConversionResult load(String key) throws IOException;
+
+  /** Caches {@code result} under {@code key}. */
+  void store(String key, ConversionResult result) throws IOException;
+}
@@ -0,0 +1,46 @@
+package org.batfish.job;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+
+/**
+ * An intermediate class that holds a cacheable result of converting a single vendor configuration.
+ */
+@ParametersAreNonnullByDefault
+public class ConversionResult implements Serializable {
+
+  @Nonnull private final ConvertConfigurationAnswerElement _answerElement;
+  @Nonnull private final Map<String, Configuration> _configurations;
+  @Nonnull private final Map<String, Warnings> _warningsByHost;
+
+  public ConversionResult(
+      ConvertConfigurationAnswerElement answerElement,
+      Map<String, Configuration> configurations,
+      Map<String, Warnings> warningsByHost) {
+    _answerElement = answerElement;
+    _configurations = ImmutableMap.copyOf(configurations);
+    _warningsByHost = ImmutableMap.copyOf(warningsByHost);
+  }
+
+  /** Structure definitions and references, and the file map, of the converted configuration. */
+  @Nonnull
+  public ConvertConfigurationAnswerElement getAnswerElement() {
+    return _answerElement;
+  }
+
+  @Nonnull
+  public Map<String, Configuration> getConfigurations() {
+    return _configurations;
+  }
+
+  @Nonnull
+  public Map<String, Warnings> getWarningsByHost() {
+    return _warningsByHost;
+  }
+}
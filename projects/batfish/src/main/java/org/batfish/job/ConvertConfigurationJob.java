@@ -4,6 +4,7 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.batfish.vendor.ConversionContext.EMPTY_CONVERSION_CONTEXT;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
@@ -81,6 +82,7 @@ import org.batfish.vendor.VendorConfiguration;
 
 public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResult> {
 
+  @Nullable private final ConversionCache _cache;
   private final Object _configObject;
   @Nonnull private final ConversionContext _conversionContext;
   @Nonnull private final SnapshotRuntimeData _runtimeData;
@@ -92,7 +94,22 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
       @Nullable SnapshotRuntimeData runtimeData,
       Object configObject,
       String name) {
+    this(settings, conversionContext, runtimeData, configObject, name, null);
+  }
+
+  /**
+   * Creates a job that reuses the result cached in {@code cache} for the same vendor configuration
+   * and conversion inputs, if any, and otherwise converts and caches the result.
+   */
+  public ConvertConfigurationJob(
+      Settings settings,
+      @Nullable ConversionContext conversionContext,
+      @Nullable SnapshotRuntimeData runtimeData,
+      Object configObject,
+      String name,
+      @Nullable ConversionCache cache) {
     super(settings);
+    _cache = cache;
     _configObject = configObject;
     _conversionContext = firstNonNull(conversionContext, EMPTY_CONVERSION_CONTEXT);
     _runtimeData = firstNonNull(runtimeData, SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA);
@@ -548,11 +565,78 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
     }
   }
 
+  /**
+   * Returns the key of the cached conversion of this job's vendor configuration, or {@code null} if
+   * there is no cache or the key cannot be computed.
+   */
+  @Nullable
+  private String getCacheKey() {
+    if (_cache == null || !(_configObject instanceof VendorConfiguration)) {
+      return null;
+    }
+    try {
+      return _cache.getKey((VendorConfiguration) _configObject);
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error computing conversion cache key for %s: %s",
+          _name, Throwables.getStackTraceAsString(e));
+      return null;
+    }
+  }
+
+  @Nullable
+  private ConversionResult loadCached(String cacheKey) {
+    assert _cache != null;
+    try {
+      ConversionResult cached = _cache.load(cacheKey);
+      // sanity-check the filename. In the extremely unlikely event of a collision, we'll lose
+      // reuse for this input.
+      if (cached != null && cached.getAnswerElement().getFileMap().containsKey(getFilename())) {
+        return cached;
+      }
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error deserializing cached conversion result for %s: %s",
+          _name, Throwables.getStackTraceAsString(e));
+    }
+    return null;
+  }
+
+  private void storeCached(String cacheKey, ConversionResult result) {
+    assert _cache != null;
+    try {
+      _cache.store(cacheKey, result);
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error caching conversion result for %s: %s", _name, Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  private String getFilename() {
+    return ((VendorConfiguration) _configObject).getFilename();
+  }
+
   @Override
   public ConvertConfigurationResult call() {
     long startTime = System.currentTimeMillis();
     long elapsedTime;
     _logger.infof("Processing: \"%s\"", _name);
+    String cacheKey = getCacheKey();
+    if (cacheKey != null) {
+      ConversionResult cached = loadCached(cacheKey);
+      if (cached != null) {
+        _logger.info(" ...OK (reused)\n");
+        cached.getWarningsByHost().values().forEach(w -> Batfish.logWarnings(_logger, w));
+        elapsedTime = System.currentTimeMillis() - startTime;
+        return new ConvertConfigurationResult(
+            elapsedTime,
+            _logger.getHistory(),
+            cached.getWarningsByHost(),
+            _name,
+            cached.getConfigurations(),
+            cached.getAnswerElement());
+      }
+    }
     Map<String, Configuration> configurations = new HashMap<>();
     Map<String, Warnings> warningsByHost = new HashMap<>();
     ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
@@ -592,6 +676,9 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
         warningsByHost.put(hostname, warnings);
         fileMap.put(filename, hostname);
       }
+      if (cacheKey != null) {
+        storeCached(cacheKey, new ConversionResult(answerElement, configurations, warningsByHost));
+      }
       _logger.info(" ...OK\n");
     } catch (Exception e) {
       String error = "Conversion error for node with hostname '" + _name + "'";
@@ -87,4 +87,9 @@ public class FlattenVendorConfigurationJob extends BatfishJob<FlattenVendorConfi
           elapsedTime, _logger.getHistory(), _outputFile, flatConfigText);
     }
   }
+
+  @Override
+  public long getSizeHint() {
+    return _fileText.length();
+  }
 }
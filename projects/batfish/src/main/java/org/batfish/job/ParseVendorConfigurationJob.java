@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -17,17 +18,24 @@ import io.opentracing.SpanContext;
 import io.opentracing.util.GlobalTracer;
 import java.io.Serializable;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warnings;
@@ -36,6 +44,7 @@ import org.batfish.config.Settings;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.Names;
 import org.batfish.datamodel.answers.ParseStatus;
+import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BatfishParseException;
 import org.batfish.grammar.ControlPlaneExtractor;
@@ -106,6 +115,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     @Nonnull private ParseTreeSentences _parseTreeSentences;
     @Nonnull private final SilentSyntaxCollection _silentSyntax;
     @Nonnull private final Warnings _warnings;
+    private int _parseTreeSize;
 
     public FileResult(
         ParseTreeSentences parseTreeSentences,
@@ -130,6 +140,11 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     public Warnings getWarnings() {
       return _warnings;
     }
+
+    /** Returns the number of nodes in the parse tree of the file, or 0 if it was not parsed. */
+    public int getParseTreeSize() {
+      return _parseTreeSize;
+    }
   }
 
   /** Information about duplicate hostnames is collected here */
@@ -154,6 +169,9 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   /** Job-level (non-file-specific) warnings */
   private @Nonnull final Warnings _warnings;
 
+  /** Estimated cost of this job, in characters of text. See {@link #getSizeHint()}. */
+  private long _sizeHint;
+
   public ParseVendorConfigurationJob(
       Settings settings,
       NetworkSnapshot snapshot,
@@ -180,6 +198,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     _spanContext = spanContext;
     _snapshot = snapshot;
     _warnings = new Warnings(logSettings);
+    _sizeHint = _fileTexts.values().stream().mapToLong(String::length).sum();
   }
 
   private static final Pattern WHITESPACE_ONLY = Pattern.compile("^\\s*$");
@@ -573,6 +592,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       assert scope != null; // avoid unused warning
       _logger.info("\tParsing...");
       tree = Batfish.parse(combinedParser, _logger, _settings);
+      _fileResults.get(filename)._parseTreeSize = countParseTreeNodes(tree);
 
       if (_settings.getPrintParseTree()) {
         _fileResults.get(filename)._parseTreeSentences =
@@ -611,6 +631,23 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     }
   }
 
+  /** Returns the number of nodes in the given parse tree, including terminals. */
+  @VisibleForTesting
+  static int countParseTreeNodes(ParseTree tree) {
+    // iterative, since parse trees of large configurations can be very deep
+    int count = 0;
+    Deque<ParseTree> stack = new ArrayDeque<>();
+    stack.push(tree);
+    while (!stack.isEmpty()) {
+      ParseTree node = stack.pop();
+      count++;
+      for (int i = 0; i < node.getChildCount(); i++) {
+        stack.push(node.getChild(i));
+      }
+    }
+    return count;
+  }
+
   /**
    * Parses the given file and returns a {@link ParseResult} for this job.
    *
@@ -679,20 +716,41 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   }
 
   public ParseVendorConfigurationResult fromResult(ParseResult result, long elapsed) {
+    return fromResult(result, elapsed, _logger, _duplicateHostnames);
+  }
+
+  /**
+   * Returns the result of a job whose {@link ParseResult} was produced earlier and cached, without
+   * needing the file texts to create the job.
+   */
+  public static ParseVendorConfigurationResult fromCachedResult(
+      Settings settings, ParseResult result, long elapsed) {
+    return fromResult(
+        result,
+        elapsed,
+        new BatfishLogger(settings.getLogLevel(), settings.getTimestamp()),
+        HashMultimap.create());
+  }
+
+  private static ParseVendorConfigurationResult fromResult(
+      ParseResult result,
+      long elapsed,
+      BatfishLogger logger,
+      Multimap<String, String> duplicateHostnames) {
     if (result.getConfig() != null) {
       return new ParseVendorConfigurationResult(
           elapsed,
-          _logger.getHistory(),
+          logger.getHistory(),
           result.getFileResults(),
           result.getFormat(),
           result.getConfig(),
           result.getWarnings(),
           result.getStatus(),
-          _duplicateHostnames);
+          duplicateHostnames);
     } else if (result.getFailureCause() != null) {
       return new ParseVendorConfigurationResult(
           elapsed,
-          _logger.getHistory(),
+          logger.getHistory(),
           result.getFileResults(),
           result.getFormat(),
           result.getWarnings(),
@@ -700,7 +758,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     } else {
       return new ParseVendorConfigurationResult(
           elapsed,
-          _logger.getHistory(),
+          logger.getHistory(),
           result.getFileResults(),
           result.getFormat(),
           result.getWarnings(),
@@ -735,6 +793,63 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     return _fileTexts;
   }
 
+  /**
+   * Returns the estimated cost of this job: the total length of its files, or if {@link
+   * #applyHistoricParseTimes(List, Map)} found a previous parse time for it, that time converted to
+   * an equivalent length.
+   */
+  @Override
+  public long getSizeHint() {
+    return _sizeHint;
+  }
+
+  /**
+   * Updates the {@link #getSizeHint() size hints} of the given jobs using the parse times of a
+   * previous parse of the same files, keyed by job key as in {@link
+   * ParseVendorConfigurationAnswerElement#getParseTimes()}.
+   *
+   * <p>Parse time is a better estimate than length, since parsing speed varies widely between
+   * formats. Times are converted to lengths at the average speed of the jobs that have a previous
+   * time, so that jobs without one can still be ordered against them.
+   */
+  public static void applyHistoricParseTimes(
+      List<ParseVendorConfigurationJob> jobs, Map<String, Long> parseTimes) {
+    Map<ParseVendorConfigurationJob, Long> costs =
+        estimateParseCosts(jobs, job -> job._fileTexts.keySet(), job -> job._sizeHint, parseTimes);
+    jobs.forEach(job -> job._sizeHint = costs.get(job));
+  }
+
+  /**
+   * Returns the estimated cost of each of the given parse {@code jobs}, in characters of text. A
+   * job costs the total {@code length} of its {@code files}, unless {@code parseTimes} has a
+   * previous parse time for them (see {@link #applyHistoricParseTimes(List, Map)}).
+   */
+  public static @Nonnull <T> Map<T, Long> estimateParseCosts(
+      Collection<T> jobs,
+      Function<T, Collection<String>> files,
+      ToLongFunction<T> length,
+      Map<String, Long> parseTimes) {
+    long totalLength = 0L;
+    long totalTime = 0L;
+    for (T job : jobs) {
+      Long time = parseTimes.get(jobFilenamesToString(files.apply(job)));
+      if (time != null) {
+        totalLength += length.applyAsLong(job);
+        totalTime += time;
+      }
+    }
+    Map<T, Long> costs = new HashMap<>();
+    for (T job : jobs) {
+      Long time = parseTimes.get(jobFilenamesToString(files.apply(job)));
+      costs.put(
+          job,
+          time == null || totalTime == 0L
+              ? length.applyAsLong(job)
+              : Math.round(time * (double) totalLength / totalTime));
+    }
+    return costs;
+  }
+
   /**
    * For some existing APIs, e.g., {@link
    * org.batfish.vendor.VendorConfiguration#setFilename(java.lang.String)}, a single filename is
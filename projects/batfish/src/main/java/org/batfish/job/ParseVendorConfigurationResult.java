@@ -107,6 +107,13 @@ public class ParseVendorConfigurationResult
     String jobKey = jobFilenamesToString(_fileResults.keySet());
     answerElement.getParseStatus().put(jobKey, _status);
     answerElement.getFileFormats().put(jobKey, _format);
+    answerElement.getParseTimes().put(jobKey, getElapsedTime());
+    _fileResults.forEach(
+        (name, result) -> {
+          if (result.getParseTreeSize() > 0) {
+            answerElement.getParseTreeSizes().put(name, result.getParseTreeSize());
+          }
+        });
     if (_vc != null) {
       String hostname = _vc.getHostname();
       if (vendorConfigurations.containsKey(hostname)) {
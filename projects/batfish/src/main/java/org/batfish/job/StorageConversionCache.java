@@ -0,0 +1,101 @@
+package org.batfish.job;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.BatfishLogger.LEVEL_PEDANTIC;
+import static org.batfish.common.BatfishLogger.LEVEL_REDFLAG;
+import static org.batfish.common.BatfishLogger.LEVEL_UNIMPLEMENTED;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.runtime.SnapshotRuntimeData;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.config.Settings;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.storage.StorageProvider;
+import org.batfish.vendor.ConversionContext;
+import org.batfish.vendor.VendorConfiguration;
+import org.batfish.version.BatfishVersion;
+
+/**
+ * A {@link ConversionCache} that stores conversion results as blobs of a network, so they are
+ * shared by all snapshots of that network.
+ *
+ * <p>Keys cover the serialized vendor configuration, the Batfish version, the warning levels in
+ * effect, and the conversion context and runtime data of the snapshot.
+ */
+@ParametersAreNonnullByDefault
+public final class StorageConversionCache implements ConversionCache {
+
+  /**
+   * Creates a cache for converting the vendor configurations of a snapshot of {@code network} with
+   * the given {@code conversionContext} and {@code runtimeData}.
+   */
+  public static @Nonnull StorageConversionCache create(
+      StorageProvider storage,
+      NetworkId network,
+      Settings settings,
+      ConversionContext conversionContext,
+      SnapshotRuntimeData runtimeData) {
+    BatfishLogger logger = settings.getLogger();
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString("Cached Conversion Result", UTF_8)
+            .putString(BatfishVersion.getVersionStatic(), UTF_8)
+            .putBoolean(logger.isActive(LEVEL_PEDANTIC))
+            .putBoolean(logger.isActive(LEVEL_REDFLAG))
+            .putBoolean(logger.isActive(LEVEL_UNIMPLEMENTED))
+            .putBytes(SerializationUtils.serialize(conversionContext))
+            .putString(BatfishObjectMapper.writeStringRuntimeError(runtimeData), UTF_8);
+    return new StorageConversionCache(storage, network, hasher.hash().toString());
+  }
+
+  private StorageConversionCache(StorageProvider storage, NetworkId network, String environment) {
+    _storage = storage;
+    _network = network;
+    _environment = environment;
+  }
+
+  @Override
+  public @Nonnull String getKey(VendorConfiguration vendorConfiguration) {
+    Hasher hasher = Hashing.murmur3_128().newHasher().putString(_environment, UTF_8);
+    // stream the serialized form into the hasher rather than materializing it
+    try (ObjectOutputStream out = new ObjectOutputStream(Funnels.asOutputStream(hasher))) {
+      out.writeObject(vendorConfiguration);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return hasher.hash().toString();
+  }
+
+  @Override
+  public @Nullable ConversionResult load(String key) throws IOException {
+    try (InputStream in = _storage.loadNetworkBlob(_network, key)) {
+      return SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void store(String key, ConversionResult result) throws IOException {
+    _storage.storeNetworkBlob(
+        new ByteArrayInputStream(SerializationUtils.serialize(result)), _network, key);
+  }
+
+  private final @Nonnull StorageProvider _storage;
+  private final @Nonnull NetworkId _network;
+  private final @Nonnull String _environment;
+}
@@ -41,11 +41,16 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
+import com.google.common.hash.Funnels;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.errorprone.annotations.MustBeClosed;
 import io.opentracing.References;
 import io.opentracing.Scope;
@@ -64,6 +69,7 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -78,6 +84,9 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -153,6 +162,7 @@ import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
@@ -183,6 +193,8 @@ import org.batfish.datamodel.isp_configuration.IspConfigurationException;
 import org.batfish.datamodel.ospf.OspfTopologyUtils;
 import org.batfish.datamodel.questions.InvalidReachabilityParametersException;
 import org.batfish.datamodel.questions.Question;
+import org.batfish.datamodel.table.ColumnarTable;
+import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.vxlan.Layer2Vni;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.grammar.BatfishCombinedParser;
@@ -209,11 +221,13 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.identifiers.StorageBasedIdResolver;
 import org.batfish.job.BatfishJobExecutor;
+import org.batfish.job.ConversionCache;
 import org.batfish.job.ConvertConfigurationJob;
 import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseResult;
 import org.batfish.job.ParseVendorConfigurationJob;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.job.StorageConversionCache;
 import org.batfish.question.ReachabilityParameters;
 import org.batfish.question.ResolvedReachabilityParameters;
 import org.batfish.question.SrcNattedConstraint;
@@ -241,6 +255,7 @@ import org.batfish.specifier.SpecifierContextImpl;
 import org.batfish.specifier.UnionLocationSpecifier;
 import org.batfish.storage.FileBasedStorage;
 import org.batfish.storage.StorageProvider;
+import org.batfish.storage.StoredObjectMetadata;
 import org.batfish.symbolic.IngressLocation;
 import org.batfish.topology.TopologyProviderImpl;
 import org.batfish.vendor.ConversionContext;
@@ -261,6 +276,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final Pattern MANAGEMENT_VRFS =
       Pattern.compile("(\\Amgmt)|(\\Amanagement)", CASE_INSENSITIVE);
 
+  /** Storage key of the BDDs of the forwarding analysis used by BDD reachability. */
+  private static final String BDDS_KEY_FORWARDING = "forwarding";
+
   static void checkTopology(Map<String, Configuration> configurations, Topology topology) {
     for (Edge edge : topology.getEdges()) {
       if (!configurations.containsKey(edge.getNode1())) {
@@ -765,11 +783,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final NetworkSnapshot DUMMY_SNAPSHOT =
       new NetworkSnapshot(
           new NetworkId("__BATFISH_DUMMY_NETWORK"), new SnapshotId("__BATFISH_DUMMY_SNAPSHOT"));
+  /** A data plane without routes, so caches that weigh data planes can weigh it. */
   private static final DataPlane DUMMY_DATAPLANE =
       new DataPlane() {
         @Override
         public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
-          throw new UnsupportedOperationException();
+          return ImmutableTable.of();
         }
 
         @Override
@@ -800,7 +819,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         @Override
         public SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
             getRibs() {
-          throw new UnsupportedOperationException();
+          return ImmutableSortedMap.of();
         }
 
         @Override
@@ -878,11 +897,16 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _logger.resetTimer();
     Map<String, Configuration> configurations = new TreeMap<>();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
+    ConversionCache cache =
+        _settings.getConversionReuse()
+            ? StorageConversionCache.create(
+                _storage, getContainerName(), _settings, conversionContext, runtimeData)
+            : null;
     for (Entry<String, VendorConfiguration> config : vendorConfigurations.entrySet()) {
       VendorConfiguration vc = config.getValue();
       ConvertConfigurationJob job =
           new ConvertConfigurationJob(
-              _settings, conversionContext, runtimeData, vc, config.getKey());
+              _settings, conversionContext, runtimeData, vc, config.getKey(), cache);
       jobs.add(job);
     }
     BatfishJobExecutor.runJobsInExecutor(
@@ -1300,6 +1324,37 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  @Override
+  public Optional<DataPlane> loadParentDataPlane(NetworkSnapshot snapshot) {
+    try {
+      SnapshotId parentId =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(snapshot.getNetwork(), snapshot.getSnapshot()),
+                  SnapshotMetadata.class)
+              .getParentSnapshotId();
+      if (parentId == null) {
+        return Optional.empty();
+      }
+      NetworkSnapshot parent = new NetworkSnapshot(snapshot.getNetwork(), parentId);
+      DataPlane dp = _cachedDataPlanes.getIfPresent(parent);
+      if (dp != null) {
+        return Optional.of(dp);
+      }
+      if (!_storage.hasDataPlane(parent)) {
+        return Optional.empty();
+      }
+      // Not cached, since it is only needed while the data plane of the child is computed
+      newBatch("Loading parent data plane from disk", 0);
+      return Optional.of(_storage.loadDataPlane(parent));
+    } catch (IOException e) {
+      _logger.warnf(
+          "Could not load parent data plane of snapshot %s: %s\n",
+          snapshot.getSnapshot(), e.getMessage());
+      return Optional.empty();
+    }
+  }
+
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(
       NetworkSnapshot snapshot) {
@@ -1493,6 +1548,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       }
       _logger.debug(answerString);
       writeJsonAnswerWithLog(answerString, workJsonLogAnswerString, writeLog);
+      writeAnswerTable(answer);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
@@ -1515,22 +1571,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     if (questionId == null) {
       return;
     }
-    SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
-    NetworkId networkId = _settings.getContainer();
-    AnalysisId analysisId = _settings.getAnalysisName();
-    NodeRolesId networkNodeRolesId =
-        _idResolver
-            .getNetworkNodeRolesId(networkId)
-            .orElse(NodeRolesId.DEFAULT_NETWORK_NODE_ROLES_ID);
-    AnswerId baseAnswerId =
-        _idResolver.getAnswerId(
-            networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot, analysisId);
-
     _storage.storeAnswerMetadata(
-        networkId,
+        _settings.getContainer(),
         _snapshot,
         AnswerMetadataUtil.computeAnswerMetadata(answer, _logger),
-        baseAnswerId);
+        getBaseAnswerId());
   }
 
   /** Parse AWS configurations for a single account (possibly with multiple regions) */
@@ -1659,12 +1704,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
       NetworkSnapshot snapshot,
       Map<String, String> keyedConfigurationText,
       ParseVendorConfigurationAnswerElement answerElement,
-      ConfigurationFormat expectedFormat) {
+      ConfigurationFormat expectedFormat,
+      Map<String, Long> historicParseTimes) {
     List<Map<String, String>> jobList =
         keyedConfigurationText.entrySet().stream()
             .map(e -> ImmutableMap.of(e.getKey(), e.getValue()))
             .collect(ImmutableList.toImmutableList());
-    return parseVendorConfigurations(snapshot, jobList, answerElement, expectedFormat);
+    return parseVendorConfigurations(
+        snapshot, jobList, answerElement, expectedFormat, historicParseTimes);
   }
 
   /**
@@ -1676,12 +1723,16 @@ public class Batfish extends PluginConsumer implements IBatfish {
    *
    * <p>{@code expectedFormat} specifies the type of files expected in the {@code keyedFileTexts}
    * map, or is set to {@link ConfigurationFormat#UNKNOWN} to trigger format detection.
+   *
+   * <p>{@code historicParseTimes} are the parse times of a previous parse of the snapshot, keyed by
+   * job key, used for size-aware scheduling of the jobs.
    */
   private SortedMap<String, VendorConfiguration> parseVendorConfigurations(
       NetworkSnapshot snapshot,
       List<Map<String, String>> keyedConfigurationTexts,
       ParseVendorConfigurationAnswerElement answerElement,
-      ConfigurationFormat expectedFormat) {
+      ConfigurationFormat expectedFormat,
+      Map<String, Long> historicParseTimes) {
     _logger.info("\n*** PARSING VENDOR CONFIGURATION FILES ***\n");
     _logger.resetTimer();
     SortedMap<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
@@ -1690,6 +1741,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
             .map(fileMap -> makeParseVendorConfigurationJob(snapshot, fileMap, expectedFormat))
             .collect(
                 Collectors.toList()); // should not be immutable because the job executor shuffles
+    if (_settings.getSizeAwareJobs()) {
+      ParseVendorConfigurationJob.applyHistoricParseTimes(jobs, historicParseTimes);
+    }
     BatfishJobExecutor.runJobsInExecutor(
         _settings,
         _logger,
@@ -2333,7 +2387,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   private SortedMap<String, VendorConfiguration> serializeHostConfigs(
-      NetworkSnapshot snapshot, ParseVendorConfigurationAnswerElement answerElement) {
+      NetworkSnapshot snapshot,
+      ParseVendorConfigurationAnswerElement answerElement,
+      Map<String, Long> historicParseTimes) {
     _logger.info("\n*** READING HOST CONFIGS ***\n");
     Map<String, String> keyedHostText;
     try (Stream<String> keys = _storage.listInputHostConfigurationsKeys(snapshot)) {
@@ -2349,7 +2405,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
       assert scope != null; // avoid unused warning
       allHostConfigurations =
           parseVendorConfigurations(
-              snapshot, keyedHostText, answerElement, ConfigurationFormat.HOST);
+              snapshot,
+              keyedHostText,
+              answerElement,
+              ConfigurationFormat.HOST,
+              historicParseTimes);
     } finally {
       span.finish();
     }
@@ -2376,7 +2436,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     SortedMap<String, VendorConfiguration> iptablesConfigurations =
         parseVendorConfigurations(
-            snapshot, keyedIptablesText, answerElement, ConfigurationFormat.IPTABLES);
+            snapshot,
+            keyedIptablesText,
+            answerElement,
+            ConfigurationFormat.IPTABLES,
+            historicParseTimes);
     for (VendorConfiguration vc : allHostConfigurations.values()) {
       HostConfiguration hostConfig = (HostConfiguration) vc;
       if (hostConfig.getIptablesFile() != null) {
@@ -2593,11 +2657,22 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  /**
+   * Returns the result of parsing the input objects of {@code snapshot} with the given {@code keys}
+   * as one job, reusing a cached result if there is one.
+   *
+   * <p>The cache key is hashed from the raw bytes of the objects as they stream from storage, so on
+   * a cache hit the objects are never decoded or held in memory. Otherwise they are read only now,
+   * so that only the files of jobs in progress are in memory at once.
+   */
   private ParseVendorConfigurationResult getOrParse(
-      ParseVendorConfigurationJob job, @Nullable SpanContext span, GrammarSettings settings) {
+      NetworkSnapshot snapshot,
+      Set<String> keys,
+      @Nullable SpanContext span,
+      GrammarSettings settings) {
     Span parseNetworkConfigsSpan =
         GlobalTracer.get()
-            .buildSpan("Parse " + job.getFileTexts().keySet())
+            .buildSpan("Parse " + keys)
             .addReference(References.FOLLOWS_FROM, span)
             .start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(parseNetworkConfigsSpan)) {
@@ -2605,6 +2680,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
       // Short-circuit all cache-related code.
       if (!_settings.getParseReuse()) {
+        ParseVendorConfigurationJob job =
+            makeParseVendorConfigurationJob(
+                snapshot,
+                readAllInputObjects(keys.stream(), snapshot),
+                ConfigurationFormat.UNKNOWN);
         long startTime = System.currentTimeMillis();
         ParseResult result = job.parse();
         long elapsed = System.currentTimeMillis() - startTime;
@@ -2623,39 +2703,47 @@ public class Batfish extends PluginConsumer implements IBatfish {
               .putBoolean(settings.getPrintParseTree())
               .putBoolean(settings.getThrowOnLexerError())
               .putBoolean(settings.getThrowOnParserError());
-      job.getFileTexts().keySet().stream()
-          .sorted()
-          .forEach(
-              filename -> {
-                hasher.putString(filename, UTF_8);
-                hasher.putString(job.getFileTexts().get(filename), UTF_8);
-              });
+      for (String key : ImmutableSortedSet.copyOf(keys)) {
+        hasher.putString(key, UTF_8);
+        try (InputStream in =
+            _storage.loadSnapshotInputObject(snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
+          // Separate the objects, since their bytes are hashed without a length prefix
+          hasher.putLong(ByteStreams.copy(in, Funnels.asOutputStream(hasher)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
       String id = hasher.hash().toString();
       long startTime = System.currentTimeMillis();
-      boolean cached = false;
-      ParseResult result;
+      ParseResult result = null;
       try (InputStream in = _storage.loadNetworkBlob(getContainerName(), id)) {
         result = SerializationUtils.deserialize(in);
         // sanity-check filenames. In the extremely unlikely event of a collision, we'll lose reuse
         // for this input.
-        cached = result.getFileResults().keySet().equals(job.getFileTexts().keySet());
+        if (!result.getFileResults().keySet().equals(keys)) {
+          result = null;
+        }
       } catch (FileNotFoundException e) {
-        result = job.parse();
+        // not cached
       } catch (Exception e) {
         _logger.warnf(
             "Error deserializing cached parse result for %s: %s",
-            job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
-        result = job.parse();
+            keys, Throwables.getStackTraceAsString(e));
       }
-      if (!cached) {
-        try {
-          byte[] serialized = SerializationUtils.serialize(result);
-          _storage.storeNetworkBlob(new ByteArrayInputStream(serialized), getContainerName(), id);
-        } catch (Exception e) {
-          _logger.warnf(
-              "Error caching parse result for %s: %s",
-              job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
-        }
+      if (result != null) {
+        return ParseVendorConfigurationJob.fromCachedResult(
+            _settings, result, System.currentTimeMillis() - startTime);
+      }
+      ParseVendorConfigurationJob job =
+          makeParseVendorConfigurationJob(
+              snapshot, readAllInputObjects(keys.stream(), snapshot), ConfigurationFormat.UNKNOWN);
+      result = job.parse();
+      try {
+        byte[] serialized = SerializationUtils.serialize(result);
+        _storage.storeNetworkBlob(new ByteArrayInputStream(serialized), getContainerName(), id);
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error caching parse result for %s: %s", keys, Throwables.getStackTraceAsString(e));
       }
       long elapsed = System.currentTimeMillis() - startTime;
       return job.fromResult(result, elapsed);
@@ -2675,10 +2763,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private boolean serializeNetworkConfigs(
       NetworkSnapshot snapshot,
       ParseVendorConfigurationAnswerElement answerElement,
-      SortedMap<String, VendorConfiguration> overlayHostConfigurations) {
+      SortedMap<String, VendorConfiguration> overlayHostConfigurations,
+      Map<String, Long> historicParseTimes) {
     if (!overlayHostConfigurations.isEmpty()) {
       // Not able to cache with overlays.
-      return oldSerializeNetworkConfigs(snapshot, answerElement, overlayHostConfigurations);
+      return oldSerializeNetworkConfigs(
+          snapshot, answerElement, overlayHostConfigurations, historicParseTimes);
     }
     boolean found = false;
     _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
@@ -2688,72 +2778,65 @@ public class Batfish extends PluginConsumer implements IBatfish {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(parseNetworkConfigsSpan)) {
       assert scope != null; // avoid unused warning
 
-      List<ParseVendorConfigurationJob> jobs;
-      Span makeJobsSpan = GlobalTracer.get().buildSpan("Read files and make jobs").start();
+      // Jobs are made of storage keys; file contents are only read when each job runs
+      List<Set<String>> jobs = new ArrayList<>();
+      Span makeJobsSpan = GlobalTracer.get().buildSpan("List files and make jobs").start();
       try (Scope makeJobsScope = GlobalTracer.get().scopeManager().activate(makeJobsSpan)) {
         assert makeJobsScope != null; // avoid unused warning
-        List<Map<String, String>> keyedConfigTexts = new LinkedList<>();
 
         // add devices in the 'configs' folder
         try (Stream<String> keys = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
-          keyedConfigTexts.addAll(
-              readAllInputObjects(keys, snapshot).entrySet().stream()
-                  .map(entry -> ImmutableMap.of(entry.getKey(), entry.getValue()))
-                  .collect(ImmutableList.toImmutableList()));
+          keys.forEach(key -> jobs.add(ImmutableSet.of(key)));
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
 
         // add devices in the sonic_configs folder
         try (Stream<String> keys = _storage.listInputSonicConfigsKeys(snapshot)) {
-          Map<String, String> sonicObjects = readAllInputObjects(keys, snapshot);
-          keyedConfigTexts.addAll(
-              makeSonicFilePairs(sonicObjects.keySet(), answerElement).parallelStream()
-                  .map(
-                      files ->
-                          files.stream()
-                              .collect(
-                                  ImmutableMap.toImmutableMap(
-                                      Function.identity(), sonicObjects::get)))
-                  .collect(ImmutableList.toImmutableList()));
+          jobs.addAll(
+              makeSonicFilePairs(keys.collect(ImmutableSet.toImmutableSet()), answerElement));
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
 
-        if (!keyedConfigTexts.isEmpty()) {
+        if (!jobs.isEmpty()) {
           found = true;
         }
 
-        jobs =
-            keyedConfigTexts.stream()
-                .map(
-                    jobFileMap ->
-                        makeParseVendorConfigurationJob(
-                            snapshot, jobFileMap, ConfigurationFormat.UNKNOWN))
-                .collect(Collectors.toList()); // should not be immutable because we shuffle below
-
-        // Java parallel streams are not self-balancing in large networks, so shuffle the jobs.
-        Collections.shuffle(jobs);
+        if (_settings.getSizeAwareJobs()) {
+          // Start the largest jobs first, so that none of them is left to run alone at the end.
+          Map<String, Long> sizes = loadInputObjectSizes(snapshot);
+          Map<Set<String>, Long> costs =
+              ParseVendorConfigurationJob.estimateParseCosts(
+                  jobs,
+                  j -> j,
+                  j -> j.stream().mapToLong(key -> sizes.getOrDefault(key, 0L)).sum(),
+                  historicParseTimes);
+          jobs.sort(Comparator.comparing(costs::get, Comparator.reverseOrder()));
+        } else {
+          // Java parallel streams are not self-balancing in large networks, so shuffle the jobs.
+          Collections.shuffle(jobs);
+        }
       } finally {
         makeJobsSpan.finish();
       }
 
       AtomicInteger batch = newBatch("Parse network configs", jobs.size());
       LOGGER.info("Parsing {} configuration files", jobs.size());
+      Function<Set<String>, ParseVendorConfigurationResult> parse =
+          j -> {
+            ParseVendorConfigurationResult result =
+                getOrParse(snapshot, j, parseNetworkConfigsSpan.context(), _settings);
+            int done = batch.incrementAndGet();
+            if (done % 100 == 0) {
+              LOGGER.info("Successfully parsed {}/{} configuration files", done, jobs.size());
+            }
+            return result;
+          };
       parseResults =
-          jobs.parallelStream()
-              .map(
-                  j -> {
-                    ParseVendorConfigurationResult result =
-                        getOrParse(j, parseNetworkConfigsSpan.context(), _settings);
-                    int done = batch.incrementAndGet();
-                    if (done % 100 == 0) {
-                      LOGGER.info(
-                          "Successfully parsed {}/{} configuration files", done, jobs.size());
-                    }
-                    return result;
-                  })
-              .collect(ImmutableList.toImmutableList());
+          _settings.getSizeAwareJobs()
+              ? mapInStartOrder(jobs, parse)
+              : jobs.parallelStream().map(parse).collect(ImmutableList.toImmutableList());
       LOGGER.info("Done parsing {} configuration files", jobs.size());
     } finally {
       parseNetworkConfigsSpan.finish();
@@ -2814,7 +2897,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private boolean oldSerializeNetworkConfigs(
       NetworkSnapshot snapshot,
       ParseVendorConfigurationAnswerElement answerElement,
-      SortedMap<String, VendorConfiguration> overlayHostConfigurations) {
+      SortedMap<String, VendorConfiguration> overlayHostConfigurations,
+      Map<String, Long> historicParseTimes) {
     boolean found = false;
     _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
 
@@ -2854,7 +2938,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
       }
       vendorConfigurations =
           parseVendorConfigurations(
-              snapshot, keyedConfigTexts, answerElement, ConfigurationFormat.UNKNOWN);
+              snapshot,
+              keyedConfigTexts,
+              answerElement,
+              ConfigurationFormat.UNKNOWN,
+              historicParseTimes);
     } finally {
       parseNetworkConfigsSpan.finish();
     }
@@ -2976,6 +3064,75 @@ public class Batfish extends PluginConsumer implements IBatfish {
    * so leaving as-is for now.
    */
   private Answer serializeVendorConfigs(NetworkSnapshot snapshot) {
+    return serializeVendorConfigsInternal(
+        snapshot,
+        _settings.getSizeAwareJobs() ? loadHistoricParseTimes(snapshot) : ImmutableMap.of());
+  }
+
+  /**
+   * Returns the parse times recorded by a previous parse of the given snapshot, or an empty map if
+   * there is none. Only a reparse of the same snapshot has them: a new snapshot has no history, and
+   * its parse jobs are ordered by file size alone.
+   */
+  private @Nonnull Map<String, Long> loadHistoricParseTimes(NetworkSnapshot snapshot) {
+    try {
+      if (_storage.hasParseVendorConfigurationAnswerElement(snapshot)) {
+        return _storage.loadParseVendorConfigurationAnswerElement(snapshot).getParseTimes();
+      }
+    } catch (Exception e) {
+      /* Do nothing, prior parse data may be from an incompatible version. */
+      _logger.warn("Unable to load prior parse times");
+    }
+    return ImmutableMap.of();
+  }
+
+  /**
+   * Returns the sizes of the input objects of the given snapshot, keyed by storage key, or an empty
+   * map if they cannot be listed.
+   */
+  private @Nonnull Map<String, Long> loadInputObjectSizes(NetworkSnapshot snapshot) {
+    try {
+      return _storage
+          .getSnapshotInputObjectsMetadata(snapshot.getNetwork(), snapshot.getSnapshot())
+          .stream()
+          .collect(
+              ImmutableMap.toImmutableMap(
+                  StoredObjectMetadata::getKey, StoredObjectMetadata::getSize));
+    } catch (IOException e) {
+      _logger.warn("Unable to list sizes of input objects");
+      return ImmutableMap.of();
+    }
+  }
+
+  /**
+   * Applies {@code function} to each of the {@code inputs} on {@link
+   * Settings#getAvailableThreads()} threads, starting in the order of {@code inputs}, and returns
+   * the results in that order.
+   */
+  private <T, R> List<R> mapInStartOrder(List<T> inputs, Function<T, R> function) {
+    ExecutorService executor = Executors.newFixedThreadPool(_settings.getAvailableThreads());
+    try {
+      List<Future<R>> futures =
+          inputs.stream()
+              .map(input -> executor.submit(() -> function.apply(input)))
+              .collect(ImmutableList.toImmutableList());
+      ImmutableList.Builder<R> results = ImmutableList.builder();
+      for (Future<R> future : futures) {
+        try {
+          results.add(Futures.getUnchecked(future));
+        } catch (UncheckedExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw e;
+        }
+      }
+      return results.build();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Answer serializeVendorConfigsInternal(
+      NetworkSnapshot snapshot, Map<String, Long> historicParseTimes) {
     Answer answer = new Answer();
     boolean configsFound = false;
     ParseVendorConfigurationAnswerElement answerElement =
@@ -2988,12 +3145,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // look for host configs and overlay configs in the `hosts/` subfolder of the upload.
     SortedMap<String, VendorConfiguration> overlayHostConfigurations = new TreeMap<>();
     if (hasHostConfigs(snapshot)) {
-      overlayHostConfigurations.putAll(serializeHostConfigs(snapshot, answerElement));
+      overlayHostConfigurations.putAll(
+          serializeHostConfigs(snapshot, answerElement, historicParseTimes));
       configsFound = true;
     }
 
     // look for network configs in the `configs/` subfolder of the upload.
-    if (serializeNetworkConfigs(snapshot, answerElement, overlayHostConfigurations)) {
+    if (serializeNetworkConfigs(
+        snapshot, answerElement, overlayHostConfigurations, historicParseTimes)) {
       configsFound = true;
     }
 
@@ -3077,18 +3236,33 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddSingleReachability").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      ResolvedReachabilityParameters params;
+      Set<Flow> flows;
       try {
-        params = resolveReachabilityParameters(this, parameters, snapshot);
+        flows = bddReachabilityFlows(snapshot, parameters);
       } catch (InvalidReachabilityParametersException e) {
         return e.getInvalidParametersAnswer();
       }
+      return new TraceWrapperAsAnswerElement(
+          buildFlows(snapshot, flows, parameters.getIgnoreFilters()));
+    } finally {
+      span.finish();
+    }
+  }
+
+  @Override
+  public Set<Flow> bddReachabilityFlows(NetworkSnapshot snapshot, ReachabilityParameters parameters)
+      throws InvalidReachabilityParametersException {
+    Span span = GlobalTracer.get().buildSpan("bddReachabilityFlows").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      ResolvedReachabilityParameters params =
+          resolveReachabilityParameters(this, parameters, snapshot);
 
       checkArgument(
           params.getSrcNatted() == SrcNattedConstraint.UNCONSTRAINED,
           "Requiring or forbidding Source NAT is currently unsupported");
 
-      BDDPacket pkt = new BDDPacket();
+      BDDPacket pkt = newReachabilityBddPacket();
       boolean ignoreFilters = params.getIgnoreFilters();
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
           getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
@@ -3102,9 +3276,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
               params.getFinalNodes(),
               params.getActions());
 
-      Set<Flow> flows = constructFlows(pkt, reachableBDDs);
-
-      return new TraceWrapperAsAnswerElement(buildFlows(snapshot, flows, ignoreFilters));
+      return constructFlows(pkt, reachableBDDs);
     } finally {
       span.finish();
     }
@@ -3115,7 +3287,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddLoopDetection").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
+      BDDPacket pkt = newReachabilityBddPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
@@ -3165,7 +3337,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddMultipathConsistency").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
+      BDDPacket pkt = newReachabilityBddPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
@@ -3224,19 +3396,56 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   @Nonnull
+  /**
+   * Returns a new {@link BDDPacket} for a reachability analysis, whose ACLs are converted in
+   * parallel if the concurrent BDD factory is enabled.
+   */
+  private BDDPacket newReachabilityBddPacket() {
+    return _settings.getConcurrentBddFactory() ? BDDPacket.createConcurrent() : new BDDPacket();
+  }
+
   private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
       NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters) {
     Span span = GlobalTracer.get().buildSpan("getBddReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       DataPlane dataPlane = loadDataPlane(snapshot);
-      return new BDDReachabilityAnalysisFactory(
-          pkt,
-          loadConfigurations(snapshot),
-          dataPlane.getForwardingAnalysis(),
-          new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
-          ignoreFilters,
-          false);
+      Optional<Map<String, BDD>> storedForwardingBdds = loadForwardingBdds(snapshot, pkt);
+      BDDReachabilityAnalysisFactory factory =
+          new BDDReachabilityAnalysisFactory(
+              pkt,
+              loadConfigurations(snapshot),
+              dataPlane.getForwardingAnalysis(),
+              new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+              ignoreFilters,
+              false,
+              storedForwardingBdds.orElse(ImmutableMap.of()));
+      if (!storedForwardingBdds.isPresent()) {
+        try {
+          _storage.storeBdds(factory.getForwardingBdds(), snapshot, BDDS_KEY_FORWARDING);
+        } catch (IOException e) {
+          LOGGER.warn("Could not store forwarding BDDs", e);
+        }
+      }
+      return factory;
+    } finally {
+      span.finish();
+    }
+  }
+
+  /**
+   * Loads the forwarding BDDs stored by a previous {@link BDDReachabilityAnalysisFactory} for the
+   * given snapshot into {@code pkt}'s factory, if any.
+   */
+  private @Nonnull Optional<Map<String, BDD>> loadForwardingBdds(
+      NetworkSnapshot snapshot, BDDPacket pkt) {
+    Span span = GlobalTracer.get().buildSpan("loadForwardingBdds").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      return _storage.loadBdds(pkt.getFactory(), snapshot, BDDS_KEY_FORWARDING);
+    } catch (IOException e) {
+      LOGGER.warn("Could not load forwarding BDDs, recomputing them", e);
+      return Optional.empty();
     } finally {
       span.finish();
     }
@@ -3279,7 +3488,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       assert scope != null; // avoid unused warning
       checkArgument(
           !parameters.getFlowDispositions().isEmpty(), "Must specify at least one FlowDisposition");
-      BDDPacket pkt = new BDDPacket();
+      BDDPacket pkt = newReachabilityBddPacket();
 
       AclLineMatchExpr headerSpace =
           parameters.getInvertSearch()
@@ -3361,6 +3570,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   private void writeJsonAnswer(String structuredAnswerString) throws IOException {
+    NetworkId networkId = _settings.getContainer();
+    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, getBaseAnswerId());
+  }
+
+  /** Returns the ID of the answer to the question being answered. */
+  private @Nonnull AnswerId getBaseAnswerId() {
     SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
     NetworkId networkId = _settings.getContainer();
     QuestionId questionId = _settings.getQuestionName();
@@ -3369,10 +3584,29 @@ public class Batfish extends PluginConsumer implements IBatfish {
         _idResolver
             .getNetworkNodeRolesId(networkId)
             .orElse(NodeRolesId.DEFAULT_NETWORK_NODE_ROLES_ID);
-    AnswerId baseAnswerId =
-        _idResolver.getAnswerId(
-            networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot, analysisId);
-    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, baseAnswerId);
+    return _idResolver.getAnswerId(
+        networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot, analysisId);
+  }
+
+  /**
+   * Stores the {@link ColumnarTable} form of a successful table answer, so that its rows can be
+   * paged through without parsing the whole answer. Failure to do so is not fatal, since the rows
+   * can still be read from the answer itself.
+   */
+  private void writeAnswerTable(Answer answer) {
+    if (_settings.getQuestionName() == null
+        || answer.getStatus() != AnswerStatus.SUCCESS
+        || answer.getAnswerElements().isEmpty()
+        || !(answer.getAnswerElements().get(0) instanceof TableAnswerElement)) {
+      return;
+    }
+    TableAnswerElement table = (TableAnswerElement) answer.getAnswerElements().get(0);
+    try {
+      _storage.storeAnswerTable(
+          _settings.getContainer(), _snapshot, ColumnarTable.of(table), getBaseAnswerId());
+    } catch (IOException | RuntimeException e) {
+      _logger.warnf("Failed to store answer table: %s", Throwables.getStackTraceAsString(e));
+    }
   }
 
   private void writeJsonAnswerWithLog(
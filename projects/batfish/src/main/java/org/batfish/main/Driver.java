@@ -2,7 +2,8 @@ package org.batfish.main;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
 import io.jaegertracing.Configuration.ReporterConfiguration;
 import io.jaegertracing.Configuration.SamplerConfiguration;
 import io.jaegertracing.Configuration.SenderConfiguration;
@@ -20,6 +21,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -42,6 +44,7 @@ import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.main.SnapshotCacheManager.Kind;
 import org.batfish.vendor.VendorConfiguration;
 import org.batfish.version.BatfishVersion;
 import org.glassfish.grizzly.http.server.HttpServer;
@@ -57,24 +60,31 @@ public class Driver {
     WORKSERVICE,
   }
 
-  private static boolean _idle = true;
-
   private static Date _lastPollFromCoordinator = new Date();
 
   private static BatfishLogger _mainLogger = null;
 
   private static Settings _mainSettings = null;
 
-  private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
+  private static TaskSlots _taskSlots = new TaskSlots(1, 0L, () -> 0L);
+
+  /** The fraction of the maximum heap size that the snapshot caches may fill. */
+  private static final double CACHE_HEAP_FRACTION = 0.5;
+
+  private static final SnapshotCacheManager CACHE_MANAGER =
+      new SnapshotCacheManager((long) (Runtime.getRuntime().maxMemory() * CACHE_HEAP_FRACTION));
+
+  private static final ReferenceCountedCache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES =
+      new ReferenceCountedCache<>(CACHE_MANAGER.getDataPlanes());
 
   private static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
 
-  private static final Cache<NetworkSnapshot, SortedMap<String, Configuration>> CACHED_TESTRIGS =
-      buildTestrigCache();
+  private static final ReferenceCountedCache<NetworkSnapshot, SortedMap<String, Configuration>>
+      CACHED_TESTRIGS = new ReferenceCountedCache<>(CACHE_MANAGER.getConfigurations());
 
   private static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
+      CACHED_VENDOR_CONFIGURATIONS = CACHE_MANAGER.getVendorConfigurations();
 
   private static final int COORDINATOR_CHECK_INTERVAL_MS = 1 * 60 * 1000; // 1 min
 
@@ -84,50 +94,52 @@ public class Driver {
 
   static Logger httpServerLogger = Logger.getLogger(HttpServer.class.getName());
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
-
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
-  private static final int MAX_CACHED_TESTRIGS = 5;
-
-  private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
-
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
-  }
-
   private static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       buildEnvironmentBgpTablesCache() {
     return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
   }
 
-  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
+  /** The snapshots a task works on, whose cached configurations and data planes it shares. */
+  private static Set<NetworkSnapshot> getTaskSnapshots(Settings settings) {
+    ImmutableSet.Builder<NetworkSnapshot> snapshots = ImmutableSet.builder();
+    if (settings.getContainer() != null && settings.getTestrig() != null) {
+      snapshots.add(new NetworkSnapshot(settings.getContainer(), settings.getTestrig()));
+      if (settings.getDeltaTestrig() != null) {
+        snapshots.add(new NetworkSnapshot(settings.getContainer(), settings.getDeltaTestrig()));
+      }
+    }
+    return snapshots.build();
   }
 
-  private static Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      buildVendorConfigurationCache() {
-    return CacheBuilder.newBuilder()
-        .softValues()
-        .maximumSize(MAX_CACHED_VENDOR_CONFIGURATIONS)
-        .build();
+  /** The number of additional tasks this worker could run now. */
+  public static int getCapacity() {
+    return _taskSlots.getCapacity();
   }
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
-      return true;
-    }
+  /** Whether this worker could run another task now. */
+  public static synchronized boolean getIdle() {
+    _lastPollFromCoordinator = new Date();
+    return getCapacity() > 0;
+  }
 
-    return false;
+  /** The snapshots whose data planes are cached by this worker. */
+  static Set<NetworkSnapshot> getWarmDataPlanes() {
+    return CACHE_MANAGER.getSnapshots(Kind.DATA_PLANES);
   }
 
-  public static synchronized boolean getIdle() {
-    _lastPollFromCoordinator = new Date();
-    return _idle;
+  /** Hits, misses, and evictions of the snapshot caches of this worker. */
+  static Map<Kind, CacheStats> getCacheStats() {
+    return CACHE_MANAGER.getStats();
+  }
+
+  /** The snapshots whose configurations are cached by this worker. */
+  static Set<NetworkSnapshot> getWarmSnapshots() {
+    return CACHE_MANAGER.getSnapshots(Kind.CONFIGURATIONS);
   }
 
   public static BatfishLogger getMainLogger() {
@@ -157,6 +169,7 @@ public class Driver {
   private static void mainInit(String[] args) {
     try {
       _mainSettings = new Settings(args);
+      _taskSlots = TaskSlots.create(_mainSettings);
       networkListenerLogger.setLevel(Level.WARNING);
       httpServerLogger.setLevel(Level.WARNING);
     } catch (Exception e) {
@@ -239,8 +252,18 @@ public class Driver {
     }
   }
 
-  private static synchronized void makeIdle() {
-    _idle = true;
+  private static void acquireSnapshots(Set<NetworkSnapshot> snapshots) {
+    for (NetworkSnapshot snapshot : snapshots) {
+      CACHED_TESTRIGS.acquire(snapshot);
+      CACHED_DATA_PLANES.acquire(snapshot);
+    }
+  }
+
+  private static void releaseSnapshots(Set<NetworkSnapshot> snapshots) {
+    for (NetworkSnapshot snapshot : snapshots) {
+      CACHED_TESTRIGS.release(snapshot);
+      CACHED_DATA_PLANES.release(snapshot);
+    }
   }
 
   private static boolean registerWithCoordinator(String poolRegUrl, int listenPort) {
@@ -415,11 +438,13 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Non-executable command");
     }
 
-    if (!claimIdle()) {
-      return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Not idle");
+    if (!_taskSlots.tryAcquire()) {
+      return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "No capacity for another task");
     }
+    Set<NetworkSnapshot> snapshots = getTaskSnapshots(settings);
+    acquireSnapshots(snapshots);
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the task slot is released in case of problem submitting thread.
     try {
 
       BatfishLogger jobLogger =
@@ -436,7 +461,7 @@ public class Driver {
               ? null
               : GlobalTracer.get().activeSpan().context();
 
-      // run batfish on a new thread and set idle to true when done
+      // run batfish on a new thread and release the task slot when done
       Thread thread =
           new Thread(
               () -> {
@@ -457,8 +482,9 @@ public class Driver {
                   }
                   task.setTerminated(new Date());
                   jobLogger.close();
-                  makeIdle();
                 } finally {
+                  releaseSnapshots(snapshots);
+                  _taskSlots.release();
                   runBatfishSpan.finish();
                 }
               });
@@ -468,7 +494,8 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_SUCCESS_KEY, "running now");
     } catch (Exception e) {
       _mainLogger.error("Exception while running task: " + e.getMessage());
-      makeIdle();
+      releaseSnapshots(snapshots);
+      _taskSlots.release();
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage());
     }
   }
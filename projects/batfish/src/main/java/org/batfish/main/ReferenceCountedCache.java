@@ -0,0 +1,121 @@
+package org.batfish.main;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A {@link Cache} shared by concurrently running tasks, whose entries are not lost while a task
+ * references them.
+ *
+ * <p>A task acquires the keys it works on before it starts and releases them when it terminates.
+ * While a key is acquired, its value is strongly held on the side, so eviction from the underlying
+ * size-bounded, soft-valued cache (e.g. to make room for another task's snapshot) does not force
+ * the other tasks working on that key to load it again.
+ */
+@ParametersAreNonnullByDefault
+final class ReferenceCountedCache<K, V> extends ForwardingCache<K, V> {
+
+  ReferenceCountedCache(Cache<K, V> delegate) {
+    _delegate = delegate;
+    _references = HashMultiset.create();
+    _pinned = new HashMap<>();
+  }
+
+  /** Adds a reference to {@code key}, pinning its value while there are references. */
+  synchronized void acquire(K key) {
+    _references.add(key);
+    V value = _delegate.getIfPresent(key);
+    if (value != null) {
+      _pinned.put(key, value);
+    }
+  }
+
+  /** Removes a reference added by {@link #acquire(Object)}. */
+  synchronized void release(K key) {
+    if (_references.remove(key, 1) == 1) {
+      _pinned.remove(key);
+    }
+  }
+
+  @Override
+  protected @Nonnull Cache<K, V> delegate() {
+    return _delegate;
+  }
+
+  @Override
+  public @Nullable V getIfPresent(Object key) {
+    V value = _delegate.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    synchronized (this) {
+      return _pinned.get(key);
+    }
+  }
+
+  @Override
+  public V get(K key, Callable<? extends V> valueLoader) throws ExecutionException {
+    V value = getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    value = _delegate.get(key, valueLoader);
+    pinIfReferenced(key, value);
+    return value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    _delegate.put(key, value);
+    pinIfReferenced(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    m.forEach(this::put);
+  }
+
+  @Override
+  public void invalidate(Object key) {
+    _delegate.invalidate(key);
+    synchronized (this) {
+      _pinned.remove(key);
+    }
+  }
+
+  @Override
+  public void invalidateAll(Iterable<?> keys) {
+    keys.forEach(this::invalidate);
+  }
+
+  @Override
+  public void invalidateAll() {
+    _delegate.invalidateAll();
+    synchronized (this) {
+      _pinned.clear();
+    }
+  }
+
+  private synchronized void pinIfReferenced(K key, V value) {
+    if (_references.contains(key)) {
+      _pinned.put(key, value);
+    }
+  }
+
+  private final @Nonnull Cache<K, V> _delegate;
+
+  /** The number of references to each acquired key. Guarded by this. */
+  private final @Nonnull Multiset<K> _references;
+
+  /** The values of acquired keys. Guarded by this. */
+  private final @Nonnull Map<K, V> _pinned;
+}
@@ -1,9 +1,13 @@
 package org.batfish.main;
 
+import com.google.common.cache.CacheStats;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -12,9 +16,12 @@ import javax.ws.rs.core.MediaType;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Task;
 import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.main.SnapshotCacheManager.Kind;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 @Path(BfConsts.SVC_BASE_RSC)
@@ -40,12 +47,43 @@ public class Service {
       return new JSONArray(
           Arrays.asList(
               BfConsts.SVC_SUCCESS_KEY,
-              (new JSONObject().put("idle", Driver.getIdle())).toString()));
+              new JSONObject()
+                  .put(BfConsts.SVC_CACHE_STATS_KEY, toJson(Driver.getCacheStats()))
+                  .put(BfConsts.SVC_IDLE_KEY, Driver.getIdle())
+                  .put(BfConsts.SVC_CAPACITY_KEY, Driver.getCapacity())
+                  .put(BfConsts.SVC_WARM_DATA_PLANES_KEY, toJson(Driver.getWarmDataPlanes()))
+                  .put(BfConsts.SVC_WARM_SNAPSHOTS_KEY, toJson(Driver.getWarmSnapshots()))
+                  .toString()));
     } catch (Exception e) {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
   }
 
+  private static JSONObject toJson(Map<Kind, CacheStats> cacheStats) throws JSONException {
+    JSONObject object = new JSONObject();
+    for (Entry<Kind, CacheStats> entry : cacheStats.entrySet()) {
+      CacheStats stats = entry.getValue();
+      object.put(
+          entry.getKey().name().toLowerCase(),
+          new JSONObject()
+              .put("hits", stats.hitCount())
+              .put("misses", stats.missCount())
+              .put("evictions", stats.evictionCount()));
+    }
+    return object;
+  }
+
+  private static JSONArray toJson(Set<NetworkSnapshot> snapshots) throws JSONException {
+    JSONArray array = new JSONArray();
+    for (NetworkSnapshot snapshot : snapshots) {
+      array.put(
+          new JSONObject()
+              .put(BfConsts.SVC_NETWORK_ID_KEY, snapshot.getNetwork().getId())
+              .put(BfConsts.SVC_SNAPSHOT_ID_KEY, snapshot.getSnapshot().getId()));
+    }
+    return array;
+  }
+
   @GET
   @Path(BfConsts.SVC_GET_TASKSTATUS_RSC)
   @Produces(MediaType.APPLICATION_JSON)
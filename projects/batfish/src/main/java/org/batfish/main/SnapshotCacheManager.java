@@ -0,0 +1,284 @@
+package org.batfish.main;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * The in-memory snapshot caches of a worker, sharing a single budget of heap memory.
+ *
+ * <p>Each cached value is weighed by a rough estimate of its retained size, and the least recently
+ * used values of any kind are evicted when the total exceeds the budget. So one huge snapshot only
+ * evicts as much as it needs, and many small snapshots can stay in memory together. Values are held
+ * strongly, so memory use is bounded by the budget alone. The estimates are coarse, so each value
+ * is weighed with a margin of {@link #ESTIMATE_MARGIN_PERCENT} percent on top of its estimate.
+ *
+ * <p>There is no second, serialized tier: everything cached here is also stored in serialized form
+ * by the {@link org.batfish.storage.StorageProvider}, so an evicted value is loaded from there on
+ * next use.
+ */
+@ParametersAreNonnullByDefault
+final class SnapshotCacheManager {
+
+  /** The kinds of values cached per snapshot. */
+  enum Kind {
+    CONFIGURATIONS,
+    DATA_PLANES,
+    VENDOR_CONFIGURATIONS
+  }
+
+  /* Rough retained sizes, in bytes, of the parts of cached values. */
+  private static final long CONFIGURATION_BYTES = 16 * 1024;
+  private static final long INTERFACE_BYTES = 2 * 1024;
+  private static final long ACL_LINE_BYTES = 512;
+  private static final long POLICY_STATEMENT_BYTES = 512;
+  private static final long STATIC_ROUTE_BYTES = 256;
+  /** A route in a RIB, with its FIB entry. */
+  private static final long ROUTE_BYTES = 512;
+
+  private static final long VENDOR_CONFIGURATION_BYTES = 256 * 1024;
+
+  private static final long BYTES_PER_WEIGHT = 1024;
+
+  /**
+   * Extra weight of each value, in percent of its estimated size, so that the budget still holds
+   * when values are larger than estimated.
+   */
+  private static final long ESTIMATE_MARGIN_PERCENT = 50;
+
+  /** Creates caches holding values of estimated total size at most {@code maximumBytes}. */
+  SnapshotCacheManager(long maximumBytes) {
+    _stats = new EnumMap<>(Kind.class);
+    for (Kind kind : Kind.values()) {
+      _stats.put(kind, new SimpleStatsCounter());
+    }
+    _entries =
+        CacheBuilder.newBuilder()
+            // a single segment, so the whole budget is available to each value
+            .concurrencyLevel(1)
+            .maximumWeight(Math.max(maximumBytes / BYTES_PER_WEIGHT, 1))
+            .weigher((Key key, Weighed value) -> value._weight)
+            .removalListener(this::onRemoval)
+            .build();
+    _configurations = new View<>(Kind.CONFIGURATIONS, SnapshotCacheManager::estimateConfigurations);
+    _dataPlanes = new View<>(Kind.DATA_PLANES, SnapshotCacheManager::estimateDataPlane);
+    _vendorConfigurations =
+        new View<>(Kind.VENDOR_CONFIGURATIONS, SnapshotCacheManager::estimateVendorConfigurations);
+  }
+
+  @Nonnull
+  Cache<NetworkSnapshot, SortedMap<String, Configuration>> getConfigurations() {
+    return _configurations;
+  }
+
+  @Nonnull
+  Cache<NetworkSnapshot, DataPlane> getDataPlanes() {
+    return _dataPlanes;
+  }
+
+  @Nonnull
+  Cache<NetworkSnapshot, Map<String, VendorConfiguration>> getVendorConfigurations() {
+    return _vendorConfigurations;
+  }
+
+  /** The snapshots for which values of {@code kind} are cached. */
+  @Nonnull
+  Set<NetworkSnapshot> getSnapshots(Kind kind) {
+    return _entries.asMap().keySet().stream()
+        .filter(key -> key._kind == kind)
+        .map(key -> key._snapshot)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /** Hits, misses, and evictions of each kind of value since the caches were created. */
+  @Nonnull
+  Map<Kind, CacheStats> getStats() {
+    return _stats.entrySet().stream()
+        .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+  }
+
+  /** The estimated total size, in bytes, of the cached values, including the margin. */
+  long getCachedBytes() {
+    return _entries.asMap().values().stream().mapToLong(v -> v._weight).sum() * BYTES_PER_WEIGHT;
+  }
+
+  private void onRemoval(RemovalNotification<Key, Weighed> notification) {
+    Key key = notification.getKey();
+    if (notification.wasEvicted() && key != null) {
+      _stats.get(key._kind).recordEviction();
+    }
+  }
+
+  @VisibleForTesting
+  static long estimateConfigurations(Map<String, Configuration> configurations) {
+    long bytes = 0;
+    for (Configuration c : configurations.values()) {
+      bytes += CONFIGURATION_BYTES + c.getAllInterfaces().size() * INTERFACE_BYTES;
+      for (IpAccessList acl : c.getIpAccessLists().values()) {
+        bytes += acl.getLines().size() * ACL_LINE_BYTES;
+      }
+      for (RoutingPolicy policy : c.getRoutingPolicies().values()) {
+        bytes += policy.getStatements().size() * POLICY_STATEMENT_BYTES;
+      }
+      for (Vrf vrf : c.getVrfs().values()) {
+        bytes += vrf.getStaticRoutes().size() * STATIC_ROUTE_BYTES;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Estimates the size of a data plane from its number of routes. Uses {@link
+   * DataPlane#getRouteCount()} when available, so that a data plane loaded lazily from storage is
+   * not loaded in full just to be weighed.
+   */
+  @VisibleForTesting
+  static long estimateDataPlane(DataPlane dataPlane) {
+    OptionalLong routeCount = dataPlane.getRouteCount();
+    if (routeCount.isPresent()) {
+      return routeCount.getAsLong() * ROUTE_BYTES;
+    }
+    long routes = 0;
+    for (Map<String, ? extends GenericRib<?>> ribsByVrf : dataPlane.getRibs().values()) {
+      for (GenericRib<?> rib : ribsByVrf.values()) {
+        routes += rib.getTypedRoutes().size();
+      }
+    }
+    routes += dataPlane.getBgpRoutes().values().stream().mapToLong(Set::size).sum();
+    return routes * ROUTE_BYTES;
+  }
+
+  private static long estimateVendorConfigurations(
+      Map<String, VendorConfiguration> vendorConfigurations) {
+    return vendorConfigurations.size() * VENDOR_CONFIGURATION_BYTES;
+  }
+
+  /** The key of a cached value: its kind and snapshot. */
+  private static final class Key {
+    private final @Nonnull Kind _kind;
+    private final @Nonnull NetworkSnapshot _snapshot;
+
+    private Key(Kind kind, NetworkSnapshot snapshot) {
+      _kind = kind;
+      _snapshot = snapshot;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _kind == key._kind && _snapshot.equals(key._snapshot);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_kind.ordinal(), _snapshot);
+    }
+  }
+
+  /**
+   * A cached value, with its weight in units of {@link #BYTES_PER_WEIGHT}: its estimated size in
+   * bytes, plus the margin.
+   */
+  private static final class Weighed {
+    private final @Nonnull Object _value;
+    private final int _weight;
+
+    private Weighed(Object value, long bytes) {
+      _value = value;
+      long weighedBytes = bytes + bytes * ESTIMATE_MARGIN_PERCENT / 100;
+      _weight = (int) Math.min(Math.max(weighedBytes / BYTES_PER_WEIGHT, 1), Integer.MAX_VALUE);
+    }
+  }
+
+  /** The values of one {@link Kind}, as a cache by snapshot. */
+  private final class View<V> extends AbstractCache<NetworkSnapshot, V> {
+    private final @Nonnull Kind _kind;
+    private final @Nonnull ToLongFunction<V> _estimator;
+
+    private View(Kind kind, ToLongFunction<V> estimator) {
+      _kind = kind;
+      _estimator = estimator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // values of a kind are only put through its view
+    public @Nullable V getIfPresent(Object key) {
+      if (!(key instanceof NetworkSnapshot)) {
+        _stats.get(_kind).recordMisses(1);
+        return null;
+      }
+      Weighed weighed = _entries.getIfPresent(new Key(_kind, (NetworkSnapshot) key));
+      if (weighed == null) {
+        _stats.get(_kind).recordMisses(1);
+        return null;
+      }
+      _stats.get(_kind).recordHits(1);
+      return (V) weighed._value;
+    }
+
+    @Override
+    public void put(NetworkSnapshot key, V value) {
+      _entries.put(new Key(_kind, key), new Weighed(value, _estimator.applyAsLong(value)));
+    }
+
+    @Override
+    public void invalidate(Object key) {
+      if (key instanceof NetworkSnapshot) {
+        _entries.invalidate(new Key(_kind, (NetworkSnapshot) key));
+      }
+    }
+
+    @Override
+    public void invalidateAll() {
+      _entries.invalidateAll(
+          _entries.asMap().keySet().stream()
+              .filter(key -> key._kind == _kind)
+              .collect(ImmutableSet.toImmutableSet()));
+    }
+
+    @Override
+    public long size() {
+      return _entries.asMap().keySet().stream().filter(key -> key._kind == _kind).count();
+    }
+
+    @Override
+    public @Nonnull CacheStats stats() {
+      return _stats.get(_kind).snapshot();
+    }
+  }
+
+  private final @Nonnull Cache<Key, Weighed> _entries;
+  private final @Nonnull Map<Kind, SimpleStatsCounter> _stats;
+  private final @Nonnull View<SortedMap<String, Configuration>> _configurations;
+  private final @Nonnull View<DataPlane> _dataPlanes;
+  private final @Nonnull View<Map<String, VendorConfiguration>> _vendorConfigurations;
+}
@@ -1,12 +1,15 @@
 package org.batfish.main;
 
-import com.google.common.io.Closer;
 import com.ibm.icu.text.CharsetDetector;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import javax.annotation.Nonnull;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.IOUtils;
@@ -20,25 +23,42 @@ final class StreamDecoder {
    * resulting string with a newline appended if the original stream is non-empty. Does not close
    * the provided input stream.
    *
+   * <p>Any byte order mark is skipped by offset rather than by copying the bytes. The bytes are
+   * decoded into a buffer that has room for the newline and is sized for the worst case of the
+   * charset ({@link CharsetDecoder#maxCharsPerByte}, one character per byte for common charsets
+   * such as UTF-8). The returned string then copies the decoded characters once more, so at its
+   * peak the decoded text is held twice in addition to the bytes.
+   *
    * @throws IOException if there is an error
    */
-  @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer.
   static @Nonnull String decodeStreamAndAppendNewline(@Nonnull InputStream inputStream)
       throws IOException {
     byte[] rawBytes = IOUtils.toByteArray(inputStream);
+    if (rawBytes.length == 0) {
+      return "";
+    }
     Charset cs = Charset.forName(new CharsetDetector().setText(rawBytes).detect().getName());
-    try (Closer closer = Closer.create()) {
-      InputStream inputByteStream =
-          closer.register(bomInputStream(new ByteArrayInputStream(rawBytes)));
-      InputStream finalInputStream =
-          closer.register(
-              rawBytes.length > 0
-                  ? new SequenceInputStream(
-                      inputByteStream,
-                      closer.register(bomInputStream(new ByteArrayInputStream("\n".getBytes(cs)))))
-                  : inputByteStream);
-      return new String(IOUtils.toByteArray(finalInputStream), cs);
+    int bomLength;
+    try (BOMInputStream bomInputStream = bomInputStream(new ByteArrayInputStream(rawBytes))) {
+      ByteOrderMark bom = bomInputStream.getBOM();
+      bomLength = bom == null ? 0 : bom.length();
+    }
+    CharsetDecoder decoder =
+        cs.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    int length = rawBytes.length - bomLength;
+    CharBuffer chars =
+        CharBuffer.allocate((int) Math.ceil(length * (double) decoder.maxCharsPerByte()) + 1);
+    CoderResult result = decoder.decode(ByteBuffer.wrap(rawBytes, bomLength, length), chars, true);
+    if (result.isUnderflow()) {
+      result = decoder.flush(chars);
+    }
+    if (!result.isUnderflow()) {
+      result.throwException();
     }
+    chars.put('\n');
+    return new String(chars.array(), 0, chars.position());
   }
 
   private static @Nonnull BOMInputStream bomInputStream(@Nonnull InputStream inputStream) {
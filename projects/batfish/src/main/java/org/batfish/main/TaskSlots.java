@@ -0,0 +1,76 @@
+package org.batfish.main;
+
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.config.Settings;
+
+/**
+ * Admission control for the tasks the worker service runs at once. At most {@link
+ * Settings#getMaxConcurrentTasks()} tasks run together, and a task is only started alongside others
+ * if the heap has room for its memory budget ({@link Settings#getTaskMemoryBudgetMb()}). A task is
+ * always admitted when nothing else is running.
+ */
+@ParametersAreNonnullByDefault
+final class TaskSlots {
+
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+
+  /** Returns {@link TaskSlots} configured by {@code settings}, measuring the heap of this JVM. */
+  static @Nonnull TaskSlots create(Settings settings) {
+    return new TaskSlots(
+        settings.getMaxConcurrentTasks(),
+        settings.getTaskMemoryBudgetMb() * BYTES_PER_MB,
+        TaskSlots::availableHeapMemory);
+  }
+
+  /**
+   * @param maxTasks the maximum number of tasks running at once; treated as 1 if smaller
+   * @param taskMemoryBudget the bytes of available memory needed per additional task, or a
+   *     non-positive number for no memory limit
+   * @param availableMemory supplies the bytes of memory currently available to tasks
+   */
+  TaskSlots(int maxTasks, long taskMemoryBudget, LongSupplier availableMemory) {
+    _maxTasks = Math.max(1, maxTasks);
+    _taskMemoryBudget = taskMemoryBudget;
+    _availableMemory = availableMemory;
+  }
+
+  /** Claims a slot for a new task if there is capacity for it. Returns whether it did. */
+  synchronized boolean tryAcquire() {
+    if (getCapacity() == 0) {
+      return false;
+    }
+    _running++;
+    return true;
+  }
+
+  /** Frees the slot of a task that has terminated. */
+  synchronized void release() {
+    assert _running > 0;
+    _running--;
+  }
+
+  /** The number of additional tasks that could be started now. */
+  synchronized int getCapacity() {
+    int free = _maxTasks - _running;
+    if (free <= 0 || _running == 0 || _taskMemoryBudget <= 0) {
+      return Math.max(free, 0);
+    }
+    return (int) Math.min(free, _availableMemory.getAsLong() / _taskMemoryBudget);
+  }
+
+  synchronized int getRunning() {
+    return _running;
+  }
+
+  private static long availableHeapMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+  }
+
+  private final int _maxTasks;
+  private final long _taskMemoryBudget;
+  private final @Nonnull LongSupplier _availableMemory;
+  private int _running;
+}
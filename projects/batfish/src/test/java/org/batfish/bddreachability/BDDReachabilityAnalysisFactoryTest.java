@@ -24,6 +24,7 @@ import static org.batfish.datamodel.FlowDisposition.NO_ROUTE;
 import static org.batfish.datamodel.FlowDisposition.NULL_ROUTED;
 import static org.batfish.datamodel.FlowDisposition.SUCCESS_DISPOSITIONS;
 import static org.batfish.datamodel.acl.AclLineMatchExprs.TRUE;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
 import static org.batfish.datamodel.acl.AclLineMatchExprs.match;
 import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
 import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
@@ -58,7 +59,9 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -70,9 +73,13 @@ import javax.annotation.Nonnull;
 import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.AddOutgoingOriginalFlowFiltersConstraint;
 import org.batfish.bddreachability.transition.Transition;
+import org.batfish.common.bdd.BDDNodeStore;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDSourceManager;
 import org.batfish.common.bdd.HeaderSpaceToBDD;
+import org.batfish.common.bdd.IpAccessListToBdd;
 import org.batfish.common.bdd.IpSpaceToBDD;
+import org.batfish.common.bdd.MemoizedIpAccessListToBdd;
 import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.ConcreteInterfaceAddress;
@@ -218,6 +225,126 @@ public final class BDDReachabilityAnalysisFactoryTest {
     makeBddReachabilityAnalysisFactory(net._configs);
   }
 
+  @Test
+  public void testConcurrentPacketAclBdds() throws IOException {
+    // Many nodes with overlapping ACLs, so that threads contend for the same BDD nodes
+    NetworkFactory nf = new NetworkFactory();
+    SortedMap<String, Configuration> configs = new TreeMap<>();
+    for (int n = 0; n < 16; n++) {
+      Configuration c =
+          nf.configurationBuilder()
+              .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+              .setHostname("n" + n)
+              .build();
+      nf.vrfBuilder().setOwner(c).build();
+      for (int a = 0; a < 8; a++) {
+        ImmutableList.Builder<AclLine> lines = ImmutableList.builder();
+        for (int l = 0; l < 32; l++) {
+          Prefix dst = Prefix.create(Ip.create((long) (a + l) << 24), 8 + (n + l) % 24);
+          Prefix src = Prefix.create(Ip.create((long) (n * l) << 16), 16);
+          lines.add(
+              l % 3 == 0
+                  ? ExprAclLine.rejecting(and(matchDst(dst), matchSrc(src)))
+                  : accepting(matchDst(dst)));
+        }
+        nf.aclBuilder().setOwner(c).setName("acl" + a).setLines(lines.build()).build();
+      }
+      configs.put(c.getHostname(), c);
+    }
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+
+    for (int i = 0; i < 4; i++) {
+      BDDPacket pkt = BDDPacket.createConcurrent();
+      BDDReachabilityAnalysisFactory factory =
+          new BDDReachabilityAnalysisFactory(
+              pkt,
+              configs,
+              dataPlane.getForwardingAnalysis(),
+              new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+              false,
+              false);
+      for (Configuration c : configs.values()) {
+        // Converted again by a single thread, on the same packet
+        IpAccessListToBdd aclToBdd =
+            new MemoizedIpAccessListToBdd(
+                pkt, BDDSourceManager.empty(pkt), c.getIpAccessLists(), c.getIpSpaces());
+        for (IpAccessList acl : c.getIpAccessLists().values()) {
+          assertThat(
+              factory.getAclPermitBdds().get(c.getHostname()).get(acl.getName()).get(),
+              equalTo(aclToBdd.toBdd(acl)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReuseStoredForwardingBdds() throws IOException {
+    SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            _pkt,
+            configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false);
+    assertThat(factory.getReusedForwardingBdds(), equalTo(0));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BDDNodeStore.write(factory.getForwardingBdds(), out);
+
+    // Load the stored BDDs into a new packet, as a later question would
+    BDDPacket pkt = new BDDPacket();
+    Map<String, BDD> stored =
+        BDDNodeStore.read(pkt.getFactory(), ByteBuffer.wrap(out.toByteArray()));
+    BDDReachabilityAnalysisFactory reusingFactory =
+        new BDDReachabilityAnalysisFactory(
+            pkt,
+            configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false,
+            stored);
+    BDDReachabilityAnalysisFactory rebuiltFactory =
+        new BDDReachabilityAnalysisFactory(
+            pkt,
+            configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false);
+    // all but the destination IP variables, which are used for validation
+    assertThat(reusingFactory.getReusedForwardingBdds(), equalTo(stored.size() - 1));
+    assertThat(reusingFactory.getForwardingBdds(), equalTo(rebuiltFactory.getForwardingBdds()));
+    assertThat(reusingFactory.getIfaceAcceptBDDs(), equalTo(rebuiltFactory.getIfaceAcceptBDDs()));
+  }
+
+  @Test
+  public void testStoredForwardingBddsIgnoredForDifferentVariables() throws IOException {
+    SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+    // a source IP BDD is not the conjunction of the destination IP variables
+    Map<String, BDD> stored =
+        ImmutableMap.of("dstIpVars", _pkt.getSrcIpSpaceToBDD().toBDD(Ip.parse("1.1.1.1")));
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            _pkt,
+            configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false,
+            stored);
+    assertThat(factory.getReusedForwardingBdds(), equalTo(0));
+  }
+
   @Test
   public void testAnalysisUseInterfaceRootsParam() throws IOException {
     SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
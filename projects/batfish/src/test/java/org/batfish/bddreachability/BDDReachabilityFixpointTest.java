@@ -0,0 +1,122 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDReachabilityUtils.backwardFixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
+import static org.batfish.bddreachability.BDDReachabilityUtils.forwardFixpoint;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Table;
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.symbolic.state.NodeAccept;
+import org.batfish.symbolic.state.StateExpr;
+import org.junit.Test;
+
+/** Tests of {@link BDDReachabilityFixpoint}. */
+public final class BDDReachabilityFixpointTest {
+  private final BDDPacket _pkt = new BDDPacket();
+
+  private static final StateExpr A = new NodeAccept("A");
+  private static final StateExpr B = new NodeAccept("B");
+  private static final StateExpr C = new NodeAccept("C");
+  private static final StateExpr C2 = new NodeAccept("C2");
+  private static final StateExpr D = new NodeAccept("D");
+  private static final StateExpr E = new NodeAccept("E");
+
+  @Test
+  public void testTopologicalOrder() {
+    // Two paths of different lengths from A to D. D is only visited once both have arrived.
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD ac = _pkt.getDstIp().value(2);
+    BDD one = _pkt.getFactory().one();
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(A, B, ab),
+                new Edge(B, D, one),
+                new Edge(A, C, ac),
+                new Edge(C, C2, one),
+                new Edge(C2, D, one),
+                new Edge(D, E, one)));
+
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(A, one);
+    BDDReachabilityFixpoint.Stats stats = forwardFixpoint(edges, reachable);
+
+    BDD abOrAc = ab.or(ac);
+    assertThat(
+        reachable, equalTo(ImmutableMap.of(A, one, B, ab, C, ac, C2, ac, D, abOrAc, E, abOrAc)));
+    assertThat(stats.getComponents(), equalTo(6));
+    assertThat(stats.getStateVisits(), equalTo(6L));
+    assertThat(stats.getTraversals(), equalTo(6L));
+    assertThat(stats.getEdgeTraversals().get(D, E), equalTo(1));
+  }
+
+  @Test
+  public void testLoop() {
+    // A -> B <-> C -> D, where the loop adds nothing after the first pass.
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD one = _pkt.getFactory().one();
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(A, B, ab), new Edge(B, C, one), new Edge(C, B, one), new Edge(C, D, one)));
+
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(A, one);
+    BDDReachabilityFixpoint.Stats stats = forwardFixpoint(edges, reachable);
+
+    assertThat(reachable, equalTo(ImmutableMap.of(A, one, B, ab, C, ab, D, ab)));
+    // {A}, {B, C}, {D}
+    assertThat(stats.getComponents(), equalTo(3));
+    assertThat(stats.getEdgeTraversals().get(C, B), equalTo(1));
+    assertThat(stats.getEdgeTraversals().get(C, D), equalTo(1));
+  }
+
+  @Test
+  public void testLoopPropagatesDeltas() {
+    // A -> B <-> C, and D -> B. Each arrival at B is propagated around the loop once.
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD db = _pkt.getDstIp().value(2);
+    BDD one = _pkt.getFactory().one();
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(A, B, ab), new Edge(D, B, db), new Edge(B, C, one), new Edge(C, B, one)));
+
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(A, one);
+    reachable.put(D, one);
+    BDDReachabilityFixpoint.Stats stats = forwardFixpoint(edges, reachable);
+
+    BDD abOrDb = ab.or(db);
+    assertThat(reachable, equalTo(ImmutableMap.of(A, one, B, abOrDb, C, abOrDb, D, one)));
+    // A and D are both upstream of the loop, so their deltas are merged before B is visited.
+    assertThat(stats.getEdgeTraversals().get(B, C), equalTo(1));
+    assertThat(stats.getEdgeTraversals().get(C, B), equalTo(1));
+  }
+
+  @Test
+  public void testBackward() {
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD bc = _pkt.getSrcIp().value(1);
+    BDD one = _pkt.getFactory().one();
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(ImmutableList.of(new Edge(A, B, ab), new Edge(B, C, bc)));
+
+    Map<StateExpr, BDD> reverseReachable = new HashMap<>();
+    reverseReachable.put(C, one);
+    BDDReachabilityFixpoint.Stats stats = backwardFixpoint(edges, reverseReachable);
+
+    assertThat(reverseReachable, equalTo(ImmutableMap.of(A, ab.and(bc), B, bc, C, one)));
+    // counters are in the direction of traversal
+    assertThat(stats.getEdgeTraversals().get(C, B), equalTo(1));
+    assertThat(stats.getEdgeTraversals().get(B, A), equalTo(1));
+  }
+}
@@ -0,0 +1,120 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDReachabilityUtils.backwardFixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.forwardFixpoint;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Table;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.symbolic.state.NodeAccept;
+import org.batfish.symbolic.state.StateExpr;
+import org.junit.Test;
+
+/** Tests of {@link BDDReachabilityGraph}. */
+public final class BDDReachabilityGraphTest {
+  private final BDDPacket _pkt = new BDDPacket();
+
+  private static final StateExpr A = new NodeAccept("A");
+  private static final StateExpr B = new NodeAccept("B");
+  private static final StateExpr C = new NodeAccept("C");
+  private static final StateExpr D = new NodeAccept("D");
+
+  @Test
+  public void testCreate() {
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD bc = _pkt.getDstIp().value(2);
+    BDD ac = _pkt.getDstIp().value(3);
+    BDDReachabilityGraph graph =
+        BDDReachabilityGraph.create(
+            Stream.of(new Edge(A, B, ab), new Edge(B, C, bc), new Edge(A, C, ac)));
+
+    assertThat(graph.getNumStates(), equalTo(3));
+    assertThat(graph.getNumEdges(), equalTo(3));
+    assertThat(graph.getId(D), equalTo(-1));
+
+    int a = graph.getId(A);
+    int c = graph.getId(C);
+    assertThat(graph.getState(a), equalTo(A));
+    assertThat(graph.forwardStart(a + 1) - graph.forwardStart(a), equalTo(2));
+    assertThat(graph.forwardStart(c + 1) - graph.forwardStart(c), equalTo(0));
+    assertThat(graph.reverseStart(a + 1) - graph.reverseStart(a), equalTo(0));
+    assertThat(graph.reverseStart(c + 1) - graph.reverseStart(c), equalTo(2));
+    for (int p = graph.reverseStart(c); p < graph.reverseStart(c + 1); p++) {
+      assertThat(graph.target(graph.reverseEdge(p)), equalTo(c));
+    }
+
+    // acyclic, so every state is its own component, in topological order
+    assertThat(graph.getNumComponents(), equalTo(3));
+    assertThat(graph.componentOrder(a), lessThan(graph.componentOrder(graph.getId(B))));
+    assertThat(graph.componentOrder(graph.getId(B)), lessThan(graph.componentOrder(c)));
+  }
+
+  @Test
+  public void testParallelEdgesMerged() {
+    BDD ab1 = _pkt.getDstIp().value(1);
+    BDD ab2 = _pkt.getDstIp().value(2);
+    BDDReachabilityGraph graph =
+        BDDReachabilityGraph.create(Stream.of(new Edge(A, B, ab1), new Edge(A, B, ab2)));
+
+    assertThat(graph.getNumEdges(), equalTo(1));
+    BDD one = _pkt.getFactory().one();
+    assertThat(graph.transition(0).transitForward(one), equalTo(ab1.or(ab2)));
+  }
+
+  @Test
+  public void testComponents() {
+    BDD one = _pkt.getFactory().one();
+    BDDReachabilityGraph graph =
+        BDDReachabilityGraph.create(
+            Stream.of(
+                new Edge(A, B, one),
+                new Edge(B, C, one),
+                new Edge(C, B, one),
+                new Edge(C, D, one)));
+
+    // {A}, {B, C}, {D}
+    assertThat(graph.getNumComponents(), equalTo(3));
+    assertThat(graph.componentOrder(graph.getId(B)), equalTo(graph.componentOrder(graph.getId(C))));
+  }
+
+  @Test
+  public void testToForwardEdgeTable() {
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD bc = _pkt.getDstIp().value(2);
+    Table<StateExpr, StateExpr, Transition> table =
+        BDDReachabilityGraph.create(Stream.of(new Edge(A, B, ab), new Edge(B, C, bc)))
+            .toForwardEdgeTable();
+
+    BDDReachabilityGraph graph = BDDReachabilityGraph.create(table);
+    assertThat(graph.toForwardEdgeTable(), equalTo(table));
+    assertThat(table.size(), equalTo(2));
+    assertThat(table.get(B, C).transitForward(_pkt.getFactory().one()), equalTo(bc));
+  }
+
+  @Test
+  public void testFixpoints() {
+    BDD ab = _pkt.getDstIp().value(1);
+    BDD bc = _pkt.getSrcIp().value(1);
+    BDD one = _pkt.getFactory().one();
+    BDDReachabilityGraph graph =
+        BDDReachabilityGraph.create(Stream.of(new Edge(A, B, ab), new Edge(B, C, bc)));
+
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(A, one);
+    forwardFixpoint(graph, reachable);
+    assertThat(reachable, equalTo(ImmutableMap.of(A, one, B, ab, C, ab.and(bc))));
+
+    Map<StateExpr, BDD> reverseReachable = new HashMap<>();
+    reverseReachable.put(C, one);
+    backwardFixpoint(graph, reverseReachable);
+    assertThat(reverseReachable, equalTo(ImmutableMap.of(A, ab.and(bc), B, bc, C, one)));
+  }
+}
@@ -0,0 +1,114 @@
+package org.batfish.dataplane;
+
+import static org.batfish.datamodel.ResolutionRestriction.alwaysTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Random;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.CompiledFib;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibImpl;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.dataplane.rib.Rib;
+import org.junit.Test;
+
+/** Tests of {@link CompiledFib}. */
+public final class CompiledFibTest {
+
+  private static void addConnected(Rib rib, String prefix, String iface) {
+    rib.mergeRoute(
+        new AnnotatedRoute<AbstractRoute>(
+            new ConnectedRoute(Prefix.parse(prefix), iface), Configuration.DEFAULT_VRF_NAME));
+  }
+
+  private static void addStatic(Rib rib, Prefix network, Ip nextHop) {
+    rib.mergeRoute(
+        new AnnotatedRoute<AbstractRoute>(
+            StaticRoute.testBuilder()
+                .setNetwork(network)
+                .setNextHopIp(nextHop)
+                .setAdministrativeCost(1)
+                .build(),
+            Configuration.DEFAULT_VRF_NAME));
+  }
+
+  @Test
+  public void testEmpty() {
+    FibImpl fib = new FibImpl(new Rib(), alwaysTrue());
+    assertThat(fib.getCompiled().get(Ip.parse("1.2.3.4")), empty());
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    Rib rib = new Rib();
+    addConnected(rib, "0.0.0.0/0", "default");
+    addConnected(rib, "10.0.0.0/8", "eth8");
+    addConnected(rib, "10.1.0.0/16", "eth16");
+    addConnected(rib, "10.1.1.0/31", "eth31");
+    addConnected(rib, "10.1.1.1/32", "eth32");
+    addConnected(rib, "255.255.255.255/32", "last");
+    FibImpl fib = new FibImpl(rib, alwaysTrue());
+    Fib compiled = fib.getCompiled();
+    for (String ip :
+        new String[] {
+          "0.0.0.0",
+          "9.255.255.255",
+          "10.0.0.0",
+          "10.1.0.0",
+          "10.1.1.0",
+          "10.1.1.1",
+          "10.1.1.2",
+          "10.2.0.0",
+          "255.255.255.254",
+          "255.255.255.255"
+        }) {
+      assertThat(ip, compiled.get(Ip.parse(ip)), equalTo(fib.get(Ip.parse(ip))));
+    }
+  }
+
+  @Test
+  public void testRandomRoutes() {
+    Random random = new Random(0);
+    Rib rib = new Rib();
+    for (int i = 0; i < 4; i++) {
+      addConnected(rib, "100.64.0." + 4 * i + "/30", "eth" + i);
+    }
+    for (int i = 0; i < 2000; i++) {
+      Prefix network = Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), random.nextInt(33));
+      addStatic(rib, network, Ip.parse("100.64.0." + (4 * random.nextInt(4) + 1)));
+    }
+    FibImpl fib = new FibImpl(rib, alwaysTrue());
+    Fib compiled = fib.getCompiled();
+    for (Prefix prefix :
+        rib.getTypedRoutes().stream().map(r -> r.getNetwork()).toArray(Prefix[]::new)) {
+      // Check the boundaries of each prefix and the addresses just outside it.
+      long start = prefix.getStartIp().asLong();
+      long end = prefix.getEndIp().asLong();
+      for (long ip : new long[] {start, end, start - 1, end + 1}) {
+        if (ip >= 0 && ip <= 0xFFFFFFFFL) {
+          Ip addr = Ip.create(ip);
+          assertThat(addr.toString(), compiled.get(addr), equalTo(fib.get(addr)));
+        }
+      }
+    }
+    for (int i = 0; i < 10000; i++) {
+      Ip addr = Ip.create(random.nextInt() & 0xFFFFFFFFL);
+      assertThat(addr.toString(), compiled.get(addr), equalTo(fib.get(addr)));
+    }
+    assertThat(compiled.allEntries(), equalTo(fib.allEntries()));
+  }
+
+  @Test
+  public void testMemoized() {
+    FibImpl fib = new FibImpl(new Rib(), alwaysTrue());
+    assertThat(fib.getCompiled(), sameInstance(fib.getCompiled()));
+  }
+}
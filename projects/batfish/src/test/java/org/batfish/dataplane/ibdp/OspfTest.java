@@ -11,6 +11,8 @@ import static org.batfish.datamodel.ospf.OspfAreaSummary.SummaryRouteBehavior.NO
 import static org.batfish.datamodel.ospf.OspfTopologyUtils.computeOspfTopology;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
@@ -168,6 +170,38 @@ public class OspfTest {
       Long maxMetricTransitLinks,
       @Nullable SummaryRouteBehavior summaryR1L0Behavior,
       Long summarizeR1L0Metric) {
+    return getOspfRoutes(
+        areaA,
+        areaB,
+        areaC,
+        areaD,
+        areaE,
+        areaF,
+        areaG,
+        maxMetricExternalNetworks,
+        maxMetricStubNetworks,
+        maxMetricSummaryNetworks,
+        maxMetricTransitLinks,
+        summaryR1L0Behavior,
+        summarizeR1L0Metric,
+        new IncrementalDataPlaneSettings());
+  }
+
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfRoutes(
+      long areaA,
+      long areaB,
+      long areaC,
+      long areaD,
+      long areaE,
+      long areaF,
+      long areaG,
+      Long maxMetricExternalNetworks,
+      Long maxMetricStubNetworks,
+      Long maxMetricSummaryNetworks,
+      Long maxMetricTransitLinks,
+      @Nullable SummaryRouteBehavior summaryR1L0Behavior,
+      Long summarizeR1L0Metric,
+      IncrementalDataPlaneSettings settings) {
 
     String l0Name = "Loopback0";
     String l1Name = "Loopback1";
@@ -375,7 +409,7 @@ public class OspfTest {
             .put(c3.getHostname(), c3)
             .put(c4.getHostname(), c4)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
     OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configurations));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
@@ -408,6 +442,15 @@ public class OspfTest {
    */
   private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfStubBehavior(
       boolean noSummaryStub1, boolean noSummaryNssa2, OspfDefaultOriginateType nssaDefaultType) {
+    return getOspfStubBehavior(
+        noSummaryStub1, noSummaryNssa2, nssaDefaultType, new IncrementalDataPlaneSettings());
+  }
+
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfStubBehavior(
+      boolean noSummaryStub1,
+      boolean noSummaryNssa2,
+      OspfDefaultOriginateType nssaDefaultType,
+      IncrementalDataPlaneSettings settings) {
     String r0Name = "r0";
     String r1Name = "r1";
     String r2Name = "r2";
@@ -612,7 +655,7 @@ public class OspfTest {
             .put(r5.getHostname(), r5)
             .put(r6.getHostname(), r6)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
     OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configurations));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
@@ -1275,6 +1318,147 @@ public class OspfTest {
     assertNoRoute(routesWithSummaries, "r3", Prefix.parse("10.10.10.10/32"));
   }
 
+  private static IncrementalDataPlaneSettings spfSettings() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_OSPF_SPF, true);
+    return settings;
+  }
+
+  @Test
+  public void testOspfSpfMatchesIterative() {
+    long[][] areaAssignments = {
+      {0L, 0L, 0L, 0L, 0L, 0L, 0L},
+      {1L, 1L, 0L, 0L, 0L, 0L, 0L},
+      {0L, 0L, 1L, 1L, 1L, 1L, 1L},
+      {1L, 1L, 0L, 0L, 0L, 2L, 2L},
+      {0L, 0L, 1L, 1L, 1L, 2L, 2L},
+    };
+    for (long[] areas : areaAssignments) {
+      for (Long maxMetric : new Long[] {null, MAX_METRIC_TRANSIT_LINKS}) {
+        assertThat(
+            getOspfRoutes(
+                areas[0],
+                areas[1],
+                areas[2],
+                areas[3],
+                areas[4],
+                areas[5],
+                areas[6],
+                MAX_METRIC_EXTERNAL_NETWORKS,
+                maxMetric,
+                null,
+                maxMetric,
+                null,
+                null,
+                spfSettings()),
+            equalTo(
+                getOspfRoutes(
+                    areas[0],
+                    areas[1],
+                    areas[2],
+                    areas[3],
+                    areas[4],
+                    areas[5],
+                    areas[6],
+                    MAX_METRIC_EXTERNAL_NETWORKS,
+                    maxMetric,
+                    null,
+                    maxMetric,
+                    null,
+                    null)));
+      }
+    }
+  }
+
+  @Test
+  public void testOspfSpfMatchesIterativeWithSummaries() {
+    for (SummaryRouteBehavior behavior :
+        new SummaryRouteBehavior[] {
+          ADVERTISE_AND_INSTALL_DISCARD,
+          NOT_ADVERTISE_AND_INSTALL_DISCARD,
+          NOT_ADVERTISE_AND_NO_DISCARD
+        }) {
+      assertThat(
+          getOspfRoutes(
+              1L, 1L, 0L, 0L, 0L, 0L, 0L, null, null, null, null, behavior, null, spfSettings()),
+          equalTo(
+              getOspfRoutes(1L, 1L, 0L, 0L, 0L, 0L, 0L, null, null, null, null, behavior, null)));
+    }
+  }
+
+  @Test
+  public void testOspfSpfMatchesIterativeStubBehavior() {
+    for (OspfDefaultOriginateType nssaDefaultType : OspfDefaultOriginateType.values()) {
+      for (boolean noSummary : new boolean[] {false, true}) {
+        assertThat(
+            getOspfStubBehavior(noSummary, noSummary, nssaDefaultType, spfSettings()),
+            equalTo(getOspfStubBehavior(noSummary, noSummary, nssaDefaultType)));
+      }
+    }
+  }
+
+  private static IncrementalDataPlaneSettings worklistSettings() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST, true);
+    return settings;
+  }
+
+  @Test
+  public void testOspfWorklistMatchesFullSchedule() {
+    // Redistributed routes settle on some nodes before others, so later rounds skip those nodes
+    long[][] areaAssignments = {
+      {0L, 0L, 0L, 0L, 0L, 0L, 0L},
+      {1L, 1L, 0L, 0L, 0L, 0L, 0L},
+      {0L, 0L, 1L, 1L, 1L, 1L, 1L},
+      {1L, 1L, 0L, 0L, 0L, 2L, 2L},
+      {0L, 0L, 1L, 1L, 1L, 2L, 2L},
+    };
+    for (long[] areas : areaAssignments) {
+      assertThat(
+          getOspfRoutes(
+              areas[0],
+              areas[1],
+              areas[2],
+              areas[3],
+              areas[4],
+              areas[5],
+              areas[6],
+              MAX_METRIC_EXTERNAL_NETWORKS,
+              null,
+              null,
+              null,
+              null,
+              null,
+              worklistSettings()),
+          equalTo(
+              getOspfRoutes(
+                  areas[0],
+                  areas[1],
+                  areas[2],
+                  areas[3],
+                  areas[4],
+                  areas[5],
+                  areas[6],
+                  MAX_METRIC_EXTERNAL_NETWORKS,
+                  null,
+                  null,
+                  null,
+                  null,
+                  null)));
+    }
+  }
+
+  @Test
+  public void testOspfWorklistMatchesFullScheduleStubBehavior() {
+    for (OspfDefaultOriginateType nssaDefaultType : OspfDefaultOriginateType.values()) {
+      for (boolean noSummary : new boolean[] {false, true}) {
+        assertThat(
+            getOspfStubBehavior(noSummary, noSummary, nssaDefaultType, worklistSettings()),
+            equalTo(getOspfStubBehavior(noSummary, noSummary, nssaDefaultType)));
+      }
+    }
+  }
+
   @Rule public TemporaryFolder _folder = new TemporaryFolder();
 
   @Test
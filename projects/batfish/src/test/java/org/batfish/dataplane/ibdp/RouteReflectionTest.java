@@ -4,6 +4,7 @@ import static org.batfish.datamodel.bgp.LocalOriginationTypeTieBreaker.NO_PREFER
 import static org.batfish.datamodel.bgp.NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP;
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasProtocol;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
@@ -13,6 +14,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import java.util.Collection;
 import java.util.Set;
 import java.util.SortedMap;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
@@ -44,7 +46,13 @@ import org.batfish.datamodel.routing_policy.statement.If;
 import org.batfish.datamodel.routing_policy.statement.Statements;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
+/** Tests of BGP route reflection, with and without the EGP worklist. */
+@RunWith(Parameterized.class)
 public class RouteReflectionTest {
 
   private static final Prefix AS1_PREFIX = Prefix.parse("1.0.0.0/8");
@@ -77,6 +85,13 @@ public class RouteReflectionTest {
     assertThat(routes, not(hasItem(hasPrefix(prefix))));
   }
 
+  @Parameters
+  public static Collection<Object[]> data() {
+    return ImmutableList.copyOf(new Boolean[][] {{false}, {true}});
+  }
+
+  @Parameter public boolean _worklist;
+
   private BgpAdvertisement.Builder _ab;
   private Configuration.Builder _cb;
   private RoutingPolicy.Builder _defaultExportPolicyBuilder;
@@ -87,11 +102,26 @@ public class RouteReflectionTest {
   private BgpProcess.Builder _pb;
   private Vrf.Builder _vb;
 
+  /** Default settings, with the EGP worklist enabled for the worklist run of the tests. */
+  private IncrementalDataPlaneSettings settings() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST, _worklist);
+    return settings;
+  }
+
   /*
    * See documentation of calling functions for information description of produced network
    */
   private SortedMap<String, SortedMap<String, Set<AbstractRoute>>> generateRoutesOneReflector(
       boolean edge1RouteReflectorClient, boolean edge2RouteReflectorClient) {
+    return generateRoutesOneReflector(
+        edge1RouteReflectorClient, edge2RouteReflectorClient, settings());
+  }
+
+  private SortedMap<String, SortedMap<String, Set<AbstractRoute>>> generateRoutesOneReflector(
+      boolean edge1RouteReflectorClient,
+      boolean edge2RouteReflectorClient,
+      IncrementalDataPlaneSettings settings) {
     Ip as1PeeringIp = Ip.parse("10.12.11.1");
     Ip edge1EbgpIfaceIp = Ip.parse("10.12.11.2");
     Ip edge1IbgpIfaceIp = Ip.parse("10.1.12.1");
@@ -207,7 +237,7 @@ public class RouteReflectionTest {
             .put(rr.getHostname(), rr)
             .put(edge2.getHostname(), edge2)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     ComputeDataPlaneResult dpResult =
         engine.computeDataPlane(
@@ -337,7 +367,7 @@ public class RouteReflectionTest {
             .put(rr1.getHostname(), rr1)
             .put(rr2.getHostname(), rr2)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings());
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
         (IncrementalDataPlane)
@@ -472,4 +502,19 @@ public class RouteReflectionTest {
     assertIbgpRoute(routes, RR_NAME, AS3_PREFIX);
     assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
   }
+
+  @Test
+  public void testWorklistMatchesFullSchedule() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST, true);
+
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> worklistRoutes =
+        generateRoutesOneReflector(true, true, settings);
+    // Reset builders so that generated interface names match
+    setup();
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> fullRoutes =
+        generateRoutesOneReflector(true, true, new IncrementalDataPlaneSettings());
+
+    assertThat(worklistRoutes, equalTo(fullRoutes));
+  }
 }
@@ -0,0 +1,373 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.TunnelTopology;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpLink;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RipProcess;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.ospf.OspfNeighborConfigId;
+import org.batfish.datamodel.ospf.OspfSessionProperties;
+import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.route.nh.NextHopDiscard;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.FileBasedStorage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link WarmStart} and warm-started dataplane computation. */
+public final class WarmStartTest {
+
+  /** A node with discard static routes to the given prefixes. */
+  private static Configuration config(String hostname, String... prefixes) {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
+    for (String prefix : prefixes) {
+      vrf.getStaticRoutes()
+          .add(
+              StaticRoute.testBuilder()
+                  .setNetwork(Prefix.parse(prefix))
+                  .setNextHop(NextHopDiscard.instance())
+                  .setAdministrativeCost(1)
+                  .build());
+    }
+    return c;
+  }
+
+  private static Map<String, Configuration> configs(Configuration... configs) {
+    ImmutableMap.Builder<String, Configuration> result = ImmutableMap.builder();
+    for (Configuration c : configs) {
+      result.put(c.getHostname(), c);
+    }
+    return result.build();
+  }
+
+  /** Nodes a and b are connected, c is not connected to anything. */
+  private static final TopologyContext TOPOLOGY =
+      TopologyContext.builder()
+          .setLayer3Topology(new Topology(ImmutableSortedSet.of(Edge.of("a", "i", "b", "j"))))
+          .build();
+
+  private static WarmStart warmStart(Map<String, Configuration> configs) {
+    return WarmStart.create(configs, TOPOLOGY, ImmutableMap.of(), ImmutableSet.of());
+  }
+
+  @Test
+  public void testGetReusableNodesUnchanged() {
+    Map<String, String> parent =
+        warmStart(configs(config("a"), config("b"), config("c"))).getFingerprints();
+    assertThat(
+        warmStart(configs(config("a"), config("b"), config("c"))).getReusableNodes(parent),
+        containsInAnyOrder("a", "b", "c"));
+  }
+
+  @Test
+  public void testGetReusableNodesChanged() {
+    Map<String, String> parent =
+        warmStart(configs(config("a"), config("b"), config("c"))).getFingerprints();
+    // nodes that only share a link, with no session over it, do not depend on each other
+    assertThat(
+        warmStart(configs(config("a"), config("b", "10.0.0.0/8"), config("c")))
+            .getReusableNodes(parent),
+        containsInAnyOrder("a", "c"));
+    assertThat(
+        warmStart(configs(config("a"), config("b"), config("c", "10.0.0.0/8")))
+            .getReusableNodes(parent),
+        containsInAnyOrder("a", "b"));
+    // a new node changes nothing else, but losing a neighbor changes a node's links
+    assertThat(
+        warmStart(configs(config("a"), config("b"), config("c"), config("d")))
+            .getReusableNodes(parent),
+        containsInAnyOrder("a", "b", "c"));
+    assertThat(
+        warmStart(configs(config("a"), config("c"))).getReusableNodes(parent),
+        containsInAnyOrder("c"));
+  }
+
+  private static OspfNeighborConfigId ospfNeighbor(String hostname) {
+    return new OspfNeighborConfigId(
+        hostname, DEFAULT_VRF_NAME, "ospf", "i", ConcreteInterfaceAddress.parse("10.0.0.1/24"));
+  }
+
+  /**
+   * Nodes a, b, c, and d are in a chain of links. a and b are OSPF neighbors, and RIP runs on b,
+   * c, and d.
+   */
+  private static final TopologyContext SESSION_TOPOLOGY;
+
+  static {
+    MutableValueGraph<OspfNeighborConfigId, OspfSessionProperties> ospf =
+        ValueGraphBuilder.directed().build();
+    OspfSessionProperties session =
+        new OspfSessionProperties(0, new IpLink(Ip.parse("10.0.0.1"), Ip.parse("10.0.0.2")));
+    ospf.putEdgeValue(ospfNeighbor("a"), ospfNeighbor("b"), session);
+    ospf.putEdgeValue(ospfNeighbor("b"), ospfNeighbor("a"), session);
+    SESSION_TOPOLOGY =
+        TopologyContext.builder()
+            .setLayer3Topology(
+                new Topology(
+                    ImmutableSortedSet.of(
+                        Edge.of("a", "i", "b", "i"),
+                        Edge.of("b", "i", "a", "i"),
+                        Edge.of("b", "j", "c", "j"),
+                        Edge.of("c", "j", "b", "j"),
+                        Edge.of("c", "k", "d", "k"),
+                        Edge.of("d", "k", "c", "k"))))
+            .setOspfTopology(new OspfTopology(ospf))
+            .build();
+  }
+
+  /** A node running RIP, which redistributes from the main RIB if {@code exportPolicy} is set. */
+  private static Configuration ripConfig(String hostname, @Nullable String exportPolicy) {
+    Configuration c = config(hostname);
+    RipProcess rip = new RipProcess();
+    rip.setExportPolicy(exportPolicy);
+    c.getDefaultVrf().setRipProcess(rip);
+    return c;
+  }
+
+  private static Set<String> reusableSessionNodes(
+      Map<String, Configuration> parentConfigs, Map<String, Configuration> configs) {
+    Map<String, String> parent =
+        WarmStart.create(parentConfigs, SESSION_TOPOLOGY, ImmutableMap.of(), ImmutableSet.of())
+            .getFingerprints();
+    return WarmStart.create(configs, SESSION_TOPOLOGY, ImmutableMap.of(), ImmutableSet.of())
+        .getReusableNodes(parent);
+  }
+
+  @Test
+  public void testGetReusableNodesFollowsSessions() {
+    Map<String, Configuration> parent =
+        configs(config("a"), ripConfig("b", null), ripConfig("c", null), ripConfig("d", null));
+    // a change propagates along sessions of each protocol
+    assertThat(
+        reusableSessionNodes(
+            parent,
+            configs(
+                config("a"),
+                ripConfig("b", null),
+                ripConfig("c", null),
+                ripConfig("d", "export"))),
+        containsInAnyOrder("a"));
+    assertThat(
+        reusableSessionNodes(
+            parent,
+            configs(
+                config("a", "10.0.0.0/8"),
+                ripConfig("b", null),
+                ripConfig("c", null),
+                ripConfig("d", null))),
+        containsInAnyOrder("c", "d"));
+  }
+
+  @Test
+  public void testGetReusableNodesFollowsRedistribution() {
+    Map<String, Configuration> parent =
+        configs(config("a"), ripConfig("b", "export"), ripConfig("c", null), ripConfig("d", null));
+    // OSPF routes from a reach RIP at b only because b redistributes them
+    assertThat(
+        reusableSessionNodes(
+            parent,
+            configs(
+                config("a", "10.0.0.0/8"),
+                ripConfig("b", "export"),
+                ripConfig("c", null),
+                ripConfig("d", null))),
+        empty());
+  }
+
+  @Test
+  public void testGetReusableNodesFollowsForwarding() {
+    TopologyContext topology =
+        TOPOLOGY.toBuilder()
+            .setTunnelTopology(
+                TunnelTopology.builder()
+                    .add(NodeInterfacePair.of("a", "t"), NodeInterfacePair.of("b", "t"))
+                    .build())
+            .build();
+    Map<String, String> parent =
+        WarmStart.create(
+                configs(config("a"), config("b"), config("c")),
+                topology,
+                ImmutableMap.of(),
+                ImmutableSet.of())
+            .getFingerprints();
+    // a tunnel depends on forwarding between its endpoints, which may change with either's FIB
+    assertThat(
+        WarmStart.create(
+                configs(config("a"), config("b", "10.0.0.0/8"), config("c")),
+                topology,
+                ImmutableMap.of(),
+                ImmutableSet.of())
+            .getReusableNodes(parent),
+        containsInAnyOrder("c"));
+  }
+
+  private static IncrementalDataPlaneSettings warmStartSettings() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WARM_START, true);
+    return settings;
+  }
+
+  private static final NetworkSnapshot SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  @Test
+  public void testWarmStartedDataPlane() {
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(warmStartSettings());
+    ComputeDataPlaneResult parent =
+        engine.computeDataPlane(
+            configs(config("a", "1.0.0.0/8"), config("b"), config("c", "3.0.0.0/8")),
+            TOPOLOGY,
+            ImmutableSet.of());
+    assertThat(
+        parent._dataPlane.getNodeFingerprints().keySet(), containsInAnyOrder("a", "b", "c"));
+
+    IbdpResult child =
+        (IbdpResult)
+            engine.computeDataPlane(
+                configs(config("a", "1.0.0.0/8"), config("b"), config("c", "4.0.0.0/8")),
+                TOPOLOGY,
+                ImmutableSet.of(),
+                parent._dataPlane);
+    // only c is recomputed
+    assertThat(child.getNodes().keySet(), containsInAnyOrder("c"));
+    assertThat(
+        child._dataPlane.getRibs().get("a"), sameInstance(parent._dataPlane.getRibs().get("a")));
+    assertThat(
+        child._dataPlane.getFibs().get("b"), sameInstance(parent._dataPlane.getFibs().get("b")));
+    assertThat(
+        child._dataPlane.getRibs().get("c").get(DEFAULT_VRF_NAME).getRoutes().stream()
+            .map(AbstractRoute::getNetwork)
+            .collect(ImmutableSet.toImmutableSet()),
+        equalTo(ImmutableSet.of(Prefix.parse("4.0.0.0/8"))));
+    assertThat(child._dataPlane.getRibs().keySet(), containsInAnyOrder("a", "b", "c"));
+    assertThat(child._dataPlane.getFibs().keySet(), containsInAnyOrder("a", "b", "c"));
+  }
+
+  @Test
+  public void testWarmStartedDataPlaneAcrossLink() {
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(warmStartSettings());
+    ComputeDataPlaneResult parent =
+        engine.computeDataPlane(
+            configs(config("a", "1.0.0.0/8"), config("b"), config("c")),
+            TOPOLOGY,
+            ImmutableSet.of());
+
+    IbdpResult child =
+        (IbdpResult)
+            engine.computeDataPlane(
+                configs(config("a", "1.0.0.0/8"), config("b", "2.0.0.0/8"), config("c")),
+                TOPOLOGY,
+                ImmutableSet.of(),
+                parent._dataPlane);
+    // b shares a link with a, but no session
+    assertThat(child.getNodes().keySet(), containsInAnyOrder("b"));
+    assertThat(
+        child._dataPlane.getFibs().get("a"), sameInstance(parent._dataPlane.getFibs().get("a")));
+    assertThat(
+        child._dataPlane.getRibs().get("b").get(DEFAULT_VRF_NAME).getRoutes().stream()
+            .map(AbstractRoute::getNetwork)
+            .collect(ImmutableSet.toImmutableSet()),
+        equalTo(ImmutableSet.of(Prefix.parse("2.0.0.0/8"))));
+  }
+
+  @Test
+  public void testWarmStartedFromStoredDataPlane() throws IOException {
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(warmStartSettings());
+    ComputeDataPlaneResult parent =
+        engine.computeDataPlane(
+            configs(config("a", "1.0.0.0/8"), config("b"), config("c", "3.0.0.0/8")),
+            TOPOLOGY,
+            ImmutableSet.of());
+    FileBasedStorage storage = new FileBasedStorage(_folder.getRoot().toPath(), null);
+    storage.storeDataPlane(parent._dataPlane, SNAPSHOT);
+    DataPlane stored = storage.loadDataPlane(SNAPSHOT);
+    assertThat(
+        stored.getNodeFingerprints(), equalTo(parent._dataPlane.getNodeFingerprints()));
+
+    IbdpResult child =
+        (IbdpResult)
+            engine.computeDataPlane(
+                configs(config("a", "1.0.0.0/8"), config("b"), config("c", "4.0.0.0/8")),
+                TOPOLOGY,
+                ImmutableSet.of(),
+                stored);
+    // only c is recomputed
+    assertThat(child.getNodes().keySet(), containsInAnyOrder("c"));
+    assertThat(
+        child._dataPlane.getRibs().get("a").get(DEFAULT_VRF_NAME).getRoutes().stream()
+            .map(AbstractRoute::getNetwork)
+            .collect(ImmutableSet.toImmutableSet()),
+        equalTo(ImmutableSet.of(Prefix.parse("1.0.0.0/8"))));
+  }
+
+  @Test
+  public void testWarmStartFailureFallsBackToColdStart() throws IOException {
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(warmStartSettings());
+    Map<String, Configuration> configs =
+        configs(config("a", "1.0.0.0/8"), config("b"), config("c", "3.0.0.0/8"));
+    ComputeDataPlaneResult parent = engine.computeDataPlane(configs, TOPOLOGY, ImmutableSet.of());
+    FileBasedStorage storage = new FileBasedStorage(_folder.getRoot().toPath(), null);
+    storage.storeDataPlane(parent._dataPlane, SNAPSHOT);
+    DataPlane stored = storage.loadDataPlane(SNAPSHOT);
+    // replacing the file makes reading the parent's routes fail
+    storage.storeDataPlane(parent._dataPlane, SNAPSHOT);
+
+    IbdpResult child =
+        (IbdpResult) engine.computeDataPlane(configs, TOPOLOGY, ImmutableSet.of(), stored);
+    assertThat(child.getNodes().keySet(), containsInAnyOrder("a", "b", "c"));
+    assertThat(
+        child._dataPlane.getNodeFingerprints(), equalTo(parent._dataPlane.getNodeFingerprints()));
+  }
+
+  @Test
+  public void testWarmStartDisabled() {
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    Map<String, Configuration> configs = configs(config("a"), config("b"), config("c"));
+    ComputeDataPlaneResult parent = engine.computeDataPlane(configs, TOPOLOGY, ImmutableSet.of());
+    assertThat(parent._dataPlane.getNodeFingerprints().keySet(), empty());
+
+    IbdpResult child =
+        (IbdpResult)
+            engine.computeDataPlane(configs, TOPOLOGY, ImmutableSet.of(), parent._dataPlane);
+    assertThat(child.getNodes().keySet(), containsInAnyOrder("a", "b", "c"));
+  }
+}
@@ -103,6 +103,7 @@ import org.batfish.datamodel.TcpFlagsMatchConditions;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.acl.AclLineMatchExprs;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.acl.MatchSrcInterface;
 import org.batfish.datamodel.acl.OriginatingFromDevice;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -262,6 +263,52 @@ public class TracerouteEngineImplTest {
     assertTrue(RoutingStep.class.isInstance(steps.get(1)));
   }
 
+  @Test
+  public void testStreamTraces() throws IOException {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration config =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    Vrf vrf = nf.vrfBuilder().setOwner(config).build();
+    Prefix prefix = Prefix.parse("1.0.0.0/8");
+    vrf.setStaticRoutes(
+        ImmutableSortedSet.of(
+            StaticRoute.testBuilder()
+                .setNetwork(prefix)
+                .setAdministrativeCost(1)
+                .setNextHopInterface(Interface.NULL_INTERFACE_NAME)
+                .build()));
+    SortedMap<String, Configuration> configs = ImmutableSortedMap.of(config.getHostname(), config);
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, _tempFolder);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+
+    // Enough flows for many chunks, in an order the engine does not sort into.
+    ImmutableList.Builder<Flow> flowsBuilder = ImmutableList.builder();
+    for (int i = 1000; i > 0; i--) {
+      flowsBuilder.add(
+          builder()
+              .setDstIp(Ip.create(prefix.getStartIp().asLong() + i))
+              .setIngressNode(config.getHostname())
+              .setIngressVrf(vrf.getName())
+              .build());
+    }
+    List<Flow> flows = flowsBuilder.build();
+    TracerouteEngine engine = batfish.getTracerouteEngine(snapshot);
+    ImmutableList.Builder<Flow> streamedFlows = ImmutableList.builder();
+    ImmutableMap.Builder<Flow, List<Trace>> streamedTraces = ImmutableMap.builder();
+    engine.streamTraces(
+        flows,
+        false,
+        (flow, traces) -> {
+          streamedFlows.add(flow);
+          streamedTraces.put(flow, traces);
+        });
+
+    assertThat(streamedFlows.build(), equalTo(flows));
+    assertThat(
+        streamedTraces.build(), equalTo(engine.computeTraces(ImmutableSet.copyOf(flows), false)));
+  }
+
   @Test
   public void testArpMultipleAccess() throws IOException {
     NetworkFactory nf = new NetworkFactory();
@@ -554,12 +601,13 @@ public class TracerouteEngineImplTest {
             .build();
 
     Flow flow = makeFlow();
+    CompiledIpAccessList compiledFilter = CompiledIpAccessList.compile(filter, ImmutableMap.of());
 
     FilterStep step =
         TracerouteUtils.createFilterStep(
             flow,
             iface1,
-            filter,
+            compiledFilter,
             FilterType.INGRESS_FILTER,
             ImmutableMap.of(filterName, filter),
             ImmutableMap.of(),
@@ -574,7 +622,7 @@ public class TracerouteEngineImplTest {
         TracerouteUtils.createFilterStep(
             flow,
             iface2,
-            filter,
+            compiledFilter,
             FilterType.INGRESS_FILTER,
             ImmutableMap.of(filterName, filter),
             ImmutableMap.of(),
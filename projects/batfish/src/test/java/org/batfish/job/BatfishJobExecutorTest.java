@@ -49,6 +49,27 @@ public class BatfishJobExecutorTest {
     assertEquals(output, Sets.newHashSet("result1", "result2"));
   }
 
+  @Test
+  public void testExecuteJobsSizeAware() {
+    Settings settings = new Settings();
+    settings.setSizeAwareJobs(true);
+
+    List<BfTestJob> jobs = new ArrayList<>();
+    jobs.add(new BfTestJob(settings, "small", 1L));
+    jobs.add(new BfTestJob(settings, "large", 100L));
+    jobs.add(new BfTestJob(settings, "medium", 10L));
+
+    Set<String> output = new HashSet<>();
+    BfTestAnswerElement ae = new BfTestAnswerElement();
+    BatfishJobExecutor.runJobsInExecutor(
+        settings, _logger, jobs, output, ae, false, TEST_EXECUTOR_DESC);
+
+    // jobs are started largest-first, and all complete
+    assertEquals(
+        Lists.newArrayList("large", "medium", "small"), Lists.transform(jobs, j -> j._testValue));
+    assertEquals(output, Sets.newHashSet("small", "medium", "large"));
+  }
+
   @Test
   public void testHandleJobResultSuccess() {
     Settings settings = new Settings();
@@ -121,10 +142,21 @@ public class BatfishJobExecutorTest {
   /** Class for Batfish test job */
   private class BfTestJob extends BatfishJob<BfTestResult> {
     private String _testValue;
+    private long _sizeHint;
 
     public BfTestJob(Settings settings, String testValue) {
+      this(settings, testValue, 0L);
+    }
+
+    public BfTestJob(Settings settings, String testValue, long sizeHint) {
       super(settings);
       _testValue = testValue;
+      _sizeHint = sizeHint;
+    }
+
+    @Override
+    public long getSizeHint() {
+      return _sizeHint;
     }
 
     @Override
@@ -1,14 +1,23 @@
 package org.batfish.job;
 
 import static org.batfish.job.ConvertConfigurationJob.finalizeConfiguration;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.VendorConversionException;
 import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
 import org.batfish.datamodel.AclAclLine;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
@@ -23,9 +32,13 @@ import org.batfish.datamodel.acl.AndMatchExpr;
 import org.batfish.datamodel.acl.MatchHeaderSpace;
 import org.batfish.datamodel.acl.NotMatchExpr;
 import org.batfish.datamodel.acl.OrMatchExpr;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.ConvertStatus;
 import org.batfish.datamodel.routing_policy.communities.CommunityMatchExprReference;
 import org.batfish.datamodel.transformation.Transformation;
 import org.batfish.job.ConvertConfigurationJob.CollectIpSpaceReferences;
+import org.batfish.representation.host.HostConfiguration;
+import org.batfish.vendor.VendorConfiguration;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -132,4 +145,50 @@ public final class ConvertConfigurationJobTest {
     _thrown.expectMessage(containsString("Undefined reference"));
     finalizeConfiguration(c, new Warnings());
   }
+
+  /** A {@link ConversionCache} that keeps serialized results in memory and counts stores. */
+  private static final class InMemoryConversionCache implements ConversionCache {
+    private final Map<String, byte[]> _results = new HashMap<>();
+    private int _stores;
+
+    @Override
+    public String getKey(VendorConfiguration vendorConfiguration) {
+      return vendorConfiguration.getFilename();
+    }
+
+    @Nullable
+    @Override
+    public ConversionResult load(String key) {
+      byte[] result = _results.get(key);
+      return result == null ? null : SerializationUtils.deserialize(result);
+    }
+
+    @Override
+    public void store(String key, ConversionResult result) {
+      _stores++;
+      _results.put(key, SerializationUtils.serialize(result));
+    }
+  }
+
+  @Test
+  public void testConversionReuse() {
+    Settings settings = new Settings();
+    settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false));
+    InMemoryConversionCache cache = new InMemoryConversionCache();
+
+    for (int i = 0; i < 2; i++) {
+      HostConfiguration host = new HostConfiguration();
+      host.setHostname("h1");
+      host.setFilename("hosts/h1.json");
+      ConvertConfigurationResult result =
+          new ConvertConfigurationJob(settings, null, null, host, "h1", cache).call();
+      assertThat(result.getConfigurations().keySet(), contains("h1"));
+      ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
+      result.applyTo(new HashMap<>(), settings.getLogger(), answerElement);
+      assertThat(answerElement.getConvertStatus(), hasEntry("h1", ConvertStatus.PASSED));
+      assertThat(answerElement.getFileMap().get("hosts/h1.json"), contains("h1"));
+    }
+    // the second conversion reused the result of the first
+    assertThat(cache._stores, equalTo(1));
+  }
 }
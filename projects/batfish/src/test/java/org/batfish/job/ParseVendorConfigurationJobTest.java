@@ -2,18 +2,29 @@ package org.batfish.job;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.common.util.Resources.readResource;
+import static org.batfish.datamodel.ConfigurationFormat.UNKNOWN;
 import static org.batfish.job.ParseVendorConfigurationJob.detectFormat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warnings;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
 import org.junit.Test;
@@ -22,6 +33,18 @@ import org.junit.Test;
 public class ParseVendorConfigurationJobTest {
   private static final String HOST_TESTCONFIGS_PREFIX = "org/batfish/job/host/";
 
+  private static ParseVendorConfigurationJob makeJob(
+      Map<String, String> fileTexts, ConfigurationFormat format) {
+    return new ParseVendorConfigurationJob(
+        new Settings(),
+        new NetworkSnapshot(new NetworkId("net"), new SnapshotId("ss")),
+        fileTexts,
+        new Warnings.Settings(false, false, false),
+        format,
+        HashMultimap.create(),
+        null);
+  }
+
   private static ParseVendorConfigurationResult parseHost(String resourcePath) {
     return new ParseVendorConfigurationJob(
             new Settings(),
@@ -34,6 +57,73 @@ public class ParseVendorConfigurationJobTest {
         .call();
   }
 
+  @Test
+  public void testParseStats() {
+    ParseVendorConfigurationResult result =
+        makeJob(ImmutableMap.of("file", "hostname r1\n"), ConfigurationFormat.CISCO_IOS).call();
+    assertThat(result.getFailureCause(), equalTo(null));
+    assertThat(result.getFileResults().get("file").getParseTreeSize(), greaterThan(0));
+
+    ParseVendorConfigurationAnswerElement ae = new ParseVendorConfigurationAnswerElement();
+    result.applyTo(new HashMap<>(), new BatfishLogger(BatfishLogger.LEVELSTR_INFO, false), ae);
+    assertThat(ae.getParseTimes(), hasEntry("file", result.getElapsedTime()));
+    assertThat(
+        ae.getParseTreeSizes(),
+        hasEntry("file", result.getFileResults().get("file").getParseTreeSize()));
+  }
+
+  @Test
+  public void testSizeHint() {
+    ParseVendorConfigurationJob job =
+        makeJob(ImmutableMap.of("a", "12345", "b", "123"), ConfigurationFormat.UNKNOWN);
+    assertThat(job.getSizeHint(), equalTo(8L));
+  }
+
+  @Test
+  public void testApplyHistoricParseTimes() {
+    ParseVendorConfigurationJob a = makeJob(ImmutableMap.of("a", "0123456789"), UNKNOWN);
+    ParseVendorConfigurationJob b = makeJob(ImmutableMap.of("b", "0123456789"), UNKNOWN);
+    ParseVendorConfigurationJob c = makeJob(ImmutableMap.of("c", Strings.repeat("x", 30)), UNKNOWN);
+    ParseVendorConfigurationJob.applyHistoricParseTimes(
+        ImmutableList.of(a, b, c), ImmutableMap.of("a", 100L, "b", 300L, "unrelated", 5L));
+
+    // a and b parsed at 20 characters per 400ms, so b is estimated three times as large as a
+    assertThat(a.getSizeHint(), equalTo(5L));
+    assertThat(b.getSizeHint(), equalTo(15L));
+    // c has no previous time, so keeps its length
+    assertThat(c.getSizeHint(), equalTo(30L));
+  }
+
+  @Test
+  public void testEstimateParseCosts() {
+    Map<String, Long> lengths = ImmutableMap.of("a", 10L, "b", 10L, "c", 30L, "d", 5L);
+    Map<Set<String>, Long> costs =
+        ParseVendorConfigurationJob.estimateParseCosts(
+            ImmutableList.of(ImmutableSet.of("a"), ImmutableSet.of("b"), ImmutableSet.of("c", "d")),
+            files -> files,
+            files -> files.stream().mapToLong(lengths::get).sum(),
+            ImmutableMap.of("a", 100L, "b", 300L));
+
+    // a and b parsed at 20 characters per 400ms; c and d have no previous time
+    assertThat(
+        costs,
+        equalTo(
+            ImmutableMap.of(
+                ImmutableSet.of("a"),
+                5L,
+                ImmutableSet.of("b"),
+                15L,
+                ImmutableSet.of("c", "d"),
+                35L)));
+  }
+
+  @Test
+  public void testApplyHistoricParseTimesNone() {
+    ParseVendorConfigurationJob a = makeJob(ImmutableMap.of("a", "0123456789"), UNKNOWN);
+    ParseVendorConfigurationJob.applyHistoricParseTimes(ImmutableList.of(a), ImmutableMap.of());
+    assertThat(a.getSizeHint(), equalTo(10L));
+  }
+
   @Test
   public void testHost() {
     ParseVendorConfigurationResult result = parseHost(HOST_TESTCONFIGS_PREFIX + "host.json");
@@ -0,0 +1,91 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.common.runtime.SnapshotRuntimeData;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.representation.host.HostConfiguration;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.StorageProvider;
+import org.batfish.vendor.ConversionContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link StorageConversionCache}. */
+public final class StorageConversionCacheTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static final NetworkId NETWORK = new NetworkId("network");
+
+  private Settings _settings;
+  private StorageProvider _storage;
+
+  @Before
+  public void setup() {
+    _settings = new Settings();
+    _settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false));
+    _storage = new FileBasedStorage(_folder.getRoot().toPath(), _settings.getLogger());
+  }
+
+  private StorageConversionCache cache(SnapshotRuntimeData runtimeData) {
+    return StorageConversionCache.create(
+        _storage, NETWORK, _settings, new ConversionContext(), runtimeData);
+  }
+
+  private static HostConfiguration host(String hostname) {
+    HostConfiguration host = new HostConfiguration();
+    host.setHostname(hostname);
+    host.setFilename("hosts/" + hostname + ".json");
+    return host;
+  }
+
+  @Test
+  public void testGetKey() {
+    StorageConversionCache cache = cache(SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA);
+    assertThat(cache.getKey(host("h1")), equalTo(cache.getKey(host("h1"))));
+    assertThat(cache.getKey(host("h1")), not(equalTo(cache.getKey(host("h2")))));
+
+    // the same configuration with different runtime data
+    SnapshotRuntimeData runtimeData =
+        SnapshotRuntimeData.builder()
+            .setInterfacesLineDown(NodeInterfacePair.of("h1", "eth0"))
+            .build();
+    assertThat(cache(runtimeData).getKey(host("h1")), not(equalTo(cache.getKey(host("h1")))));
+  }
+
+  @Test
+  public void testStoreAndLoad() throws IOException {
+    StorageConversionCache cache = cache(SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA);
+    String key = cache.getKey(host("h1"));
+    assertThat(cache.load(key), nullValue());
+
+    ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
+    answerElement.getFileMap().put("hosts/h1.json", "h1");
+    cache.store(
+        key,
+        new ConversionResult(
+            answerElement,
+            ImmutableMap.of("h1", new Configuration("h1", ConfigurationFormat.HOST)),
+            ImmutableMap.of("h1", new Warnings())));
+
+    ConversionResult loaded = cache.load(key);
+    assertThat(loaded.getConfigurations().keySet(), contains("h1"));
+    assertThat(loaded.getAnswerElement().getFileMap(), equalTo(answerElement.getFileMap()));
+  }
+}
@@ -175,6 +175,22 @@ public class BatfishTest {
         notNullValue());
   }
 
+  @Test
+  public void testInitTestrigSizeAwareJobs() throws IOException {
+    String testrigResourcePrefix = "org/batfish/main/snapshots/duplicate_hostnames2";
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationFiles(testrigResourcePrefix, ImmutableList.of("rtr1", "rtr2"))
+                .build(),
+            _folder);
+    batfish.getSettings().setSizeAwareJobs(true);
+
+    assertThat(
+        batfish.loadConfigurations(batfish.getSnapshot()).keySet(),
+        equalTo(ImmutableSet.of("rtr1", "rtr2")));
+  }
+
   @Test
   public void testInitTestrigWithDuplicateHostnames() throws IOException {
     // rtr1 and rtr2 have the same hostname
@@ -0,0 +1,57 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.CacheBuilder;
+import org.junit.Test;
+
+/** Tests of {@link ReferenceCountedCache}. */
+public final class ReferenceCountedCacheTest {
+
+  private static ReferenceCountedCache<String, String> cache() {
+    return new ReferenceCountedCache<>(CacheBuilder.newBuilder().maximumSize(1).build());
+  }
+
+  @Test
+  public void testEvictedWhenUnreferenced() {
+    ReferenceCountedCache<String, String> cache = cache();
+    cache.put("a", "1");
+    cache.put("b", "2");
+    assertThat(cache.getIfPresent("a"), nullValue());
+    assertThat(cache.getIfPresent("b"), equalTo("2"));
+  }
+
+  @Test
+  public void testPinnedWhileReferenced() {
+    ReferenceCountedCache<String, String> cache = cache();
+    // acquired before the value is loaded
+    cache.acquire("a");
+    cache.acquire("a");
+    cache.put("a", "1");
+    // acquired after the value is loaded
+    cache.acquire("b");
+    cache.put("c", "3");
+    assertThat(cache.getIfPresent("a"), equalTo("1"));
+    assertThat(cache.getIfPresent("b"), nullValue());
+
+    cache.release("a");
+    assertThat(cache.getIfPresent("a"), equalTo("1"));
+    cache.release("a");
+    assertThat(cache.getIfPresent("a"), nullValue());
+  }
+
+  @Test
+  public void testInvalidateUnpins() {
+    ReferenceCountedCache<String, String> cache = cache();
+    cache.acquire("a");
+    cache.put("a", "1");
+    cache.invalidate("a");
+    assertThat(cache.getIfPresent("a"), nullValue());
+    // a value loaded again is pinned again
+    cache.put("a", "2");
+    cache.put("b", "3");
+    assertThat(cache.getIfPresent("a"), equalTo("2"));
+  }
+}
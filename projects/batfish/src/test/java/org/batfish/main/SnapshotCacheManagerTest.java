@@ -0,0 +1,215 @@
+package org.batfish.main;
+
+import static org.batfish.main.SnapshotCacheManager.estimateConfigurations;
+import static org.batfish.main.SnapshotCacheManager.estimateDataPlane;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockRib;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.route.nh.NextHopDiscard;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.main.SnapshotCacheManager.Kind;
+import org.batfish.vendor.VendorConfiguration;
+import org.junit.Test;
+
+/** Tests of {@link SnapshotCacheManager}. */
+public final class SnapshotCacheManagerTest {
+
+  private static final long KB = 1024;
+
+  private static NetworkSnapshot snapshot(String name) {
+    return new NetworkSnapshot(new NetworkId("network"), new SnapshotId(name));
+  }
+
+  /** Vendor configurations for {@code n} devices, weighed only by their number. */
+  private static Map<String, VendorConfiguration> vendorConfigurations(int n) {
+    Map<String, VendorConfiguration> vendorConfigurations = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      vendorConfigurations.put("device" + i, null);
+    }
+    return vendorConfigurations;
+  }
+
+  private static SortedMap<String, Configuration> configurations(String... hostnames) {
+    NetworkFactory nf = new NetworkFactory();
+    ImmutableSortedMap.Builder<String, Configuration> configurations =
+        ImmutableSortedMap.naturalOrder();
+    for (String hostname : hostnames) {
+      configurations.put(
+          hostname,
+          nf.configurationBuilder()
+              .setHostname(hostname)
+              .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+              .build());
+    }
+    return configurations.build();
+  }
+
+  private static StaticRoute staticRoute() {
+    return StaticRoute.testBuilder()
+        .setNetwork(Prefix.parse("10.0.0.0/8"))
+        .setNextHop(NextHopDiscard.instance())
+        .setAdministrativeCost(1)
+        .build();
+  }
+
+  @Test
+  public void testSharedBudget() {
+    // room for three devices' vendor configurations and an empty configuration, with margins
+    SnapshotCacheManager manager = new SnapshotCacheManager(1500 * KB);
+    Cache<NetworkSnapshot, Map<String, VendorConfiguration>> vendorConfigurations =
+        manager.getVendorConfigurations();
+    Cache<NetworkSnapshot, SortedMap<String, Configuration>> configurations =
+        manager.getConfigurations();
+
+    vendorConfigurations.put(snapshot("s1"), vendorConfigurations(2));
+    configurations.put(snapshot("s2"), configurations("c1"));
+    vendorConfigurations.put(snapshot("s3"), vendorConfigurations(1));
+    // s1 is used more recently than s3
+    assertThat(vendorConfigurations.getIfPresent(snapshot("s1")).size(), equalTo(2));
+    assertThat(
+        manager.getSnapshots(Kind.VENDOR_CONFIGURATIONS),
+        containsInAnyOrder(snapshot("s1"), snapshot("s3")));
+    assertThat(manager.getSnapshots(Kind.CONFIGURATIONS), containsInAnyOrder(snapshot("s2")));
+
+    // exceeding the budget evicts least recently used values of any kind
+    vendorConfigurations.put(snapshot("s4"), vendorConfigurations(1));
+    assertThat(configurations.getIfPresent(snapshot("s2")), nullValue());
+    assertThat(vendorConfigurations.getIfPresent(snapshot("s3")), nullValue());
+    assertThat(
+        manager.getSnapshots(Kind.VENDOR_CONFIGURATIONS),
+        containsInAnyOrder(snapshot("s1"), snapshot("s4")));
+    assertThat(manager.getSnapshots(Kind.CONFIGURATIONS), containsInAnyOrder());
+
+    // a value larger than the whole budget is not cached
+    vendorConfigurations.put(snapshot("s5"), vendorConfigurations(5));
+    assertThat(
+        manager.getSnapshots(Kind.VENDOR_CONFIGURATIONS),
+        containsInAnyOrder(snapshot("s1"), snapshot("s4")));
+    // three devices' vendor configurations, with margins
+    assertThat(manager.getCachedBytes(), equalTo(3 * 384 * KB));
+  }
+
+  @Test
+  public void testStats() {
+    SnapshotCacheManager manager = new SnapshotCacheManager(450 * KB);
+    Cache<NetworkSnapshot, Map<String, VendorConfiguration>> vendorConfigurations =
+        manager.getVendorConfigurations();
+    vendorConfigurations.put(snapshot("s1"), vendorConfigurations(1));
+    vendorConfigurations.getIfPresent(snapshot("s1"));
+    vendorConfigurations.getIfPresent(snapshot("s2"));
+    vendorConfigurations.put(snapshot("s2"), vendorConfigurations(1));
+    manager.getConfigurations().getIfPresent(snapshot("s1"));
+
+    CacheStats stats = manager.getStats().get(Kind.VENDOR_CONFIGURATIONS);
+    assertThat(stats.hitCount(), equalTo(1L));
+    assertThat(stats.missCount(), equalTo(1L));
+    assertThat(stats.evictionCount(), equalTo(1L));
+    assertThat(vendorConfigurations.stats(), equalTo(stats));
+    assertThat(manager.getStats().get(Kind.CONFIGURATIONS).missCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testInvalidate() {
+    SnapshotCacheManager manager = new SnapshotCacheManager(10_000 * KB);
+    SortedMap<String, Configuration> configurations = configurations("c1");
+    manager.getConfigurations().put(snapshot("s1"), configurations);
+    manager.getVendorConfigurations().put(snapshot("s1"), vendorConfigurations(1));
+    manager.getVendorConfigurations().put(snapshot("s2"), vendorConfigurations(1));
+
+    manager.getVendorConfigurations().invalidate(snapshot("s1"));
+    assertThat(
+        manager.getConfigurations().getIfPresent(snapshot("s1")), sameInstance(configurations));
+    assertThat(manager.getVendorConfigurations().size(), equalTo(1L));
+
+    manager.getVendorConfigurations().invalidateAll();
+    assertThat(manager.getVendorConfigurations().size(), equalTo(0L));
+    assertThat(manager.getConfigurations().size(), equalTo(1L));
+  }
+
+  @Test
+  public void testEstimateConfigurations() {
+    SortedMap<String, Configuration> configurations = configurations("c1");
+    long empty = estimateConfigurations(configurations);
+    assertThat(estimateConfigurations(configurations("c1", "c2")), equalTo(2 * empty));
+
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c = configurations.get("c1");
+    Vrf vrf = nf.vrfBuilder().setOwner(c).build();
+    vrf.setStaticRoutes(ImmutableSortedSet.of(staticRoute()));
+    nf.interfaceBuilder().setOwner(c).setVrf(vrf).build();
+    nf.aclBuilder().setOwner(c).setLines(ImmutableList.of(ExprAclLine.ACCEPT_ALL)).build();
+    assertThat(estimateConfigurations(configurations), greaterThan(empty));
+  }
+
+  @Test
+  public void testEstimateDataPlane() {
+    DataPlane empty = MockDataPlane.builder().build();
+    assertThat(estimateDataPlane(empty), equalTo(0L));
+
+    AnnotatedRoute<AbstractRoute> route = new AnnotatedRoute<>(staticRoute(), "vrf");
+    DataPlane dataPlane =
+        MockDataPlane.builder()
+            .setRibs(
+                ImmutableSortedMap.of(
+                    "c1",
+                    ImmutableSortedMap.of(
+                        "vrf", MockRib.builder().setRoutes(ImmutableSet.of(route)).build())))
+            .build();
+    assertThat(estimateDataPlane(dataPlane), greaterThan(0L));
+  }
+
+  @Test
+  public void testEstimateDataPlaneUsesRouteCount() {
+    AnnotatedRoute<AbstractRoute> route = new AnnotatedRoute<>(staticRoute(), "vrf");
+    MockDataPlane.Builder builder =
+        MockDataPlane.builder()
+            .setRibs(
+                ImmutableSortedMap.of(
+                    "c1",
+                    ImmutableSortedMap.of(
+                        "vrf", MockRib.builder().setRoutes(ImmutableSet.of(route)).build())));
+    long walked = estimateDataPlane(builder.build());
+
+    // a data plane that knows its route count is weighed without walking its RIBs
+    assertThat(
+        estimateDataPlane(builder.setRouteCount(10L).build()),
+        equalTo(10 * walked));
+    assertThat(estimateDataPlane(builder.setRouteCount(0L).build()), equalTo(0L));
+  }
+
+  @Test
+  public void testValuesAreNotShared() {
+    SnapshotCacheManager manager = new SnapshotCacheManager(10_000 * KB);
+    manager.getConfigurations().putAll(ImmutableMap.of(snapshot("s1"), configurations("c1")));
+    assertThat(manager.getVendorConfigurations().getIfPresent(snapshot("s1")), nullValue());
+    assertThat(manager.getDataPlanes().getIfPresent(snapshot("s1")), nullValue());
+  }
+}
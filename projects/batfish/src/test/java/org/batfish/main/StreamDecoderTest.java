@@ -0,0 +1,48 @@
+package org.batfish.main;
+
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.main.StreamDecoder.decodeStreamAndAppendNewline;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.apache.commons.io.ByteOrderMark;
+import org.junit.Test;
+
+/** Tests of {@link StreamDecoder}. */
+public final class StreamDecoderTest {
+
+  private static String decode(byte[] bytes) throws IOException {
+    return decodeStreamAndAppendNewline(new ByteArrayInputStream(bytes));
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = new byte[first.length + second.length];
+    System.arraycopy(first, 0, result, 0, first.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertThat(decode(new byte[0]), equalTo(""));
+  }
+
+  @Test
+  public void testAppendsNewline() throws IOException {
+    assertThat(decode("hostname r1".getBytes(UTF_8)), equalTo("hostname r1\n"));
+  }
+
+  @Test
+  public void testStripsByteOrderMark() throws IOException {
+    String text = "hostname r1\ninterface eé\n";
+    assertThat(
+        decode(concat(ByteOrderMark.UTF_8.getBytes(), text.getBytes(UTF_8))),
+        equalTo(text + "\n"));
+    assertThat(
+        decode(concat(ByteOrderMark.UTF_16LE.getBytes(), text.getBytes(UTF_16LE))),
+        equalTo(text + "\n"));
+  }
+}
@@ -0,0 +1,51 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/** Tests of {@link TaskSlots}. */
+public final class TaskSlotsTest {
+
+  @Test
+  public void testMaxTasks() {
+    TaskSlots slots = new TaskSlots(2, 0L, () -> 0L);
+    assertThat(slots.getCapacity(), equalTo(2));
+    assertTrue(slots.tryAcquire());
+    assertTrue(slots.tryAcquire());
+    assertThat(slots.getCapacity(), equalTo(0));
+    assertFalse(slots.tryAcquire());
+    slots.release();
+    assertThat(slots.getRunning(), equalTo(1));
+    assertThat(slots.getCapacity(), equalTo(1));
+  }
+
+  @Test
+  public void testSingleTaskByDefault() {
+    TaskSlots slots = new TaskSlots(0, 0L, () -> 0L);
+    assertTrue(slots.tryAcquire());
+    assertFalse(slots.tryAcquire());
+  }
+
+  @Test
+  public void testMemoryBudget() {
+    AtomicLong available = new AtomicLong(0L);
+    TaskSlots slots = new TaskSlots(4, 10L, available::get);
+    // the first task is admitted regardless of memory
+    assertThat(slots.getCapacity(), equalTo(4));
+    assertTrue(slots.tryAcquire());
+    assertThat(slots.getCapacity(), equalTo(0));
+    assertFalse(slots.tryAcquire());
+
+    available.set(25L);
+    assertThat(slots.getCapacity(), equalTo(2));
+    assertTrue(slots.tryAcquire());
+
+    available.set(1000L);
+    assertThat(slots.getCapacity(), equalTo(2));
+  }
+}
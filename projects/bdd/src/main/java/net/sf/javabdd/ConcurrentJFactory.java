@@ -0,0 +1,3137 @@
+package net.sf.javabdd;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A thread-safe {@link BDDFactory}: several threads may build and query BDDs from the same factory
+ * at the same time. BDDs built by different threads share nodes, so equal functions are equal
+ * {@link BDD BDDs} no matter which thread built them.
+ *
+ * <p>The algorithms are those of {@link JFactory}. The differences are in how the node table is
+ * shared:
+ *
+ * <ul>
+ *   <li>The unique table is an open-addressing hash table of node ids. Threads insert new nodes
+ *       into it with compare-and-swap, without taking locks.
+ *   <li>Each thread allocates nodes from its own block of free node ids, and has its own operation
+ *       caches.
+ *   <li>Garbage collection, node table growth, and reordering stop the world: they wait for all
+ *       in-flight operations to finish and hold off new ones. An operation that runs out of free
+ *       nodes abandons its partial result, triggers a collection, and restarts. Marking and
+ *       rehashing run in parallel.
+ * </ul>
+ *
+ * <p>{@link BDD} objects themselves are not thread-safe: in-place operations like {@link
+ * BDD#andWith} and {@link BDD#free} must not race with other uses of the same object. Variables,
+ * domains, and the variable order should be set up before BDDs are used by multiple threads.
+ */
+public final class ConcurrentJFactory extends BDDFactory {
+
+  private static final Logger LOGGER = LogManager.getLogger(ConcurrentJFactory.class);
+
+  private static final String VERSION = "ConcurrentJFactory 1.0";
+
+  private static final int ZERO = 0;
+  private static final int ONE = 1;
+  private static final int INVALID_BDD = -1;
+
+  /** Each node is stored as three ints in the node table: level, low, and high. */
+  private static final int NODE_SIZE = 3;
+
+  private static final int MAX_VAR = 0x1FFFFF;
+  private static final int MAX_REF = Integer.MAX_VALUE;
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 29;
+  private static final int MAX_BLOCK_SIZE = 1024;
+  private static final int DEFAULT_MAX_INCREASE = 10000000;
+  private static final int DEFAULT_MIN_FREE_NODES = 20;
+
+  /** Nodes per task when marking and rehashing in parallel. */
+  private static final int GC_CHUNK_SIZE = 1 << 16;
+
+  private static final String ERR_ILLBDD = "Unknown BDD - was not in node table";
+  private static final String ERR_NODENUM = "Number of nodes reached user defined maximum";
+  private static final String ERR_OP = "Unknown operator";
+  private static final String ERR_RANGE = "Value out of range";
+  private static final String ERR_REPLACE = "Replacing to already existing variables";
+  private static final String ERR_RUNNING = "bdd_init() called twice";
+  private static final String ERR_VAR = "Unknown variable";
+  private static final String ERR_VARSET = "Illegal variable set";
+
+  /* Binary operators, numbered as in BDDFactory.BDDOp. */
+  private static final int OP_AND = 0;
+  private static final int OP_XOR = 1;
+  private static final int OP_OR = 2;
+  private static final int OP_NAND = 3;
+  private static final int OP_NOR = 4;
+  private static final int OP_IMP = 5;
+  private static final int OP_BIIMP = 6;
+  private static final int OP_DIFF = 7;
+  private static final int OP_LESS = 8;
+  private static final int OP_INVIMP = 9;
+
+  /* Other operations, used to tag cache entries. */
+  private static final int OP_NOT = 10;
+  private static final int OP_SIMPLIFY = 11;
+  private static final int OP_ANDSAT = 12;
+  private static final int OP_DIFFSAT = 13;
+  private static final int OP_ITE = 14;
+  private static final int OP_UNIQUE = 15;
+  private static final int OP_PROJECT = 16;
+  private static final int OP_RESTRICT = 17;
+  private static final int OP_CONSTRAIN = 18;
+  private static final int OP_REPLACE = 19;
+  private static final int OP_CORRECTIFY = 20;
+  private static final int OP_COMPOSE = 21;
+  private static final int OP_VECCOMPOSE = 22;
+  /* Operations parameterized by a binary operator: tag is the base plus the operator. */
+  private static final int OP_QUANT = 32;
+  private static final int OP_APPEX = 48;
+  private static final int OP_APPALL = 64;
+  private static final int OP_APPUNI = 80;
+
+  private static final int COUNT_SAT = 0;
+  private static final int COUNT_PATH = 1;
+
+  /* Operator results - entry = left<<1 | right  (left,right in {0,1}) */
+  private static final int[][] OPRRES = {
+    {0, 0, 0, 1}, /* and */
+    {0, 1, 1, 0}, /* xor */
+    {0, 1, 1, 1}, /* or */
+    {1, 1, 1, 0}, /* nand */
+    {1, 0, 0, 0}, /* nor */
+    {1, 1, 0, 1}, /* implication */
+    {1, 0, 0, 1}, /* bi-implication */
+    {0, 0, 1, 0}, /* difference */
+    {0, 1, 0, 0}, /* less than */
+    {1, 0, 1, 1} /* inverse implication */
+  };
+
+  /**
+   * Thrown by an operation that needs a node when the node table has no free nodes left. The
+   * operation is restarted after a garbage collection.
+   */
+  private static final class NodeTableFullException extends RuntimeException {
+    private static final NodeTableFullException INSTANCE = new NodeTableFullException();
+
+    private NodeTableFullException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /* Safepoint state. */
+
+  /** Set while the world is stopped. Only written while holding {@link #_maintenanceLock}. */
+  private volatile boolean _stopRequested;
+
+  /** Held by the thread that stops the world, for garbage collection, resizing, or reordering. */
+  private final ReentrantLock _maintenanceLock = new ReentrantLock();
+
+  private final List<Worker> _workers = new CopyOnWriteArrayList<>();
+
+  private final ThreadLocal<Worker> _worker =
+      ThreadLocal.withInitial(
+          () -> {
+            Worker w = new Worker();
+            _workers.add(w);
+            return w;
+          });
+
+  /*
+   * Tables. Only replaced or rearranged while the world is stopped. Operations read them through
+   * the snapshot in their Worker.
+   */
+
+  private boolean _running;
+  private int _capacity;
+  private int[] _nodes;
+  private AtomicIntegerArray _refs;
+  private AtomicIntegerArray _unique;
+  private int[] _freeIds;
+  private AtomicInteger _freeCursor;
+  private int _blockSize;
+
+  /**
+   * Incremented whenever the tables are replaced or nodes are freed or rearranged. Workers reload
+   * their snapshot and clear their caches when it changes.
+   */
+  private int _epoch;
+
+  /** Incremented whenever the variables or their order change, to invalidate pairings. */
+  private int _orderVersion;
+
+  private int _varNum;
+  private int[] _var2level;
+  private int[] _level2var;
+
+  /** For each variable v, the nodes for ithVar(v) at 2v and nithVar(v) at 2v+1. */
+  private int[] _varset;
+
+  private final AtomicInteger _pairIds = new AtomicInteger();
+
+  /* Parameters. */
+
+  private int _cacheSize;
+  private int _cacheRatio;
+  private int _maxNodeNum;
+  private int _minFreeNodes;
+  private int _maxIncrease;
+  private double _increaseFactor;
+  private volatile int _errorCondition;
+
+  private long _gcTime;
+  private int _gcCount;
+
+  private ConcurrentJFactory() {}
+
+  public static BDDFactory init(int nodenum, int cachesize) {
+    BDDFactory f = new ConcurrentJFactory();
+    f.initialize(nodenum, cachesize);
+    return f;
+  }
+
+  @Override
+  public String getVersion() {
+    return VERSION;
+  }
+
+  /* === SAFEPOINTS ======================================================= */
+
+  @FunctionalInterface
+  private interface WorkerFunction<T> {
+    T apply(Worker w);
+  }
+
+  /**
+   * Runs an operation on the node table on behalf of the current thread. If the node table fills
+   * up, garbage collects and reruns the operation.
+   */
+  private <T> T withWorker(WorkerFunction<T> f) {
+    Worker w = _worker.get();
+    if (w._depth > 0) {
+      return f.apply(w);
+    }
+    boolean exclusive = _maintenanceLock.isHeldByCurrentThread();
+    while (true) {
+      if (!exclusive) {
+        enter(w);
+      }
+      int failedEpoch;
+      int allocated;
+      w._depth++;
+      try {
+        if (!_running) {
+          throw new BDDException(ERR_RUNNING);
+        }
+        w.begin(this);
+        return f.apply(w);
+      } catch (NodeTableFullException e) {
+        failedEpoch = w._epoch;
+        allocated = w._allocated;
+      } finally {
+        w._depth--;
+        w._factory = null;
+        if (!exclusive) {
+          w._inOp = false;
+        }
+      }
+      collectGarbage(failedEpoch, allocated);
+    }
+  }
+
+  /** Marks the worker as inside an operation, waiting first for the world to resume if stopped. */
+  private void enter(Worker w) {
+    while (true) {
+      w._inOp = true;
+      if (!_stopRequested) {
+        return;
+      }
+      w._inOp = false;
+      // The world is stopped for as long as the lock is held.
+      _maintenanceLock.lock();
+      _maintenanceLock.unlock();
+    }
+  }
+
+  /** Waits for all other threads to leave their operations. Requires {@link #_maintenanceLock}. */
+  private void stopTheWorld() {
+    _stopRequested = true;
+    Thread current = Thread.currentThread();
+    for (Worker w : _workers) {
+      if (w._thread == current) {
+        continue;
+      }
+      if (!w._thread.isAlive()) {
+        _workers.remove(w);
+        continue;
+      }
+      while (w._inOp) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private void resumeTheWorld() {
+    _stopRequested = false;
+  }
+
+  /** Runs the given action with the world stopped. Reentrant. */
+  private <T> T exclusive(Supplier<T> action) {
+    _maintenanceLock.lock();
+    boolean stopped = false;
+    try {
+      if (!_stopRequested) {
+        stopTheWorld();
+        stopped = true;
+      }
+      return action.get();
+    } finally {
+      if (stopped) {
+        resumeTheWorld();
+      }
+      _maintenanceLock.unlock();
+    }
+  }
+
+  private void exclusive(Runnable action) {
+    exclusive(
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /* === GARBAGE COLLECTION AND RESIZING ================================== */
+
+  /**
+   * Called when an operation that started in the given epoch ran out of nodes after allocating the
+   * given number of them. Collects garbage unless another thread already did so.
+   */
+  private void collectGarbage(int failedEpoch, int allocated) {
+    _maintenanceLock.lock();
+    try {
+      if (_epoch != failedEpoch) {
+        return;
+      }
+      stopTheWorld();
+      try {
+        gbc(2 * allocated);
+      } finally {
+        resumeTheWorld();
+      }
+    } finally {
+      _maintenanceLock.unlock();
+    }
+  }
+
+  private int freeNodeCount() {
+    return Math.max(0, _freeIds.length - _freeCursor.get());
+  }
+
+  /**
+   * Collects garbage with the world stopped, then grows the node table if too few nodes are free or
+   * fewer than {@code requiredFree}.
+   */
+  private void gbc(int requiredFree) {
+    if (_errorCondition != 0) {
+      throw new BDDException("BDD error condition " + _errorCondition);
+    }
+    long start = System.currentTimeMillis();
+    gcstats.nodes = _capacity;
+    gcstats.freenodes = freeNodeCount();
+    gcstats.time = 0;
+    gcstats.sumtime = _gcTime;
+    gcstats.num = _gcCount;
+    gbc_handler(true, gcstats);
+
+    int oldCapacity = _capacity;
+    byte[] marks = mark();
+    int live = 0;
+    for (byte m : marks) {
+      live += m;
+    }
+    int free = oldCapacity - 2 - live;
+    int newCapacity = oldCapacity;
+    if ((long) free * 100 / oldCapacity <= _minFreeNodes || free < requiredFree) {
+      newCapacity = grownCapacity(oldCapacity);
+      while (newCapacity - 2 - live < requiredFree) {
+        int next = grownCapacity(newCapacity);
+        if (next == newCapacity) {
+          break;
+        }
+        newCapacity = next;
+      }
+    }
+    if (free == 0 && newCapacity == oldCapacity) {
+      throw new BDDException(ERR_NODENUM);
+    }
+    if (newCapacity > oldCapacity) {
+      resize_handler(oldCapacity, newCapacity);
+    }
+    rebuild(marks, newCapacity);
+    _epoch++;
+
+    long time = System.currentTimeMillis() - start;
+    _gcTime += time;
+    _gcCount++;
+    gcstats.nodes = _capacity;
+    gcstats.freenodes = freeNodeCount();
+    gcstats.time = time;
+    gcstats.sumtime = _gcTime;
+    gcstats.num = _gcCount;
+    gbc_handler(false, gcstats);
+  }
+
+  /** The capacity after one growth step, or the given capacity if it may not grow. */
+  private int grownCapacity(int capacity) {
+    long size =
+        _increaseFactor > 0 ? capacity + (long) (capacity * _increaseFactor) : 2L * capacity;
+    if (_maxIncrease > 0) {
+      size = Math.min(size, (long) capacity + _maxIncrease);
+    }
+    if (_maxNodeNum > 0) {
+      size = Math.min(size, _maxNodeNum);
+    }
+    return (int) Math.max(capacity, Math.min(size, MAX_CAPACITY));
+  }
+
+  /** Marks all nodes reachable from a referenced node, in parallel. */
+  private byte[] mark() {
+    int capacity = _capacity;
+    int[] nodes = _nodes;
+    AtomicIntegerArray refs = _refs;
+    byte[] marks = new byte[capacity];
+    IntStream.range(0, chunks(capacity))
+        .parallel()
+        .forEach(
+            c -> {
+              int end = Math.min(capacity, (c + 1) * GC_CHUNK_SIZE);
+              for (int n = Math.max(2, c * GC_CHUNK_SIZE); n < end; n++) {
+                if (refs.get(n) > 0 && nodes[n * NODE_SIZE + 1] != INVALID_BDD) {
+                  markRec(nodes, marks, n);
+                }
+              }
+            });
+    return marks;
+  }
+
+  private static void markRec(int[] nodes, byte[] marks, int n) {
+    // Racing markers may both visit a node, which is harmless.
+    if (n < 2 || marks[n] != 0) {
+      return;
+    }
+    marks[n] = 1;
+    markRec(nodes, marks, nodes[n * NODE_SIZE + 1]);
+    markRec(nodes, marks, nodes[n * NODE_SIZE + 2]);
+  }
+
+  private static int chunks(int capacity) {
+    return (capacity + GC_CHUNK_SIZE - 1) / GC_CHUNK_SIZE;
+  }
+
+  private static int uniqueTableSize(int capacity) {
+    long size = Math.max(MIN_CAPACITY, capacity + (long) capacity / 2);
+    return (int) Long.highestOneBit(size - 1) << 1;
+  }
+
+  private static int blockSize(int capacity) {
+    return Math.max(1, Math.min(MAX_BLOCK_SIZE, capacity >> 6));
+  }
+
+  private static int nodeHash(int level, int low, int high) {
+    int h = level * 0x9E3779B1 + low * 0x85EBCA77 + high * 0xC2B2AE3D;
+    h ^= h >>> 15;
+    h *= 0x2C1B3C6D;
+    return h ^ (h >>> 13);
+  }
+
+  private static void uniqueInsert(AtomicIntegerArray unique, int[] nodes, int n) {
+    int mask = unique.length() - 1;
+    int i = n * NODE_SIZE;
+    int slot = nodeHash(nodes[i], nodes[i + 1], nodes[i + 2]) & mask;
+    while (!unique.compareAndSet(slot, 0, n)) {
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Frees the unmarked nodes and rehashes the marked ones into a new unique table, growing the node
+   * table to {@code newCapacity}.
+   */
+  private void rebuild(byte[] marks, int newCapacity) {
+    int oldCapacity = _capacity;
+    int[] nodes = newCapacity > oldCapacity ? growNodes(newCapacity) : _nodes;
+    AtomicIntegerArray unique = new AtomicIntegerArray(uniqueTableSize(newCapacity));
+    int[][] freeByChunk = new int[chunks(oldCapacity)][];
+    IntStream.range(0, freeByChunk.length)
+        .parallel()
+        .forEach(
+            c -> {
+              int start = Math.max(2, c * GC_CHUNK_SIZE);
+              int end = Math.min(oldCapacity, (c + 1) * GC_CHUNK_SIZE);
+              int[] free = new int[Math.max(0, end - start)];
+              int numFree = 0;
+              for (int n = start; n < end; n++) {
+                if (marks[n] != 0) {
+                  uniqueInsert(unique, nodes, n);
+                } else {
+                  nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+                  free[numFree++] = n;
+                }
+              }
+              freeByChunk[c] = Arrays.copyOf(free, numFree);
+            });
+    int numFree = newCapacity - oldCapacity;
+    for (int[] free : freeByChunk) {
+      numFree += free.length;
+    }
+    int[] freeIds = new int[numFree];
+    int i = 0;
+    for (int[] free : freeByChunk) {
+      System.arraycopy(free, 0, freeIds, i, free.length);
+      i += free.length;
+    }
+    for (int n = oldCapacity; n < newCapacity; n++) {
+      freeIds[i++] = n;
+    }
+    setTables(nodes, unique, freeIds, newCapacity);
+  }
+
+  /** Returns a copy of the node table with the given capacity. Also grows the refcounts. */
+  private int[] growNodes(int newCapacity) {
+    int[] nodes = Arrays.copyOf(_nodes, newCapacity * NODE_SIZE);
+    for (int n = _capacity; n < newCapacity; n++) {
+      nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+    }
+    AtomicIntegerArray refs = new AtomicIntegerArray(newCapacity);
+    for (int n = 0; n < _capacity; n++) {
+      refs.set(n, _refs.get(n));
+    }
+    _refs = refs;
+    return nodes;
+  }
+
+  private void setTables(int[] nodes, AtomicIntegerArray unique, int[] freeIds, int capacity) {
+    _nodes = nodes;
+    _unique = unique;
+    _freeIds = freeIds;
+    _freeCursor = new AtomicInteger();
+    _capacity = capacity;
+    _blockSize = blockSize(capacity);
+    if (_cacheRatio > 0) {
+      _cacheSize = Math.max(1, capacity / _cacheRatio);
+    }
+  }
+
+  /**
+   * Grows the node table without collecting garbage, keeping all nodes. Requires the world to be
+   * stopped.
+   */
+  private void resize(int newCapacity) {
+    int oldCapacity = _capacity;
+    resize_handler(oldCapacity, newCapacity);
+    int[] nodes = growNodes(newCapacity);
+    AtomicIntegerArray oldUnique = _unique;
+    AtomicIntegerArray unique = new AtomicIntegerArray(uniqueTableSize(newCapacity));
+    for (int slot = 0; slot < oldUnique.length(); slot++) {
+      int n = oldUnique.get(slot);
+      if (n != 0) {
+        uniqueInsert(unique, nodes, n);
+      }
+    }
+    int cursor = Math.min(_freeCursor.get(), _freeIds.length);
+    int[] freeIds = new int[_freeIds.length - cursor + newCapacity - oldCapacity];
+    System.arraycopy(_freeIds, cursor, freeIds, 0, _freeIds.length - cursor);
+    for (int n = oldCapacity, i = _freeIds.length - cursor; n < newCapacity; n++) {
+      freeIds[i++] = n;
+    }
+    setTables(nodes, unique, freeIds, newCapacity);
+    _epoch++;
+  }
+
+  /**
+   * Called when the thread that stopped the world runs out of nodes. It may not collect garbage,
+   * since its own operation's intermediate results are not referenced, so it grows the table.
+   */
+  private void growExclusive(Worker w) {
+    int newCapacity = grownCapacity(_capacity);
+    if (newCapacity == _capacity) {
+      throw new BDDException(ERR_NODENUM);
+    }
+    resize(newCapacity);
+    w.loadTables(this);
+  }
+
+  @Override
+  public int setNodeTableSize(int size) {
+    int old = _capacity;
+    if (size > old) {
+      exclusive(() -> resize(Math.min(size, MAX_CAPACITY)));
+    }
+    return old;
+  }
+
+  /* === STARTUP / SHUTDOWN =============================================== */
+
+  @Override
+  protected void initialize(int nodenum, int cachesize) {
+    exclusive(
+        () -> {
+          if (_running) {
+            throw new BDDException(ERR_RUNNING);
+          }
+          int capacity = Math.min(Math.max(nodenum, MIN_CAPACITY), MAX_CAPACITY);
+          _capacity = capacity;
+          _nodes = new int[capacity * NODE_SIZE];
+          for (int n = 2; n < capacity; n++) {
+            _nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+          }
+          _nodes[NODE_SIZE + 1] = ONE;
+          _nodes[NODE_SIZE + 2] = ONE;
+          _refs = new AtomicIntegerArray(capacity);
+          _refs.set(ZERO, MAX_REF);
+          _refs.set(ONE, MAX_REF);
+          int[] freeIds = new int[capacity - 2];
+          for (int i = 0; i < freeIds.length; i++) {
+            freeIds[i] = i + 2;
+          }
+          _cacheRatio = 0;
+          _cacheSize = Math.max(1, cachesize);
+          setTables(_nodes, new AtomicIntegerArray(uniqueTableSize(capacity)), freeIds, capacity);
+
+          _varNum = 0;
+          _var2level = new int[] {0};
+          _level2var = new int[] {0};
+          _varset = new int[0];
+
+          _maxNodeNum = 0;
+          _minFreeNodes = DEFAULT_MIN_FREE_NODES;
+          _maxIncrease = DEFAULT_MAX_INCREASE;
+          _increaseFactor = 0;
+          _errorCondition = 0;
+          _gcTime = 0;
+          _gcCount = 0;
+          _epoch++;
+          _orderVersion++;
+          _running = true;
+        });
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return _running;
+  }
+
+  @Override
+  public void done() {
+    exclusive(
+        () -> {
+          _running = false;
+          _nodes = null;
+          _refs = null;
+          _unique = null;
+          _freeIds = null;
+          _varset = null;
+          _var2level = null;
+          _level2var = null;
+          _capacity = 0;
+          _varNum = 0;
+          _epoch++;
+          _orderVersion++;
+        });
+  }
+
+  @Override
+  public void setError(int code) {
+    _errorCondition = code;
+  }
+
+  @Override
+  public void clearError() {
+    _errorCondition = 0;
+  }
+
+  /* === PARAMETERS ======================================================= */
+
+  @Override
+  public int setMaxNodeNum(int size) {
+    if (size > _capacity || size == 0) {
+      int old = _maxNodeNum;
+      _maxNodeNum = size;
+      return old;
+    }
+    throw new BDDException("Cannot allocate fewer nodes than already in use");
+  }
+
+  @Override
+  public double setMinFreeNodes(double x) {
+    int mf = (int) (x * 100.);
+    if (mf < 0 || mf > 100) {
+      throw new BDDException(ERR_RANGE);
+    }
+    int old = _minFreeNodes;
+    _minFreeNodes = mf;
+    return old / 100.;
+  }
+
+  @Override
+  public int setMaxIncrease(int x) {
+    if (x < 0) {
+      throw new BDDException("Bad size argument");
+    }
+    int old = _maxIncrease;
+    _maxIncrease = x;
+    return old;
+  }
+
+  @Override
+  public double setIncreaseFactor(double x) {
+    if (x < 0) {
+      throw new BDDException(ERR_RANGE);
+    }
+    double old = _increaseFactor;
+    _increaseFactor = x;
+    return old;
+  }
+
+  @Override
+  public int setCacheRatio(int x) {
+    if (x <= 0) {
+      throw new BDDException(ERR_RANGE);
+    }
+    int old = _cacheRatio;
+    exclusive(
+        () -> {
+          _cacheRatio = x;
+          _cacheSize = Math.max(1, _capacity / x);
+          _epoch++;
+        });
+    return old;
+  }
+
+  @Override
+  public int setCacheSize(int n) {
+    int old = _cacheSize;
+    exclusive(
+        () -> {
+          _cacheSize = Math.max(1, n);
+          _epoch++;
+        });
+    return old;
+  }
+
+  @Override
+  public int getCacheSize() {
+    return _cacheSize;
+  }
+
+  @Override
+  public int getNodeTableSize() {
+    return _capacity;
+  }
+
+  @Override
+  public int getNodeNum() {
+    return _capacity - freeNodeCount();
+  }
+
+  /* === VARIABLES ======================================================== */
+
+  @Override
+  public int varNum() {
+    return _varNum;
+  }
+
+  @Override
+  public int setVarNum(int num) {
+    if (num < 1 || num > MAX_VAR) {
+      throw new BDDException(ERR_RANGE);
+    }
+    exclusive(() -> setVarNumExclusive(num));
+    return 0;
+  }
+
+  private void setVarNumExclusive(int num) {
+    int old = _varNum;
+    if (num < old) {
+      throw new BDDException("Trying to decrease the number of variables");
+    }
+    if (num == old) {
+      return;
+    }
+    _varset = Arrays.copyOf(_varset, num * 2);
+    _var2level = Arrays.copyOf(_var2level, num + 1);
+    _level2var = Arrays.copyOf(_level2var, num + 1);
+    // The new variables go at the bottom of the order, above the terminals.
+    _nodes[ZERO * NODE_SIZE] = num;
+    _nodes[ONE * NODE_SIZE] = num;
+    for (int v = old; v < num; v++) {
+      _var2level[v] = v;
+      _level2var[v] = v;
+    }
+    _var2level[num] = num;
+    _level2var[num] = num;
+    _varNum = num;
+    _epoch++;
+    _orderVersion++;
+    withWorker(
+        w -> {
+          for (int v = old; v < num; v++) {
+            int pos = w.mk(v, ZERO, ONE);
+            _varset[v * 2] = pos;
+            w._refs.set(pos, MAX_REF);
+            int neg = w.mk(v, ONE, ZERO);
+            _varset[v * 2 + 1] = neg;
+            w._refs.set(neg, MAX_REF);
+          }
+          return null;
+        });
+  }
+
+  @Override
+  public BDD ithVar(int var) {
+    return withWorker(
+        w -> {
+          w.checkVar(var);
+          return new BDDImpl(w._varset[var * 2]);
+        });
+  }
+
+  @Override
+  public BDD nithVar(int var) {
+    return withWorker(
+        w -> {
+          w.checkVar(var);
+          return new BDDImpl(w._varset[var * 2 + 1]);
+        });
+  }
+
+  @Override
+  public int level2Var(int level) {
+    return _level2var[level];
+  }
+
+  @Override
+  public int var2Level(int var) {
+    return _var2level[var];
+  }
+
+  /* === REORDERING ======================================================= */
+
+  /** A growable list of node ids. */
+  private static final class NodeList {
+    private int[] _ids = new int[8];
+    private int _size;
+
+    void add(int n) {
+      if (_size == _ids.length) {
+        _ids = Arrays.copyOf(_ids, _size * 2);
+      }
+      _ids[_size++] = n;
+    }
+  }
+
+  /** Lists the nodes in the unique table by level. */
+  private NodeList[] nodesByLevel(Worker w) {
+    NodeList[] levels = new NodeList[_varNum];
+    for (int i = 0; i < levels.length; i++) {
+      levels[i] = new NodeList();
+    }
+    AtomicIntegerArray unique = w._unique;
+    for (int slot = 0; slot < unique.length(); slot++) {
+      int n = unique.get(slot);
+      if (n != 0) {
+        levels[w.level(n)].add(n);
+      }
+    }
+    return levels;
+  }
+
+  @Override
+  public void setVarOrder(int[] neworder) {
+    if (neworder.length != _varNum) {
+      throw new BDDException("Mismatch in size of variable sets");
+    }
+    exclusive(
+        () -> {
+          BitSet seen = new BitSet();
+          for (int var : neworder) {
+            if (var < 0 || var >= _varNum || seen.get(var)) {
+              throw new BDDException(ERR_VAR);
+            }
+            seen.set(var);
+          }
+          reorder_handler(true, reorderstats);
+          gbc(0);
+          withWorker(
+              w -> {
+                NodeList[] levels = nodesByLevel(w);
+                for (int level = 0; level < neworder.length; level++) {
+                  int var = neworder[level];
+                  while (_var2level[var] > level) {
+                    swapLevels(w, levels, _var2level[var] - 1);
+                  }
+                }
+                return null;
+              });
+          _epoch++;
+          _orderVersion++;
+          reorder_handler(false, reorderstats);
+        });
+  }
+
+  /**
+   * Swaps the variables at levels {@code x} and {@code x + 1} in place, so that every node keeps
+   * its id and its function. Requires the world to be stopped.
+   */
+  private void swapLevels(Worker w, NodeList[] levels, int x) {
+    int[] nodes = w._nodes;
+    NodeList upper = levels[x];
+    NodeList lower = levels[x + 1];
+    for (int i = 0; i < upper._size; i++) {
+      w.uniqueRemove(upper._ids[i]);
+    }
+    for (int i = 0; i < lower._size; i++) {
+      w.uniqueRemove(lower._ids[i]);
+    }
+    // Nodes at x+1 move up to level x unchanged.
+    for (int i = 0; i < lower._size; i++) {
+      nodes[lower._ids[i] * NODE_SIZE] = x;
+    }
+    NodeList newUpper = new NodeList();
+    NodeList newLower = new NodeList();
+    NodeList dependent = new NodeList();
+    // Nodes at level x that do not depend on the variable at x+1 move down unchanged.
+    for (int i = 0; i < upper._size; i++) {
+      int n = upper._ids[i];
+      if (w.level(w.low(n)) == x || w.level(w.high(n)) == x) {
+        dependent.add(n);
+      } else {
+        nodes[n * NODE_SIZE] = x + 1;
+        uniqueInsert(w._unique, nodes, n);
+        newLower.add(n);
+      }
+    }
+    for (int i = 0; i < lower._size; i++) {
+      int n = lower._ids[i];
+      uniqueInsert(w._unique, nodes, n);
+      newUpper.add(n);
+    }
+    // The rest now branch on the old x+1 variable first: (f00, f01, f10, f11) are the cofactors.
+    for (int i = 0; i < dependent._size; i++) {
+      int n = dependent._ids[i];
+      int f0 = w.low(n);
+      int f1 = w.high(n);
+      boolean split0 = w.level(f0) == x;
+      boolean split1 = w.level(f1) == x;
+      int f00 = split0 ? w.low(f0) : f0;
+      int f01 = split0 ? w.high(f0) : f0;
+      int f10 = split1 ? w.low(f1) : f1;
+      int f11 = split1 ? w.high(f1) : f1;
+      int low = mkTracked(w, newLower, x + 1, f00, f10);
+      int high = mkTracked(w, newLower, x + 1, f01, f11);
+      // mk may have grown the table.
+      nodes = w._nodes;
+      nodes[n * NODE_SIZE + 1] = low;
+      nodes[n * NODE_SIZE + 2] = high;
+      uniqueInsert(w._unique, nodes, n);
+      newUpper.add(n);
+    }
+    levels[x] = newUpper;
+    levels[x + 1] = newLower;
+
+    int upperVar = _level2var[x];
+    int lowerVar = _level2var[x + 1];
+    _level2var[x] = lowerVar;
+    _level2var[x + 1] = upperVar;
+    _var2level[lowerVar] = x;
+    _var2level[upperVar] = x + 1;
+  }
+
+  /** Makes a node, adding it to the given list if it is new. */
+  private static int mkTracked(Worker w, NodeList list, int level, int low, int high) {
+    int allocated = w._allocated;
+    int n = w.mk(level, low, high);
+    if (w._allocated != allocated) {
+      list.add(n);
+    }
+    return n;
+  }
+
+  @Override
+  public int duplicateVar(int var) {
+    if (var < 0 || var >= _varNum) {
+      throw new BDDException(ERR_VAR);
+    }
+    return exclusive(
+        () -> {
+          int newVar = _varNum;
+          int lev = _var2level[var];
+          setVarNumExclusive(newVar + 1);
+          withWorker(
+              w -> {
+                // Move the new variable right below var. No nodes depend on it yet.
+                NodeList[] levels = nodesByLevel(w);
+                while (_var2level[newVar] > lev + 1) {
+                  swapLevels(w, levels, _var2level[newVar] - 1);
+                }
+                // Every node (lev, lo, hi) becomes (lev, !newVar & lo, newVar & hi).
+                NodeList atLevel = levels[lev];
+                for (int i = 0; i < atLevel._size; i++) {
+                  w.uniqueRemove(atLevel._ids[i]);
+                }
+                for (int i = 0; i < atLevel._size; i++) {
+                  int n = atLevel._ids[i];
+                  int low = w.mk(lev + 1, w.low(n), ZERO);
+                  int high = w.mk(lev + 1, ZERO, w.high(n));
+                  w._nodes[n * NODE_SIZE + 1] = low;
+                  w._nodes[n * NODE_SIZE + 2] = high;
+                  uniqueInsert(w._unique, w._nodes, n);
+                }
+                int pos = w.mk(lev, ZERO, ONE);
+                _varset[var * 2] = pos;
+                w._refs.set(pos, MAX_REF);
+                int neg = w.mk(lev, ONE, ZERO);
+                _varset[var * 2 + 1] = neg;
+                w._refs.set(neg, MAX_REF);
+                return null;
+              });
+          _epoch++;
+          _orderVersion++;
+          return newVar;
+        });
+  }
+
+  /* === PAIRINGS ========================================================= */
+
+  @Override
+  public BDDPairing makePair() {
+    return new Pairing();
+  }
+
+  /** The replacements of a {@link Pairing}, by level, as of some variable order. */
+  private static final class PairLevels {
+    final int[] _result;
+    final int _last;
+    final int _id;
+    final int _orderVersion;
+
+    PairLevels(int[] result, int last, int id, int orderVersion) {
+      _result = result;
+      _last = last;
+      _id = id;
+      _orderVersion = orderVersion;
+    }
+  }
+
+  private final class Pairing extends BDDPairing {
+    /** The replacement node for each variable, or {@link #INVALID_BDD} for itself. */
+    private int[] _result = new int[0];
+
+    private int _id = _pairIds.incrementAndGet();
+    private PairLevels _levels;
+
+    @Override
+    public void set(int oldvar, int newvar) {
+      withWorker(
+          w -> {
+            w.checkVar(oldvar);
+            w.checkVar(newvar);
+            setResult(w, oldvar, w._varset[newvar * 2]);
+            return null;
+          });
+    }
+
+    @Override
+    public void set(int oldvar, BDD newvar) {
+      BDDImpl b = (BDDImpl) newvar;
+      withWorker(
+          w -> {
+            w.checkVar(oldvar);
+            w.check(b._index);
+            setResult(w, oldvar, b._index);
+            return null;
+          });
+    }
+
+    private synchronized void setResult(Worker w, int var, int node) {
+      if (_result.length <= var) {
+        int oldLength = _result.length;
+        _result = Arrays.copyOf(_result, w._varNum);
+        Arrays.fill(_result, oldLength, _result.length, INVALID_BDD);
+      }
+      w.addRef(node);
+      if (_result[var] != INVALID_BDD) {
+        w.delRef(_result[var]);
+      }
+      _result[var] = node;
+      _id = _pairIds.incrementAndGet();
+      _levels = null;
+    }
+
+    @Override
+    public void reset() {
+      withWorker(
+          w -> {
+            synchronized (this) {
+              for (int i = 0; i < _result.length; i++) {
+                if (_result[i] != INVALID_BDD) {
+                  w.delRef(_result[i]);
+                  _result[i] = INVALID_BDD;
+                }
+              }
+              _id = _pairIds.incrementAndGet();
+              _levels = null;
+            }
+            return null;
+          });
+    }
+
+    /** Returns the replacements by level in the worker's variable order. */
+    synchronized PairLevels levels(Worker w) {
+      PairLevels levels = _levels;
+      if (levels != null && levels._orderVersion == w._orderVersion) {
+        return levels;
+      }
+      int[] result = new int[w._varNum];
+      int last = -1;
+      for (int level = 0; level < result.length; level++) {
+        int var = w._level2var[level];
+        if (var < _result.length && _result[var] != INVALID_BDD) {
+          result[level] = _result[var];
+          last = level;
+        } else {
+          result[level] = w._varset[var * 2];
+        }
+      }
+      _levels = new PairLevels(result, last, _id, w._orderVersion);
+      return _levels;
+    }
+
+    @Override
+    public synchronized String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append('{');
+      boolean any = false;
+      for (int var = 0; var < _result.length; var++) {
+        if (_result[var] != INVALID_BDD) {
+          if (any) {
+            sb.append(", ");
+          }
+          any = true;
+          sb.append(var);
+          sb.append('=');
+          sb.append(new BDDImpl(_result[var]));
+        }
+      }
+      sb.append('}');
+      return sb.toString();
+    }
+  }
+
+  /* === BDD OBJECTS ====================================================== */
+
+  @Override
+  public BDD zero() {
+    return new BDDImpl(ZERO);
+  }
+
+  @Override
+  public BDD one() {
+    return new BDDImpl(ONE);
+  }
+
+  private BDDImpl newBDD(Worker w, int n) {
+    w.addRef(n);
+    return new BDDImpl(n);
+  }
+
+  private static int index(BDD b) {
+    return ((BDDImpl) b)._index;
+  }
+
+  private static int opId(BDDOp opr) {
+    if (opr.id < OP_AND || opr.id > OP_INVIMP) {
+      throw new BDDException(ERR_OP);
+    }
+    return opr.id;
+  }
+
+  @Override
+  public BDD orAll(BDD... bddOperands) {
+    return orAll(Arrays.asList(bddOperands));
+  }
+
+  @Override
+  public BDD orAll(Collection<BDD> bddOperands) {
+    int[] operands =
+        bddOperands.stream()
+            .mapToInt(ConcurrentJFactory::index)
+            .filter(i -> i != ZERO)
+            .sorted()
+            .distinct()
+            .toArray();
+    if (operands.length == 0) {
+      return zero();
+    } else if (operands[0] == ONE) {
+      return one();
+    }
+    return withWorker(
+        w -> {
+          for (int operand : operands) {
+            w.check(operand);
+          }
+          return newBDD(w, w.orAll(operands));
+        });
+  }
+
+  @Override
+  public int nodeCount(Collection<BDD> r) {
+    int[] roots = r.stream().mapToInt(ConcurrentJFactory::index).toArray();
+    return withWorker(
+        w -> {
+          NodeSet visited = new NodeSet();
+          for (int root : roots) {
+            w.check(root);
+            w.collect(root, visited);
+          }
+          return visited._size;
+        });
+  }
+
+  /** Wrapper for the BDD index number used internally in the representation. */
+  private final class BDDImpl extends BDD {
+    int _index;
+
+    /** Wraps a node that has already been referenced for this BDD. */
+    BDDImpl(int index) {
+      _index = index;
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentJFactory.this;
+    }
+
+    @Override
+    public boolean isZero() {
+      return _index == ZERO;
+    }
+
+    @Override
+    public boolean isOne() {
+      return _index == ONE;
+    }
+
+    @Override
+    public boolean isAssignment() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return w.isAssignment(x);
+          });
+    }
+
+    @Override
+    public int var() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            if (x < 2) {
+              throw new BDDException(ERR_ILLBDD);
+            }
+            return w._level2var[w.level(x)];
+          });
+    }
+
+    @Override
+    public BDD high() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.high(x));
+          });
+    }
+
+    @Override
+    public BDD low() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.low(x));
+          });
+    }
+
+    @Override
+    public BDD id() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, x);
+          });
+    }
+
+    @Override
+    public BDD not() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.not(x));
+          });
+    }
+
+    @Override
+    public boolean andSat(BDD that) {
+      int x = _index;
+      int y = index(that);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return w.andSat(x, y);
+          });
+    }
+
+    @Override
+    public boolean diffSat(BDD that) {
+      int x = _index;
+      int y = index(that);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return w.diffSat(x, y);
+          });
+    }
+
+    @Override
+    public BDD ite(BDD thenBDD, BDD elseBDD) {
+      int x = _index;
+      int y = index(thenBDD);
+      int z = index(elseBDD);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            w.check(z);
+            return newBDD(w, w.ite(x, y, z));
+          });
+    }
+
+    @Override
+    public BDD relprod(BDD that, BDD var) {
+      return applyEx(that, and, var);
+    }
+
+    @Override
+    public BDD compose(BDD g, int var) {
+      int x = _index;
+      int y = index(g);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            w.checkVar(var);
+            w._composeLevel = w._var2level[var];
+            return newBDD(w, w.compose(x, y));
+          });
+    }
+
+    @Override
+    public BDD veccompose(BDDPairing pair) {
+      int x = _index;
+      Pairing p = (Pairing) pair;
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.setPairing(p);
+            return newBDD(w, w.veccompose(x));
+          });
+    }
+
+    @Override
+    public BDD constrain(BDD that) {
+      int x = _index;
+      int y = index(that);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return newBDD(w, w.constrain(x, y));
+          });
+    }
+
+    @Override
+    public BDD exist(BDD var) {
+      return quant(var, OP_OR);
+    }
+
+    @Override
+    public BDD forAll(BDD var) {
+      return quant(var, OP_AND);
+    }
+
+    private BDD quant(BDD var, int combineOp) {
+      int x = _index;
+      int y = index(var);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            if (y < 2) {
+              return newBDD(w, x);
+            }
+            w.setVarSet(y);
+            return newBDD(w, w.quant(x, combineOp));
+          });
+    }
+
+    @Override
+    public BDD project(BDD var) {
+      int x = _index;
+      int y = index(var);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            if (y < 2) {
+              // Projecting onto no variables existentially quantifies all of them.
+              return newBDD(w, x == ZERO ? ZERO : ONE);
+            }
+            w.setVarSet(y);
+            return newBDD(w, w.project(x));
+          });
+    }
+
+    @Override
+    public BDD unique(BDD var) {
+      int x = _index;
+      int y = index(var);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            if (y < 2) {
+              return newBDD(w, x);
+            }
+            return newBDD(w, w.unique(x, y));
+          });
+    }
+
+    @Override
+    public BDD restrict(BDD var) {
+      int x = _index;
+      int y = index(var);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return newBDD(w, w.restrict(x, y));
+          });
+    }
+
+    @Override
+    public BDD restrictWith(BDD that) {
+      BDDImpl other = (BDDImpl) that;
+      return withWorker(
+          w -> {
+            int x = _index;
+            int y = other._index;
+            w.check(x);
+            w.check(y);
+            int a = w.restrict(x, y);
+            w.addRef(a);
+            w.delRef(x);
+            if (this != other) {
+              w.delRef(y);
+              other._index = INVALID_BDD;
+            }
+            _index = a;
+            return this;
+          });
+    }
+
+    @Override
+    public BDD simplify(BDD d) {
+      int x = _index;
+      int y = index(d);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return newBDD(w, w.simplify(x, y));
+          });
+    }
+
+    @Override
+    public BDD support() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.support(x));
+          });
+    }
+
+    @Override
+    public BDD apply(BDD that, BDDOp opr) {
+      int x = _index;
+      int y = index(that);
+      int op = opId(opr);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return newBDD(w, w.apply(x, y, op));
+          });
+    }
+
+    @Override
+    public BDD applyWith(BDD that, BDDOp opr) {
+      BDDImpl other = (BDDImpl) that;
+      int op = opId(opr);
+      return withWorker(
+          w -> {
+            int x = _index;
+            int y = other._index;
+            w.check(x);
+            w.check(y);
+            int a = w.apply(x, y, op);
+            w.addRef(a);
+            w.delRef(x);
+            if (this != other) {
+              w.delRef(y);
+              other._index = INVALID_BDD;
+            }
+            _index = a;
+            return this;
+          });
+    }
+
+    @Override
+    public BDD applyAll(BDD that, BDDOp opr, BDD var) {
+      return appQuant(that, opr, var, OP_AND);
+    }
+
+    @Override
+    public BDD applyEx(BDD that, BDDOp opr, BDD var) {
+      return appQuant(that, opr, var, OP_OR);
+    }
+
+    private BDD appQuant(BDD that, BDDOp opr, BDD var, int combineOp) {
+      int x = _index;
+      int y = index(that);
+      int z = index(var);
+      int op = opId(opr);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            w.check(z);
+            if (z < 2) {
+              return newBDD(w, w.apply(x, y, op));
+            }
+            w.setVarSet(z);
+            if (op == OP_AND && combineOp == OP_OR) {
+              return newBDD(w, w.relprod(x, y));
+            }
+            return newBDD(w, w.appQuant(x, y, op, combineOp));
+          });
+    }
+
+    @Override
+    public BDD applyUni(BDD that, BDDOp opr, BDD var) {
+      int x = _index;
+      int y = index(that);
+      int z = index(var);
+      int op = opId(opr);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            w.check(z);
+            if (z < 2) {
+              return newBDD(w, w.apply(x, y, op));
+            }
+            return newBDD(w, w.appUni(x, y, z, op));
+          });
+    }
+
+    @Override
+    public BDD satOne() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.satOne(x));
+          });
+    }
+
+    @Override
+    public BDD fullSatOne() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, w.fullSatOne(x));
+          });
+    }
+
+    @Override
+    public BitSet minAssignmentBits() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            BitSet set = new BitSet(w._varNum);
+            w.minAssignmentBits(set, x);
+            return set;
+          });
+    }
+
+    @Override
+    public BDD randomFullSatOne(int seed) {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return newBDD(w, x == ZERO ? ZERO : w.randomFullSatOne(x, 0, seed));
+          });
+    }
+
+    @Override
+    public BDD satOne(BDD var, boolean pol) {
+      int x = _index;
+      int y = index(var);
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.check(y);
+            return newBDD(w, x == ZERO ? ZERO : w.satOneSet(x, y, pol));
+          });
+    }
+
+    @Override
+    public BDD replace(BDDPairing pair) {
+      int x = _index;
+      Pairing p = (Pairing) pair;
+      return withWorker(
+          w -> {
+            w.check(x);
+            w.setPairing(p);
+            return newBDD(w, w.replace(x));
+          });
+    }
+
+    @Override
+    public BDD replaceWith(BDDPairing pair) {
+      Pairing p = (Pairing) pair;
+      return withWorker(
+          w -> {
+            int x = _index;
+            w.check(x);
+            w.setPairing(p);
+            int y = w.replace(x);
+            w.addRef(y);
+            w.delRef(x);
+            _index = y;
+            return this;
+          });
+    }
+
+    @Override
+    public int nodeCount() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            NodeSet visited = new NodeSet();
+            w.collect(x, visited);
+            return visited._size;
+          });
+    }
+
+    @Override
+    public double pathCount() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return w.pathCount(x).doubleValue();
+          });
+    }
+
+    @Override
+    public double satCount() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            return w.satCount(x).shiftLeft(w.level(x)).doubleValue();
+          });
+    }
+
+    @Override
+    public int[] varProfile() {
+      int x = _index;
+      return withWorker(
+          w -> {
+            w.check(x);
+            NodeSet visited = new NodeSet();
+            w.collect(x, visited);
+            int[] profile = new int[w._varNum];
+            for (int n : visited._table) {
+              if (n != 0) {
+                profile[w._level2var[w.level(n)]]++;
+              }
+            }
+            return profile;
+          });
+    }
+
+    @Override
+    public boolean equals(BDD that) {
+      return _index == ((BDDImpl) that)._index;
+    }
+
+    @Override
+    public int hashCode() {
+      return _index;
+    }
+
+    @Override
+    public void free() {
+      int x = _index;
+      withWorker(
+          w -> {
+            w.delRef(x);
+            return null;
+          });
+      _index = INVALID_BDD;
+    }
+  }
+
+  /** An open-addressing set of non-terminal node ids, for traversals. */
+  private static final class NodeSet {
+    private int[] _table = new int[64];
+    private int _size;
+
+    /** Adds the given node, returning false if it was already present. */
+    boolean add(int n) {
+      if (2 * (_size + 1) > _table.length) {
+        int[] old = _table;
+        _table = new int[old.length * 2];
+        for (int m : old) {
+          if (m != 0) {
+            insert(m);
+          }
+        }
+      }
+      if (insert(n)) {
+        _size++;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean insert(int n) {
+      int mask = _table.length - 1;
+      int slot = nodeHash(n, 0, 0) & mask;
+      while (_table[slot] != 0) {
+        if (_table[slot] == n) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      _table[slot] = n;
+      return true;
+    }
+  }
+
+  /* === PRINTING ========================================================= */
+
+  @Override
+  public void printAll() {
+    StringBuilder out = new StringBuilder();
+    withWorker(
+        w -> {
+          int capacity = w._nodes.length / NODE_SIZE;
+          for (int n = 0; n < capacity; n++) {
+            if (w.low(n) != INVALID_BDD) {
+              out.append("[" + right(n, 5) + " - " + right(w._refs.get(n), 2) + "] ");
+              out.append(right(w._level2var[w.level(n)], 3));
+              out.append(": " + right(w.low(n), 3));
+              out.append(" " + right(w.high(n), 3)).append('\n');
+            }
+          }
+          return null;
+        });
+    LOGGER.info("{}", out);
+  }
+
+  @Override
+  public void printTable(BDD b) {
+    int r = index(b);
+    StringBuilder out = new StringBuilder();
+    withWorker(
+        w -> {
+          w.check(r);
+          out.append("ROOT: " + r).append('\n');
+          if (r < 2) {
+            return null;
+          }
+          NodeSet visited = new NodeSet();
+          w.collect(r, visited);
+          int[] ids = Arrays.stream(visited._table).filter(n -> n != 0).sorted().toArray();
+          for (int n : ids) {
+            out.append("[" + right(n, 5) + "] ");
+            out.append(right(w._level2var[w.level(n)], 3));
+            out.append(": " + right(w.low(n), 3));
+            out.append(" " + right(w.high(n), 3)).append('\n');
+          }
+          return null;
+        });
+    LOGGER.info("{}", out);
+  }
+
+  private static String right(int x, int w) {
+    String s = Integer.toString(x);
+    StringBuilder b = new StringBuilder(w);
+    for (int i = s.length(); i < w; ++i) {
+      b.append(' ');
+    }
+    b.append(s);
+    return b.toString();
+  }
+
+  @Override
+  public void printStat() {
+    LOGGER.info("{}", cachestats);
+  }
+
+  /* === DOMAINS AND BIT VECTORS ========================================== */
+
+  @Override
+  protected BDDDomain createDomain(int a, BigInteger b) {
+    return new Domain(a, b);
+  }
+
+  private final class Domain extends BDDDomain {
+    Domain(int a, BigInteger b) {
+      super(a, b);
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentJFactory.this;
+    }
+  }
+
+  @Override
+  protected BDDBitVector createBitVector(int a) {
+    return new BitVector(a);
+  }
+
+  private final class BitVector extends BDDBitVector {
+    BitVector(int bitnum) {
+      super(bitnum);
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentJFactory.this;
+    }
+  }
+
+  /* === OPERATION CACHES ================================================= */
+
+  /** A lossy cache from (a, b, c, op) to a result node. */
+  private static final class OpCache {
+    private static final int ENTRY_SIZE = 5;
+
+    private final int[] _table;
+    private final int _mask;
+
+    OpCache(int size) {
+      int entries = Integer.highestOneBit(Math.max(MIN_CAPACITY, size) - 1) << 1;
+      _table = new int[entries * ENTRY_SIZE];
+      _mask = entries - 1;
+      clear();
+    }
+
+    void clear() {
+      for (int i = 3; i < _table.length; i += ENTRY_SIZE) {
+        _table[i] = -1;
+      }
+    }
+
+    private int slot(int a, int b, int c, int op) {
+      int h = nodeHash(a, b, c) + op * 0x61C88647;
+      h ^= h >>> 16;
+      return (h & _mask) * ENTRY_SIZE;
+    }
+
+    /** Returns the cached result, or -1. */
+    int lookup(int a, int b, int c, int op) {
+      int i = slot(a, b, c, op);
+      int[] t = _table;
+      return t[i] == a && t[i + 1] == b && t[i + 2] == c && t[i + 3] == op ? t[i + 4] : -1;
+    }
+
+    void insert(int a, int b, int c, int op, int res) {
+      int i = slot(a, b, c, op);
+      int[] t = _table;
+      t[i] = a;
+      t[i + 1] = b;
+      t[i + 2] = c;
+      t[i + 3] = op;
+      t[i + 4] = res;
+    }
+  }
+
+  /* === PER-THREAD STATE AND ALGORITHMS ================================== */
+
+  /**
+   * The state of one thread using this factory: its view of the tables, its block of free node ids,
+   * its caches, and the parameters of its current operation. Only its own thread reads or writes
+   * it, except {@link #_inOp}.
+   *
+   * <p>Deliberately holds no reference to the factory outside of operations, so that a thread
+   * outliving the factory does not keep it alive.
+   */
+  private static final class Worker {
+    final Thread _thread = Thread.currentThread();
+
+    /** Whether the thread is inside an operation. Read by the thread stopping the world. */
+    volatile boolean _inOp;
+
+    int _depth;
+    ConcurrentJFactory _factory;
+
+    /** Epoch of the tables and caches below. */
+    int _epoch = -1;
+
+    int _orderVersion;
+
+    /** Number of nodes allocated in the current operation. */
+    int _allocated;
+
+    int[] _nodes;
+    AtomicIntegerArray _refs;
+    AtomicIntegerArray _unique;
+    int _uniqueMask;
+    int[] _freeIds;
+    AtomicInteger _freeCursor;
+    int _blockSize;
+    int _blockPos;
+    int _blockEnd;
+
+    int _varNum;
+    int[] _var2level;
+    int[] _level2var;
+    int[] _varset;
+
+    int _cacheSize;
+    OpCache _applyCache;
+    OpCache _quantCache;
+    OpCache _appexCache;
+    OpCache _replaceCache;
+    OpCache _miscCache;
+    int[][] _multiOpKeys;
+    int[] _multiOpResults;
+    int[] _countKeys;
+    BigInteger[] _countValues;
+
+    /* Quantification: marks levels of the current variable set. */
+    int[] _varSetMarks = new int[0];
+    int _varSetId;
+    int _varSet;
+    int _quantLast;
+
+    /* Replacement and composition. */
+    int[] _pairResult;
+    int _pairLast;
+    int _pairId;
+    int _composeLevel;
+
+    void begin(ConcurrentJFactory f) {
+      _factory = f;
+      _allocated = 0;
+      if (_epoch != f._epoch) {
+        loadTables(f);
+        if (_cacheSize != f._cacheSize || _applyCache == null) {
+          _cacheSize = f._cacheSize;
+          _applyCache = new OpCache(_cacheSize);
+          _quantCache = new OpCache(_cacheSize);
+          _appexCache = new OpCache(_cacheSize);
+          _replaceCache = new OpCache(_cacheSize);
+          _miscCache = new OpCache(_cacheSize);
+          int entries = _applyCache._mask + 1;
+          _multiOpKeys = new int[entries][];
+          _multiOpResults = new int[entries];
+          _countKeys = new int[entries];
+          _countValues = new BigInteger[entries];
+        } else {
+          _applyCache.clear();
+          _quantCache.clear();
+          _appexCache.clear();
+          _replaceCache.clear();
+          _miscCache.clear();
+          Arrays.fill(_multiOpKeys, null);
+          Arrays.fill(_countValues, null);
+        }
+        _epoch = f._epoch;
+      }
+    }
+
+    /** Loads the factory's tables, dropping this worker's block of free nodes. */
+    void loadTables(ConcurrentJFactory f) {
+      _nodes = f._nodes;
+      _refs = f._refs;
+      _unique = f._unique;
+      _uniqueMask = f._unique.length() - 1;
+      _freeIds = f._freeIds;
+      _freeCursor = f._freeCursor;
+      _blockSize = f._blockSize;
+      _blockPos = 0;
+      _blockEnd = 0;
+      _varNum = f._varNum;
+      _var2level = f._var2level;
+      _level2var = f._level2var;
+      _varset = f._varset;
+      _orderVersion = f._orderVersion;
+      if (_varSetMarks.length < _varNum) {
+        _varSetMarks = new int[_varNum];
+        _varSetId = 0;
+      }
+    }
+
+    /* --- Nodes --- */
+
+    int level(int n) {
+      return _nodes[n * NODE_SIZE];
+    }
+
+    int low(int n) {
+      return _nodes[n * NODE_SIZE + 1];
+    }
+
+    int high(int n) {
+      return _nodes[n * NODE_SIZE + 2];
+    }
+
+    void check(int r) {
+      if (r < 0 || r >= _nodes.length / NODE_SIZE || (r >= 2 && low(r) == INVALID_BDD)) {
+        throw new BDDException(ERR_ILLBDD);
+      }
+    }
+
+    void checkVar(int var) {
+      if (var < 0 || var >= _varNum) {
+        throw new BDDException(ERR_VAR);
+      }
+    }
+
+    void addRef(int n) {
+      if (n < 2) {
+        return;
+      }
+      while (true) {
+        int r = _refs.get(n);
+        if (r == MAX_REF || _refs.compareAndSet(n, r, r + 1)) {
+          return;
+        }
+      }
+    }
+
+    void delRef(int n) {
+      if (n == INVALID_BDD) {
+        throw new BDDException(ERR_ILLBDD);
+      }
+      if (n < 2) {
+        return;
+      }
+      while (true) {
+        int r = _refs.get(n);
+        if (r == 0) {
+          throw new BDDException("Unknown BDD root dereferenced");
+        }
+        if (r == MAX_REF || _refs.compareAndSet(n, r, r - 1)) {
+          return;
+        }
+      }
+    }
+
+    private int alloc() {
+      if (_blockPos == _blockEnd) {
+        int start = _freeCursor.getAndAdd(_blockSize);
+        if (start >= _freeIds.length) {
+          if (_factory._maintenanceLock.isHeldByCurrentThread()) {
+            _factory.growExclusive(this);
+            return alloc();
+          }
+          throw NodeTableFullException.INSTANCE;
+        }
+        _blockPos = start;
+        _blockEnd = Math.min(start + _blockSize, _freeIds.length);
+      }
+      _allocated++;
+      return _freeIds[_blockPos++];
+    }
+
+    /** Returns the most recently allocated node to the block. */
+    private void unalloc(int n) {
+      _nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+      _blockPos--;
+      _allocated--;
+    }
+
+    /** Finds or creates the node (level, low, high). */
+    int mk(int level, int low, int high) {
+      if (low == high) {
+        return low;
+      }
+      int hash = nodeHash(level, low, high);
+      int slot = hash & _uniqueMask;
+      int fresh = -1;
+      while (true) {
+        int n = _unique.get(slot);
+        if (n == 0) {
+          if (fresh < 0) {
+            AtomicIntegerArray unique = _unique;
+            fresh = alloc();
+            if (unique != _unique) {
+              // The tables were grown: restart the probe.
+              slot = hash & _uniqueMask;
+            }
+            int i = fresh * NODE_SIZE;
+            _nodes[i] = level;
+            _nodes[i + 1] = low;
+            _nodes[i + 2] = high;
+            continue;
+          }
+          // Publishes the node's fields along with its id.
+          if (_unique.compareAndSet(slot, 0, fresh)) {
+            return fresh;
+          }
+          continue;
+        }
+        int i = n * NODE_SIZE;
+        if (_nodes[i] == level && _nodes[i + 1] == low && _nodes[i + 2] == high) {
+          if (fresh >= 0) {
+            unalloc(fresh);
+          }
+          return n;
+        }
+        slot = (slot + 1) & _uniqueMask;
+      }
+    }
+
+    /** Removes a node from the unique table. Requires the world to be stopped. */
+    void uniqueRemove(int n) {
+      int mask = _uniqueMask;
+      int i = n * NODE_SIZE;
+      int slot = nodeHash(_nodes[i], _nodes[i + 1], _nodes[i + 2]) & mask;
+      while (_unique.get(slot) != n) {
+        slot = (slot + 1) & mask;
+      }
+      // Backward-shift deletion: move later entries of the probe sequence into the hole.
+      int hole = slot;
+      int j = slot;
+      while (true) {
+        j = (j + 1) & mask;
+        int m = _unique.get(j);
+        if (m == 0) {
+          _unique.set(hole, 0);
+          return;
+        }
+        int k = m * NODE_SIZE;
+        int home = nodeHash(_nodes[k], _nodes[k + 1], _nodes[k + 2]) & mask;
+        boolean stays = hole <= j ? hole < home && home <= j : hole < home || home <= j;
+        if (!stays) {
+          _unique.set(hole, m);
+          hole = j;
+        }
+      }
+    }
+
+    /* --- Variable sets and pairings --- */
+
+    /** Marks the levels of the given variable set, like JFactory's varset2vartable. */
+    void setVarSet(int r) {
+      if (r < 2) {
+        throw new BDDException(ERR_VARSET);
+      }
+      nextVarSetId(Integer.MAX_VALUE);
+      _varSet = r;
+      _quantLast = -1;
+      for (int n = r; n > 1; n = high(n)) {
+        _varSetMarks[level(n)] = _varSetId;
+        _quantLast = level(n);
+      }
+    }
+
+    /** Marks the levels of the given signed variable set: negative marks for negative literals. */
+    void setSignedVarSet(int r) {
+      if (r < 2) {
+        throw new BDDException(ERR_VARSET);
+      }
+      nextVarSetId(Integer.MAX_VALUE / 2);
+      _varSet = r;
+      _quantLast = 0;
+      for (int n = r; n > 1; ) {
+        if (low(n) == ZERO) {
+          _varSetMarks[level(n)] = _varSetId;
+          n = high(n);
+        } else {
+          _varSetMarks[level(n)] = -_varSetId;
+          n = low(n);
+        }
+        _quantLast = level(n);
+      }
+    }
+
+    private void nextVarSetId(int max) {
+      _varSetId++;
+      if (_varSetId >= max) {
+        Arrays.fill(_varSetMarks, 0);
+        _varSetId = 1;
+      }
+    }
+
+    private boolean inVarSet(int level) {
+      return _varSetMarks[level] == _varSetId;
+    }
+
+    void setPairing(Pairing p) {
+      PairLevels levels = p.levels(this);
+      _pairResult = levels._result;
+      _pairLast = levels._last;
+      _pairId = levels._id;
+    }
+
+    /* --- Boolean operators --- */
+
+    int apply(int l, int r, int op) {
+      switch (op) {
+        case OP_AND:
+          return and(l, r);
+        case OP_OR:
+          return or(l, r);
+        default:
+          break;
+      }
+      if (l < 2 && r < 2) {
+        return OPRRES[op][l << 1 | r];
+      }
+      switch (op) {
+        case OP_XOR:
+          if (l == r) {
+            return ZERO;
+          } else if (l == ZERO) {
+            return r;
+          } else if (r == ZERO) {
+            return l;
+          } else if (l == ONE) {
+            return not(r);
+          } else if (r == ONE) {
+            return not(l);
+          } else if (l > r) {
+            int t = l;
+            l = r;
+            r = t;
+          }
+          break;
+        case OP_NAND:
+          if (l == r) {
+            return not(l);
+          } else if (l == ZERO || r == ZERO) {
+            return ONE;
+          } else if (l == ONE) {
+            return not(r);
+          } else if (r == ONE) {
+            return not(l);
+          } else if (l > r) {
+            int t = l;
+            l = r;
+            r = t;
+          }
+          break;
+        case OP_NOR:
+          if (l == r) {
+            return not(l);
+          } else if (l == ONE || r == ONE) {
+            return ZERO;
+          } else if (l == ZERO) {
+            return not(r);
+          } else if (r == ZERO) {
+            return not(l);
+          } else if (l > r) {
+            int t = l;
+            l = r;
+            r = t;
+          }
+          break;
+        case OP_IMP:
+          if (l == r || l == ZERO || r == ONE) {
+            return ONE;
+          } else if (l == ONE) {
+            return r;
+          } else if (r == ZERO) {
+            return not(l);
+          }
+          break;
+        case OP_BIIMP:
+          if (l == r) {
+            return ONE;
+          } else if (l == ZERO) {
+            return not(r);
+          } else if (r == ZERO) {
+            return not(l);
+          } else if (l == ONE) {
+            return r;
+          } else if (r == ONE) {
+            return l;
+          } else if (l > r) {
+            int t = l;
+            l = r;
+            r = t;
+          }
+          break;
+        case OP_DIFF:
+          if (l == r || l == ZERO || r == ONE) {
+            return ZERO;
+          } else if (l == ONE) {
+            return not(r);
+          } else if (r == ZERO) {
+            return l;
+          }
+          break;
+        case OP_LESS:
+          if (l == r || l == ONE || r == ZERO) {
+            return ZERO;
+          } else if (l == ZERO) {
+            return r;
+          } else if (r == ONE) {
+            return not(l);
+          }
+          // Rewrite as the equivalent diff to improve caching.
+          return apply(r, l, OP_DIFF);
+        case OP_INVIMP:
+          if (l == r || l == ONE || r == ZERO) {
+            return ONE;
+          } else if (r == ONE) {
+            return l;
+          } else if (l == ZERO) {
+            return not(r);
+          }
+          // Rewrite as the equivalent imp to improve caching.
+          return apply(r, l, OP_IMP);
+        default:
+          throw new BDDException(ERR_OP);
+      }
+
+      int res = _applyCache.lookup(l, r, 0, op);
+      if (res >= 0) {
+        return res;
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      if (levelL == levelR) {
+        int lo = apply(low(l), low(r), op);
+        int hi = apply(high(l), high(r), op);
+        res = mk(levelL, lo, hi);
+      } else if (levelL < levelR) {
+        int lo = apply(low(l), r, op);
+        int hi = apply(high(l), r, op);
+        res = mk(levelL, lo, hi);
+      } else {
+        int lo = apply(l, low(r), op);
+        int hi = apply(l, high(r), op);
+        res = mk(levelR, lo, hi);
+      }
+      _applyCache.insert(l, r, 0, op, res);
+      return res;
+    }
+
+    int and(int l, int r) {
+      if (l == r) {
+        return l;
+      } else if (l == ZERO || r == ZERO) {
+        return ZERO;
+      } else if (l == ONE) {
+        return r;
+      } else if (r == ONE) {
+        return l;
+      } else if (l > r) {
+        int t = l;
+        l = r;
+        r = t;
+      }
+      int res = _applyCache.lookup(l, r, 0, OP_AND);
+      if (res >= 0) {
+        return res;
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      if (levelL == levelR) {
+        int lo = and(low(l), low(r));
+        int hi = and(high(l), high(r));
+        res = mk(levelL, lo, hi);
+      } else if (levelL < levelR) {
+        int lo = and(low(l), r);
+        int hi = and(high(l), r);
+        res = mk(levelL, lo, hi);
+      } else {
+        int lo = and(l, low(r));
+        int hi = and(l, high(r));
+        res = mk(levelR, lo, hi);
+      }
+      _applyCache.insert(l, r, 0, OP_AND, res);
+      return res;
+    }
+
+    int or(int l, int r) {
+      if (l == r) {
+        return l;
+      } else if (l == ONE || r == ONE) {
+        return ONE;
+      } else if (l == ZERO) {
+        return r;
+      } else if (r == ZERO) {
+        return l;
+      } else if (l > r) {
+        int t = l;
+        l = r;
+        r = t;
+      }
+      int res = _applyCache.lookup(l, r, 0, OP_OR);
+      if (res >= 0) {
+        return res;
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      if (levelL == levelR) {
+        int lo = or(low(l), low(r));
+        int hi = or(high(l), high(r));
+        res = mk(levelL, lo, hi);
+      } else if (levelL < levelR) {
+        int lo = or(low(l), r);
+        int hi = or(high(l), r);
+        res = mk(levelL, lo, hi);
+      } else {
+        int lo = or(l, low(r));
+        int hi = or(l, high(r));
+        res = mk(levelR, lo, hi);
+      }
+      _applyCache.insert(l, r, 0, OP_OR, res);
+      return res;
+    }
+
+    int not(int r) {
+      if (r < 2) {
+        return r ^ 1;
+      }
+      int res = _applyCache.lookup(r, 0, 0, OP_NOT);
+      if (res >= 0) {
+        return res;
+      }
+      int lo = not(low(r));
+      int hi = not(high(r));
+      res = mk(level(r), lo, hi);
+      _applyCache.insert(r, 0, 0, OP_NOT, res);
+      return res;
+    }
+
+    int ite(int f, int g, int h) {
+      if (f == ONE) {
+        return g;
+      } else if (f == ZERO) {
+        return h;
+      } else if (g == h) {
+        return g;
+      } else if (high(f) == ONE && low(f) == ZERO && level(f) < level(g) && level(f) < level(h)) {
+        // f is a single variable above g and h.
+        return mk(level(f), h, g);
+      } else if (g == ZERO) {
+        return apply(f, h, OP_LESS);
+      } else if (g == ONE) {
+        return or(f, h);
+      } else if (h == ZERO) {
+        return and(f, g);
+      } else if (h == ONE) {
+        return apply(f, g, OP_IMP);
+      }
+      int res = _applyCache.lookup(f, g, h, OP_ITE);
+      if (res >= 0) {
+        return res;
+      }
+      int level = Math.min(level(f), Math.min(level(g), level(h)));
+      int lo = ite(cofactor(f, level, false), cofactor(g, level, false), cofactor(h, level, false));
+      int hi = ite(cofactor(f, level, true), cofactor(g, level, true), cofactor(h, level, true));
+      res = mk(level, lo, hi);
+      _applyCache.insert(f, g, h, OP_ITE, res);
+      return res;
+    }
+
+    /** The cofactor of r with respect to the variable at the given level, at or above r. */
+    private int cofactor(int r, int level, boolean value) {
+      if (level(r) != level) {
+        return r;
+      }
+      return value ? high(r) : low(r);
+    }
+
+    boolean andSat(int l, int r) {
+      if (l == ZERO || r == ZERO) {
+        return false;
+      } else if (l == ONE || r == ONE || l == r) {
+        return true;
+      } else if (l > r) {
+        int t = l;
+        l = r;
+        r = t;
+      }
+      int cached = _applyCache.lookup(l, r, 0, OP_ANDSAT);
+      if (cached >= 0) {
+        return cached == ONE;
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      boolean res;
+      if (levelL == levelR) {
+        res = andSat(low(l), low(r)) || andSat(high(l), high(r));
+      } else if (levelL < levelR) {
+        res = andSat(low(l), r) || andSat(high(l), r);
+      } else {
+        res = andSat(l, low(r)) || andSat(l, high(r));
+      }
+      _applyCache.insert(l, r, 0, OP_ANDSAT, res ? ONE : ZERO);
+      return res;
+    }
+
+    boolean diffSat(int l, int r) {
+      if (l == ZERO || r == ONE) {
+        return false;
+      } else if (l == ONE || r == ZERO) {
+        return true;
+      } else if (l == r) {
+        return false;
+      }
+      int cached = _applyCache.lookup(l, r, 0, OP_DIFFSAT);
+      if (cached >= 0) {
+        return cached == ONE;
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      boolean res;
+      if (levelL == levelR) {
+        res = diffSat(low(l), low(r)) || diffSat(high(l), high(r));
+      } else if (levelL < levelR) {
+        res = diffSat(low(l), r) || diffSat(high(l), r);
+      } else {
+        res = diffSat(l, low(r)) || diffSat(l, high(r));
+      }
+      _applyCache.insert(l, r, 0, OP_DIFFSAT, res ? ONE : ZERO);
+      return res;
+    }
+
+    /** The disjunction of the given sorted, distinct, non-constant operands. */
+    int orAll(int[] operands) {
+      if (operands.length == 0) {
+        return ZERO;
+      } else if (operands.length == 1) {
+        return operands[0];
+      } else if (operands.length == 2) {
+        return or(operands[0], operands[1]);
+      }
+      Arrays.sort(operands);
+      operands = JFactory.dedupSorted(operands);
+
+      int hash = 0;
+      for (int operand : operands) {
+        hash = hash * 31 + operand;
+      }
+      int slot = nodeHash(hash, operands.length, OP_OR) & (_multiOpKeys.length - 1);
+      if (Arrays.equals(operands, _multiOpKeys[slot])) {
+        return _multiOpResults[slot];
+      }
+
+      // Branch on the topmost variable of any operand, as in JFactory.orAll_rec.
+      int minLevel = level(operands[0]);
+      for (int n : operands) {
+        minLevel = Math.min(minLevel, level(n));
+      }
+      int lo = orAllCofactor(operands, minLevel, false);
+      int hi = orAllCofactor(operands, minLevel, true);
+      int res = mk(minLevel, lo, hi);
+
+      _multiOpKeys[slot] = operands;
+      _multiOpResults[slot] = res;
+      return res;
+    }
+
+    private int orAllCofactor(int[] operands, int level, boolean value) {
+      int size = 0;
+      for (int n : operands) {
+        int c = cofactor(n, level, value);
+        if (c == ONE) {
+          return ONE;
+        } else if (c != ZERO) {
+          size++;
+        }
+      }
+      int[] cofactors = new int[size];
+      int i = 0;
+      for (int n : operands) {
+        int c = cofactor(n, level, value);
+        if (c != ZERO) {
+          cofactors[i++] = c;
+        }
+      }
+      return orAll(cofactors);
+    }
+
+    /* --- Quantification --- */
+
+    /** Quantifies the current variable set, combining cofactors with the given operator. */
+    int quant(int r, int combineOp) {
+      if (r < 2 || level(r) > _quantLast) {
+        return r;
+      }
+      int res = _quantCache.lookup(r, _varSet, 0, OP_QUANT + combineOp);
+      if (res >= 0) {
+        return res;
+      }
+      int lo = quant(low(r), combineOp);
+      int hi = quant(high(r), combineOp);
+      res = inVarSet(level(r)) ? apply(lo, hi, combineOp) : mk(level(r), lo, hi);
+      _quantCache.insert(r, _varSet, 0, OP_QUANT + combineOp, res);
+      return res;
+    }
+
+    int project(int r) {
+      if (r < 2) {
+        return r;
+      }
+      int level = level(r);
+      if (level > _quantLast) {
+        // Existentially quantify all remaining variables.
+        return ONE;
+      }
+      int res = _quantCache.lookup(r, _varSet, 0, OP_PROJECT);
+      if (res >= 0) {
+        return res;
+      }
+      int lo = project(low(r));
+      int hi = project(high(r));
+      res = inVarSet(level) ? mk(level, lo, hi) : or(lo, hi);
+      _quantCache.insert(r, _varSet, 0, OP_PROJECT, res);
+      return res;
+    }
+
+    /** Unique (exclusive) quantification of the variables in the cube q. */
+    int unique(int r, int q) {
+      if (level(r) > level(q)) {
+        // Skipped a quantified variable.
+        return ZERO;
+      }
+      if (r < 2 || q < 2) {
+        return r;
+      }
+      int res = _quantCache.lookup(r, q, 0, OP_UNIQUE);
+      if (res >= 0) {
+        return res;
+      }
+      if (level(r) == level(q)) {
+        int lo = unique(low(r), high(q));
+        int hi = unique(high(r), high(q));
+        res = apply(lo, hi, OP_XOR);
+      } else {
+        int lo = unique(low(r), q);
+        int hi = unique(high(r), q);
+        res = mk(level(r), lo, hi);
+      }
+      _quantCache.insert(r, q, 0, OP_UNIQUE, res);
+      return res;
+    }
+
+    /** Existentially quantifies the current variable set from l & r. */
+    int relprod(int l, int r) {
+      if (l == ZERO || r == ZERO) {
+        return ZERO;
+      } else if (l == r) {
+        return quant(l, OP_OR);
+      } else if (l == ONE) {
+        return quant(r, OP_OR);
+      } else if (r == ONE) {
+        return quant(l, OP_OR);
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      if (levelL > _quantLast && levelR > _quantLast) {
+        return and(l, r);
+      }
+      if (l > r) {
+        int t = l;
+        l = r;
+        r = t;
+      }
+      int res = _appexCache.lookup(l, r, _varSet, OP_APPEX + OP_AND);
+      if (res >= 0) {
+        return res;
+      }
+      int level = Math.min(levelL, levelR);
+      int lo = relprod(cofactor(l, level, false), cofactor(r, level, false));
+      int hi = relprod(cofactor(l, level, true), cofactor(r, level, true));
+      res = inVarSet(level) ? or(lo, hi) : mk(level, lo, hi);
+      _appexCache.insert(l, r, _varSet, OP_APPEX + OP_AND, res);
+      return res;
+    }
+
+    /** Quantifies the current variable set from (l op r), combining with combineOp. */
+    int appQuant(int l, int r, int op, int combineOp) {
+      switch (op) {
+        case OP_OR:
+          if (l == ONE || r == ONE) {
+            return ONE;
+          } else if (l == r) {
+            return quant(l, combineOp);
+          } else if (l == ZERO) {
+            return quant(r, combineOp);
+          } else if (r == ZERO) {
+            return quant(l, combineOp);
+          }
+          break;
+        case OP_XOR:
+          if (l == r) {
+            return ZERO;
+          } else if (l == ZERO) {
+            return quant(r, combineOp);
+          } else if (r == ZERO) {
+            return quant(l, combineOp);
+          }
+          break;
+        case OP_NAND:
+          if (l == ZERO || r == ZERO) {
+            return ONE;
+          }
+          break;
+        case OP_NOR:
+          if (l == ONE || r == ONE) {
+            return ZERO;
+          }
+          break;
+        default:
+          break;
+      }
+      if (l < 2 && r < 2) {
+        return OPRRES[op][l << 1 | r];
+      }
+      int levelL = level(l);
+      int levelR = level(r);
+      if (levelL > _quantLast && levelR > _quantLast) {
+        return apply(l, r, op);
+      }
+      int tag = (combineOp == OP_OR ? OP_APPEX : OP_APPALL) + op;
+      int res = _appexCache.lookup(l, r, _varSet, tag);
+      if (res >= 0) {
+        return res;
+      }
+      int level = Math.min(levelL, levelR);
+      int lo = appQuant(cofactor(l, level, false), cofactor(r, level, false), op, combineOp);
+      int hi = appQuant(cofactor(l, level, true), cofactor(r, level, true), op, combineOp);
+      res = inVarSet(level) ? apply(lo, hi, combineOp) : mk(level, lo, hi);
+      _appexCache.insert(l, r, _varSet, tag, res);
+      return res;
+    }
+
+    /** Uniquely quantifies the variables in the cube var from (l op r). */
+    int appUni(int l, int r, int var, int op) {
+      int levelL = level(l);
+      int levelR = level(r);
+      int levelVar = level(var);
+      if (levelL > levelVar && levelR > levelVar) {
+        // Skipped a quantified variable.
+        return ZERO;
+      }
+      if (l < 2 && r < 2) {
+        return OPRRES[op][l << 1 | r];
+      } else if (var < 2) {
+        return apply(l, r, op);
+      }
+      int res = _appexCache.lookup(l, r, var, OP_APPUNI + op);
+      if (res >= 0) {
+        return res;
+      }
+      int level = Math.min(levelL, levelR);
+      boolean quantified = level == levelVar;
+      int nextVar = quantified ? high(var) : var;
+      int lo = appUni(cofactor(l, level, false), cofactor(r, level, false), nextVar, op);
+      int hi = appUni(cofactor(l, level, true), cofactor(r, level, true), nextVar, op);
+      res = quantified ? apply(lo, hi, OP_XOR) : mk(level, lo, hi);
+      _appexCache.insert(l, r, var, OP_APPUNI + op, res);
+      return res;
+    }
+
+    int restrict(int r, int var) {
+      if (var < 2) {
+        return r;
+      }
+      setSignedVarSet(var);
+      return restrictRec(r);
+    }
+
+    private int restrictRec(int r) {
+      if (r < 2 || level(r) > _quantLast) {
+        return r;
+      }
+      int res = _miscCache.lookup(r, _varSet, 0, OP_RESTRICT);
+      if (res >= 0) {
+        return res;
+      }
+      int mark = _varSetMarks[level(r)];
+      if (mark == _varSetId) {
+        res = restrictRec(high(r));
+      } else if (mark == -_varSetId) {
+        res = restrictRec(low(r));
+      } else {
+        int lo = restrictRec(low(r));
+        int hi = restrictRec(high(r));
+        res = mk(level(r), lo, hi);
+      }
+      _miscCache.insert(r, _varSet, 0, OP_RESTRICT, res);
+      return res;
+    }
+
+    int constrain(int f, int c) {
+      if (c == ONE || f < 2) {
+        return f;
+      } else if (c == f) {
+        return ONE;
+      } else if (c == ZERO) {
+        return ZERO;
+      }
+      int res = _miscCache.lookup(f, c, 0, OP_CONSTRAIN);
+      if (res >= 0) {
+        return res;
+      }
+      int levelF = level(f);
+      int levelC = level(c);
+      if (levelF < levelC) {
+        int lo = constrain(low(f), c);
+        int hi = constrain(high(f), c);
+        res = mk(levelF, lo, hi);
+      } else {
+        int f0 = cofactor(f, levelC, false);
+        int f1 = cofactor(f, levelC, true);
+        if (low(c) == ZERO) {
+          res = constrain(f1, high(c));
+        } else if (high(c) == ZERO) {
+          res = constrain(f0, low(c));
+        } else {
+          int lo = constrain(f0, low(c));
+          int hi = constrain(f1, high(c));
+          res = mk(levelC, lo, hi);
+        }
+      }
+      _miscCache.insert(f, c, 0, OP_CONSTRAIN, res);
+      return res;
+    }
+
+    int simplify(int f, int d) {
+      if (d == ONE || f < 2) {
+        return f;
+      } else if (d == f) {
+        return ONE;
+      } else if (d == ZERO) {
+        return ZERO;
+      }
+      int res = _applyCache.lookup(f, d, 0, OP_SIMPLIFY);
+      if (res >= 0) {
+        return res;
+      }
+      int levelF = level(f);
+      int levelD = level(d);
+      if (levelF == levelD) {
+        if (low(d) == ZERO) {
+          res = simplify(high(f), high(d));
+        } else if (high(d) == ZERO) {
+          res = simplify(low(f), low(d));
+        } else {
+          int lo = simplify(low(f), low(d));
+          int hi = simplify(high(f), high(d));
+          res = mk(levelF, lo, hi);
+        }
+      } else if (levelF < levelD) {
+        int lo = simplify(low(f), d);
+        int hi = simplify(high(f), d);
+        res = mk(levelF, lo, hi);
+      } else {
+        res = simplify(f, or(low(d), high(d)));
+      }
+      _applyCache.insert(f, d, 0, OP_SIMPLIFY, res);
+      return res;
+    }
+
+    /* --- Replacement and composition --- */
+
+    int replace(int r) {
+      if (r < 2 || level(r) > _pairLast) {
+        return r;
+      }
+      int res = _replaceCache.lookup(r, _pairId, 0, OP_REPLACE);
+      if (res >= 0) {
+        return res;
+      }
+      int lo = replace(low(r));
+      int hi = replace(high(r));
+      res = correctify(level(_pairResult[level(r)]), lo, hi);
+      _replaceCache.insert(r, _pairId, 0, OP_REPLACE, res);
+      return res;
+    }
+
+    /** Like mk, but the level need not be above the levels of l and r. */
+    private int correctify(int level, int l, int r) {
+      int levelL = level(l);
+      int levelR = level(r);
+      if (level < levelL && level < levelR) {
+        return mk(level, l, r);
+      }
+      if (level == levelL || level == levelR) {
+        throw new BDDException(ERR_REPLACE);
+      }
+      int res = _replaceCache.lookup(l, r, level, OP_CORRECTIFY);
+      if (res >= 0) {
+        return res;
+      }
+      int top = Math.min(levelL, levelR);
+      int lo = correctify(level, cofactor(l, top, false), cofactor(r, top, false));
+      int hi = correctify(level, cofactor(l, top, true), cofactor(r, top, true));
+      res = mk(top, lo, hi);
+      _replaceCache.insert(l, r, level, OP_CORRECTIFY, res);
+      return res;
+    }
+
+    int compose(int f, int g) {
+      int levelF = level(f);
+      if (levelF > _composeLevel) {
+        return f;
+      }
+      int res = _replaceCache.lookup(f, g, _composeLevel, OP_COMPOSE);
+      if (res >= 0) {
+        return res;
+      }
+      if (levelF < _composeLevel) {
+        int level = Math.min(levelF, level(g));
+        int lo = compose(cofactor(f, level, false), cofactor(g, level, false));
+        int hi = compose(cofactor(f, level, true), cofactor(g, level, true));
+        res = mk(level, lo, hi);
+      } else {
+        res = ite(g, high(f), low(f));
+      }
+      _replaceCache.insert(f, g, _composeLevel, OP_COMPOSE, res);
+      return res;
+    }
+
+    int veccompose(int f) {
+      if (level(f) > _pairLast) {
+        return f;
+      }
+      int res = _replaceCache.lookup(f, _pairId, 0, OP_VECCOMPOSE);
+      if (res >= 0) {
+        return res;
+      }
+      int lo = veccompose(low(f));
+      int hi = veccompose(high(f));
+      res = ite(_pairResult[level(f)], hi, lo);
+      _replaceCache.insert(f, _pairId, 0, OP_VECCOMPOSE, res);
+      return res;
+    }
+
+    /* --- Satisfying assignments --- */
+
+    /** A node for variable level, with the given child on one branch and false on the other. */
+    private int satNode(int level, int child, boolean useLow) {
+      return useLow ? mk(level, child, ZERO) : mk(level, ZERO, child);
+    }
+
+    int satOne(int r) {
+      if (r < 2) {
+        return r;
+      }
+      boolean useHigh = low(r) == ZERO;
+      return satNode(level(r), satOne(useHigh ? high(r) : low(r)), !useHigh);
+    }
+
+    int satOneSet(int r, int var, boolean pol) {
+      if (r < 2 && var < 2) {
+        return r;
+      }
+      int levelR = level(r);
+      int levelVar = level(var);
+      if (levelVar < levelR) {
+        return satNode(levelVar, satOneSet(r, high(var), pol), !pol);
+      }
+      boolean useHigh = low(r) == ZERO;
+      int next = levelR == levelVar ? high(var) : var;
+      return satNode(levelR, satOneSet(useHigh ? high(r) : low(r), next, pol), !useHigh);
+    }
+
+    int fullSatOne(int r) {
+      if (r == ZERO) {
+        return ZERO;
+      }
+      int res = fullSatOneRec(r);
+      for (int v = level(r) - 1; v >= 0; v--) {
+        res = satNode(v, res, true);
+      }
+      return res;
+    }
+
+    private int fullSatOneRec(int r) {
+      if (r < 2) {
+        return r;
+      }
+      boolean useLow = low(r) != ZERO;
+      int child = fullSatOneRec(useLow ? low(r) : high(r));
+      for (int v = level(child) - 1; v > level(r); v--) {
+        child = satNode(v, child, true);
+      }
+      return satNode(level(r), child, useLow);
+    }
+
+    void minAssignmentBits(BitSet set, int r) {
+      while (r >= 2) {
+        if (low(r) == ZERO) {
+          set.set(level(r));
+          r = high(r);
+        } else {
+          r = low(r);
+        }
+      }
+    }
+
+    /** See JFactory.randomfullsatone_rec. */
+    int randomFullSatOne(int r, int level, int seed) {
+      if (level == _varNum) {
+        return r;
+      }
+      int newSeed = seed * 31 + level;
+      boolean preferLo = (newSeed & 65536) == 0;
+      if (level < level(r)) {
+        if (preferLo) {
+          newSeed = newSeed * 23;
+        }
+        return satNode(level, randomFullSatOne(r, level + 1, newSeed), preferLo);
+      }
+      int lo = low(r);
+      int hi = high(r);
+      boolean useLo = (lo != ZERO && preferLo || hi == ZERO);
+      if (useLo) {
+        newSeed *= 23;
+      }
+      return satNode(level, randomFullSatOne(useLo ? lo : hi, level + 1, newSeed), useLo);
+    }
+
+    boolean isAssignment(int r) {
+      while (r >= 2) {
+        if (low(r) == ZERO) {
+          r = high(r);
+        } else if (high(r) == ZERO) {
+          r = low(r);
+        } else {
+          return false;
+        }
+      }
+      return r == ONE;
+    }
+
+    /* --- Traversals and counting --- */
+
+    /** Adds the non-terminal nodes of r to visited. */
+    void collect(int r, NodeSet visited) {
+      if (r >= 2 && visited.add(r)) {
+        collect(low(r), visited);
+        collect(high(r), visited);
+      }
+    }
+
+    int support(int r) {
+      if (r < 2) {
+        return ONE;
+      }
+      NodeSet visited = new NodeSet();
+      collect(r, visited);
+      boolean[] levels = new boolean[_varNum];
+      for (int n : visited._table) {
+        if (n != 0) {
+          levels[level(n)] = true;
+        }
+      }
+      int res = ONE;
+      for (int level = _varNum - 1; level >= 0; level--) {
+        if (levels[level]) {
+          res = mk(level, ZERO, res);
+        }
+      }
+      return res;
+    }
+
+    /** The number of satisfying assignments of the variables from level(r) down. */
+    BigInteger satCount(int r) {
+      if (r < 2) {
+        return r == ZERO ? BigInteger.ZERO : BigInteger.ONE;
+      }
+      int slot = countSlot(r, COUNT_SAT);
+      if (_countKeys[slot] == r << 1 && _countValues[slot] != null) {
+        return _countValues[slot];
+      }
+      int lo = low(r);
+      int hi = high(r);
+      BigInteger res =
+          satCount(lo)
+              .shiftLeft(level(lo) - level(r) - 1)
+              .add(satCount(hi).shiftLeft(level(hi) - level(r) - 1));
+      _countKeys[slot] = r << 1;
+      _countValues[slot] = res;
+      return res;
+    }
+
+    BigInteger pathCount(int r) {
+      if (r < 2) {
+        return r == ZERO ? BigInteger.ZERO : BigInteger.ONE;
+      }
+      int slot = countSlot(r, COUNT_PATH);
+      if (_countKeys[slot] == (r << 1 | 1) && _countValues[slot] != null) {
+        return _countValues[slot];
+      }
+      BigInteger res = pathCount(low(r)).add(pathCount(high(r)));
+      _countKeys[slot] = r << 1 | 1;
+      _countValues[slot] = res;
+      return res;
+    }
+
+    private int countSlot(int r, int kind) {
+      return nodeHash(r, kind, 0) & (_countKeys.length - 1);
+    }
+  }
+}
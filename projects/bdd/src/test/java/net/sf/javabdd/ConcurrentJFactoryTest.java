@@ -0,0 +1,187 @@
+package net.sf.javabdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/** Tests of {@link ConcurrentJFactory}. */
+public class ConcurrentJFactoryTest {
+  private static final int THREADS = 4;
+  private static final int VARS = 12;
+
+  /** Builds a random function of the first {@link #VARS} variables as a disjunction of cubes. */
+  private static BDD randomBdd(BDDFactory factory, Random random) {
+    BDD result = factory.zero();
+    int cubes = 1 + random.nextInt(6);
+    for (int i = 0; i < cubes; i++) {
+      BDD cube = factory.one();
+      for (int var = 0; var < VARS; var++) {
+        int choice = random.nextInt(3);
+        if (choice == 0) {
+          cube.andWith(factory.ithVar(var));
+        } else if (choice == 1) {
+          cube.andWith(factory.nithVar(var));
+        }
+      }
+      result.orWith(cube);
+    }
+    return result;
+  }
+
+  private static BDD varSet(BDDFactory factory, Random random) {
+    BDD vars = factory.one();
+    for (int var = 0; var < VARS; var++) {
+      if (random.nextInt(3) == 0) {
+        vars.andWith(factory.ithVar(var));
+      }
+    }
+    return vars;
+  }
+
+  /**
+   * Runs the same sequence of operations on the given factory, returning the satisfying assignment
+   * counts of the results.
+   */
+  private static List<Double> runOps(BDDFactory factory, long seed) {
+    Random random = new Random(seed);
+    BDDPairing pair = factory.makePair();
+    for (int var = 0; var < VARS; var++) {
+      pair.set(var, VARS + var);
+    }
+    List<Double> counts = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      BDD a = randomBdd(factory, random);
+      BDD b = randomBdd(factory, random);
+      BDD c = randomBdd(factory, random);
+      BDD vars = varSet(factory, random);
+      counts.add(a.and(b).satCount());
+      counts.add(a.or(b).satCount());
+      counts.add(a.xor(b).satCount());
+      counts.add(a.imp(b).satCount());
+      counts.add(a.not().satCount());
+      counts.add(a.ite(b, c).satCount());
+      counts.add(a.exist(vars).satCount());
+      counts.add(a.forAll(vars).satCount());
+      counts.add(a.relprod(b, vars).satCount());
+      counts.add(a.replace(pair).and(b).satCount());
+      counts.add(a.andSat(b) ? 1.0 : 0.0);
+      a.free();
+      b.free();
+      c.free();
+      vars.free();
+    }
+    return counts;
+  }
+
+  @Test
+  public void testAgreesWithJFactory() throws Exception {
+    BDDFactory reference = JFactory.init(10000, 10000);
+    reference.setVarNum(2 * VARS);
+    // A small table, so that the threads force garbage collections and growth.
+    BDDFactory factory = ConcurrentJFactory.init(100, 100);
+    factory.setVarNum(2 * VARS);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<Double>>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS * 2; t++) {
+        long seed = t;
+        results.add(executor.submit(() -> runOps(factory, seed)));
+      }
+      for (int t = 0; t < results.size(); t++) {
+        assertThat(results.get(t).get(), equalTo(runOps(reference, t)));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(factory.getNodeTableSize(), greaterThan(100));
+  }
+
+  @Test
+  public void testCanonicalAcrossThreads() throws Exception {
+    BDDFactory factory = ConcurrentJFactory.init(100, 100);
+    factory.setVarNum(VARS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<BDD>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS * 4; t++) {
+        results.add(executor.submit(() -> randomBdd(factory, new Random(42))));
+      }
+      BDD expected = results.get(0).get();
+      for (Future<BDD> result : results) {
+        assertThat(result.get(), equalTo(expected));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testGarbageCollection() {
+    BDDFactory factory = ConcurrentJFactory.init(100, 100);
+    factory.setVarNum(VARS);
+    BDD kept = randomBdd(factory, new Random(1));
+    double keptCount = kept.satCount();
+    for (int i = 0; i < 1000; i++) {
+      randomBdd(factory, new Random(i)).free();
+    }
+    assertThat(kept.satCount(), equalTo(keptCount));
+    assertTrue(factory.getNodeNum() <= factory.getNodeTableSize());
+  }
+
+  @Test
+  public void testSetVarOrder() {
+    BDDFactory factory = ConcurrentJFactory.init(1000, 1000);
+    factory.setVarNum(VARS);
+    Random random = new Random(7);
+    List<BDD> bdds = new ArrayList<>();
+    List<Double> counts = new ArrayList<>();
+    List<BDD> firstAssignments = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      BDD bdd = randomBdd(factory, random);
+      bdds.add(bdd);
+      counts.add(bdd.satCount());
+      firstAssignments.add(bdd.satOne());
+    }
+    int[] order = new int[VARS];
+    for (int i = 0; i < VARS; i++) {
+      order[i] = VARS - 1 - i;
+    }
+    factory.setVarOrder(order);
+    assertThat(factory.var2Level(0), equalTo(VARS - 1));
+    for (int i = 0; i < bdds.size(); i++) {
+      BDD bdd = bdds.get(i);
+      assertThat(bdd.satCount(), equalTo(counts.get(i)));
+      // Each assignment found before reordering still satisfies the function.
+      assertTrue(firstAssignments.get(i).imp(bdd).isOne());
+    }
+    // Rebuilding gives the same (canonical) BDDs.
+    Random rebuild = new Random(7);
+    for (BDD bdd : bdds) {
+      assertThat(randomBdd(factory, rebuild), equalTo(bdd));
+    }
+  }
+
+  @Test
+  public void testDuplicateVar() {
+    BDDFactory factory = ConcurrentJFactory.init(1000, 1000);
+    factory.setVarNum(3);
+    BDD x = factory.ithVar(0);
+    BDD f = x.and(factory.ithVar(1));
+    int y = factory.duplicateVar(0);
+    assertThat(y, equalTo(3));
+    assertThat(factory.var2Level(y), equalTo(factory.var2Level(0) + 1));
+    // Old functions now require both copies of the variable.
+    assertThat(f, equalTo(factory.ithVar(0).and(factory.ithVar(y)).and(factory.ithVar(1))));
+    assertThat(factory.ithVar(0).satCount(), equalTo(8.0));
+  }
+}
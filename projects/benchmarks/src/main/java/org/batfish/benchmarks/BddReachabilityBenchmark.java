@@ -0,0 +1,108 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.batfish.bddreachability.BDDReachabilityAnalysis;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.benchmarks.SyntheticNetworks.Topology;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.specifier.InterfaceLinkLocation;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.specifier.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks construction of {@link BDDReachabilityAnalysisFactory} and of the reachability graph
+ * from every interface link, on the data planes of synthetic networks. See {@link
+ * SyntheticNetworks}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BddReachabilityBenchmark {
+
+  /** The network and its data plane, shared by all invocations. */
+  @State(Scope.Benchmark)
+  public static class Network {
+    @Param({"FAT_TREE", "WAN"})
+    public Topology _topology;
+
+    /** Size of the network. See {@link SyntheticNetworks#generate}. */
+    @Param({"8", "16"})
+    public int _size;
+
+    private Map<String, Configuration> _configurations;
+    private DataPlane _dataPlane;
+    private IpSpaceAssignment _srcIpSpaceAssignment;
+
+    @Setup
+    public void setup() {
+      _configurations =
+          BenchmarkSnapshots.parseAndConvert(
+              SyntheticNetworks.generate(_topology, _size), ConfigurationFormat.CISCO_IOS);
+      _dataPlane = BenchmarkDataPlanes.computeDataPlane(_configurations)._dataPlane;
+      Set<Location> locations =
+          _configurations.values().stream()
+              .flatMap(
+                  c ->
+                      c.getActiveInterfaces().keySet().stream()
+                          .map(iface -> new InterfaceLinkLocation(c.getHostname(), iface)))
+              .collect(ImmutableSet.toImmutableSet());
+      _srcIpSpaceAssignment =
+          IpSpaceAssignment.builder().assign(locations, UniverseIpSpace.INSTANCE).build();
+    }
+
+    private BDDReachabilityAnalysisFactory newFactory() {
+      return new BDDReachabilityAnalysisFactory(
+          new BDDPacket(),
+          _configurations,
+          _dataPlane.getForwardingAnalysis(),
+          new IpsRoutedOutInterfacesFactory(_dataPlane.getFibs()),
+          false,
+          false);
+    }
+  }
+
+  /** A freshly constructed factory, so graph construction does not reuse a warm BDD cache. */
+  @State(Scope.Thread)
+  public static class Factory {
+    private BDDReachabilityAnalysisFactory _factory;
+
+    @Setup(Level.Invocation)
+    public void setup(Network network) {
+      _factory = network.newFactory();
+    }
+  }
+
+  @Benchmark
+  public BDDReachabilityAnalysisFactory constructFactory(Network network) {
+    return network.newFactory();
+  }
+
+  @Benchmark
+  public BDDReachabilityAnalysis constructGraph(Network network, Factory factory) {
+    return factory._factory.bddReachabilityAnalysis(network._srcIpSpaceAssignment);
+  }
+}
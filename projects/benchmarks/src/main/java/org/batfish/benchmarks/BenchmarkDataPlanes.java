@@ -0,0 +1,55 @@
+package org.batfish.benchmarks;
+
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.ospf.OspfTopologyUtils;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
+import org.batfish.dataplane.ibdp.TopologyContext;
+
+/**
+ * Computes data planes with the incremental data plane engine directly from configurations, without
+ * a {@link org.batfish.main.Batfish} instance or storage.
+ */
+@ParametersAreNonnullByDefault
+public final class BenchmarkDataPlanes {
+
+  /**
+   * Returns the initial topology context for the given configurations: the layer-3 topology
+   * inferred from interface addresses and the OSPF topology on top of it.
+   */
+  public static @Nonnull TopologyContext initialTopologyContext(
+      Map<String, Configuration> configurations) {
+    Topology layer3Topology = TopologyUtil.synthesizeL3Topology(configurations);
+    NetworkConfigurations nc = NetworkConfigurations.of(configurations);
+    OspfTopologyUtils.initNeighborConfigs(nc);
+    return TopologyContext.builder()
+        .setLayer3Topology(layer3Topology)
+        .setOspfTopology(OspfTopologyUtils.computeOspfTopology(nc, layer3Topology))
+        .build();
+  }
+
+  /** Computes the data plane of the given configurations with the given engine settings. */
+  public static @Nonnull ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext topologyContext,
+      IncrementalDataPlaneSettings settings) {
+    return IncrementalDataPlanePlugin.computeDataPlaneFromConfigurations(
+        configurations, topologyContext, settings);
+  }
+
+  /** Computes the data plane of the given configurations with default engine settings. */
+  public static @Nonnull ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations) {
+    return computeDataPlane(
+        configurations, initialTopologyContext(configurations), new IncrementalDataPlaneSettings());
+  }
+
+  private BenchmarkDataPlanes() {}
+}
@@ -0,0 +1,96 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.job.ConvertConfigurationResult;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.vendor.VendorConfiguration;
+
+/** Runs the parsing and conversion jobs on generated configurations outside of a full snapshot. */
+@ParametersAreNonnullByDefault
+public final class BenchmarkSnapshots {
+
+  private static final NetworkSnapshot SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("benchmark_network"), new SnapshotId("benchmark_snapshot"));
+
+  /** Returns settings for running parsing and conversion jobs, logging only warnings. */
+  public static @Nonnull Settings settings() {
+    Settings settings = new Settings();
+    settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false));
+    return settings;
+  }
+
+  /** Returns a job that parses {@code text} as a configuration file in the given format. */
+  public static @Nonnull ParseVendorConfigurationJob parseJob(
+      Settings settings, String filename, String text, ConfigurationFormat format) {
+    return new ParseVendorConfigurationJob(
+        settings,
+        SNAPSHOT,
+        ImmutableMap.of(filename, text),
+        new Warnings.Settings(false, false, false),
+        format,
+        ImmutableMultimap.of(),
+        null);
+  }
+
+  /**
+   * Parses {@code text} as a configuration file in the given format.
+   *
+   * @throws BatfishException if parsing fails.
+   */
+  public static @Nonnull VendorConfiguration parse(
+      Settings settings, String filename, String text, ConfigurationFormat format) {
+    ParseVendorConfigurationResult result = parseJob(settings, filename, text, format).call();
+    VendorConfiguration vc = result.getVendorConfiguration();
+    if (vc == null) {
+      throw new BatfishException(
+          String.format("Failed to parse %s as %s", filename, format), result.getFailureCause());
+    }
+    return vc;
+  }
+
+  /** Returns a job that converts {@code vc} to vendor-independent configurations. */
+  public static @Nonnull ConvertConfigurationJob convertJob(
+      Settings settings, VendorConfiguration vc) {
+    return new ConvertConfigurationJob(settings, null, null, vc, vc.getFilename());
+  }
+
+  /**
+   * Parses and converts the given configuration texts, keyed by hostname.
+   *
+   * @throws BatfishException if parsing or conversion of any configuration fails.
+   */
+  public static @Nonnull ImmutableSortedMap<String, Configuration> parseAndConvert(
+      Map<String, String> textsByHostname, ConfigurationFormat format) {
+    Settings settings = settings();
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    textsByHostname.forEach(
+        (hostname, text) -> {
+          ConvertConfigurationResult result =
+              convertJob(settings, parse(settings, "configs/" + hostname, text, format)).call();
+          if (result.getConfigurations() == null) {
+            throw new BatfishException(
+                String.format("Failed to convert %s", hostname), result.getFailureCause());
+          }
+          configs.putAll(result.getConfigurations());
+        });
+    return configs.build();
+  }
+
+  private BenchmarkSnapshots() {}
+}
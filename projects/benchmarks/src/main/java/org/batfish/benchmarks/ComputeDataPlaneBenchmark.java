@@ -0,0 +1,77 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.benchmarks.SyntheticNetworks.Topology;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link IncrementalDataPlanePlugin#computeDataPlaneFromConfigurations} on synthetic
+ * networks. See {@link SyntheticNetworks}. Each invocation computes the data plane of a fresh copy
+ * of the configurations, since the engine and topology initialization modify them.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ComputeDataPlaneBenchmark {
+
+  @Param({"FAT_TREE", "WAN"})
+  public Topology _topology;
+
+  /** Size of the network. Both topologies have as many nodes as a fat-tree with this {@code k}. */
+  @Param({"8", "16"})
+  public int _size;
+
+  /** Whether to use the worklist mode of the engine. */
+  @Param({"false", "true"})
+  public boolean _worklist;
+
+  private ImmutableSortedMap<String, Configuration> _parsed;
+  private SortedMap<String, Configuration> _configurations;
+  private TopologyContext _topologyContext;
+  private IncrementalDataPlaneSettings _settings;
+
+  @Setup
+  public void setup() {
+    _parsed =
+        BenchmarkSnapshots.parseAndConvert(
+            SyntheticNetworks.generate(_topology, _size), ConfigurationFormat.CISCO_IOS);
+    _settings = new IncrementalDataPlaneSettings();
+    _settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST, _worklist);
+  }
+
+  @Setup(Level.Invocation)
+  public void copyConfigurations() {
+    _configurations = SerializationUtils.clone(_parsed);
+    _topologyContext = BenchmarkDataPlanes.initialTopologyContext(_configurations);
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane() {
+    return BenchmarkDataPlanes.computeDataPlane(_configurations, _topologyContext, _settings);
+  }
+}
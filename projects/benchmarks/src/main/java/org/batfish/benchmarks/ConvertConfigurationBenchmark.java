@@ -0,0 +1,69 @@
+package org.batfish.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.job.ConvertConfigurationResult;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ConvertConfigurationJob} on a generated configuration for each supported
+ * vendor. Conversion may modify the vendor configuration, so each invocation converts a fresh copy
+ * of the parsed configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ConvertConfigurationBenchmark {
+
+  @Param({"ARISTA", "CISCO_IOS", "CISCO_NX", "JUNIPER"})
+  public ConfigurationFormat _format;
+
+  /** Number of interfaces, ACL lines, prefix-list entries, and BGP neighbors. */
+  @Param({"100", "1000"})
+  public int _size;
+
+  private Settings _settings;
+  private VendorConfiguration _parsed;
+  private VendorConfiguration _vc;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkSnapshots.settings();
+    _parsed =
+        BenchmarkSnapshots.parse(
+            _settings,
+            "configs/device",
+            SyntheticConfigs.device(_format, "device", _size),
+            _format);
+  }
+
+  @Setup(Level.Invocation)
+  public void copyVendorConfiguration() {
+    _vc = SerializationUtils.clone(_parsed);
+  }
+
+  @Benchmark
+  public ConvertConfigurationResult convert() {
+    return BenchmarkSnapshots.convertJob(_settings, _vc).call();
+  }
+}
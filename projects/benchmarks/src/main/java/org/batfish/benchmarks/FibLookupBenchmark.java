@@ -0,0 +1,111 @@
+package org.batfish.benchmarks;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibEntry;
+import org.batfish.datamodel.FibImpl;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.ResolutionRestriction;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.dataplane.rib.Rib;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link FibImpl#get(Ip)} and its compiled form, {@link FibImpl#getCompiled()}, on a FIB
+ * of random static routes, all recursively resolved through a few connected routes. Routes and
+ * lookup addresses are generated with a fixed seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class FibLookupBenchmark {
+
+  private static final long SEED = 0x5eedL;
+
+  /** Number of lookups per invocation. */
+  private static final int LOOKUPS = 1 << 12;
+
+  private static final int NEXT_HOP_INTERFACES = 16;
+
+  /** Number of routes in the FIB. */
+  @Param({"1000", "100000"})
+  public int _routes;
+
+  private FibImpl _fib;
+  private Fib _compiledFib;
+  private Ip[] _lookups;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(SEED);
+    Rib rib = new Rib();
+    for (int i = 0; i < NEXT_HOP_INTERFACES; i++) {
+      Prefix network = Prefix.create(Ip.create(Ip.parse("100.64.0.0").asLong() + 4L * i), 30);
+      rib.mergeRoute(
+          new AnnotatedRoute<AbstractRoute>(
+              new ConnectedRoute(network, "Ethernet" + i), Configuration.DEFAULT_VRF_NAME));
+    }
+    for (int i = 0; i < _routes; i++) {
+      int length = 8 + random.nextInt(25);
+      Prefix network = Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), length);
+      Ip nextHop =
+          Ip.create(Ip.parse("100.64.0.0").asLong() + 4L * random.nextInt(NEXT_HOP_INTERFACES) + 2);
+      rib.mergeRoute(
+          new AnnotatedRoute<AbstractRoute>(
+              StaticRoute.testBuilder()
+                  .setNetwork(network)
+                  .setNextHopIp(nextHop)
+                  .setAdministrativeCost(1)
+                  .build(),
+              Configuration.DEFAULT_VRF_NAME));
+    }
+    _fib = new FibImpl(rib, ResolutionRestriction.alwaysTrue());
+    _compiledFib = _fib.getCompiled();
+    _lookups = new Ip[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      _lookups[i] = Ip.create(random.nextInt() & 0xFFFFFFFFL);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void get(Blackhole blackhole) {
+    for (Ip ip : _lookups) {
+      Set<FibEntry> entries = _fib.get(ip);
+      blackhole.consume(entries);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void getCompiled(Blackhole blackhole) {
+    for (Ip ip : _lookups) {
+      Set<FibEntry> entries = _compiledFib.get(ip);
+      blackhole.consume(entries);
+    }
+  }
+}
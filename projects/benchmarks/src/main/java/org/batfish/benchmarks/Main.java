@@ -0,0 +1,46 @@
+package org.batfish.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Batfish JMH benchmarks. Accepts the standard JMH command line (e.g., a benchmark regex,
+ * {@code -p size=8}, {@code -rff results.json}), but writes results as JSON to {@link
+ * #DEFAULT_RESULT_FILE} unless another result format or file is given, so that results can be
+ * tracked across releases.
+ */
+public final class Main {
+
+  /** File results are written to if none is given on the command line. */
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String[] args)
+      throws CommandLineOptionException, IOException, RunnerException {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp()
+        || cmdOptions.shouldList()
+        || cmdOptions.shouldListWithParams()
+        || cmdOptions.shouldListProfilers()
+        || cmdOptions.shouldListResultFormats()) {
+      // Let JMH handle informational commands
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cmdOptions.getResult().hasValue()) {
+      options.result(DEFAULT_RESULT_FILE);
+    }
+    new Runner(options.build()).run();
+  }
+
+  private Main() {}
+}
@@ -0,0 +1,54 @@
+package org.batfish.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ParseVendorConfigurationJob} on a generated configuration for each supported
+ * vendor grammar. See {@link SyntheticConfigs}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ParseVendorConfigurationBenchmark {
+
+  @Param({"ARISTA", "CISCO_IOS", "CISCO_NX", "JUNIPER"})
+  public ConfigurationFormat _format;
+
+  /** Number of interfaces, ACL lines, prefix-list entries, and BGP neighbors. */
+  @Param({"100", "1000"})
+  public int _size;
+
+  private Settings _settings;
+  private String _text;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkSnapshots.settings();
+    _text = SyntheticConfigs.device(_format, "device", _size);
+  }
+
+  @Benchmark
+  public ParseVendorConfigurationResult parse() {
+    return BenchmarkSnapshots.parseJob(_settings, "configs/device", _text, _format).call();
+  }
+}
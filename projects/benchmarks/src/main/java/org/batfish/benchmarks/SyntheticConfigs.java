@@ -0,0 +1,314 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+
+/**
+ * Generates single-device configurations of a given size in the syntax of several vendors. Each
+ * configuration has {@code size} routed interfaces with an inbound ACL, {@code size} ACL lines,
+ * {@code size} prefix-list entries, a route-map, and {@code size} eBGP neighbors using it. Output
+ * is deterministic, so that parsing and conversion benchmarks are reproducible.
+ */
+@ParametersAreNonnullByDefault
+public final class SyntheticConfigs {
+
+  /** Formats {@link #device} can generate. */
+  public static final Set<ConfigurationFormat> SUPPORTED_FORMATS =
+      ImmutableSet.of(
+          ConfigurationFormat.ARISTA,
+          ConfigurationFormat.CISCO_IOS,
+          ConfigurationFormat.CISCO_NX,
+          ConfigurationFormat.JUNIPER);
+
+  private static final long LINK_BASE = Ip.parse("172.16.0.0").asLong();
+
+  /** Returns the text of a configuration for device {@code hostname} in the given format. */
+  public static @Nonnull String device(ConfigurationFormat format, String hostname, int size) {
+    checkArgument(size > 0, "size must be positive");
+    switch (format) {
+      case ARISTA:
+        return arista(hostname, size);
+      case CISCO_IOS:
+        return ios(hostname, size);
+      case CISCO_NX:
+        return nxos(hostname, size);
+      case JUNIPER:
+        return juniper(hostname, size);
+      default:
+        throw new IllegalArgumentException("Unsupported format: " + format);
+    }
+  }
+
+  private static @Nonnull String ios(String hostname, int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("hostname ").append(hostname).append("\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("interface GigabitEthernet0/")
+          .append(i)
+          .append('\n')
+          .append(" description link ")
+          .append(i)
+          .append('\n')
+          .append(" ip address ")
+          .append(localIp(i))
+          .append(" 255.255.255.254\n")
+          .append(" ip access-group ACL in\n")
+          .append(" no shutdown\n!\n");
+    }
+    sb.append("ip access-list extended ACL\n");
+    for (int i = 0; i < size; i++) {
+      sb.append(" permit tcp ")
+          .append(sourceNetwork(i))
+          .append(" 0.0.0.255 any eq ")
+          .append(port(i))
+          .append('\n');
+    }
+    sb.append(" deny ip any any\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("ip prefix-list PL seq ")
+          .append((i + 1) * 5)
+          .append(" permit ")
+          .append(sourceNetwork(i))
+          .append("/24 le 32\n");
+    }
+    sb.append("!\nroute-map RM permit 10\n")
+        .append(" match ip address prefix-list PL\n")
+        .append(" set local-preference 200\n!\n");
+    sb.append("router bgp 65000\n").append(" bgp router-id 192.168.0.1\n");
+    for (int i = 0; i < size; i++) {
+      Ip peer = peerIp(i);
+      sb.append(" neighbor ")
+          .append(peer)
+          .append(" remote-as ")
+          .append(peerAs(i))
+          .append('\n')
+          .append(" neighbor ")
+          .append(peer)
+          .append(" route-map RM in\n");
+    }
+    sb.append("!\nend\n");
+    return sb.toString();
+  }
+
+  private static @Nonnull String arista(String hostname, int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("hostname ").append(hostname).append("\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("interface Ethernet")
+          .append(i + 1)
+          .append('\n')
+          .append("   description link ")
+          .append(i)
+          .append('\n')
+          .append("   no switchport\n")
+          .append("   ip address ")
+          .append(localIp(i))
+          .append("/31\n")
+          .append("   ip access-group ACL in\n!\n");
+    }
+    sb.append("ip access-list ACL\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("   ")
+          .append((i + 1) * 10)
+          .append(" permit tcp ")
+          .append(sourceNetwork(i))
+          .append("/24 any eq ")
+          .append(port(i))
+          .append('\n');
+    }
+    sb.append("   ").append((size + 1) * 10).append(" deny ip any any\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("ip prefix-list PL seq ")
+          .append((i + 1) * 5)
+          .append(" permit ")
+          .append(sourceNetwork(i))
+          .append("/24 le 32\n");
+    }
+    sb.append("!\nroute-map RM permit 10\n")
+        .append("   match ip address prefix-list PL\n")
+        .append("   set local-preference 200\n!\n");
+    sb.append("router bgp 65000\n").append("   router-id 192.168.0.1\n");
+    for (int i = 0; i < size; i++) {
+      Ip peer = peerIp(i);
+      sb.append("   neighbor ")
+          .append(peer)
+          .append(" remote-as ")
+          .append(peerAs(i))
+          .append('\n')
+          .append("   neighbor ")
+          .append(peer)
+          .append(" route-map RM in\n");
+    }
+    sb.append("!\nend\n");
+    return sb.toString();
+  }
+
+  private static @Nonnull String nxos(String hostname, int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("hostname ").append(hostname).append("\n!\n").append("feature bgp\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("interface Ethernet1/")
+          .append(i + 1)
+          .append('\n')
+          .append("  description link ")
+          .append(i)
+          .append('\n')
+          .append("  no switchport\n")
+          .append("  ip address ")
+          .append(localIp(i))
+          .append("/31\n")
+          .append("  ip access-group ACL in\n")
+          .append("  no shutdown\n!\n");
+    }
+    sb.append("ip access-list ACL\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("  ")
+          .append((i + 1) * 10)
+          .append(" permit tcp ")
+          .append(sourceNetwork(i))
+          .append("/24 any eq ")
+          .append(port(i))
+          .append('\n');
+    }
+    sb.append("  ").append((size + 1) * 10).append(" deny ip any any\n!\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("ip prefix-list PL seq ")
+          .append((i + 1) * 5)
+          .append(" permit ")
+          .append(sourceNetwork(i))
+          .append("/24 le 32\n");
+    }
+    sb.append("!\nroute-map RM permit 10\n")
+        .append("  match ip address prefix-list PL\n")
+        .append("  set local-preference 200\n!\n");
+    sb.append("router bgp 65000\n").append("  router-id 192.168.0.1\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("  neighbor ")
+          .append(peerIp(i))
+          .append('\n')
+          .append("    remote-as ")
+          .append(peerAs(i))
+          .append('\n')
+          .append("    address-family ipv4 unicast\n")
+          .append("      route-map RM in\n");
+    }
+    sb.append("!\n");
+    return sb.toString();
+  }
+
+  private static @Nonnull String juniper(String hostname, int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("system {\n").append("    host-name ").append(hostname).append(";\n}\n");
+    sb.append("interfaces {\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("    ge-0/0/")
+          .append(i)
+          .append(" {\n")
+          .append("        description \"link ")
+          .append(i)
+          .append("\";\n")
+          .append("        unit 0 {\n")
+          .append("            family inet {\n")
+          .append("                filter {\n")
+          .append("                    input ACL;\n")
+          .append("                }\n")
+          .append("                address ")
+          .append(localIp(i))
+          .append("/31;\n")
+          .append("            }\n")
+          .append("        }\n")
+          .append("    }\n");
+    }
+    sb.append("}\n");
+    sb.append("firewall {\n").append("    family inet {\n").append("        filter ACL {\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("            term t")
+          .append(i)
+          .append(" {\n")
+          .append("                from {\n")
+          .append("                    source-address {\n")
+          .append("                        ")
+          .append(sourceNetwork(i))
+          .append("/24;\n")
+          .append("                    }\n")
+          .append("                    protocol tcp;\n")
+          .append("                    destination-port ")
+          .append(port(i))
+          .append(";\n")
+          .append("                }\n")
+          .append("                then accept;\n")
+          .append("            }\n");
+    }
+    sb.append("            term default {\n")
+        .append("                then discard;\n")
+        .append("            }\n")
+        .append("        }\n")
+        .append("    }\n")
+        .append("}\n");
+    sb.append("policy-options {\n").append("    prefix-list PL {\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("        ").append(sourceNetwork(i)).append("/24;\n");
+    }
+    sb.append("    }\n")
+        .append("    policy-statement RM {\n")
+        .append("        term t1 {\n")
+        .append("            from {\n")
+        .append("                prefix-list-filter PL orlonger;\n")
+        .append("            }\n")
+        .append("            then {\n")
+        .append("                local-preference 200;\n")
+        .append("                accept;\n")
+        .append("            }\n")
+        .append("        }\n")
+        .append("    }\n")
+        .append("}\n");
+    sb.append("routing-options {\n")
+        .append("    router-id 192.168.0.1;\n")
+        .append("    autonomous-system 65000;\n")
+        .append("}\n");
+    sb.append("protocols {\n")
+        .append("    bgp {\n")
+        .append("        group EBGP {\n")
+        .append("            type external;\n")
+        .append("            import RM;\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("            neighbor ")
+          .append(peerIp(i))
+          .append(" {\n")
+          .append("                peer-as ")
+          .append(peerAs(i))
+          .append(";\n")
+          .append("            }\n");
+    }
+    sb.append("        }\n").append("    }\n").append("}\n");
+    return sb.toString();
+  }
+
+  private static @Nonnull Ip localIp(int link) {
+    return Ip.create(LINK_BASE + 2L * link);
+  }
+
+  private static @Nonnull Ip peerIp(int link) {
+    return Ip.create(LINK_BASE + 2L * link + 1);
+  }
+
+  private static long peerAs(int link) {
+    return 65001L + link % 500;
+  }
+
+  private static @Nonnull String sourceNetwork(int i) {
+    return String.format("10.%d.%d.0", (i / 256) % 256, i % 256);
+  }
+
+  private static int port(int i) {
+    return 1024 + i % 4096;
+  }
+
+  private SyntheticConfigs() {}
+}
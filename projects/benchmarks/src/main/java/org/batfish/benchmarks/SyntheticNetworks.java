@@ -0,0 +1,250 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Ip;
+
+/**
+ * Generates Cisco IOS configurations of synthetic networks. Output is deterministic for given
+ * parameters, so that data plane benchmarks are reproducible.
+ */
+@ParametersAreNonnullByDefault
+public final class SyntheticNetworks {
+
+  /** Synthetic network topologies. */
+  public enum Topology {
+    /** A k-ary fat-tree running eBGP. See {@link #fatTree}. */
+    FAT_TREE,
+    /** A ring with random chords running OSPF. See {@link #wan}. */
+    WAN
+  }
+
+  /** Seed for the random choices made by generators. */
+  public static final long SEED = 0x5eedL;
+
+  private static final long LINK_BASE = Ip.parse("172.16.0.0").asLong();
+
+  /** Number of stub /24 networks each WAN node originates. */
+  private static final int WAN_STUB_NETWORKS = 4;
+
+  /**
+   * Returns hostname -&gt; configuration text for the given topology. Both topologies have the same
+   * number of nodes as a {@code k}-ary fat-tree, {@code 5k^2/4}.
+   */
+  public static @Nonnull SortedMap<String, String> generate(Topology topology, int k) {
+    switch (topology) {
+      case FAT_TREE:
+        return fatTree(k);
+      case WAN:
+        return wan(5 * k * k / 4);
+      default:
+        throw new IllegalArgumentException("Unsupported topology: " + topology);
+    }
+  }
+
+  /**
+   * Returns a k-ary fat-tree: {@code k} pods of {@code k/2} edge and {@code k/2} aggregation
+   * switches, and {@code (k/2)^2} core switches. Following RFC 7938, every edge switch has its own
+   * AS, the aggregation switches of a pod share an AS, and the core switches share an AS. Each edge
+   * switch originates one /24.
+   */
+  public static @Nonnull SortedMap<String, String> fatTree(int k) {
+    checkArgument(k >= 2 && k <= 32 && k % 2 == 0, "k must be even and between 2 and 32");
+    int half = k / 2;
+    Map<String, Device> devices = new LinkedHashMap<>();
+    int routerIds = 0;
+    for (int c = 0; c < half * half; c++) {
+      String name = "core-" + c;
+      devices.put(name, new Device(name, 64512, loopback(routerIds++)));
+    }
+    int edges = 0;
+    for (int p = 0; p < k; p++) {
+      for (int i = 0; i < half; i++) {
+        String agg = String.format("agg-%d-%d", p, i);
+        devices.put(agg, new Device(agg, 64600 + p, loopback(routerIds++)));
+      }
+      for (int i = 0; i < half; i++) {
+        String edge = String.format("edge-%d-%d", p, i);
+        Device device = new Device(edge, 65000 + edges, loopback(routerIds++));
+        device._networks.add(
+            String.format("10.%d.%d.0 mask 255.255.255.0", edges / 256, edges % 256));
+        device._interfaces.add(
+            String.format(
+                "interface Loopback1\n ip address 10.%d.%d.1 255.255.255.0\n",
+                edges / 256, edges % 256));
+        devices.put(edge, device);
+        edges++;
+      }
+    }
+    Links links = new Links();
+    for (int p = 0; p < k; p++) {
+      for (int e = 0; e < half; e++) {
+        for (int a = 0; a < half; a++) {
+          links.bgp(
+              devices.get(String.format("edge-%d-%d", p, e)),
+              devices.get(String.format("agg-%d-%d", p, a)));
+        }
+      }
+      for (int a = 0; a < half; a++) {
+        for (int c = a * half; c < (a + 1) * half; c++) {
+          links.bgp(devices.get(String.format("agg-%d-%d", p, a)), devices.get("core-" + c));
+        }
+      }
+    }
+    return render(devices);
+  }
+
+  /**
+   * Returns a WAN of {@code n} nodes connected in a ring, plus {@code n/2} random chords. All links
+   * run OSPF with random costs, and each node originates {@link #WAN_STUB_NETWORKS} stub /24s.
+   */
+  public static @Nonnull SortedMap<String, String> wan(int n) {
+    checkArgument(n >= 3 && n <= 4000, "n must be between 3 and 4000");
+    Random random = new Random(SEED);
+    List<Device> devices = new ArrayList<>(n);
+    Map<String, Device> devicesByName = new LinkedHashMap<>();
+    for (int i = 0; i < n; i++) {
+      String name = String.format("wan-%04d", i);
+      Device device = new Device(name, 0, loopback(i));
+      // Point-to-point mode makes OSPF advertise the whole /24 rather than a host route.
+      for (int s = 0; s < WAN_STUB_NETWORKS; s++) {
+        int stub = i * WAN_STUB_NETWORKS + s;
+        device._interfaces.add(
+            String.format(
+                "interface Loopback%d\n"
+                    + " ip address 10.%d.%d.1 255.255.255.0\n"
+                    + " ip ospf network point-to-point\n"
+                    + " ip ospf cost 1\n",
+                s + 1, 64 + stub / 256, stub % 256));
+      }
+      devices.add(device);
+      devicesByName.put(name, device);
+    }
+    Links links = new Links();
+    Set<Long> connected = new HashSet<>();
+    for (int i = 0; i < n; i++) {
+      int j = (i + 1) % n;
+      connected.add(pairKey(i, j));
+      links.ospf(devices.get(i), devices.get(j), 1 + random.nextInt(100));
+    }
+    int chords = 0;
+    while (chords < n / 2) {
+      int i = random.nextInt(n);
+      int j = random.nextInt(n);
+      if (i == j || !connected.add(pairKey(i, j))) {
+        continue;
+      }
+      links.ospf(devices.get(i), devices.get(j), 1 + random.nextInt(100));
+      chords++;
+    }
+    return render(devicesByName);
+  }
+
+  private static long pairKey(int i, int j) {
+    return ((long) Math.min(i, j) << 32) | Math.max(i, j);
+  }
+
+  private static @Nonnull Ip loopback(int index) {
+    return Ip.create(Ip.parse("192.168.0.0").asLong() + index);
+  }
+
+  private static @Nonnull SortedMap<String, String> render(Map<String, Device> devices) {
+    ImmutableSortedMap.Builder<String, String> configs = ImmutableSortedMap.naturalOrder();
+    devices.values().forEach(device -> configs.put(device._hostname, device.render()));
+    return configs.build();
+  }
+
+  /** Allocates point-to-point /31 links between devices. */
+  private static final class Links {
+    private int _count;
+
+    private void bgp(Device a, Device b) {
+      Ip aIp = Ip.create(LINK_BASE + 2L * _count);
+      Ip bIp = Ip.create(LINK_BASE + 2L * _count + 1);
+      a._interfaces.add(linkInterface(a, aIp, ""));
+      b._interfaces.add(linkInterface(b, bIp, ""));
+      a._neighbors.add(String.format("neighbor %s remote-as %d", bIp, b._asn));
+      b._neighbors.add(String.format("neighbor %s remote-as %d", aIp, a._asn));
+      _count++;
+    }
+
+    private void ospf(Device a, Device b, int cost) {
+      Ip aIp = Ip.create(LINK_BASE + 2L * _count);
+      Ip bIp = Ip.create(LINK_BASE + 2L * _count + 1);
+      String ospf = String.format(" ip ospf network point-to-point\n ip ospf cost %d\n", cost);
+      a._interfaces.add(linkInterface(a, aIp, ospf));
+      b._interfaces.add(linkInterface(b, bIp, ospf));
+      a._ospf = true;
+      b._ospf = true;
+      _count++;
+    }
+
+    private static @Nonnull String linkInterface(Device device, Ip ip, String extra) {
+      return String.format(
+          "interface GigabitEthernet0/%d\n ip address %s 255.255.255.254\n%s no shutdown\n",
+          device._nextPort++, ip, extra);
+    }
+  }
+
+  /** Accumulates the configuration of a single device. */
+  private static final class Device {
+    private final @Nonnull String _hostname;
+    private final long _asn;
+    private final @Nonnull Ip _routerId;
+    private final @Nonnull List<String> _interfaces;
+    private final @Nonnull List<String> _neighbors;
+    private final @Nonnull List<String> _networks;
+    private int _nextPort;
+    private boolean _ospf;
+
+    private Device(String hostname, long asn, Ip routerId) {
+      _hostname = hostname;
+      _asn = asn;
+      _routerId = routerId;
+      _interfaces = new ArrayList<>();
+      _neighbors = new ArrayList<>();
+      _networks = new ArrayList<>();
+    }
+
+    private @Nonnull String render() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("hostname ").append(_hostname).append("\n!\n");
+      sb.append("interface Loopback0\n ip address ")
+          .append(_routerId)
+          .append(" 255.255.255.255\n!\n");
+      _interfaces.forEach(iface -> sb.append(iface).append("!\n"));
+      if (_ospf) {
+        sb.append("router ospf 1\n")
+            .append(" router-id ")
+            .append(_routerId)
+            .append('\n')
+            .append(" network 10.0.0.0 0.255.255.255 area 0\n")
+            .append(" network 172.16.0.0 0.15.255.255 area 0\n")
+            .append(" network 192.168.0.0 0.0.255.255 area 0\n!\n");
+      }
+      if (!_neighbors.isEmpty()) {
+        sb.append("router bgp ").append(_asn).append('\n');
+        sb.append(" bgp router-id ").append(_routerId).append('\n');
+        sb.append(" maximum-paths 64\n");
+        _neighbors.forEach(neighbor -> sb.append(' ').append(neighbor).append('\n'));
+        _networks.forEach(network -> sb.append(" network ").append(network).append('\n'));
+        sb.append("!\n");
+      }
+      sb.append("end\n");
+      return sb.toString();
+    }
+  }
+
+  private SyntheticNetworks() {}
+}
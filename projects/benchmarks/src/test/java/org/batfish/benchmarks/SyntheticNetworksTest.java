@@ -0,0 +1,67 @@
+package org.batfish.benchmarks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import org.batfish.benchmarks.SyntheticNetworks.Topology;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.answers.ParseStatus;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.junit.Test;
+
+/** Tests of {@link SyntheticNetworks} and {@link SyntheticConfigs}. */
+public final class SyntheticNetworksTest {
+
+  private static Set<Prefix> routedPrefixes(DataPlane dp, String hostname) {
+    return dp.getRibs().get(hostname).get(Configuration.DEFAULT_VRF_NAME).getRoutes().stream()
+        .map(AbstractRoute::getNetwork)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  @Test
+  public void testDeviceParsesInEveryFormat() {
+    Settings settings = BenchmarkSnapshots.settings();
+    for (ConfigurationFormat format : SyntheticConfigs.SUPPORTED_FORMATS) {
+      ParseVendorConfigurationResult result =
+          BenchmarkSnapshots.parseJob(
+                  settings, "configs/r1", SyntheticConfigs.device(format, "r1", 10), format)
+              .call();
+      assertThat(format.toString(), result.getStatus(), equalTo(ParseStatus.PASSED));
+    }
+  }
+
+  @Test
+  public void testFatTree() {
+    SortedMap<String, Configuration> configs =
+        BenchmarkSnapshots.parseAndConvert(
+            SyntheticNetworks.generate(Topology.FAT_TREE, 4), ConfigurationFormat.CISCO_IOS);
+    // 4 core, 8 aggregation, and 8 edge switches
+    assertThat(configs, aMapWithSize(20));
+
+    DataPlane dp = BenchmarkDataPlanes.computeDataPlane(configs)._dataPlane;
+    // The first edge switch learns the network of the last edge switch, in another pod.
+    assertThat(routedPrefixes(dp, "edge-0-0"), hasItem(Prefix.parse("10.0.7.0/24")));
+  }
+
+  @Test
+  public void testWan() {
+    SortedMap<String, Configuration> configs =
+        BenchmarkSnapshots.parseAndConvert(
+            SyntheticNetworks.generate(Topology.WAN, 2), ConfigurationFormat.CISCO_IOS);
+    assertThat(configs, aMapWithSize(5));
+
+    DataPlane dp = BenchmarkDataPlanes.computeDataPlane(configs)._dataPlane;
+    // The first node learns the first stub network of the last node.
+    assertThat(routedPrefixes(dp, "wan-0000"), hasItem(Prefix.parse("10.64.16.0/24")));
+  }
+}
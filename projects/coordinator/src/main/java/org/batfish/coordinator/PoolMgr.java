@@ -1,13 +1,17 @@
 package org.batfish.coordinator;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
@@ -16,9 +20,13 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.coordinator.config.Settings;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 public class PoolMgr {
@@ -35,7 +43,7 @@ public class PoolMgr {
   private final Settings _settings;
 
   // the key should be of the form <ip or hostname>:<port>
-  private Map<String, WorkerStatus> _workerPool;
+  private final Map<String, WorkerStatus> _workerPool;
 
   public PoolMgr(Settings settings, BatfishLogger logger) {
     _settings = settings;
@@ -76,27 +84,39 @@ public class PoolMgr {
     return copy;
   }
 
-  @Nullable
-  public synchronized String getWorkerForAssignment() {
+  /** Returns the status of each worker that has capacity for another task. */
+  public synchronized @Nonnull Map<String, WorkerStatus> getIdleWorkers() {
+    return _workerPool.entrySet().stream()
+        .filter(entry -> entry.getValue().getStatus() == WorkerStatus.StatusCode.IDLE)
+        .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
+  }
 
-    for (Entry<String, WorkerStatus> workerEntry : _workerPool.entrySet()) {
-      if (workerEntry.getValue().getStatus() == WorkerStatus.StatusCode.IDLE) {
-        updateWorkerStatus(workerEntry.getKey(), WorkerStatus.StatusCode.TRYINGTOASSIGN);
-        return workerEntry.getKey();
-      }
+  /**
+   * Marks {@code worker} as being assigned work if it still has capacity. Returns whether it had.
+   */
+  public synchronized boolean claimWorker(String worker) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status == null || status.getStatus() != WorkerStatus.StatusCode.IDLE) {
+      return false;
     }
-
-    return null;
+    status.updateStatus(WorkerStatus.StatusCode.TRYINGTOASSIGN);
+    return true;
   }
 
   @Nullable
-  public WorkerStatus getWorkerStatus(String worker) {
+  public synchronized WorkerStatus getWorkerStatus(String worker) {
     return _workerPool.get(worker);
   }
 
-  public void markAssignmentResult(String worker, boolean assignmentSuccessful) {
-    updateWorkerStatus(
-        worker, assignmentSuccessful ? WorkerStatus.StatusCode.BUSY : WorkerStatus.StatusCode.IDLE);
+  /**
+   * Records the result of assigning work to {@code worker}: a successful assignment takes up one
+   * unit of its capacity until the worker next reports its status.
+   */
+  public synchronized void markAssignmentResult(String worker, boolean assignmentSuccessful) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.updateCapacity(status.getCapacity() - (assignmentSuccessful ? 1 : 0));
+    }
   }
 
   public void refreshWorkerStatus() {
@@ -145,19 +165,30 @@ public class PoolMgr {
 
       JSONObject jObj = new JSONObject(array.get(1).toString());
 
-      if (!jObj.has("idle")) {
+      if (!jObj.has(BfConsts.SVC_IDLE_KEY)) {
         _logger.error("did not see idle key in json response\n");
         updateWorkerStatus(worker, WorkerStatus.StatusCode.UNKNOWN);
         return;
       }
 
-      boolean status = jObj.getBoolean("idle");
+      boolean idle = jObj.getBoolean(BfConsts.SVC_IDLE_KEY);
+      // workers of older versions run one task at a time and only report whether they are idle
+      int capacity =
+          jObj.has(BfConsts.SVC_CAPACITY_KEY)
+              ? jObj.getInt(BfConsts.SVC_CAPACITY_KEY)
+              : (idle ? 1 : 0);
+      // workers of older versions do not report what they have in memory
+      if (jObj.has(BfConsts.SVC_WARM_SNAPSHOTS_KEY)) {
+        updateWarmState(
+            worker,
+            readSnapshots(jObj.optJSONArray(BfConsts.SVC_WARM_DATA_PLANES_KEY)),
+            readSnapshots(jObj.getJSONArray(BfConsts.SVC_WARM_SNAPSHOTS_KEY)));
+      }
 
       // update the status, except leave the ones with TRYINGTOASSIGN
       // alone
       if (getWorkerStatus(worker).getStatus() != WorkerStatus.StatusCode.TRYINGTOASSIGN) {
-        updateWorkerStatus(
-            worker, status ? WorkerStatus.StatusCode.IDLE : WorkerStatus.StatusCode.BUSY);
+        updateWorkerCapacity(worker, capacity);
       }
     } catch (ProcessingException e) {
       _logger.error(String.format("unable to connect to %s: %s\n", worker, e.getMessage()));
@@ -183,6 +214,37 @@ public class PoolMgr {
             TimeUnit.MILLISECONDS);
   }
 
+  private static @Nonnull Set<NetworkSnapshot> readSnapshots(@Nullable JSONArray array)
+      throws JSONException {
+    if (array == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<NetworkSnapshot> snapshots = ImmutableSet.builder();
+    for (int i = 0; i < array.length(); i++) {
+      JSONObject snapshot = array.getJSONObject(i);
+      snapshots.add(
+          new NetworkSnapshot(
+              new NetworkId(snapshot.getString(BfConsts.SVC_NETWORK_ID_KEY)),
+              new SnapshotId(snapshot.getString(BfConsts.SVC_SNAPSHOT_ID_KEY))));
+    }
+    return snapshots.build();
+  }
+
+  private synchronized void updateWarmState(
+      String worker, Set<NetworkSnapshot> warmDataPlanes, Set<NetworkSnapshot> warmSnapshots) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.updateWarmState(warmDataPlanes, warmSnapshots);
+    }
+  }
+
+  private synchronized void updateWorkerCapacity(String worker, int capacity) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.updateCapacity(capacity);
+    }
+  }
+
   private synchronized void updateWorkerStatus(String worker, WorkerStatus.StatusCode statusCode) {
     if (_workerPool.containsKey(worker)) {
       _workerPool.get(worker).updateStatus(statusCode);
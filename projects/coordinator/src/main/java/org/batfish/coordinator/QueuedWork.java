@@ -26,7 +26,8 @@ public class QueuedWork {
   WorkDetails _details;
 
   Task _lastTaskCheckResult;
-  WorkStatusCode _status;
+  // Read without holding the lock of this object, e.g. while choosing work to assign
+  volatile WorkStatusCode _status;
   WorkItem _workItem;
 
   /** For tracing */
@@ -98,6 +99,18 @@ public class QueuedWork {
     _dateAssigned = new Date();
   }
 
+  /**
+   * Sets the status to {@code status} iff it is currently {@code expected}. Returns {@code true} if
+   * the status was set.
+   */
+  public synchronized boolean compareAndSetStatus(WorkStatusCode expected, WorkStatusCode status) {
+    if (_status != expected) {
+      return false;
+    }
+    setStatus(status);
+    return true;
+  }
+
   public synchronized void setStatus(WorkStatusCode status) {
     if (_status.isTerminated() && !status.isTerminated()) {
       throw new IllegalStateException(
@@ -3,10 +3,8 @@ package org.batfish.coordinator;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.google.common.collect.Comparators.lexicographical;
 import static com.google.common.io.MoreFiles.createParentDirectories;
 import static java.util.Comparator.comparing;
-import static java.util.Comparator.naturalOrder;
 import static java.util.Comparator.nullsFirst;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toCollection;
@@ -15,7 +13,6 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
-import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -97,6 +94,7 @@ import org.batfish.common.util.WorkItemBuilder;
 import org.batfish.coordinator.AnalysisMetadataMgr.AnalysisType;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.coordinator.WorkQueueMgr.QueueType;
+import org.batfish.coordinator.WorkScheduler.Assignment;
 import org.batfish.coordinator.config.Settings;
 import org.batfish.coordinator.id.IdManager;
 import org.batfish.coordinator.resources.ForkSnapshotBean;
@@ -113,19 +111,17 @@ import org.batfish.datamodel.answers.AutoCompleteUtils;
 import org.batfish.datamodel.answers.AutocompleteSuggestion;
 import org.batfish.datamodel.answers.InputValidationNotes;
 import org.batfish.datamodel.answers.InputValidationUtils;
-import org.batfish.datamodel.answers.Issue;
 import org.batfish.datamodel.answers.Schema;
-import org.batfish.datamodel.answers.Schema.Type;
 import org.batfish.datamodel.collections.NodeInterfacePair;
-import org.batfish.datamodel.flow.Hop;
-import org.batfish.datamodel.flow.Step;
-import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.Variable;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
+import org.batfish.datamodel.table.ColumnarTable.Selection;
 import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.SchemaComparators;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.datamodel.table.TableView;
@@ -155,21 +151,6 @@ public class WorkMgr extends AbstractCoordinator {
           .add(".svn")
           .build();
 
-  private static final Comparator<Node> COMPARATOR_NODE = Comparator.comparing(Node::getName);
-
-  private static final Comparator<Trace> COMPARATOR_TRACE =
-      Comparator.comparing(Trace::getDisposition)
-          .thenComparing(
-              Trace::getHops,
-              Comparators.lexicographical(
-                  Comparator.comparing(Hop::getNode, Comparator.comparing(Node::getName))
-                      .thenComparing(
-                          Hop::getSteps,
-                          Comparators.lexicographical(
-                              Comparator.<Step<?>, String>comparing(
-                                      step -> step.getDetail().toString())
-                                  .thenComparing(Step::getAction)))));
-
   private static Path getCanonicalPath(Path path) {
     try {
       return Paths.get(path.toFile().getCanonicalPath());
@@ -209,6 +190,7 @@ public class WorkMgr extends AbstractCoordinator {
   private final Settings _settings;
   private final SnapshotMetadataMgr _snapshotMetadataManager;
   private WorkQueueMgr _workQueueMgr;
+  private final WorkScheduler _workScheduler;
   private final StorageProvider _storage;
   private final ExecutorService _gcExecutor;
 
@@ -223,6 +205,7 @@ public class WorkMgr extends AbstractCoordinator {
     _snapshotMetadataManager = new SnapshotMetadataMgr(_storage);
     _logger = logger;
     _workQueueMgr = new WorkQueueMgr(logger, _snapshotMetadataManager);
+    _workScheduler = new WorkScheduler(settings.getNetworkPriorities());
     // Can only run one GC task at a time, and only have one queued. If one is queued and another is
     // submitted, the older one in the queue is discarded.
     _gcExecutor =
@@ -238,24 +221,26 @@ public class WorkMgr extends AbstractCoordinator {
   private void assignWork() {
 
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
+      Map<String, WorkerStatus> idleWorkers = Main.getPoolMgr().getIdleWorkers();
+      Assignment assignment = _workQueueMgr.getWorkForAssignment(_workScheduler, idleWorkers);
 
-      // get out if no work was found
-      if (work == null) {
-        // _logger.info("WM:AssignWork: No unassigned work\n");
+      // get out if no work was found or no idle worker was found
+      if (assignment == null) {
+        // _logger.info("WM:AssignWork: No unassigned work or no idle worker\n");
         return;
       }
+      QueuedWork work = assignment.getWork();
+      String idleWorker = assignment.getWorker();
 
-      String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
-
-      // get out if no idle worker was found, but release the work first
-      if (idleWorker == null) {
+      // get out if the worker is no longer idle, but release the work first
+      if (!Main.getPoolMgr().claimWorker(idleWorker)) {
         _workQueueMgr.markAssignmentFailure(work);
 
         _logger.info("WM:AssignWork: No idle worker\n");
         return;
       }
 
+      _workScheduler.recordAssignment(work);
       assignWork(work, idleWorker);
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
@@ -843,6 +828,66 @@ public class WorkMgr extends AbstractCoordinator {
       @Nullable String referenceSnapshot,
       @Nullable String analysis)
       throws IOException {
+    AnswerLocation location =
+        getAnswerLocation(network, snapshot, question, referenceSnapshot, analysis);
+    return location == null
+        ? null
+        : _storage.loadAnswer(location._networkId, location._snapshotId, location._answerId);
+  }
+
+  /**
+   * Get the {@link ColumnarTable} form of the answer for the specified question, if it was stored
+   * and can be read. Returns {@link Optional#empty()} otherwise, in which case the rows of the
+   * answer must be read from the answer itself.
+   */
+  private @Nonnull Optional<ColumnarTable> loadAnswerTable(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis) {
+    AnswerLocation location =
+        getAnswerLocation(network, snapshot, question, referenceSnapshot, analysis);
+    if (location == null) {
+      return Optional.empty();
+    }
+    try {
+      return _storage.loadAnswerTable(
+          location._networkId, location._snapshotId, location._answerId);
+    } catch (IOException e) {
+      _logger.warnf(
+          "Could not load answer table, falling back to answer: %s",
+          Throwables.getStackTraceAsString(e));
+      return Optional.empty();
+    }
+  }
+
+  /** The IDs under which an answer is stored. */
+  private static final class AnswerLocation {
+    private final @Nonnull NetworkId _networkId;
+    private final @Nonnull SnapshotId _snapshotId;
+    private final @Nonnull AnswerId _answerId;
+
+    private AnswerLocation(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+      _networkId = networkId;
+      _snapshotId = snapshotId;
+      _answerId = answerId;
+    }
+  }
+
+  /**
+   * Returns the IDs under which the answer for the specified question is stored, or {@code null} if
+   * the question is not answered.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   */
+  private @Nullable AnswerLocation getAnswerLocation(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis) {
     Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     checkArgument(networkIdOpt.isPresent(), "Missing network: '%s'", network);
     NetworkId networkId = networkIdOpt.get();
@@ -884,7 +929,7 @@ public class WorkMgr extends AbstractCoordinator {
     if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
       return null;
     }
-    return _storage.loadAnswer(networkId, snapshotId, answerId);
+    return new AnswerLocation(networkId, snapshotId, answerId);
   }
 
   /**
@@ -2069,6 +2114,102 @@ public class WorkMgr extends AbstractCoordinator {
                 rawAnswersEntry.getValue(), answersRowsOptions.get(rawAnswersEntry.getKey())));
   }
 
+  /**
+   * Get the rows of the answer for the specified question selected by {@code options}, as by {@link
+   * #processAnswerRows}. Uses the {@link ColumnarTable} form of the answer if available, so that
+   * the answer is not parsed.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   */
+  public @Nonnull Answer getAnswerRows(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws JsonProcessingException {
+    Optional<ColumnarTable> table =
+        loadAnswerTable(network, snapshot, question, referenceSnapshot, analysis);
+    if (table.isPresent()) {
+      try {
+        Answer answer = new Answer();
+        answer.setStatus(AnswerStatus.SUCCESS);
+        answer.addAnswerElement(processAnswerTable(table.get(), options));
+        return answer;
+      } catch (Exception e) {
+        _logger.errorf("Failed to process answer table: %s", e.getMessage());
+        return Answer.failureAnswer(e.getMessage(), null);
+      }
+    }
+    return processAnswerRows(
+        getAnswerString(network, snapshot, question, referenceSnapshot, analysis), options);
+  }
+
+  /**
+   * Get the rows of the answer for the specified question selected by {@code options}, as by {@link
+   * #processAnswerRows2}. Uses the {@link ColumnarTable} form of the answer if available, so that
+   * the answer is not parsed.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   */
+  public @Nonnull Answer getAnswerRows2(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws JsonProcessingException {
+    Optional<ColumnarTable> table =
+        loadAnswerTable(network, snapshot, question, referenceSnapshot, analysis);
+    if (table.isPresent()) {
+      try {
+        return filterAnswerTable(table.get(), options);
+      } catch (Exception e) {
+        _logger.errorf("Failed to process answer table: %s\n", Throwables.getStackTraceAsString(e));
+        return Answer.failureAnswer(e.getMessage(), null);
+      }
+    }
+    return processAnswerRows2(
+        getAnswerString(network, snapshot, question, referenceSnapshot, analysis), options);
+  }
+
+  /**
+   * Get the answer for the specified question, filtered as by {@link #filterAnswer(Answer,
+   * AnswerRowsOptions)}. Uses the {@link ColumnarTable} form of the answer if available, so that
+   * the answer is not parsed. Returns {@code null} if the question is not answered.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   * @throws IOException if there are any other errors
+   */
+  public @Nullable Answer filterAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws IOException {
+    Optional<ColumnarTable> table =
+        loadAnswerTable(network, snapshot, question, referenceSnapshot, analysis);
+    if (table.isPresent()) {
+      return filterAnswerTable(table.get(), options);
+    }
+    Answer answer = getAnswer(network, snapshot, question, referenceSnapshot, analysis);
+    return answer == null ? null : filterAnswer(answer, options);
+  }
+
+  private @Nonnull Answer filterAnswerTable(ColumnarTable table, AnswerRowsOptions options) {
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(processAnswerTable2(table, options));
+    return answer;
+  }
+
   @VisibleForTesting
   @Nonnull
   Answer processAnswerRows(String rawAnswerStr, AnswerRowsOptions options) {
@@ -2154,13 +2295,7 @@ public class WorkMgr extends AbstractCoordinator {
       // project to desired columns
       rowStream =
           rowStream.map(rawRow -> Row.builder().putAll(rawRow, options.getColumns()).build());
-      Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawColumnMap);
-      columnMap.keySet().retainAll(options.getColumns());
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      table =
-          new TableAnswerElement(
-              new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc()));
+      table = new TableAnswerElement(projectMetadata(rawTable.getMetadata(), options.getColumns()));
     }
     if (options.getUniqueRows()) {
       // uniquify if desired
@@ -2201,25 +2336,7 @@ public class WorkMgr extends AbstractCoordinator {
                 rowIds.put(row, rowIds.get(rawRow));
                 return row;
               });
-      // TableMetadata requires at least one key. For simplicity, make them all keys.
-      Map<String, ColumnMetadata> columnMap =
-          options.getColumns().stream()
-              .collect(
-                  ImmutableMap.toImmutableMap(
-                      Function.identity(),
-                      col -> {
-                        ColumnMetadata colMetadata = rawColumnMap.get(col);
-                        return new ColumnMetadata(
-                            colMetadata.getName(),
-                            colMetadata.getSchema(),
-                            colMetadata.getDescription(),
-                            true, // isKey
-                            false // isValue
-                            );
-                      }));
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      tableMetadata = new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc());
+      tableMetadata = projectViewMetadata(rawTable.getMetadata(), options.getColumns());
     }
     if (options.getUniqueRows()) {
       // uniquify if desired
@@ -2241,6 +2358,82 @@ public class WorkMgr extends AbstractCoordinator {
     return tableView;
   }
 
+  @VisibleForTesting
+  @Nonnull
+  TableAnswerElement processAnswerTable(ColumnarTable rawTable, AnswerRowsOptions options) {
+    Selection selection = rawTable.select(options);
+    TableMetadata rawMetadata = rawTable.getMetadata();
+    TableAnswerElement table =
+        new TableAnswerElement(
+            options.getColumns().isEmpty()
+                ? rawMetadata
+                : projectMetadata(rawMetadata, options.getColumns()));
+    for (int rowId : selection.getRowIds()) {
+      table.addRow(rawTable.getRow(rowId, options.getColumns()));
+    }
+    table.setSummary(firstNonNull(rawTable.getSummary(), new AnswerSummary()));
+    table.getSummary().setNumResults(selection.getNumResults());
+    return table;
+  }
+
+  @VisibleForTesting
+  @Nonnull
+  TableView processAnswerTable2(ColumnarTable rawTable, AnswerRowsOptions options) {
+    Selection selection = rawTable.select(options);
+    TableMetadata rawMetadata = rawTable.getMetadata();
+    TableView tableView =
+        new TableView(
+            options,
+            selection.getRowIds().stream()
+                .map(
+                    rowId ->
+                        new TableViewRow(
+                            rawTable.getViewRowId(rowId),
+                            rawTable.getRow(rowId, options.getColumns())))
+                .collect(ImmutableList.toImmutableList()),
+            options.getColumns().isEmpty()
+                ? rawMetadata
+                : projectViewMetadata(rawMetadata, options.getColumns()));
+    tableView.setSummary(firstNonNull(rawTable.getSummary(), new AnswerSummary()));
+    tableView.getSummary().setNumResults(selection.getNumResults());
+    return tableView;
+  }
+
+  /** Returns {@code rawMetadata} restricted to {@code columns}, in their original order. */
+  private static @Nonnull TableMetadata projectMetadata(
+      TableMetadata rawMetadata, Set<String> columns) {
+    Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawMetadata.toColumnMap());
+    columnMap.keySet().retainAll(columns);
+    List<ColumnMetadata> columnMetadata =
+        columnMap.values().stream().collect(ImmutableList.toImmutableList());
+    return new TableMetadata(columnMetadata, rawMetadata.getTextDesc());
+  }
+
+  /** Returns {@code rawMetadata} restricted to {@code columns}, in the order of {@code columns}. */
+  private static @Nonnull TableMetadata projectViewMetadata(
+      TableMetadata rawMetadata, Set<String> columns) {
+    Map<String, ColumnMetadata> rawColumnMap = rawMetadata.toColumnMap();
+    // TableMetadata requires at least one key. For simplicity, make them all keys.
+    Map<String, ColumnMetadata> columnMap =
+        columns.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(),
+                    col -> {
+                      ColumnMetadata colMetadata = rawColumnMap.get(col);
+                      return new ColumnMetadata(
+                          colMetadata.getName(),
+                          colMetadata.getSchema(),
+                          colMetadata.getDescription(),
+                          true, // isKey
+                          false // isValue
+                          );
+                    }));
+    List<ColumnMetadata> columnMetadata =
+        columnMap.values().stream().collect(ImmutableList.toImmutableList());
+    return new TableMetadata(columnMetadata, rawMetadata.getTextDesc());
+  }
+
   @VisibleForTesting
   @Nonnull
   Comparator<Row> buildComparator(
@@ -2268,49 +2461,12 @@ public class WorkMgr extends AbstractCoordinator {
   @Nonnull
   Comparator<Row> columnComparator(ColumnMetadata columnMetadata) {
     Schema schema = columnMetadata.getSchema();
-    Comparator schemaComparator = schemaComparator(schema);
+    Comparator schemaComparator = SchemaComparators.forSchema(schema);
     Comparator comparator =
         comparing((Row r) -> r.get(columnMetadata.getName(), schema), nullsFirst(schemaComparator));
     return comparator;
   }
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  private @Nonnull Comparator<?> schemaComparator(Schema schema) {
-    if (schema.equals(Schema.BOOLEAN)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.DOUBLE)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.FLOW)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.INTEGER)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.INTERFACE)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.IP)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.ISSUE)) {
-      return comparing(Issue::getSeverity);
-    } else if (schema.getType() == Type.LIST) {
-      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
-      return lexicographical(nullsFirst(schemaComparator));
-    } else if (schema.equals(Schema.LONG)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.NODE)) {
-      return COMPARATOR_NODE;
-    } else if (schema.equals(Schema.PREFIX)) {
-      return naturalOrder();
-    } else if (schema.getType() == Type.SET) {
-      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
-      return lexicographical(nullsFirst(schemaComparator));
-    } else if (schema.equals(Schema.STRING)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.TRACE)) {
-      return COMPARATOR_TRACE;
-    } else {
-      return comparing(Object::toString);
-    }
-  }
-
   @VisibleForTesting
   public IdManager getIdManager() {
     return _idManager;
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Nonnull;
@@ -20,6 +21,7 @@ import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.common.util.WorkItemBuilder;
 import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.coordinator.WorkScheduler.Assignment;
 import org.batfish.coordinator.queues.MemoryQueue;
 import org.batfish.coordinator.queues.WorkQueue;
 import org.batfish.coordinator.queues.WorkQueue.Type;
@@ -30,8 +32,11 @@ import org.batfish.identifiers.SnapshotId;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
-// the design of this WorkQueueMgr is such that all synchronization sits here
-// individual queues do not need to be synchronized
+// The queues are concurrent, so work can be looked up, chosen for assignment, and claimed by
+// compare-and-set of its status without holding the lock of this WorkQueueMgr. Changes to which
+// queue holds which work, and the blocking decisions they depend on, synchronize here so that they
+// stay atomic with the status changes and snapshot metadata updates that go with them. So do
+// queries that must see a consistent set of queued work.
 
 public class WorkQueueMgr {
 
@@ -46,10 +51,8 @@ public class WorkQueueMgr {
   private BatfishLogger _logger;
   private SnapshotMetadataMgr _snapshotMetadataManager;
 
-  @GuardedBy("this")
   private WorkQueue _queueCompletedWork;
 
-  @GuardedBy("this")
   private WorkQueue _queueIncompleteWork;
 
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
@@ -272,7 +275,7 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized long getLength(QueueType qType) {
+  public long getLength(QueueType qType) {
     switch (qType) {
       case COMPLETED:
         return _queueCompletedWork.getLength();
@@ -320,7 +323,21 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized QueuedWork getWork(UUID workId) {
+  @Nullable
+  public QueuedWork getWork(UUID workId) {
+    QueuedWork work = getQueuedWork(workId);
+    if (work != null) {
+      return work;
+    }
+    // Blocked work is briefly in neither queue while it is requeued, which holds the lock
+    synchronized (this) {
+      return getQueuedWork(workId);
+    }
+  }
+
+  @Nullable
+  private QueuedWork getQueuedWork(UUID workId) {
+    // Completed work is added to the completed queue before it leaves the incomplete one
     QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
     if (work == null) {
       work = getWork(workId, QueueType.COMPLETED);
@@ -329,7 +346,7 @@ public class WorkQueueMgr {
   }
 
   @Nullable
-  private synchronized QueuedWork getWork(UUID workId, QueueType qType) {
+  private QueuedWork getWork(UUID workId, QueueType qType) {
     switch (qType) {
       case COMPLETED:
         return _queueCompletedWork.getWork(workId);
@@ -340,25 +357,40 @@ public class WorkQueueMgr {
     }
   }
 
+  /**
+   * Chooses unassigned work and one of {@code idleWorkers} to assign it to using {@code scheduler},
+   * and marks the work as being assigned. Returns {@code null} if there is nothing to assign.
+   *
+   * <p>Does not lock the queues. Work whose status changes after it is chosen is not claimed, and
+   * other work is chosen instead.
+   */
   @Nullable
-  public synchronized QueuedWork getWorkForAssignment() {
-
+  public Assignment getWorkForAssignment(
+      WorkScheduler scheduler, Map<String, WorkerStatus> idleWorkers) {
+    List<QueuedWork> unassignedWork = new ArrayList<>();
     for (QueuedWork work : _queueIncompleteWork) {
       if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
-        work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
-        return work;
+        unassignedWork.add(work);
       }
     }
-
-    return null;
+    while (true) {
+      Assignment assignment = scheduler.schedule(unassignedWork, idleWorkers);
+      if (assignment == null
+          || assignment
+              .getWork()
+              .compareAndSetStatus(WorkStatusCode.UNASSIGNED, WorkStatusCode.TRYINGTOASSIGN)) {
+        return assignment;
+      }
+      unassignedWork.remove(assignment.getWork());
+    }
   }
 
+  /** Marks assigned work as having its status checked, and returns it. Does not lock the queues. */
   @Nonnull
-  public synchronized List<QueuedWork> getWorkForChecking() {
+  public List<QueuedWork> getWorkForChecking() {
     List<QueuedWork> workToCheck = new ArrayList<>();
     for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.ASSIGNED) {
-        work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+      if (work.compareAndSetStatus(WorkStatusCode.ASSIGNED, WorkStatusCode.CHECKINGSTATUS)) {
         workToCheck.add(work);
       }
     }
@@ -379,18 +411,18 @@ public class WorkQueueMgr {
     return retList;
   }
 
-  public synchronized void makeWorkUnassigned(QueuedWork work) {
+  public void makeWorkUnassigned(QueuedWork work) {
     work.setStatus(WorkStatusCode.UNASSIGNED);
   }
 
   // when assignment attempt ends in error, we do not try to reassign
   public synchronized void markAssignmentError(QueuedWork work) {
-    _queueIncompleteWork.delete(work);
     _queueCompletedWork.enque(work);
+    _queueIncompleteWork.delete(work);
     work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
   }
 
-  public synchronized void markAssignmentFailure(QueuedWork work) {
+  public void markAssignmentFailure(QueuedWork work) {
     work.setStatus(WorkStatusCode.UNASSIGNED);
   }
 
@@ -426,8 +458,8 @@ public class WorkQueueMgr {
       case RequeueFailure:
         {
           // move the work to completed queue
-          _queueIncompleteWork.delete(work);
           _queueCompletedWork.enque(work);
+          _queueIncompleteWork.delete(work);
           work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
           work.recordTaskCheckResult(task);
 
@@ -0,0 +1,154 @@
+package org.batfish.coordinator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+
+/**
+ * Chooses which unassigned work to assign next, and to which idle worker.
+ *
+ * <p>Work is taken in order of the priority of its network, then from the network that was least
+ * recently assigned work (so that one busy network does not starve the others), then in queue
+ * order. The work goes to the idle worker that has the most of its inputs in memory, as reported in
+ * its {@link WorkerStatus}. Among equally good workers, one that is not warm for other pending work
+ * is preferred.
+ */
+@ParametersAreNonnullByDefault
+public final class WorkScheduler {
+
+  /** Work chosen for assignment, and the worker to assign it to. */
+  public static final class Assignment {
+    private final @Nonnull QueuedWork _work;
+    private final @Nonnull String _worker;
+
+    private Assignment(QueuedWork work, String worker) {
+      _work = work;
+      _worker = worker;
+    }
+
+    public @Nonnull QueuedWork getWork() {
+      return _work;
+    }
+
+    public @Nonnull String getWorker() {
+      return _worker;
+    }
+  }
+
+  /**
+   * Creates a scheduler with the given priorities of networks by name. Networks without a priority
+   * have priority 0; higher priorities are assigned first.
+   */
+  public WorkScheduler(Map<String, Integer> networkPriorities) {
+    _networkPriorities = ImmutableMap.copyOf(networkPriorities);
+    _lastAssigned = new ConcurrentHashMap<>();
+    _clock = new AtomicLong();
+  }
+
+  /**
+   * Returns the work among {@code unassignedWork} (in queue order) to assign next, and the worker
+   * among {@code idleWorkers} to assign it to, or {@code null} if there is no work or no worker.
+   */
+  public @Nullable Assignment schedule(
+      List<QueuedWork> unassignedWork, Map<String, WorkerStatus> idleWorkers) {
+    if (unassignedWork.isEmpty() || idleWorkers.isEmpty()) {
+      return null;
+    }
+    // Stable, so queue order breaks ties
+    List<QueuedWork> ordered =
+        ImmutableList.sortedCopyOf(
+            Comparator.<QueuedWork>comparingInt(work -> -getPriority(work))
+                .thenComparingLong(work -> getLastAssigned(work.getDetails().getNetworkId())),
+            unassignedWork);
+    QueuedWork work = ordered.get(0);
+
+    String bestWorker = null;
+    int bestAffinity = -1;
+    int bestContention = 0;
+    for (Entry<String, WorkerStatus> entry :
+        ImmutableList.sortedCopyOf(Entry.comparingByKey(), idleWorkers.entrySet())) {
+      WorkerStatus status = entry.getValue();
+      int affinity = affinity(work, status);
+      if (affinity < bestAffinity) {
+        continue;
+      }
+      int contention = 0;
+      for (int i = 1; i < ordered.size(); i++) {
+        if (affinity(ordered.get(i), status) > 0) {
+          contention++;
+        }
+      }
+      if (affinity > bestAffinity || contention < bestContention) {
+        bestWorker = entry.getKey();
+        bestAffinity = affinity;
+        bestContention = contention;
+      }
+    }
+    assert bestWorker != null;
+    return new Assignment(work, bestWorker);
+  }
+
+  /** Records that {@code work} was assigned, for fairness among networks. */
+  public void recordAssignment(QueuedWork work) {
+    _lastAssigned.put(work.getDetails().getNetworkId(), _clock.incrementAndGet());
+  }
+
+  private int getPriority(QueuedWork work) {
+    return _networkPriorities.getOrDefault(work.getWorkItem().getNetwork(), 0);
+  }
+
+  private long getLastAssigned(NetworkId networkId) {
+    return _lastAssigned.getOrDefault(networkId, 0L);
+  }
+
+  /**
+   * How much of the input of {@code work} the worker has in memory: per snapshot of the work, 2 if
+   * it needs the data plane and the worker has it, 1 if the worker has the configurations.
+   */
+  @VisibleForTesting
+  static int affinity(QueuedWork work, WorkerStatus worker) {
+    WorkDetails details = work.getDetails();
+    if (details.getWorkType() == WorkType.PARSING) {
+      // parsing reads only the snapshot input
+      return 0;
+    }
+    boolean needsDataPlane = details.getWorkType() == WorkType.DATAPLANE_DEPENDENT_ANSWERING;
+    int affinity =
+        affinity(details.getNetworkId(), details.getSnapshotId(), needsDataPlane, worker);
+    if (details.isDifferential() && details.getReferenceSnapshotId() != null) {
+      affinity +=
+          affinity(
+              details.getNetworkId(), details.getReferenceSnapshotId(), needsDataPlane, worker);
+    }
+    return affinity;
+  }
+
+  private static int affinity(
+      NetworkId networkId, SnapshotId snapshotId, boolean needsDataPlane, WorkerStatus worker) {
+    NetworkSnapshot snapshot = new NetworkSnapshot(networkId, snapshotId);
+    if (needsDataPlane && worker.getWarmDataPlanes().contains(snapshot)) {
+      return 2;
+    }
+    return worker.getWarmSnapshots().contains(snapshot) ? 1 : 0;
+  }
+
+  private final @Nonnull Map<String, Integer> _networkPriorities;
+
+  /** The value of {@link #_clock} when each network was last assigned work. */
+  private final @Nonnull Map<NetworkId, Long> _lastAssigned;
+
+  private final @Nonnull AtomicLong _clock;
+}
@@ -1,6 +1,10 @@
 package org.batfish.coordinator;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.Date;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.batfish.common.NetworkSnapshot;
 
 public class WorkerStatus {
 
@@ -12,12 +16,24 @@ public class WorkerStatus {
     UNREACHABLE
   }
 
+  private int _capacity;
   private Date _lastUpdated;
   private StatusCode _statusCode;
+  // read by the scheduler without holding the pool lock, so each is replaced by an immutable copy
+  private volatile @Nonnull Set<NetworkSnapshot> _warmDataPlanes;
+  private volatile @Nonnull Set<NetworkSnapshot> _warmSnapshots;
 
   public WorkerStatus(StatusCode statusCode) {
     _statusCode = statusCode;
+    _capacity = statusCode == StatusCode.IDLE ? 1 : 0;
     _lastUpdated = new Date();
+    _warmDataPlanes = ImmutableSet.of();
+    _warmSnapshots = ImmutableSet.of();
+  }
+
+  /** The number of additional tasks the worker can run, as last known. */
+  public int getCapacity() {
+    return _capacity;
   }
 
   public Date getLastUpdateTime() {
@@ -28,13 +44,38 @@ public class WorkerStatus {
     return _statusCode;
   }
 
+  /** The snapshots whose data planes the worker last reported having in memory. */
+  public @Nonnull Set<NetworkSnapshot> getWarmDataPlanes() {
+    return _warmDataPlanes;
+  }
+
+  /** The snapshots whose configurations the worker last reported having in memory. */
+  public @Nonnull Set<NetworkSnapshot> getWarmSnapshots() {
+    return _warmSnapshots;
+  }
+
   @Override
   public String toString() {
-    return String.format("%s (%s)", _statusCode, _lastUpdated);
+    return String.format("%s capacity=%s (%s)", _statusCode, _capacity, _lastUpdated);
   }
 
   public void updateStatus(StatusCode statusCode) {
     _statusCode = statusCode;
     _lastUpdated = new Date();
   }
+
+  /**
+   * Updates the number of additional tasks the worker can run. The worker is {@link
+   * StatusCode#IDLE} if it can run any, and {@link StatusCode#BUSY} otherwise.
+   */
+  public void updateCapacity(int capacity) {
+    _capacity = Math.max(capacity, 0);
+    updateStatus(_capacity > 0 ? StatusCode.IDLE : StatusCode.BUSY);
+  }
+
+  public void updateWarmState(
+      Set<NetworkSnapshot> warmDataPlanes, Set<NetworkSnapshot> warmSnapshots) {
+    _warmDataPlanes = ImmutableSet.copyOf(warmDataPlanes);
+    _warmSnapshots = ImmutableSet.copyOf(warmSnapshots);
+  }
 }
@@ -1,10 +1,16 @@
 package org.batfish.coordinator.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.batfish.common.BaseSettings;
+import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CoordConsts;
@@ -28,6 +34,7 @@ public class Settings extends BaseSettings {
   private static final String ARG_HELP = "help";
   private static final String ARG_LOG_FILE = "logfile";
   private static final String ARG_LOG_LEVEL = "loglevel";
+  private static final String ARG_NETWORK_PRIORITIES = "networkpriorities";
   private static final String ARG_PERIOD_ASSIGN_WORK_MS = "periodassignworkms";
   private static final String ARG_PERIOD_CHECK_WORK_MS = "periodcheckworkms";
   private static final String ARG_PERIOD_WORKER_STATUS_REFRESH_MS = "periodworkerrefreshms";
@@ -62,6 +69,8 @@ public class Settings extends BaseSettings {
 
   private static final String ARG_WORK_BIND_HOST = "workbindhost";
 
+  private static final String ARGNAME_NETWORK_PRIORITIES = "network:priority..";
+
   private static final String ARGNAME_PATHS = "path..";
 
   private static final String EXECUTABLE_NAME = "coordinator";
@@ -76,6 +85,7 @@ public class Settings extends BaseSettings {
   private Path _fileAuthorizerUsersFile;
   private String _logFile;
   private String _logLevel;
+  private Map<String, Integer> _networkPriorities;
   private long _periodAssignWorkMs;
   private long _periodCheckWorkMs;
   private long _periodWorkerStatusRefreshMs;
@@ -160,6 +170,11 @@ public class Settings extends BaseSettings {
     return _logLevel;
   }
 
+  /** Priorities of networks by name when assigning work. Higher priorities are assigned first. */
+  public Map<String, Integer> getNetworkPriorities() {
+    return _networkPriorities;
+  }
+
   public long getPeriodAssignWorkMs() {
     return _periodAssignWorkMs;
   }
@@ -300,6 +315,7 @@ public class Settings extends BaseSettings {
     setDefaultProperty(ARG_HELP, false);
     setDefaultProperty(ARG_LOG_FILE, null);
     setDefaultProperty(ARG_LOG_LEVEL, BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_OUTPUT));
+    setDefaultProperty(ARG_NETWORK_PRIORITIES, Collections.emptyList());
     setDefaultProperty(ARG_PERIOD_ASSIGN_WORK_MS, 100);
     setDefaultProperty(ARG_PERIOD_CHECK_WORK_MS, 100);
     setDefaultProperty(ARG_PERIOD_WORKER_STATUS_REFRESH_MS, 10000);
@@ -351,6 +367,11 @@ public class Settings extends BaseSettings {
 
     addOption(ARG_LOG_LEVEL, "log level", "loglevel");
 
+    addListOption(
+        ARG_NETWORK_PRIORITIES,
+        "priorities of networks when assigning work (default 0)",
+        ARGNAME_NETWORK_PRIORITIES);
+
     addOption(
         ARG_PERIOD_WORKER_STATUS_REFRESH_MS,
         "period with which to check worker status (ms)",
@@ -457,6 +478,31 @@ public class Settings extends BaseSettings {
     _periodCheckWorkMs = getLongOptionValue(ARG_PERIOD_CHECK_WORK_MS);
     _logFile = getStringOptionValue(ARG_LOG_FILE);
     _logLevel = getStringOptionValue(ARG_LOG_LEVEL);
+    _networkPriorities = parseNetworkPriorities(getStringListOptionValue(ARG_NETWORK_PRIORITIES));
+  }
+
+  private static Map<String, Integer> parseNetworkPriorities(
+      @Nullable List<String> networkPriorities) {
+    ImmutableMap.Builder<String, Integer> priorities = ImmutableMap.builder();
+    if (networkPriorities == null) {
+      return priorities.build();
+    }
+    for (String networkPriority : networkPriorities) {
+      int separator = networkPriority.lastIndexOf(':');
+      try {
+        checkArgument(separator > 0);
+        priorities.put(
+            networkPriority.substring(0, separator),
+            Integer.parseInt(networkPriority.substring(separator + 1)));
+      } catch (IllegalArgumentException e) {
+        throw new BatfishException(
+            String.format(
+                "Invalid value for %s: '%s', expected network:priority",
+                ARG_NETWORK_PRIORITIES, networkPriority),
+            e);
+      }
+    }
+    return priorities.build();
   }
 
   public void setContainersLocation(Path dir) {
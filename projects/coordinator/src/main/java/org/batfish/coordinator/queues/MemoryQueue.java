@@ -1,49 +1,68 @@
 package org.batfish.coordinator.queues;
 
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.coordinator.QueuedWork;
 
-// we don't synchronize on this queue
-// all synchronization is in inside WorkQueueMgr
+/**
+ * An in-memory {@link WorkQueue} that may be read and modified concurrently. Work is looked up by
+ * ID in constant time. Iteration is in queue order and weakly consistent: it never throws {@link
+ * java.util.ConcurrentModificationException}, and may or may not see changes made while iterating.
+ *
+ * <p>Compound operations that must be atomic, e.g. moving work between queues, are synchronized in
+ * WorkQueueMgr.
+ */
+public class MemoryQueue implements WorkQueue {
 
-public class MemoryQueue extends LinkedList<QueuedWork> implements WorkQueue {
+  private final Queue<QueuedWork> _queue = new ConcurrentLinkedQueue<>();
+  private final Map<UUID, QueuedWork> _workById = new ConcurrentHashMap<>();
 
   @Override
   public boolean delete(QueuedWork qWork) {
-    return remove(qWork);
+    if (!_workById.remove(qWork.getId(), qWork)) {
+      return false;
+    }
+    return _queue.remove(qWork);
   }
 
   @Nullable
   @Override
   public QueuedWork deque() {
-    if (size() == 0) {
-      return null;
+    QueuedWork work = _queue.poll();
+    if (work != null) {
+      _workById.remove(work.getId(), work);
     }
-
-    return pop();
+    return work;
   }
 
   @Override
   public boolean enque(QueuedWork work) {
-    return add(work);
+    if (_workById.putIfAbsent(work.getId(), work) != null) {
+      return false;
+    }
+    return _queue.add(work);
   }
 
   @Override
   public long getLength() {
-    return size();
+    return _workById.size();
   }
 
   @Nullable
   @Override
   public QueuedWork getWork(UUID workItemId) {
-    for (QueuedWork work : this) {
-      if (work.getWorkItem().getId().equals(workItemId)) {
-        return work;
-      }
-    }
+    return _workById.get(workItemId);
+  }
 
-    return null;
+  @Nonnull
+  @Override
+  public Iterator<QueuedWork> iterator() {
+    return _queue.iterator();
   }
 }
@@ -54,12 +54,13 @@ public final class AnswerResource {
     }
     Answer ans =
         Main.getWorkMgr()
-            .getAnswer(
+            .filterAnswer(
                 _network,
                 filterAnswerBean.snapshot,
                 _questionName,
                 filterAnswerBean.referenceSnapshot,
-                _analysis);
+                _analysis,
+                filterAnswerBean.filterOptions);
     if (ans == null) {
       return Response.status(Status.NOT_FOUND)
           .entity(
@@ -74,10 +75,7 @@ public final class AnswerResource {
           .build();
     }
 
-    // Filter the resulting answer
-    return Response.ok()
-        .entity(Main.getWorkMgr().filterAnswer(ans, filterAnswerBean.filterOptions))
-        .build();
+    return Response.ok().entity(ans).build();
   }
 
   /**
@@ -89,6 +89,7 @@ import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerMetadataUtil;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.AnswerSummary;
 import org.batfish.datamodel.answers.Issue;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.answers.SelfDescribingObject;
@@ -102,6 +103,7 @@ import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.TestQuestion;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
@@ -2528,6 +2530,133 @@ public final class WorkMgrTest {
         equalTo(ImmutableList.of(row1)));
   }
 
+  @Test
+  public void testProcessAnswerTableColumnar() {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata("node", Schema.NODE, "node", true, false),
+                    new ColumnMetadata("count", Schema.INTEGER, "count", false, true),
+                    new ColumnMetadata("name", Schema.STRING, "name", false, true))));
+    table.addRow(Row.of("node", new Node("b"), "count", 2, "name", "foo"));
+    table.addRow(Row.of("node", new Node("a"), "count", 10, "name", "bar"));
+    table.addRow(Row.of("node", new Node("a"), "count", 10, "name", "bar"));
+    table.addRow(Row.of("node", new Node("c"), "count", 2, "name", "baz"));
+    table.setSummary(new AnswerSummary("notes", 0, 0, 0));
+    ColumnarTable columnarTable = ColumnarTable.of(table);
+
+    List<AnswerRowsOptions> optionsList =
+        ImmutableList.of(
+            new AnswerRowsOptions(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(),
+                false),
+            new AnswerRowsOptions(
+                ImmutableSet.of("name", "node"),
+                ImmutableList.of(new ColumnFilter("name", "BA")),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption("node", true)),
+                false),
+            new AnswerRowsOptions(
+                ImmutableSet.of("node", "count"),
+                ImmutableList.of(),
+                1,
+                1,
+                ImmutableList.of(
+                    new ColumnSortOption("count", false), new ColumnSortOption("name", true)),
+                true),
+            new AnswerRowsOptions(
+                ImmutableSet.of(), ImmutableList.of(), 2, 1, ImmutableList.of(), true));
+
+    for (AnswerRowsOptions options : optionsList) {
+      TableAnswerElement expected = _manager.processAnswerTable(table, options);
+      TableAnswerElement actual = _manager.processAnswerTable(columnarTable, options);
+      assertThat(actual.getMetadata(), equalTo(expected.getMetadata()));
+      assertThat(actual.getRowsList(), equalTo(expected.getRowsList()));
+      assertThat(
+          actual.getSummary().getNumResults(), equalTo(expected.getSummary().getNumResults()));
+      assertThat(actual.getSummary().getNotes(), equalTo(expected.getSummary().getNotes()));
+
+      TableView expectedView = _manager.processAnswerTable2(table, options);
+      TableView actualView = _manager.processAnswerTable2(columnarTable, options);
+      assertThat(actualView.getTableMetadata(), equalTo(expectedView.getTableMetadata()));
+      assertThat(actualView.getRows(), equalTo(expectedView.getRows()));
+      assertThat(
+          actualView.getSummary().getNumResults(),
+          equalTo(expectedView.getSummary().getNumResults()));
+      assertThat(actualView.getSummary().getNotes(), equalTo(expectedView.getSummary().getNotes()));
+    }
+  }
+
+  @Test
+  public void testGetAnswerRowsUsesAnswerTable() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String question = "question";
+    String columnName = "val";
+    TableMetadata metadata =
+        new TableMetadata(ImmutableList.of(new ColumnMetadata(columnName, Schema.STRING, "desc")));
+    TableAnswerElement table = new TableAnswerElement(metadata);
+    table.addRow(Row.of(columnName, "fromAnswer"));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, question, null, answer);
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false);
+
+    // Without a stored table, the answer itself is used
+    assertThat(
+        ((TableAnswerElement)
+                _manager
+                    .getAnswerRows(network, snapshot, question, null, null, options)
+                    .getAnswerElements()
+                    .get(0))
+            .getRowsList(),
+        contains(Row.of(columnName, "fromAnswer")));
+
+    // With a stored table, the table is used
+    NetworkId networkId = _idManager.getNetworkId(network).get();
+    SnapshotId snapshotId = _idManager.getSnapshotId(snapshot, networkId).get();
+    QuestionId questionId = _idManager.getQuestionId(question, networkId, null).get();
+    AnswerId answerId =
+        _idManager.getAnswerId(
+            networkId, snapshotId, questionId, DEFAULT_NETWORK_NODE_ROLES_ID, null, null);
+    TableAnswerElement storedTable = new TableAnswerElement(metadata);
+    storedTable.addRow(Row.of(columnName, "fromTable"));
+    _storage.storeAnswerTable(networkId, snapshotId, ColumnarTable.of(storedTable), answerId);
+
+    Answer rows = _manager.getAnswerRows(network, snapshot, question, null, null, options);
+    assertThat(rows.getStatus(), equalTo(AnswerStatus.SUCCESS));
+    assertThat(
+        ((TableAnswerElement) rows.getAnswerElements().get(0)).getRowsList(),
+        contains(Row.of(columnName, "fromTable")));
+    assertThat(
+        ((TableView)
+                _manager
+                    .getAnswerRows2(network, snapshot, question, null, null, options)
+                    .getAnswerElements()
+                    .get(0))
+            .getInnerRows(),
+        contains(Row.of(columnName, "fromTable")));
+    assertThat(
+        ((TableView)
+                _manager
+                    .filterAnswer(network, snapshot, question, null, null, options)
+                    .getAnswerElements()
+                    .get(0))
+            .getInnerRows(),
+        contains(Row.of(columnName, "fromTable")));
+  }
+
   @Test
   public void testBuildComparator() {
     String col1 = "col1";
@@ -3,19 +3,31 @@ package org.batfish.coordinator;
 import static org.batfish.coordinator.matchers.WorkQueueMatchers.hasWorkItem;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts.TaskStatus;
@@ -24,6 +36,7 @@ import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.coordinator.WorkQueueMgr.QueueType;
+import org.batfish.coordinator.WorkScheduler.Assignment;
 import org.batfish.coordinator.id.IdManager;
 import org.batfish.coordinator.queues.WorkQueue.Type;
 import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
@@ -72,24 +85,33 @@ public final class WorkQueueMgrTest {
     }
   }
 
+  /** Returns the work the scheduler would assign next to an idle worker, with no prior history. */
+  private QueuedWork getWorkForAssignment() {
+    Assignment assignment =
+        _workQueueMgr.getWorkForAssignment(
+            new WorkScheduler(ImmutableMap.of()),
+            ImmutableMap.of("worker", new WorkerStatus(WorkerStatus.StatusCode.IDLE)));
+    return assignment == null ? null : assignment.getWork();
+  }
+
   private QueuedWork doAction(Action action) throws Exception {
 
     switch (action.action) {
       case ASSIGN_ERROR:
         {
-          QueuedWork work = _workQueueMgr.getWorkForAssignment();
+          QueuedWork work = getWorkForAssignment();
           _workQueueMgr.markAssignmentError(work);
           return work;
         }
       case ASSIGN_FAILURE:
         {
-          QueuedWork work = _workQueueMgr.getWorkForAssignment();
+          QueuedWork work = getWorkForAssignment();
           _workQueueMgr.markAssignmentFailure(work);
           return work;
         }
       case ASSIGN_SUCCESS:
         {
-          QueuedWork work = _workQueueMgr.getWorkForAssignment();
+          QueuedWork work = getWorkForAssignment();
           _workQueueMgr.markAssignmentSuccess(work, "test");
           return work;
         }
@@ -309,6 +331,89 @@ public final class WorkQueueMgrTest {
                 hasWorkItem(equalTo(work2.getWorkItem())))));
   }
 
+  @Test
+  public void getWorkForAssignmentScheduled() throws Exception {
+    String snapshot = "snapshot";
+    WorkMgrTestUtils.initSnapshotWithTopology(NETWORK, snapshot, ImmutableSet.of());
+    SnapshotId snapshotId = _idManager.getSnapshotId(snapshot, _networkId).get();
+
+    WorkDetails.Builder builder =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(snapshotId)
+            .setWorkType(WorkType.UNKNOWN);
+    QueuedWork work1 = new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build());
+    QueuedWork work2 = new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build());
+    _workQueueMgr.queueUnassignedWork(work1);
+    _workQueueMgr.queueUnassignedWork(work2);
+
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    Map<String, WorkerStatus> idleWorkers =
+        ImmutableMap.of("worker", new WorkerStatus(WorkerStatus.StatusCode.IDLE));
+
+    // no idle workers, nothing is assigned
+    assertThat(_workQueueMgr.getWorkForAssignment(scheduler, ImmutableMap.of()), nullValue());
+    assertThat(work1.getStatus(), equalTo(WorkStatusCode.UNASSIGNED));
+
+    Assignment assignment = _workQueueMgr.getWorkForAssignment(scheduler, idleWorkers);
+    assertThat(assignment.getWork(), sameInstance(work1));
+    assertThat(assignment.getWorker(), equalTo("worker"));
+    assertThat(work1.getStatus(), equalTo(WorkStatusCode.TRYINGTOASSIGN));
+
+    // work being assigned is not offered again
+    assertThat(
+        _workQueueMgr.getWorkForAssignment(scheduler, idleWorkers).getWork(), sameInstance(work2));
+  }
+
+  @Test
+  public void getWorkForAssignmentConcurrent() throws Exception {
+    String snapshot = "snapshot";
+    WorkMgrTestUtils.initSnapshotWithTopology(NETWORK, snapshot, ImmutableSet.of());
+    SnapshotId snapshotId = _idManager.getSnapshotId(snapshot, _networkId).get();
+    WorkDetails details =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(snapshotId)
+            .setWorkType(WorkType.UNKNOWN)
+            .build();
+    int numWork = 200;
+    for (int i = 0; i < numWork; i++) {
+      _workQueueMgr.queueUnassignedWork(new QueuedWork(new WorkItem(NETWORK, snapshot), details));
+    }
+
+    // Many schedulers race for the same work, and each work is claimed exactly once
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    Map<String, WorkerStatus> idleWorkers =
+        ImmutableMap.of("worker", new WorkerStatus(WorkerStatus.StatusCode.IDLE));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<QueuedWork>>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  List<QueuedWork> claimed = new ArrayList<>();
+                  Assignment assignment;
+                  while ((assignment = _workQueueMgr.getWorkForAssignment(scheduler, idleWorkers))
+                      != null) {
+                    claimed.add(assignment.getWork());
+                  }
+                  return claimed;
+                }));
+      }
+      Set<UUID> claimedIds = new HashSet<>();
+      for (Future<List<QueuedWork>> future : futures) {
+        for (QueuedWork work : future.get()) {
+          assertTrue(claimedIds.add(work.getId()));
+          assertThat(work.getStatus(), equalTo(WorkStatusCode.TRYINGTOASSIGN));
+        }
+      }
+      assertThat(claimedIds, iterableWithSize(numWork));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void getCompletedWorkBadFilter() {
     // Make sure we get no results or error filtering on a bogus snapshot
@@ -0,0 +1,168 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.coordinator.WorkScheduler.Assignment;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Test;
+
+/** Tests of {@link WorkScheduler}. */
+public final class WorkSchedulerTest {
+
+  private static QueuedWork createWork(String network, String snapshot, WorkType workType) {
+    return new QueuedWork(
+        new WorkItem(network, snapshot),
+        WorkDetails.builder()
+            .setWorkType(workType)
+            .setNetworkId(new NetworkId(network + "-ID"))
+            .setSnapshotId(new SnapshotId(snapshot + "-ID"))
+            .build());
+  }
+
+  private static NetworkSnapshot snapshot(String network, String snapshot) {
+    return new NetworkSnapshot(new NetworkId(network + "-ID"), new SnapshotId(snapshot + "-ID"));
+  }
+
+  private static WorkerStatus idleWorker(
+      ImmutableSet<NetworkSnapshot> warmDataPlanes, ImmutableSet<NetworkSnapshot> warmSnapshots) {
+    WorkerStatus status = new WorkerStatus(WorkerStatus.StatusCode.IDLE);
+    status.updateWarmState(warmDataPlanes, warmSnapshots);
+    return status;
+  }
+
+  private static final WorkerStatus COLD = idleWorker(ImmutableSet.of(), ImmutableSet.of());
+
+  @Test
+  public void testScheduleNothing() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    QueuedWork work = createWork("n", "s", WorkType.INDEPENDENT_ANSWERING);
+    assertThat(scheduler.schedule(ImmutableList.of(), ImmutableMap.of("w", COLD)), nullValue());
+    assertThat(scheduler.schedule(ImmutableList.of(work), ImmutableMap.of()), nullValue());
+  }
+
+  @Test
+  public void testScheduleQueueOrder() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    QueuedWork first = createWork("n", "s1", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork second = createWork("n", "s2", WorkType.INDEPENDENT_ANSWERING);
+    Assignment assignment =
+        scheduler.schedule(ImmutableList.of(first, second), ImmutableMap.of("w", COLD));
+    assertThat(assignment.getWork(), sameInstance(first));
+    assertThat(assignment.getWorker(), equalTo("w"));
+  }
+
+  @Test
+  public void testSchedulePriority() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of("high", 1, "low", -1));
+    QueuedWork low = createWork("low", "s", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork normal = createWork("normal", "s", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork high = createWork("high", "s", WorkType.INDEPENDENT_ANSWERING);
+    Map<String, WorkerStatus> workers = ImmutableMap.of("w", COLD);
+    assertThat(
+        scheduler.schedule(ImmutableList.of(low, normal, high), workers).getWork(),
+        sameInstance(high));
+    assertThat(
+        scheduler.schedule(ImmutableList.of(low, normal), workers).getWork(), sameInstance(normal));
+  }
+
+  @Test
+  public void testScheduleFairness() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    QueuedWork a1 = createWork("a", "s", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork a2 = createWork("a", "s", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork b1 = createWork("b", "s", WorkType.INDEPENDENT_ANSWERING);
+    Map<String, WorkerStatus> workers = ImmutableMap.of("w", COLD);
+
+    Assignment assignment = scheduler.schedule(ImmutableList.of(a1, a2, b1), workers);
+    assertThat(assignment.getWork(), sameInstance(a1));
+    scheduler.recordAssignment(a1);
+
+    // network b has not been served yet, so it goes before a2
+    assignment = scheduler.schedule(ImmutableList.of(a2, b1), workers);
+    assertThat(assignment.getWork(), sameInstance(b1));
+    scheduler.recordAssignment(b1);
+
+    assertThat(scheduler.schedule(ImmutableList.of(a2), workers).getWork(), sameInstance(a2));
+  }
+
+  @Test
+  public void testScheduleAffinity() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    QueuedWork work = createWork("n", "s", WorkType.DATAPLANE_DEPENDENT_ANSWERING);
+    WorkerStatus warmConfigs = idleWorker(ImmutableSet.of(), ImmutableSet.of(snapshot("n", "s")));
+    WorkerStatus warmDataPlane =
+        idleWorker(ImmutableSet.of(snapshot("n", "s")), ImmutableSet.of(snapshot("n", "s")));
+
+    assertThat(
+        scheduler
+            .schedule(ImmutableList.of(work), ImmutableMap.of("a", COLD, "b", warmConfigs))
+            .getWorker(),
+        equalTo("b"));
+    assertThat(
+        scheduler
+            .schedule(
+                ImmutableList.of(work),
+                ImmutableMap.of("a", COLD, "b", warmConfigs, "c", warmDataPlane))
+            .getWorker(),
+        equalTo("c"));
+  }
+
+  @Test
+  public void testScheduleAvoidsWorkersWarmForOtherWork() {
+    WorkScheduler scheduler = new WorkScheduler(ImmutableMap.of());
+    QueuedWork first = createWork("n", "s1", WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork second = createWork("n", "s2", WorkType.INDEPENDENT_ANSWERING);
+    WorkerStatus warmForSecond =
+        idleWorker(ImmutableSet.of(), ImmutableSet.of(snapshot("n", "s2")));
+
+    assertThat(
+        scheduler
+            .schedule(
+                ImmutableList.of(first, second), ImmutableMap.of("a", warmForSecond, "b", COLD))
+            .getWorker(),
+        equalTo("b"));
+  }
+
+  @Test
+  public void testAffinity() {
+    WorkerStatus worker =
+        idleWorker(
+            ImmutableSet.of(snapshot("n", "s")),
+            ImmutableSet.of(snapshot("n", "s"), snapshot("n", "ref")));
+    assertThat(WorkScheduler.affinity(createWork("n", "s", WorkType.PARSING), worker), equalTo(0));
+    assertThat(
+        WorkScheduler.affinity(createWork("n", "s", WorkType.PARSING_DEPENDENT_ANSWERING), worker),
+        equalTo(1));
+    assertThat(
+        WorkScheduler.affinity(
+            createWork("n", "s", WorkType.DATAPLANE_DEPENDENT_ANSWERING), worker),
+        equalTo(2));
+    assertThat(
+        WorkScheduler.affinity(
+            createWork("n", "other", WorkType.DATAPLANE_DEPENDENT_ANSWERING), worker),
+        equalTo(0));
+
+    QueuedWork differential =
+        new QueuedWork(
+            new WorkItem("n", "s"),
+            WorkDetails.builder()
+                .setWorkType(WorkType.DATAPLANE_DEPENDENT_ANSWERING)
+                .setNetworkId(new NetworkId("n-ID"))
+                .setSnapshotId(new SnapshotId("s-ID"))
+                .setReferenceSnapshotId(new SnapshotId("ref-ID"))
+                .setIsDifferential(true)
+                .build());
+    assertThat(WorkScheduler.affinity(differential, worker), equalTo(3));
+  }
+}
@@ -0,0 +1,30 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+import org.junit.Test;
+
+/** Tests of {@link WorkerStatus}. */
+public final class WorkerStatusTest {
+
+  @Test
+  public void testInitialCapacity() {
+    assertThat(new WorkerStatus(StatusCode.IDLE).getCapacity(), equalTo(1));
+    assertThat(new WorkerStatus(StatusCode.UNKNOWN).getCapacity(), equalTo(0));
+  }
+
+  @Test
+  public void testUpdateCapacity() {
+    WorkerStatus status = new WorkerStatus(StatusCode.UNKNOWN);
+    status.updateCapacity(3);
+    assertThat(status.getStatus(), equalTo(StatusCode.IDLE));
+    assertThat(status.getCapacity(), equalTo(3));
+    status.updateCapacity(0);
+    assertThat(status.getStatus(), equalTo(StatusCode.BUSY));
+    status.updateCapacity(-1);
+    assertThat(status.getStatus(), equalTo(StatusCode.BUSY));
+    assertThat(status.getCapacity(), equalTo(0));
+  }
+}
@@ -1,18 +1,25 @@
 package org.batfish.coordinator.config;
 
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableMap;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.batfish.common.BatfishException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 /** Tests for {@link Settings}. */
 public class SettingsTest {
 
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
   @Test
   public void testDefaultValue() {
     Settings settings = new Settings(new String[] {});
@@ -38,6 +45,19 @@ public class SettingsTest {
     assertThat(settings.getSslPoolKeystoreFile(), equalTo(keyfile));
   }
 
+  @Test
+  public void testNetworkPriorities() {
+    assertThat(new Settings(new String[] {}).getNetworkPriorities(), anEmptyMap());
+    Settings settings = new Settings(new String[] {"-networkpriorities=net1:5,net:2:-1"});
+    assertThat(settings.getNetworkPriorities(), equalTo(ImmutableMap.of("net1", 5, "net:2", -1)));
+  }
+
+  @Test
+  public void testNetworkPrioritiesInvalid() {
+    _thrown.expect(BatfishException.class);
+    new Settings(new String[] {"-networkpriorities=net1"});
+  }
+
   /** Ensure lists of {@link Path} objects are stored/returned properly */
   @Test
   public void testGetPathList() {
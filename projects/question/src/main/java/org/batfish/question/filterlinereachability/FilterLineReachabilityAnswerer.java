@@ -1,6 +1,7 @@
 package org.batfish.question.filterlinereachability;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 import static org.batfish.question.filterlinereachability.AclEraser.erase;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityRows.createMetadata;
@@ -11,21 +12,32 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.Answerer;
+import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.BDDFiniteDomain;
+import org.batfish.common.bdd.BDDInteger;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDSourceManager;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.Configuration;
@@ -48,6 +60,8 @@ import org.batfish.specifier.SpecifierContext;
 @ParametersAreNonnullByDefault
 public class FilterLineReachabilityAnswerer extends Answerer {
 
+  private static final String SOURCE_VAR_NAME = "PacketSource";
+
   public FilterLineReachabilityAnswerer(Question question, IBatfish batfish) {
     super(question, batfish);
   }
@@ -63,7 +77,12 @@ public class FilterLineReachabilityAnswerer extends Answerer {
 
     SortedMap<String, Configuration> configurations = _batfish.loadConfigurations(snapshot);
     List<AclSpecs> aclSpecs = getAclSpecs(configurations, specifiedAcls, answerRows);
-    computeUnreachableFilterLines(aclSpecs).forEach(answerRows::addRowForLine);
+    boolean concurrentBddFactory =
+        _batfish
+            .getSettingsConfiguration()
+            .getBoolean(BfConsts.ARG_CONCURRENT_BDD_FACTORY, false);
+    computeUnreachableFilterLines(aclSpecs, concurrentBddFactory)
+        .forEach(answerRows::addRowForLine);
     TableAnswerElement answer = new TableAnswerElement(createMetadata(question));
     answer.postProcessAnswer(question, answerRows.getRows());
     return answer;
@@ -358,7 +377,8 @@ public class FilterLineReachabilityAnswerer extends Answerer {
       SortedMap<String, Configuration> configurations,
       Map<String, Set<String>> specifiedAcls,
       FilterLineReachabilityRows answer) {
-    List<AclSpecs.Builder> aclSpecs = new ArrayList<>();
+    // Structurally identical ACLs are analyzed once, in order of first occurrence
+    Map<CanonicalAcl, AclSpecs.Builder> aclSpecs = new LinkedHashMap<>();
 
     /*
      - For each ACL, build a CanonicalAcl structure with that ACL and referenced ACLs & interfaces
@@ -433,29 +453,115 @@ public class FilterLineReachabilityAnswerer extends Answerer {
                   node.getLinesInCycles());
 
           // If an identical ACL exists, add current hostname/aclName pair; otherwise, add new ACL
-          boolean added = false;
-          for (AclSpecs.Builder aclSpec : aclSpecs) {
-            if (aclSpec.getAcl().equals(currentAcl)) {
-              aclSpec.addSource(hostname, aclName);
-              added = true;
-              break;
-            }
-          }
-          if (!added) {
-            aclSpecs.add(AclSpecs.builder().setAcl(currentAcl).addSource(hostname, aclName));
-          }
+          aclSpecs
+              .computeIfAbsent(currentAcl, acl -> AclSpecs.builder().setAcl(acl))
+              .addSource(hostname, aclName);
         }
       }
     }
-    return aclSpecs.stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
+    return aclSpecs.values().stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
   }
 
-  private static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
-      List<AclSpecs> aclSpecs) {
-    BDDPacket bddPacket = new BDDPacket();
-    return aclSpecs.stream()
-        .flatMap(
-            aclSpec ->
-                FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, bddPacket));
+  /**
+   * Analyzes the distinct ACLs in parallel. A {@link BDDPacket} built on {@link
+   * net.sf.javabdd.JFactory} can only be used by one thread at a time, so by default each ACL is
+   * analyzed with a packet taken from a {@link BddPacketPool}, with at most one packet per thread.
+   * If {@code concurrentBddFactory} is set, all ACLs share a single thread-safe packet instead.
+   * Results are in the order of {@code aclSpecs}.
+   */
+  @VisibleForTesting
+  static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
+      List<AclSpecs> aclSpecs, boolean concurrentBddFactory) {
+    if (aclSpecs.isEmpty()) {
+      return Stream.of();
+    }
+    if (concurrentBddFactory) {
+      BDDPacket bddPacket = BDDPacket.createConcurrent();
+      // Allocating variables changes the factory under every other thread, so allocate a single
+      // source variable up front, large enough for any ACL, and share it across all ACLs.
+      int maxSources =
+          aclSpecs.stream().mapToInt(aclSpec -> aclSpec.acl.getInterfaces().size()).max().orElse(0)
+              + 1;
+      BDDInteger sourceVar =
+          bddPacket.allocateBDDInteger(
+              SOURCE_VAR_NAME, BDDFiniteDomain.computeBitsRequired(maxSources), false);
+      List<List<UnreachableFilterLine>> results =
+          aclSpecs.parallelStream()
+              .map(
+                  aclSpec ->
+                      FilterLineReachabilityUtils.computeUnreachableFilterLines(
+                              aclSpec,
+                              bddPacket,
+                              BDDSourceManager.forInterfaces(
+                                  sourceVar, aclSpec.acl.getInterfaces()))
+                          .collect(ImmutableList.toImmutableList()))
+              .collect(ImmutableList.toImmutableList());
+      return results.stream().flatMap(List::stream);
+    }
+    // the calling thread takes part in the parallel stream, in addition to the pool's threads
+    BddPacketPool bddPackets =
+        new BddPacketPool(Math.min(aclSpecs.size(), ForkJoinPool.getCommonPoolParallelism() + 1));
+    List<List<UnreachableFilterLine>> results =
+        aclSpecs.parallelStream()
+            .map(
+                aclSpec -> {
+                  BDDPacket bddPacket = bddPackets.acquire();
+                  try {
+                    return FilterLineReachabilityUtils.computeUnreachableFilterLines(
+                            aclSpec, bddPacket)
+                        .collect(ImmutableList.toImmutableList());
+                  } finally {
+                    bddPackets.release(bddPacket);
+                  }
+                })
+            .collect(ImmutableList.toImmutableList());
+    return results.stream().flatMap(List::stream);
+  }
+
+  /**
+   * A bounded pool of {@link BDDPacket}s for analyzing ACLs in parallel. Packets are created on
+   * demand, each with a small initial node table since a single ACL needs few nodes. Once the bound
+   * is reached, threads wait for a packet to be released.
+   */
+  @VisibleForTesting
+  static final class BddPacketPool {
+
+    /** Initial node table size of pooled packets, well below the {@link BDDPacket} default. */
+    @VisibleForTesting static final int INITIAL_NODE_TABLE_SIZE = 100_000;
+
+    private final int _maxPackets;
+    private final @Nonnull AtomicInteger _created;
+    private final @Nonnull BlockingQueue<BDDPacket> _idle;
+
+    BddPacketPool(int maxPackets) {
+      checkArgument(maxPackets > 0, "A BDD packet pool must allow at least one packet");
+      _maxPackets = maxPackets;
+      _created = new AtomicInteger();
+      _idle = new ArrayBlockingQueue<>(maxPackets);
+    }
+
+    /** Takes an idle packet, creating one if the bound allows, or else waiting for one. */
+    @Nonnull
+    BDDPacket acquire() {
+      BDDPacket idle = _idle.poll();
+      if (idle != null) {
+        return idle;
+      }
+      if (_created.getAndUpdate(n -> n < _maxPackets ? n + 1 : n) < _maxPackets) {
+        return BDDPacket.withInitialNodeTableSize(INITIAL_NODE_TABLE_SIZE);
+      }
+      return Uninterruptibles.takeUninterruptibly(_idle);
+    }
+
+    /** Returns a packet taken by {@link #acquire()} to the pool. */
+    void release(BDDPacket bddPacket) {
+      _idle.add(bddPacket);
+    }
+
+    /** The number of packets created so far. */
+    @VisibleForTesting
+    int getCreated() {
+      return _created.get();
+    }
   }
 }
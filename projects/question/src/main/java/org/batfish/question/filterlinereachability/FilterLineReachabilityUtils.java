@@ -60,9 +60,19 @@ public class FilterLineReachabilityUtils {
 
   public static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
       AclSpecs aclSpec, BDDPacket bddPacket) {
+    return computeUnreachableFilterLines(
+        aclSpec,
+        bddPacket,
+        BDDSourceManager.forInterfaces(bddPacket, aclSpec.acl.getInterfaces()));
+  }
+
+  /**
+   * Like {@link #computeUnreachableFilterLines(AclSpecs, BDDPacket)}, but tracks sources with the
+   * given {@link BDDSourceManager} instead of allocating new variables in {@code bddPacket}.
+   */
+  public static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
+      AclSpecs aclSpec, BDDPacket bddPacket, BDDSourceManager sourceMgr) {
     BDDFactory bddFactory = bddPacket.getFactory();
-    BDDSourceManager sourceMgr =
-        BDDSourceManager.forInterfaces(bddPacket, aclSpec.acl.getInterfaces());
     IpAccessListToBdd ipAccessListToBdd =
         new IpAccessListToBddImpl(
             bddPacket, sourceMgr, aclSpec.acl.getDependencies(), ImmutableMap.of());
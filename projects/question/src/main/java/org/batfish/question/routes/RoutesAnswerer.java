@@ -4,14 +4,11 @@ import static org.batfish.datamodel.questions.BgpRouteStatus.BACKUP;
 import static org.batfish.datamodel.questions.BgpRouteStatus.BEST;
 import static org.batfish.datamodel.table.TableDiff.COL_BASE_PREFIX;
 import static org.batfish.datamodel.table.TableDiff.COL_DELTA_PREFIX;
-import static org.batfish.question.routes.RoutesAnswererUtil.getAbstractRouteRowsDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRibRoutes;
-import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRouteRowsDiff;
+import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.getEvpnRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutes;
-import static org.batfish.question.routes.RoutesAnswererUtil.getRoutesDiff;
-import static org.batfish.question.routes.RoutesAnswererUtil.groupBgpRoutes;
-import static org.batfish.question.routes.RoutesAnswererUtil.groupRoutes;
+import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutesDiff;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -24,7 +21,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -186,54 +182,36 @@ public class RoutesAnswerer extends Answerer {
             .resolve();
 
     Multiset<Row> rows;
-    Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>
-        routesGroupedByKeyInBase;
-    Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>
-        routesGroupedByKeyInDelta;
-    Map<Ip, Set<String>> ipOwners;
-    DataPlane dp;
-
-    List<DiffRoutesOutput> routesDiffRaw;
+    DataPlane dp = _batfish.loadDataPlane(snapshot);
+    DataPlane refDp = _batfish.loadDataPlane(reference);
 
     switch (question.getRib()) {
       case BGP:
-        dp = _batfish.loadDataPlane(snapshot);
-        routesGroupedByKeyInBase =
-            groupBgpRoutes(
-                expandedBgpRouteStatuses.contains(BEST) ? dp.getBgpRoutes() : null,
-                expandedBgpRouteStatuses.contains(BACKUP) ? dp.getBgpBackupRoutes() : null,
-                matchingNodes,
-                vrfRegex,
-                network,
-                protocolSpec);
-
-        dp = _batfish.loadDataPlane(reference);
-        routesGroupedByKeyInDelta =
-            groupBgpRoutes(
+        rows =
+            getBgpRoutesDiff(
                 expandedBgpRouteStatuses.contains(BEST) ? dp.getBgpRoutes() : null,
                 expandedBgpRouteStatuses.contains(BACKUP) ? dp.getBgpBackupRoutes() : null,
+                expandedBgpRouteStatuses.contains(BEST) ? refDp.getBgpRoutes() : null,
+                expandedBgpRouteStatuses.contains(BACKUP) ? refDp.getBgpBackupRoutes() : null,
                 matchingNodes,
                 vrfRegex,
                 network,
                 protocolSpec);
-        routesDiffRaw = getRoutesDiff(routesGroupedByKeyInBase, routesGroupedByKeyInDelta);
-        rows = getBgpRouteRowsDiff(routesDiffRaw, RibProtocol.BGP);
         break;
 
       case MAIN:
       default:
-        dp = _batfish.loadDataPlane(snapshot);
-        ipOwners = _batfish.getTopologyProvider().getIpOwners(snapshot).getNodeOwners(true);
-        routesGroupedByKeyInBase =
-            groupRoutes(dp.getRibs(), matchingNodes, network, vrfRegex, protocolSpec, ipOwners);
-
-        dp = _batfish.loadDataPlane(reference);
-        ipOwners = _batfish.getTopologyProvider().getIpOwners(snapshot).getNodeOwners(true);
-        routesGroupedByKeyInDelta =
-            groupRoutes(dp.getRibs(), matchingNodes, network, vrfRegex, protocolSpec, ipOwners);
-
-        routesDiffRaw = getRoutesDiff(routesGroupedByKeyInBase, routesGroupedByKeyInDelta);
-        rows = getAbstractRouteRowsDiff(routesDiffRaw);
+        Map<Ip, Set<String>> ipOwners =
+            _batfish.getTopologyProvider().getIpOwners(snapshot).getNodeOwners(true);
+        rows =
+            getMainRibRoutesDiff(
+                dp.getRibs(),
+                refDp.getRibs(),
+                matchingNodes,
+                network,
+                vrfRegex,
+                protocolSpec,
+                ipOwners);
     }
 
     diffAnswer.postProcessAnswer(_question, rows);
@@ -41,21 +41,29 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Table;
+import com.google.common.collect.TreeMultimap;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -722,31 +730,11 @@ public class RoutesAnswererUtil {
             vrfMap.forEach(
                 (vrfName, rib) -> {
                   if (compiledVrfRegex.matcher(vrfName).matches()) {
-                    rib.getRoutes().stream()
-                        .filter(
-                            route ->
-                                (network == null || network.equals(route.getNetwork()))
-                                    && protocolSpec.getProtocols().contains(route.getProtocol()))
+                    groupRibRoutes(rib, network, protocolSpec, ipOwners)
                         .forEach(
-                            route ->
-                                routesGroups
-                                    .computeIfAbsent(
-                                        new RouteRowKey(node, vrfName, route.getNetwork()),
-                                        k -> new HashMap<>())
-                                    .computeIfAbsent(
-                                        new RouteRowSecondaryKey(
-                                            route.getNextHopIp(),
-                                            route.getProtocol().protocolName()),
-                                        k -> new TreeSet<>())
-                                    .add(
-                                        RouteRowAttribute.builder()
-                                            .setNextHop(
-                                                computeNextHopNode(route.getNextHopIp(), ipOwners))
-                                            .setNextHopInterface(route.getNextHopInterface())
-                                            .setAdminDistance(route.getAdministrativeCost())
-                                            .setMetric(route.getMetric())
-                                            .setTag(route.getTag())
-                                            .build()));
+                            (prefix, routesGroup) ->
+                                routesGroups.put(
+                                    new RouteRowKey(node, vrfName, prefix), routesGroup));
                   }
                 });
           }
@@ -754,6 +742,51 @@ public class RoutesAnswererUtil {
     return routesGroups;
   }
 
+  /**
+   * Groups the routes of a single RIB like {@link #groupRoutes}, by network in ascending order.
+   *
+   * @param rib the RIB, or {@code null} if it does not exist
+   * @param network {@link Prefix}
+   * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
+   * @param ipOwners {@link Map} of {@link Ip} to {@link Set} of owner nodes
+   * @return {@link SortedMap} of networks to corresponding sub{@link Map}s of {@link
+   *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s
+   */
+  private static SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>
+      groupRibRoutes(
+          @Nullable GenericRib<?> rib,
+          @Nullable Prefix network,
+          RoutingProtocolSpecifier protocolSpec,
+          @Nullable Map<Ip, Set<String>> ipOwners) {
+    SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesGroups =
+        new TreeMap<>();
+    if (rib == null) {
+      return routesGroups;
+    }
+    rib.getRoutes().stream()
+        .filter(
+            route ->
+                (network == null || network.equals(route.getNetwork()))
+                    && protocolSpec.getProtocols().contains(route.getProtocol()))
+        .forEach(
+            route ->
+                routesGroups
+                    .computeIfAbsent(route.getNetwork(), k -> new HashMap<>())
+                    .computeIfAbsent(
+                        new RouteRowSecondaryKey(
+                            route.getNextHopIp(), route.getProtocol().protocolName()),
+                        k -> new TreeSet<>())
+                    .add(
+                        RouteRowAttribute.builder()
+                            .setNextHop(computeNextHopNode(route.getNextHopIp(), ipOwners))
+                            .setNextHopInterface(route.getNextHopInterface())
+                            .setAdminDistance(route.getAdministrativeCost())
+                            .setMetric(route.getMetric())
+                            .setTag(route.getTag())
+                            .build()));
+    return routesGroups;
+  }
+
   /**
    * Given a {@link Table} of {@link Bgpv4Route}s indexed by Node name and VRF name, applies given
    * filters and groups the routes by {@link RouteRowKey} and sub-groups them further by {@link
@@ -777,13 +810,34 @@ public class RoutesAnswererUtil {
       String vrfRegex,
       @Nullable Prefix network,
       RoutingProtocolSpecifier protocolSpec) {
-    checkArgument(
-        bgpBestRoutes != null || bgpBackupRoutes != null,
-        "At least one of best routes or backup routes is required.");
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesGroups =
         new HashMap<>();
     Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
+    Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatus =
+        getBgpRoutesByStatus(bgpBestRoutes, bgpBackupRoutes);
+
+    matchingNodes.forEach(
+        hostname ->
+            routesByStatus.values().stream()
+                .flatMap(statusRoutes -> statusRoutes.row(hostname).keySet().stream())
+                .filter(vrfName -> compiledVrfRegex.matcher(vrfName).matches())
+                .distinct()
+                .forEach(
+                    vrfName ->
+                        groupBgpRoutes(hostname, vrfName, routesByStatus, network, protocolSpec)
+                            .forEach(
+                                (prefix, routesGroup) ->
+                                    routesGroups.put(
+                                        new RouteRowKey(hostname, vrfName, prefix), routesGroup))));
+    return routesGroups;
+  }
 
+  private static Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> getBgpRoutesByStatus(
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBestRoutes,
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes) {
+    checkArgument(
+        bgpBestRoutes != null || bgpBackupRoutes != null,
+        "At least one of best routes or backup routes is required.");
     Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatus =
         new EnumMap<>(BgpRouteStatus.class);
     if (bgpBestRoutes != null) {
@@ -792,65 +846,68 @@ public class RoutesAnswererUtil {
     if (bgpBackupRoutes != null) {
       routesByStatus.put(BACKUP, bgpBackupRoutes);
     }
+    return routesByStatus;
+  }
 
-    matchingNodes.forEach(
-        hostname ->
-            routesByStatus.forEach(
-                (status, statusRoutes) ->
-                    statusRoutes.row(hostname).entrySet().stream()
-                        .filter(vrfEntry -> compiledVrfRegex.matcher(vrfEntry.getKey()).matches())
-                        .forEach(
-                            vrfEntry ->
-                                vrfEntry.getValue().stream()
-                                    .filter(
-                                        route ->
-                                            (network == null || network.equals(route.getNetwork()))
-                                                && protocolSpec
-                                                    .getProtocols()
-                                                    .contains(route.getProtocol()))
-                                    .forEach(
-                                        route ->
-                                            routesGroups
-                                                .computeIfAbsent(
-                                                    new RouteRowKey(
-                                                        hostname,
-                                                        vrfEntry.getKey(),
-                                                        route.getNetwork()),
-                                                    k -> new HashMap<>())
-                                                .computeIfAbsent(
-                                                    new RouteRowSecondaryKey(
-                                                        route.getNextHopIp(),
-                                                        route.getProtocol().protocolName()),
-                                                    k -> new TreeSet<>())
-                                                .add(
-                                                    RouteRowAttribute.builder()
-                                                        .setOriginProtocol(
-                                                            route.getSrcProtocol() != null
-                                                                ? route
-                                                                    .getSrcProtocol()
-                                                                    .protocolName()
-                                                                : null)
-                                                        .setAdminDistance(
-                                                            route.getAdministrativeCost())
-                                                        .setMetric(route.getMetric())
-                                                        .setAsPath(route.getAsPath())
-                                                        .setLocalPreference(
-                                                            route.getLocalPreference())
-                                                        .setCommunities(
-                                                            route
-                                                                .getCommunities()
-                                                                .getCommunities()
-                                                                .stream()
-                                                                .map(Community::toString)
-                                                                .collect(toImmutableList()))
-                                                        .setOriginType(route.getOriginType())
-                                                        .setTag(
-                                                            route.getTag() == Route.UNSET_ROUTE_TAG
-                                                                ? null
-                                                                : route.getTag())
-                                                        .setStatus(status)
-                                                        .build())))));
-
+  /**
+   * Groups the {@link Bgpv4Route}s of a single VRF like {@link #groupBgpRoutes(Table, Table, Set,
+   * String, Prefix, RoutingProtocolSpecifier)}, by network in ascending order.
+   *
+   * @param hostname name of the node
+   * @param vrfName name of the VRF
+   * @param routesByStatus {@link Table}s of {@link Bgpv4Route}s with rows per node and columns per
+   *     VRF, for each reported {@link BgpRouteStatus}
+   * @param network {@link Prefix}
+   * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
+   * @return {@link SortedMap} of networks to corresponding sub{@link Map}s of {@link
+   *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s
+   */
+  private static SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>
+      groupBgpRoutes(
+          String hostname,
+          String vrfName,
+          Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatus,
+          @Nullable Prefix network,
+          RoutingProtocolSpecifier protocolSpec) {
+    SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesGroups =
+        new TreeMap<>();
+    routesByStatus.forEach(
+        (status, statusRoutes) ->
+            firstNonNull(statusRoutes.get(hostname, vrfName), ImmutableSet.<Bgpv4Route>of())
+                .stream()
+                .filter(
+                    route ->
+                        (network == null || network.equals(route.getNetwork()))
+                            && protocolSpec.getProtocols().contains(route.getProtocol()))
+                .forEach(
+                    route ->
+                        routesGroups
+                            .computeIfAbsent(route.getNetwork(), k -> new HashMap<>())
+                            .computeIfAbsent(
+                                new RouteRowSecondaryKey(
+                                    route.getNextHopIp(), route.getProtocol().protocolName()),
+                                k -> new TreeSet<>())
+                            .add(
+                                RouteRowAttribute.builder()
+                                    .setOriginProtocol(
+                                        route.getSrcProtocol() != null
+                                            ? route.getSrcProtocol().protocolName()
+                                            : null)
+                                    .setAdminDistance(route.getAdministrativeCost())
+                                    .setMetric(route.getMetric())
+                                    .setAsPath(route.getAsPath())
+                                    .setLocalPreference(route.getLocalPreference())
+                                    .setCommunities(
+                                        route.getCommunities().getCommunities().stream()
+                                            .map(Community::toString)
+                                            .collect(toImmutableList()))
+                                    .setOriginType(route.getOriginType())
+                                    .setTag(
+                                        route.getTag() == Route.UNSET_ROUTE_TAG
+                                            ? null
+                                            : route.getTag())
+                                    .setStatus(status)
+                                    .build())));
     return routesGroups;
   }
 
@@ -940,41 +997,245 @@ public class RoutesAnswererUtil {
           listDiffs.addAll(getDiffPerKey(routeRowKey, baseAttrsForRowKey, refAttrsForRowKey));
         }
       } else if (baseAttrsForRowKey != null) {
-        baseAttrsForRowKey.forEach(
-            (key, value) -> {
-              // the nested list contains list of pairs of RouteRowAttributes with fist element and
-              // second element of the pair from base and reference snapshots respectively, second
-              // element is null to account for absence of this network in the reference snapshot
-              List<List<RouteRowAttribute>> diffMatrix =
-                  value.stream()
-                      .map(routeRowAttribute -> Lists.newArrayList(routeRowAttribute, null))
-                      .collect(Collectors.toList());
-              listDiffs.add(
-                  new DiffRoutesOutput(
-                      routeRowKey,
-                      key,
-                      KeyPresenceStatus.ONLY_IN_SNAPSHOT,
-                      diffMatrix,
-                      KeyPresenceStatus.ONLY_IN_SNAPSHOT));
-            });
+        listDiffs.addAll(getOneSidedDiff(routeRowKey, baseAttrsForRowKey, true));
       } else {
-        refAttrsForRowKey.forEach(
-            (key, value) -> {
-              // the nested list contains list of pairs of RouteRowAttributes with fist element and
-              // second element of the pair from base and reference snapshots respectively, first
-              // element is null to account for absence of this network in the base snapshot
-              List<List<RouteRowAttribute>> diffMatrix =
-                  value.stream()
-                      .map(routeRowAttribute -> Lists.newArrayList(null, routeRowAttribute))
-                      .collect(Collectors.toList());
-              listDiffs.add(
-                  new DiffRoutesOutput(
-                      routeRowKey,
-                      key,
-                      KeyPresenceStatus.ONLY_IN_REFERENCE,
-                      diffMatrix,
-                      KeyPresenceStatus.ONLY_IN_REFERENCE));
-            });
+        listDiffs.addAll(getOneSidedDiff(routeRowKey, refAttrsForRowKey, false));
+      }
+    }
+    return listDiffs;
+  }
+
+  /**
+   * Gets the diff for a {@link RouteRowKey} present in only one of the snapshots
+   *
+   * @param routeRowKey {@link RouteRowKey} for the {@link RouteRowAttribute}s in innerGroup
+   * @param innerGroup {@link Map} from {@link RouteRowSecondaryKey} to {@link SortedSet} of {@link
+   *     RouteRowAttribute}s for routeRowKey
+   * @param inBase whether routeRowKey is only in the base snapshot, rather than only in the
+   *     reference snapshot
+   * @return {@link List} of {@link DiffRoutesOutput}
+   */
+  private static List<DiffRoutesOutput> getOneSidedDiff(
+      RouteRowKey routeRowKey,
+      Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>> innerGroup,
+      boolean inBase) {
+    KeyPresenceStatus presenceStatus =
+        inBase ? KeyPresenceStatus.ONLY_IN_SNAPSHOT : KeyPresenceStatus.ONLY_IN_REFERENCE;
+    List<DiffRoutesOutput> listDiffs = new ArrayList<>();
+    innerGroup.forEach(
+        (key, value) -> {
+          // the nested list contains list of pairs of RouteRowAttributes with fist element and
+          // second element of the pair from base and reference snapshots respectively, the element
+          // for the snapshot without this network is null
+          List<List<RouteRowAttribute>> diffMatrix =
+              value.stream()
+                  .map(
+                      routeRowAttribute ->
+                          inBase
+                              ? Lists.newArrayList(routeRowAttribute, null)
+                              : Lists.newArrayList(null, routeRowAttribute))
+                  .collect(Collectors.toList());
+          listDiffs.add(
+              new DiffRoutesOutput(routeRowKey, key, presenceStatus, diffMatrix, presenceStatus));
+        });
+    return listDiffs;
+  }
+
+  /**
+   * Computes the rows of the differential answer for the main RIBs of two snapshots. Equivalent to
+   * {@link #getAbstractRouteRowsDiff} of the {@link #getRoutesDiff} of the {@link #groupRoutes} of
+   * each snapshot, without grouping all the routes of a snapshot at once.
+   *
+   * @param ribsInBase {@link Map} representing all RIBs of all nodes in the base snapshot
+   * @param ribsInRef {@link Map} representing all RIBs of all nodes in the reference snapshot
+   * @param matchingNodes {@link Set} of nodes to be matched
+   * @param network {@link Prefix}
+   * @param vrfRegex Regex to filter the VRF
+   * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
+   * @param ipOwners {@link Map} of {@link Ip} to {@link Set} of owner nodes
+   * @return {@link Multiset} of {@link Row}s
+   */
+  static <T extends AbstractRouteDecorator> Multiset<Row> getMainRibRoutesDiff(
+      SortedMap<String, SortedMap<String, GenericRib<T>>> ribsInBase,
+      SortedMap<String, SortedMap<String, GenericRib<T>>> ribsInRef,
+      Set<String> matchingNodes,
+      @Nullable Prefix network,
+      String vrfRegex,
+      RoutingProtocolSpecifier protocolSpec,
+      @Nullable Map<Ip, Set<String>> ipOwners) {
+    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
+    SetMultimap<String, String> vrfsByNode = TreeMultimap.create();
+    for (SortedMap<String, SortedMap<String, GenericRib<T>>> ribs :
+        ImmutableList.of(ribsInBase, ribsInRef)) {
+      ribs.forEach(
+          (node, vrfMap) -> {
+            if (matchingNodes.contains(node)) {
+              vrfMap.keySet().stream()
+                  .filter(vrfName -> compiledVrfRegex.matcher(vrfName).matches())
+                  .forEach(vrfName -> vrfsByNode.put(node, vrfName));
+            }
+          });
+    }
+    return getRoutesDiffRows(
+        vrfsByNode,
+        (node, vrfName) ->
+            groupRibRoutes(
+                ribsInBase.getOrDefault(node, ImmutableSortedMap.of()).get(vrfName),
+                network,
+                protocolSpec,
+                ipOwners),
+        (node, vrfName) ->
+            groupRibRoutes(
+                ribsInRef.getOrDefault(node, ImmutableSortedMap.of()).get(vrfName),
+                network,
+                protocolSpec,
+                ipOwners),
+        RoutesAnswererUtil::getAbstractRouteRowsDiff);
+  }
+
+  /**
+   * Computes the rows of the differential answer for the BGP routes of two snapshots. Equivalent to
+   * {@link #getBgpRouteRowsDiff} of the {@link #getRoutesDiff} of the {@link #groupBgpRoutes} of
+   * each snapshot, without grouping all the routes of a snapshot at once.
+   *
+   * @param bgpBestRoutesInBase {@link Table} of best BGP routes in the base snapshot, or {@code
+   *     null} if not reported
+   * @param bgpBackupRoutesInBase {@link Table} of backup BGP routes in the base snapshot, or {@code
+   *     null} if not reported
+   * @param bgpBestRoutesInRef {@link Table} of best BGP routes in the reference snapshot, or {@code
+   *     null} if not reported
+   * @param bgpBackupRoutesInRef {@link Table} of backup BGP routes in the reference snapshot, or
+   *     {@code null} if not reported
+   * @param matchingNodes {@link Set} of nodes to be matched
+   * @param vrfRegex Regex to filter the VRF
+   * @param network {@link Prefix}
+   * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
+   * @return {@link Multiset} of {@link Row}s
+   */
+  static Multiset<Row> getBgpRoutesDiff(
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBestRoutesInBase,
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBackupRoutesInBase,
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBestRoutesInRef,
+      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBackupRoutesInRef,
+      Set<String> matchingNodes,
+      String vrfRegex,
+      @Nullable Prefix network,
+      RoutingProtocolSpecifier protocolSpec) {
+    Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatusInBase =
+        getBgpRoutesByStatus(bgpBestRoutesInBase, bgpBackupRoutesInBase);
+    Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatusInRef =
+        getBgpRoutesByStatus(bgpBestRoutesInRef, bgpBackupRoutesInRef);
+    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
+    SetMultimap<String, String> vrfsByNode = TreeMultimap.create();
+    for (String node : matchingNodes) {
+      Stream.concat(routesByStatusInBase.values().stream(), routesByStatusInRef.values().stream())
+          .flatMap(statusRoutes -> statusRoutes.row(node).keySet().stream())
+          .filter(vrfName -> compiledVrfRegex.matcher(vrfName).matches())
+          .forEach(vrfName -> vrfsByNode.put(node, vrfName));
+    }
+    return getRoutesDiffRows(
+        vrfsByNode,
+        (node, vrfName) ->
+            groupBgpRoutes(node, vrfName, routesByStatusInBase, network, protocolSpec),
+        (node, vrfName) ->
+            groupBgpRoutes(node, vrfName, routesByStatusInRef, network, protocolSpec),
+        diffRoutesList -> getBgpRouteRowsDiff(diffRoutesList, RibProtocol.BGP));
+  }
+
+  /**
+   * Computes the rows of a differential answer one VRF at a time, in parallel. The routes of each
+   * VRF in both snapshots are grouped by network in ascending order and merged, so that only the
+   * routes of the VRFs being processed are grouped at any time.
+   *
+   * @param vrfsByNode VRFs to be compared, grouped by node
+   * @param groupRoutesInBase groups the routes of a node and VRF in the base snapshot by network
+   * @param groupRoutesInRef groups the routes of a node and VRF in the reference snapshot by
+   *     network
+   * @param toRows converts the diff of a VRF to {@link Row}s
+   * @return {@link Multiset} of {@link Row}s
+   */
+  private static Multiset<Row> getRoutesDiffRows(
+      SetMultimap<String, String> vrfsByNode,
+      BiFunction<
+              String,
+              String,
+              SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>>
+          groupRoutesInBase,
+      BiFunction<
+              String,
+              String,
+              SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>>
+          groupRoutesInRef,
+      Function<List<DiffRoutesOutput>, Multiset<Row>> toRows) {
+    return ImmutableList.copyOf(vrfsByNode.entries()).parallelStream()
+        .map(
+            nodeVrf ->
+                toRows.apply(
+                    mergeRoutesDiff(
+                        nodeVrf.getKey(),
+                        nodeVrf.getValue(),
+                        groupRoutesInBase.apply(nodeVrf.getKey(), nodeVrf.getValue()),
+                        groupRoutesInRef.apply(nodeVrf.getKey(), nodeVrf.getValue()))))
+        .collect(HashMultiset::create, Multiset::addAll, Multiset::addAll);
+  }
+
+  /**
+   * Produces the diff of the routes of a single VRF, like {@link #getRoutesDiff(Map, Map)}, by
+   * merging the routes of both snapshots in ascending order of network.
+   *
+   * @param hostname name of the node
+   * @param vrfName name of the VRF
+   * @param routesInBase {@link SortedMap} from network to {@link Map} of {@link
+   *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s in the base
+   *     snapshot
+   * @param routesInRef {@link SortedMap} from network to {@link Map} of {@link
+   *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s in the ref
+   *     snapshot
+   * @return {@link List} of {@link DiffRoutesOutput}
+   */
+  @VisibleForTesting
+  static List<DiffRoutesOutput> mergeRoutesDiff(
+      String hostname,
+      String vrfName,
+      SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesInBase,
+      SortedMap<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesInRef) {
+    PeekingIterator<Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>> base =
+        Iterators.peekingIterator(routesInBase.entrySet().iterator());
+    PeekingIterator<Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>> ref =
+        Iterators.peekingIterator(routesInRef.entrySet().iterator());
+    List<DiffRoutesOutput> listDiffs = new ArrayList<>();
+    while (base.hasNext() || ref.hasNext()) {
+      int cmp =
+          !ref.hasNext()
+              ? -1
+              : !base.hasNext() ? 1 : base.peek().getKey().compareTo(ref.peek().getKey());
+      if (cmp < 0) {
+        Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> baseEntry =
+            base.next();
+        listDiffs.addAll(
+            getOneSidedDiff(
+                new RouteRowKey(hostname, vrfName, baseEntry.getKey()),
+                baseEntry.getValue(),
+                true));
+      } else if (cmp > 0) {
+        Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> refEntry =
+            ref.next();
+        listDiffs.addAll(
+            getOneSidedDiff(
+                new RouteRowKey(hostname, vrfName, refEntry.getKey()), refEntry.getValue(), false));
+      } else {
+        Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> baseEntry =
+            base.next();
+        Entry<Prefix, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> refEntry =
+            ref.next();
+        // the network is present in both snapshots, and only differing values produce a diff
+        if (!baseEntry.getValue().equals(refEntry.getValue())) {
+          listDiffs.addAll(
+              getDiffPerKey(
+                  new RouteRowKey(hostname, vrfName, baseEntry.getKey()),
+                  baseEntry.getValue(),
+                  refEntry.getValue()));
+        }
       }
     }
     return listDiffs;
@@ -1,13 +1,17 @@
 package org.batfish.question.specifiers;
 
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
+import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.answers.AnswerElement;
-import org.batfish.datamodel.flow.TraceWrapperAsAnswerElement;
+import org.batfish.datamodel.questions.InvalidReachabilityParametersException;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.question.ReachabilityParameters;
 import org.batfish.question.traceroute.TracerouteAnswerer;
 
 /** Produces a {@link TableAnswerElement} for a {@link SpecifiersReachabilityQuestion} */
@@ -20,16 +24,24 @@ public final class SpecifiersReachabilityAnswerer extends Answerer {
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     SpecifiersReachabilityQuestion question = (SpecifiersReachabilityQuestion) _question;
-    AnswerElement answer = _batfish.standard(snapshot, question.getReachabilityParameters());
-    if (answer instanceof TraceWrapperAsAnswerElement) {
-      TableAnswerElement tableAnswer = new TableAnswerElement(TracerouteAnswerer.metadata(false));
-      TracerouteAnswerer.flowTracesToRows(
-              ((TraceWrapperAsAnswerElement) answer).getFlowTraces(), question.getMaxTraces())
-          .forEach(tableAnswer::addRow);
-      return tableAnswer;
-    } else {
-      return answer;
+    ReachabilityParameters parameters = question.getReachabilityParameters();
+    Set<Flow> flows;
+    try {
+      flows = _batfish.bddReachabilityFlows(snapshot, parameters);
+    } catch (InvalidReachabilityParametersException e) {
+      return e.getInvalidParametersAnswer();
     }
+    TableAnswerElement tableAnswer = new TableAnswerElement(TracerouteAnswerer.metadata(false));
+    // Rows are added as traces are computed, so the traces of all flows are never held at once.
+    _batfish
+        .getTracerouteEngine(snapshot)
+        .streamTraces(
+            ImmutableSortedSet.copyOf(flows),
+            parameters.getIgnoreFilters(),
+            (flow, traces) ->
+                tableAnswer.addRow(
+                    TracerouteAnswerer.flowTracesToRow(flow, traces, question.getMaxTraces())));
+    return tableAnswer;
   }
 
   private static final String[] DIFFERENTIAL_ALTERNATIVES =
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import java.util.List;
@@ -54,11 +55,21 @@ public final class TracerouteAnswerer extends Answerer {
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     TracerouteQuestion q = (TracerouteQuestion) _question;
-    SortedMap<Flow, List<Trace>> flowTraces = getTraces(snapshot, q);
-    Multiset<Row> rows = flowTracesToRows(flowTraces, q.getMaxTraces());
-
+    TracerouteAnswererHelper helper =
+        new TracerouteAnswererHelper(
+            q.getHeaderConstraints(),
+            q.getSourceLocationStr(),
+            _batfish.specifierContext(snapshot));
     TableAnswerElement table = new TableAnswerElement(metadata(false));
-    table.postProcessAnswer(_question, rows);
+    // Rows are added as traces are computed, so the traces of all flows are never held at once.
+    _batfish
+        .getTracerouteEngine(snapshot)
+        .streamTraces(
+            ImmutableSortedSet.copyOf(helper.getFlows()),
+            q.getIgnoreFilters(),
+            (flow, traces) ->
+                table.postProcessRow(_question, flowTracesToRow(flow, traces, q.getMaxTraces())));
+    table.postProcessAnswer(_question, ImmutableList.of());
     return table;
   }
 
@@ -126,20 +137,22 @@ public final class TracerouteAnswerer extends Answerer {
       SortedMap<Flow, List<Trace>> flowTraces, int maxTraces) {
     Multiset<Row> rows = LinkedHashMultiset.create();
     for (Map.Entry<Flow, List<Trace>> flowTrace : flowTraces.entrySet()) {
-      List<Trace> traces = flowTrace.getValue();
-      List<Trace> prunedTraces = TracePruner.prune(traces, maxTraces);
-      rows.add(
-          Row.of(
-              COL_FLOW,
-              flowTrace.getKey(),
-              COL_TRACES,
-              prunedTraces,
-              COL_TRACE_COUNT,
-              traces.size()));
+      rows.add(flowTracesToRow(flowTrace.getKey(), flowTrace.getValue(), maxTraces));
     }
     return rows;
   }
 
+  /** Creates the row for a flow and its traces, keeping at most {@code maxTraces} traces. */
+  public static Row flowTracesToRow(Flow flow, List<Trace> traces, int maxTraces) {
+    return Row.of(
+        COL_FLOW,
+        flow,
+        COL_TRACES,
+        TracePruner.prune(traces, maxTraces),
+        COL_TRACE_COUNT,
+        traces.size());
+  }
+
   public static Multiset<Row> diffFlowTracesToRows(
       Map<Flow, List<Trace>> baseFlowTraces,
       Map<Flow, List<Trace>> deltaFlowTraces,
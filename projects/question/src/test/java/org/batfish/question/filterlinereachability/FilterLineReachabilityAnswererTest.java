@@ -5,11 +5,17 @@ import static org.batfish.datamodel.ExprAclLine.rejecting;
 import static org.batfish.datamodel.ExprAclLine.rejectingHeaderSpace;
 import static org.batfish.datamodel.LineAction.DENY;
 import static org.batfish.datamodel.LineAction.PERMIT;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityAnswerer.getSpecifiedFilters;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.findBlockingPropsForLine;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -32,6 +38,7 @@ import org.batfish.common.bdd.PermitAndDenyBdds;
 import org.batfish.common.util.CollectionUtil;
 import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.ExprAclLine;
@@ -56,6 +63,7 @@ import org.batfish.datamodel.acl.OrMatchExpr;
 import org.batfish.datamodel.acl.PermittedByAcl;
 import org.batfish.datamodel.acl.TrueExpr;
 import org.batfish.datamodel.answers.AclSpecs;
+import org.batfish.question.filterlinereachability.FilterLineReachabilityAnswerer.BddPacketPool;
 import org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.BlockingProperties;
 import org.batfish.specifier.MockSpecifierContext;
 import org.batfish.specifier.SpecifierContext;
@@ -133,6 +141,133 @@ public class FilterLineReachabilityAnswererTest {
     assertThat(aclSpecs, hasSize(1));
   }
 
+  @Test
+  public void testComputeUnreachableFilterLinesForManyAcls() {
+    assertManyAclsUnreachableLines(false);
+  }
+
+  @Test
+  public void testComputeUnreachableFilterLinesForManyAclsConcurrentBddFactory() {
+    assertManyAclsUnreachableLines(true);
+  }
+
+  @Test
+  public void testBddPacketPool() {
+    BddPacketPool pool = new BddPacketPool(2);
+    BDDPacket first = pool.acquire();
+    BDDPacket second = pool.acquire();
+    assertThat(second, not(sameInstance(first)));
+    assertThat(
+        first.getFactory().getNodeTableSize(),
+        lessThan(new BDDPacket().getFactory().getNodeTableSize()));
+
+    // released packets are reused, and no more than the bound are created
+    pool.release(first);
+    assertThat(pool.acquire(), sameInstance(first));
+    pool.release(second);
+    pool.release(first);
+    pool.acquire();
+    pool.acquire();
+    assertThat(pool.getCreated(), equalTo(2));
+  }
+
+  @Test
+  public void testComputeUnreachableFilterLinesForNoAcls() {
+    assertThat(
+        FilterLineReachabilityAnswerer.computeUnreachableFilterLines(ImmutableList.of(), false)
+            .collect(Collectors.toList()),
+        hasSize(0));
+  }
+
+  private void assertManyAclsUnreachableLines(boolean concurrentBddFactory) {
+    // Each ACL has a distinct unreachable line, and c2 has a copy of each ACL of c1
+    int numAcls = 20;
+    for (int i = 0; i < numAcls; i++) {
+      List<AclLine> lines =
+          ImmutableList.of(
+              acceptingHeaderSpace(
+                  HeaderSpace.builder().setSrcIps(Prefix.parse("1.0.0.0/8").toIpSpace()).build()),
+              acceptingHeaderSpace(
+                  HeaderSpace.builder()
+                      .setSrcIps(Prefix.parse(String.format("1.%d.0.0/16", i)).toIpSpace())
+                      .build()));
+      _aclb.setLines(lines).setName("acl" + i).build();
+      _aclb2.setLines(lines).setName("acl" + i).build();
+    }
+    _c2.setInterfaces(_c1.getAllInterfaces());
+
+    List<AclSpecs> aclSpecs = getAclSpecs(ImmutableSet.of("c1", "c2"));
+    assertThat(aclSpecs, hasSize(numAcls));
+
+    List<UnreachableFilterLine> unreachableLines =
+        FilterLineReachabilityAnswerer.computeUnreachableFilterLines(aclSpecs, concurrentBddFactory)
+            .collect(Collectors.toList());
+    assertThat(
+        unreachableLines.stream()
+            .map(UnreachableFilterLine::getAclSpecs)
+            .collect(Collectors.toList()),
+        equalTo(aclSpecs));
+    for (UnreachableFilterLine line : unreachableLines) {
+      assertThat(line.getLineNumber(), equalTo(1));
+      assertThat(line.getAclSpecs().sources.keySet(), containsInAnyOrder("c1", "c2"));
+    }
+  }
+
+  @Test
+  public void testComputeUnreachableFilterLinesForManyAclsWithInterfacesConcurrentBddFactory() {
+    // Each ACL references a different number of interfaces. Line 1 is blocked by line 0, and line 2
+    // matches other interfaces, so it is reachable.
+    int numIfaces = 8;
+    ImmutableSortedMap.Builder<String, Interface> ifaces = ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i < numIfaces; i++) {
+      String name = "iface" + i;
+      ifaces.put(name, Interface.builder().setName(name).build());
+    }
+    _c1.setInterfaces(ifaces.build());
+    int numAcls = 20;
+    for (int i = 0; i < numAcls; i++) {
+      int aclIdx = i;
+      String iface = "iface" + (i % numIfaces);
+      List<String> otherIfaces =
+          IntStream.rangeClosed(1, 1 + i % (numIfaces - 1))
+              .mapToObj(j -> "iface" + ((aclIdx + j) % numIfaces))
+              .collect(Collectors.toList());
+      _aclb
+          .setLines(
+              ImmutableList.of(
+                  ExprAclLine.accepting(new MatchSrcInterface(ImmutableList.of(iface))),
+                  ExprAclLine.accepting(
+                      new AndMatchExpr(
+                          ImmutableList.of(
+                              new MatchSrcInterface(ImmutableList.of(iface)),
+                              matchSrc(Prefix.parse("1.0.0.0/8"))))),
+                  ExprAclLine.accepting(
+                      new AndMatchExpr(
+                          ImmutableList.of(
+                              new MatchSrcInterface(otherIfaces),
+                              matchSrc(Prefix.parse(String.format("2.%d.0.0/16", i))))))))
+          .setName("acl" + i)
+          .build();
+    }
+
+    List<AclSpecs> aclSpecs = getAclSpecs(ImmutableSet.of("c1"));
+    assertThat(aclSpecs, hasSize(numAcls));
+    assertTrue(aclSpecs.stream().allMatch(aclSpec -> !aclSpec.acl.getInterfaces().isEmpty()));
+
+    List<UnreachableFilterLine> unreachableLines =
+        FilterLineReachabilityAnswerer.computeUnreachableFilterLines(aclSpecs, true)
+            .collect(Collectors.toList());
+    assertThat(
+        unreachableLines.stream()
+            .map(UnreachableFilterLine::getAclSpecs)
+            .collect(Collectors.toList()),
+        equalTo(aclSpecs));
+    for (UnreachableFilterLine line : unreachableLines) {
+      assertThat(line.getLineNumber(), equalTo(1));
+      assertThat(line, instanceOf(BlockedFilterLine.class));
+    }
+  }
+
   @Test
   public void testIgnoreTraceElements() {
     // acl1 and acl2 are identical up to trace elements; should result in a single AclSpec
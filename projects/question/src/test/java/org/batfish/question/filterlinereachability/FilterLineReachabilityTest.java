@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.stream.Collectors;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.common.plugin.IBatfishTestAdapter;
@@ -496,6 +498,11 @@ public class FilterLineReachabilityTest {
           public Map<Location, LocationInfo> getLocationInfo(NetworkSnapshot networkSnapshot) {
             return ImmutableMap.of();
           }
+
+          @Override
+          public ImmutableConfiguration getSettingsConfiguration() {
+            return new BaseConfiguration();
+          }
         };
     FilterLineReachabilityAnswerer answerer = new FilterLineReachabilityAnswerer(q, batfish);
     return answerer.answer(batfish.getSnapshot());
@@ -27,14 +27,17 @@ import static org.batfish.question.routes.RoutesAnswererUtil.computeNextHopNode;
 import static org.batfish.question.routes.RoutesAnswererUtil.getAbstractRouteRowsDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRibRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRouteRowsDiff;
+import static org.batfish.question.routes.RoutesAnswererUtil.getBgpRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.getEvpnRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutes;
+import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMatchingPrefixRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMatchingRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.getRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupBgpRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.longestMatchingPrefix;
+import static org.batfish.question.routes.RoutesAnswererUtil.mergeRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.populateRouteAttributes;
 import static org.batfish.question.routes.RoutesAnswererUtil.prefixMatches;
 import static org.hamcrest.Matchers.allOf;
@@ -84,6 +87,7 @@ import org.batfish.datamodel.OriginType;
 import org.batfish.datamodel.OspfExternalType2Route;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.bgp.RouteDistinguisher;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
@@ -904,6 +908,161 @@ public class RoutesAnswererUtilTest {
                 KeyPresenceStatus.ONLY_IN_REFERENCE)));
   }
 
+  private static StaticRoute staticRoute(String network, int admin) {
+    return StaticRoute.testBuilder()
+        .setNetwork(Prefix.parse(network))
+        .setNextHop(NextHopIp.of(Ip.parse("10.0.0.1")))
+        .setAdministrativeCost(admin)
+        .build();
+  }
+
+  @Test
+  public void testMergeRoutesDiff() {
+    RouteRowSecondaryKey rrsk = new RouteRowSecondaryKey(Ip.parse("1.1.1.1"), "static");
+    RouteRowAttribute rra1 = RouteRowAttribute.builder().setAdminDistance(1).build();
+    RouteRowAttribute rra2 = RouteRowAttribute.builder().setAdminDistance(2).build();
+    Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>> group1 =
+        ImmutableMap.of(rrsk, ImmutableSortedSet.of(rra1));
+    Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>> group2 =
+        ImmutableMap.of(rrsk, ImmutableSortedSet.of(rra2));
+    Prefix p1 = Prefix.parse("1.0.0.0/8");
+    Prefix p2 = Prefix.parse("2.0.0.0/8");
+    Prefix p3 = Prefix.parse("3.0.0.0/8");
+    Prefix p4 = Prefix.parse("4.0.0.0/8");
+
+    List<DiffRoutesOutput> diffRoutesOutputs =
+        mergeRoutesDiff(
+            "node",
+            "vrf",
+            ImmutableSortedMap.of(p1, group1, p2, group1, p4, group1),
+            ImmutableSortedMap.of(p1, group1, p2, group2, p3, group2));
+
+    // the unchanged network p1 produces no diff
+    assertThat(
+        diffRoutesOutputs,
+        contains(
+            new DiffRoutesOutput(
+                new RouteRowKey("node", "vrf", p2),
+                rrsk,
+                KeyPresenceStatus.IN_BOTH,
+                ImmutableList.of(ImmutableList.of(rra1, rra2)),
+                KeyPresenceStatus.IN_BOTH),
+            new DiffRoutesOutput(
+                new RouteRowKey("node", "vrf", p3),
+                rrsk,
+                KeyPresenceStatus.ONLY_IN_REFERENCE,
+                ImmutableList.of(Lists.newArrayList(null, rra2)),
+                KeyPresenceStatus.ONLY_IN_REFERENCE),
+            new DiffRoutesOutput(
+                new RouteRowKey("node", "vrf", p4),
+                rrsk,
+                KeyPresenceStatus.ONLY_IN_SNAPSHOT,
+                ImmutableList.of(Lists.newArrayList(rra1, null)),
+                KeyPresenceStatus.ONLY_IN_SNAPSHOT)));
+  }
+
+  @Test
+  public void testGetMainRibRoutesDiff() {
+    SortedMap<String, SortedMap<String, GenericRib<StaticRoute>>> ribsInBase =
+        ImmutableSortedMap.of(
+            "n1",
+            ImmutableSortedMap.of(
+                Configuration.DEFAULT_VRF_NAME,
+                new MockRib<>(
+                    ImmutableSet.of(
+                        staticRoute("1.0.0.0/8", 1),
+                        staticRoute("2.0.0.0/8", 1),
+                        staticRoute("3.0.0.0/8", 1))),
+                "vrf2",
+                new MockRib<>(ImmutableSet.of(staticRoute("1.0.0.0/8", 1)))),
+            "n3",
+            ImmutableSortedMap.of(
+                Configuration.DEFAULT_VRF_NAME,
+                new MockRib<>(ImmutableSet.of(staticRoute("1.0.0.0/8", 1)))));
+    SortedMap<String, SortedMap<String, GenericRib<StaticRoute>>> ribsInRef =
+        ImmutableSortedMap.of(
+            "n1",
+            ImmutableSortedMap.of(
+                Configuration.DEFAULT_VRF_NAME,
+                new MockRib<>(
+                    ImmutableSet.of(
+                        staticRoute("1.0.0.0/8", 1),
+                        staticRoute("2.0.0.0/8", 5),
+                        staticRoute("4.0.0.0/8", 1)))),
+            "n2",
+            ImmutableSortedMap.of(
+                Configuration.DEFAULT_VRF_NAME,
+                new MockRib<>(ImmutableSet.of(staticRoute("1.0.0.0/8", 1)))));
+    Set<String> matchingNodes = ImmutableSet.of("n1", "n2");
+    RoutingProtocolSpecifier protocolSpec = RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER;
+
+    Multiset<Row> rows =
+        getMainRibRoutesDiff(ribsInBase, ribsInRef, matchingNodes, null, ".*", protocolSpec, null);
+
+    // changed 2.0.0.0/8, 3.0.0.0/8 and 4.0.0.0/8 on n1, all of vrf2 on n1, and all of n2
+    assertThat(rows, hasSize(5));
+    assertThat(
+        rows,
+        equalTo(
+            getAbstractRouteRowsDiff(
+                getRoutesDiff(
+                    groupRoutes(ribsInBase, matchingNodes, null, ".*", protocolSpec, null),
+                    groupRoutes(ribsInRef, matchingNodes, null, ".*", protocolSpec, null)))));
+  }
+
+  @Test
+  public void testGetBgpRoutesDiff() {
+    Bgpv4Route.Builder builder =
+        Bgpv4Route.testBuilder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopIp(Ip.parse("1.1.1.2"))
+            .setOriginType(OriginType.IGP)
+            .setOriginatorIp(Ip.parse("1.1.1.2"))
+            .setProtocol(RoutingProtocol.BGP)
+            .setLocalPreference(1L);
+    Bgpv4Route route1 = builder.build();
+    Bgpv4Route route2 = builder.setNetwork(Prefix.parse("2.2.2.0/24")).build();
+    Bgpv4Route route2Backup = builder.setNextHopIp(Ip.parse("1.1.1.3")).build();
+    Bgpv4Route route2Changed =
+        builder.setNextHopIp(Ip.parse("1.1.1.2")).setLocalPreference(2L).build();
+
+    Table<String, String, Set<Bgpv4Route>> bestInBase = HashBasedTable.create();
+    bestInBase.put("node", Configuration.DEFAULT_VRF_NAME, ImmutableSet.of(route1, route2));
+    bestInBase.put("node", "vrf2", ImmutableSet.of(route1));
+    Table<String, String, Set<Bgpv4Route>> backupInBase = HashBasedTable.create();
+    backupInBase.put("node", Configuration.DEFAULT_VRF_NAME, ImmutableSet.of(route2Backup));
+    Table<String, String, Set<Bgpv4Route>> bestInRef = HashBasedTable.create();
+    bestInRef.put("node", Configuration.DEFAULT_VRF_NAME, ImmutableSet.of(route1, route2Changed));
+    Table<String, String, Set<Bgpv4Route>> backupInRef = HashBasedTable.create();
+    backupInRef.put("node", "vrf3", ImmutableSet.of(route2Backup));
+    Set<String> matchingNodes = ImmutableSet.of("node");
+    RoutingProtocolSpecifier protocolSpec = RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER;
+
+    Multiset<Row> rows =
+        getBgpRoutesDiff(
+            bestInBase,
+            backupInBase,
+            bestInRef,
+            backupInRef,
+            matchingNodes,
+            ".*",
+            null,
+            protocolSpec);
+
+    // changed and removed backup for 2.2.2.0/24, and all of vrf2 and vrf3
+    assertThat(rows, hasSize(4));
+    assertThat(
+        rows,
+        equalTo(
+            getBgpRouteRowsDiff(
+                getRoutesDiff(
+                    groupBgpRoutes(
+                        bestInBase, backupInBase, matchingNodes, ".*", null, protocolSpec),
+                    groupBgpRoutes(
+                        bestInRef, backupInRef, matchingNodes, ".*", null, protocolSpec)),
+                RibProtocol.BGP)));
+  }
+
   @Test
   public void testAbstractRoutesRowDiff() {
     RouteRowAttribute.Builder routeRowAttrBuilder =